@@ -6,29 +6,41 @@
 
 package com.microsoft.azure.spring.cloud.autoconfigure.eventhub;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.eventhubs.EventHubClient;
 import com.microsoft.azure.management.eventhub.EventHubNamespace;
 import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoConfiguration;
+import com.microsoft.azure.spring.cloud.autoconfigure.metrics.MessagingMetricsSupport;
 import com.microsoft.azure.spring.cloud.autoconfigure.telemetry.TelemetryCollector;
 import com.microsoft.azure.spring.cloud.context.core.api.EnvironmentProvider;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.cloud.context.core.storage.StorageConnectionStringProvider;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
+import com.microsoft.azure.spring.integration.eventhub.api.CheckpointStore;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
 import com.microsoft.azure.spring.integration.eventhub.factory.DefaultEventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.factory.EventHubConnectionStringProvider;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
+import com.microsoft.azure.spring.integration.eventhub.metrics.PartitionLagTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 import javax.annotation.PostConstruct;
+import java.util.Optional;
 
 /**
  * An auto-configuration for Event Hub, which provides {@link EventHubOperation}
@@ -36,17 +48,31 @@ import javax.annotation.PostConstruct;
  * @author Warren Zhu
  */
 @Configuration
-@AutoConfigureAfter(AzureContextAutoConfiguration.class)
+@AutoConfigureAfter(value = AzureContextAutoConfiguration.class,
+        name = "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration")
 @ConditionalOnClass(EventHubClient.class)
 @ConditionalOnProperty(value = "spring.cloud.azure.eventhub.enabled", matchIfMissing = true)
 @EnableConfigurationProperties(AzureEventHubProperties.class)
 public class AzureEventHubAutoConfiguration {
     private static final String EVENT_HUB = "EventHub";
     private static final String NAMESPACE = "Namespace";
+    private static final String EVENT_HUB_METRICS = "eventhub";
 
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired(required = false)
+    private CheckpointStore checkpointStore;
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private AzureHeaderMapper headerMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(EVENT_HUB);
@@ -54,8 +80,31 @@ public class AzureEventHubAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public EventHubOperation eventHubOperation(EventHubClientFactory clientFactory) {
-        return new EventHubTemplate(clientFactory);
+    public EventHubOperation eventHubOperation(EventHubClientFactory clientFactory,
+            AzureEventHubProperties eventHubProperties) {
+        EventHubTemplate eventHubTemplate = new EventHubTemplate(clientFactory);
+
+        if (eventHubProperties.isMetricsEnabled()) {
+            eventHubTemplate.setMessagingMetrics(
+                    MessagingMetricsSupport.messagingMetrics(beanFactory, EVENT_HUB_METRICS));
+
+            if (MessagingMetricsSupport.isMicrometerPresent()) {
+                PartitionLagTrackers.create(beanFactory).ifPresent(eventHubTemplate::setPartitionLagTracker);
+            }
+        }
+
+        if (objectMapper != null || headerMapper != null) {
+            EventHubMessageConverter messageConverter = objectMapper == null ? new EventHubMessageConverter() :
+                    new EventHubMessageConverter(objectMapper);
+
+            if (headerMapper != null) {
+                messageConverter.setHeaderMapper(headerMapper);
+            }
+
+            eventHubTemplate.setMessageConverter(messageConverter);
+        }
+
+        return eventHubTemplate;
     }
 
     @Bean
@@ -78,6 +127,27 @@ public class AzureEventHubAutoConfiguration {
     @ConditionalOnMissingBean
     public EventHubClientFactory clientFactory(EventHubConnectionStringProvider connectionStringProvider,
             AzureEventHubProperties eventHubProperties, EnvironmentProvider environmentProvider) {
+        DefaultEventHubClientFactory clientFactory =
+                createClientFactory(connectionStringProvider, eventHubProperties, environmentProvider);
+
+        if (eventHubProperties.isMetricsEnabled()) {
+            clientFactory.setMessagingMetrics(MessagingMetricsSupport.messagingMetrics(beanFactory, EVENT_HUB_METRICS));
+        }
+
+        return clientFactory;
+    }
+
+    private DefaultEventHubClientFactory createClientFactory(EventHubConnectionStringProvider connectionStringProvider,
+            AzureEventHubProperties eventHubProperties, EnvironmentProvider environmentProvider) {
+        if (checkpointStore != null) {
+            if (eventHubProperties.getClientSchedulerPoolSize() != null) {
+                return new DefaultEventHubClientFactory(connectionStringProvider, checkpointStore,
+                        eventHubProperties.getClientSchedulerPoolSize());
+            }
+
+            return new DefaultEventHubClientFactory(connectionStringProvider, checkpointStore);
+        }
+
         String checkpointConnectionString;
         if (resourceManagerProvider != null) {
             StorageAccount checkpointStorageAccount = resourceManagerProvider.getStorageAccountManager().getOrCreate(
@@ -90,6 +160,37 @@ public class AzureEventHubAutoConfiguration {
                             eventHubProperties.getCheckpointAccessKey(), environmentProvider.getEnvironment());
         }
 
+        if (eventHubProperties.getClientSchedulerPoolSize() != null) {
+            return new DefaultEventHubClientFactory(connectionStringProvider, checkpointConnectionString,
+                    eventHubProperties.getClientSchedulerPoolSize());
+        }
+
         return new DefaultEventHubClientFactory(connectionStringProvider, checkpointConnectionString);
     }
+
+    /**
+     * Only loaded when 'spring.cloud.azure.eventhub.checkpoint-store' is redis and Spring Data Redis is available
+     */
+    @Configuration
+    @ConditionalOnClass(StringRedisTemplate.class)
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    @ConditionalOnProperty(value = "spring.cloud.azure.eventhub.checkpoint-store", havingValue = "redis")
+    static class RedisCheckpointStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public CheckpointStore redisCheckpointStore(RedisConnectionFactory redisConnectionFactory) {
+            return new RedisCheckpointStore(new StringRedisTemplate(redisConnectionFactory));
+        }
+    }
+
+    /**
+     * Only loaded when Micrometer is on classpath
+     */
+    private static class PartitionLagTrackers {
+        static Optional<PartitionLagTracker> create(BeanFactory beanFactory) {
+            return Optional.ofNullable(beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique())
+                           .map(PartitionLagTracker::new);
+        }
+    }
 }
@@ -30,6 +30,22 @@ public class AzureEventHubProperties {
 
     private String checkpointAccessKey;
 
+    /**
+     * Where to keep checkpoints and partition leases. Set to redis to use the Redis connection of the application
+     * instead of checkpoint storage account. Default is checkpoint storage account
+     */
+    private String checkpointStore;
+
+    /**
+     * Thread count of the scheduler shared by all event hub clients. Default is max of 4 and processor count
+     */
+    private Integer clientSchedulerPoolSize;
+
+    /**
+     * Whether to record send, consume and checkpoint metrics when a MeterRegistry is available. Default is true
+     */
+    private boolean metricsEnabled = true;
+
     public String getNamespace() {
         return namespace;
     }
@@ -62,6 +78,30 @@ public class AzureEventHubProperties {
         this.checkpointAccessKey = checkpointAccessKey;
     }
 
+    public String getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    public void setCheckpointStore(String checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
+    public Integer getClientSchedulerPoolSize() {
+        return clientSchedulerPoolSize;
+    }
+
+    public void setClientSchedulerPoolSize(Integer clientSchedulerPoolSize) {
+        this.clientSchedulerPoolSize = clientSchedulerPoolSize;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
     @PostConstruct
     public void validate() {
         if (!StringUtils.hasText(namespace) && !StringUtils.hasText(connectionString)) {
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.cloud.autoconfigure.eventhub;
+
+import com.microsoft.azure.eventprocessorhost.BaseLease;
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+import com.microsoft.azure.eventprocessorhost.CompleteLease;
+import com.microsoft.azure.eventprocessorhost.ICheckpointManager;
+import com.microsoft.azure.eventprocessorhost.ILeaseManager;
+import com.microsoft.azure.spring.integration.eventhub.api.CheckpointStore;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keep checkpoints and partition leases in Redis, so that event processor hosts on different nodes share them.
+ * Each event hub and consumer group has one hash of checkpoints, one set of partition ids and one hash per
+ * partition lease. Lease ownership is checked and changed atomically with Lua scripts.
+ *
+ * @author Warren Zhu
+ */
+public class RedisCheckpointStore implements CheckpointStore {
+    private static final Duration DEFAULT_LEASE_DURATION = Duration.ofSeconds(30);
+    private static final String DEFAULT_KEY_PREFIX = "spring-cloud-azure:eventhub";
+    private static final String SEPARATOR = ":";
+    private static final String OWNER = "owner";
+    private static final String EPOCH = "epoch";
+    private static final String EXPIRE_AT = "expireAt";
+    private static final long NOT_OWNED = -1L;
+
+    private static final String OWNED_CHECK = "local owner = redis.call('HGET', KEYS[1], 'owner') " +
+            "local expireAt = tonumber(redis.call('HGET', KEYS[1], 'expireAt') or '0') " +
+            "if owner ~= ARGV[1] or expireAt <= tonumber(ARGV[2]) then return -1 end ";
+
+    // KEYS: lease; ARGV: owner, expireAt
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], 'owner', ARGV[1]) " +
+                    "redis.call('HSET', KEYS[1], 'expireAt', ARGV[2]) " +
+                    "return redis.call('HINCRBY', KEYS[1], 'epoch', 1)", Long.class);
+
+    // KEYS: lease; ARGV: host, now, new owner, new expireAt or empty to keep it
+    private static final RedisScript<Long> IF_OWNED_SCRIPT = new DefaultRedisScript<>(OWNED_CHECK +
+            "redis.call('HSET', KEYS[1], 'owner', ARGV[3]) " +
+            "if ARGV[4] ~= '' then redis.call('HSET', KEYS[1], 'expireAt', ARGV[4]) end " +
+            "return tonumber(redis.call('HGET', KEYS[1], 'epoch') or '0')", Long.class);
+
+    // KEYS: lease, checkpoints; ARGV: host, now, partitionId, checkpoint
+    private static final RedisScript<Long> CHECKPOINT_SCRIPT = new DefaultRedisScript<>(OWNED_CHECK +
+            "redis.call('HSET', KEYS[2], ARGV[3], ARGV[4]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final int leaseDurationInMillis;
+
+    private final String keyPrefix;
+
+    public RedisCheckpointStore(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, DEFAULT_LEASE_DURATION, DEFAULT_KEY_PREFIX);
+    }
+
+    public RedisCheckpointStore(StringRedisTemplate redisTemplate, Duration leaseDuration, String keyPrefix) {
+        Assert.notNull(redisTemplate, "redisTemplate can't be null");
+        Assert.isTrue(leaseDuration != null && !leaseDuration.isNegative() && !leaseDuration.isZero(),
+                "leaseDuration should be positive");
+        Assert.hasText(keyPrefix, "keyPrefix can't be null or empty");
+        this.redisTemplate = redisTemplate;
+        this.leaseDurationInMillis = (int) leaseDuration.toMillis();
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public ICheckpointManager getCheckpointManager(String eventHubName, String consumerGroup, String hostName) {
+        return new RedisCheckpointLeaseManager(eventHubName, consumerGroup, hostName);
+    }
+
+    @Override
+    public ILeaseManager getLeaseManager(String eventHubName, String consumerGroup, String hostName) {
+        return new RedisCheckpointLeaseManager(eventHubName, consumerGroup, hostName);
+    }
+
+    private static <T> CompletableFuture<T> execute(Supplier<T> action) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(action.get());
+        } catch (EventHubRuntimeException e) {
+            future.completeExceptionally(e);
+        } catch (DataAccessException e) {
+            future.completeExceptionally(
+                    new EventHubRuntimeException("Error when accessing redis checkpoint store", e));
+        }
+        return future;
+    }
+
+    private class RedisCheckpointLeaseManager implements ICheckpointManager, ILeaseManager {
+        private final String hostName;
+        private final String prefix;
+        private final String checkpointsKey;
+        private final String partitionsKey;
+
+        RedisCheckpointLeaseManager(String eventHubName, String consumerGroup, String hostName) {
+            this.hostName = hostName;
+            this.prefix = String.join(SEPARATOR, keyPrefix, eventHubName, consumerGroup);
+            this.checkpointsKey = prefix + SEPARATOR + "checkpoints";
+            this.partitionsKey = prefix + SEPARATOR + "partitions";
+        }
+
+        @Override
+        public CompletableFuture<Boolean> checkpointStoreExists() {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public CompletableFuture<Void> createCheckpointStoreIfNotExists() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> deleteCheckpointStore() {
+            return execute(() -> {
+                redisTemplate.delete(checkpointsKey);
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Checkpoint> getCheckpoint(String partitionId) {
+            return execute(() -> {
+                Object value = redisTemplate.opsForHash().get(checkpointsKey, partitionId);
+                return value == null ? null : toCheckpoint(partitionId, value.toString());
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> createAllCheckpointsIfNotExists(List<String> partitionIds) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> updateCheckpoint(CompleteLease lease, Checkpoint checkpoint) {
+            String partitionId = checkpoint.getPartitionId();
+            return execute(() -> {
+                Long owned = redisTemplate.execute(CHECKPOINT_SCRIPT,
+                        Arrays.asList(leaseKey(partitionId), checkpointsKey), hostName,
+                        String.valueOf(System.currentTimeMillis()), partitionId,
+                        checkpoint.getOffset() + SEPARATOR + checkpoint.getSequenceNumber());
+                if (owned == null || owned == NOT_OWNED) {
+                    throw new EventHubRuntimeException(
+                            String.format("Lease of partition %s is lost by host %s", partitionId, hostName));
+                }
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> deleteCheckpoint(String partitionId) {
+            return execute(() -> {
+                redisTemplate.opsForHash().delete(checkpointsKey, partitionId);
+                return null;
+            });
+        }
+
+        @Override
+        public int getLeaseDurationInMilliseconds() {
+            return leaseDurationInMillis;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> leaseStoreExists() {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public CompletableFuture<Void> createLeaseStoreIfNotExists() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> deleteLeaseStore() {
+            return execute(() -> {
+                Set<String> partitionIds = redisTemplate.opsForSet().members(partitionsKey);
+                if (partitionIds != null) {
+                    redisTemplate.delete(partitionIds.stream().map(this::leaseKey).collect(Collectors.toList()));
+                }
+                redisTemplate.delete(partitionsKey);
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<CompleteLease> getLease(String partitionId) {
+            return execute(() -> {
+                Map<Object, Object> entry = redisTemplate.opsForHash().entries(leaseKey(partitionId));
+                return entry.isEmpty() ? null : toLease(partitionId, entry);
+            });
+        }
+
+        @Override
+        public CompletableFuture<List<BaseLease>> getAllLeases() {
+            return execute(() -> {
+                Set<String> partitionIds = redisTemplate.opsForSet().members(partitionsKey);
+                if (partitionIds == null) {
+                    return Collections.<BaseLease>emptyList();
+                }
+                return partitionIds.stream()
+                                   .<BaseLease>map(id -> toLease(id, redisTemplate.opsForHash().entries(leaseKey(id))))
+                                   .collect(Collectors.toList());
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> createAllLeasesIfNotExists(List<String> partitionIds) {
+            return execute(() -> {
+                if (!partitionIds.isEmpty()) {
+                    redisTemplate.opsForSet().add(partitionsKey, partitionIds.toArray(new String[0]));
+                }
+                partitionIds.forEach(id -> redisTemplate.opsForHash().putIfAbsent(leaseKey(id), EPOCH, "0"));
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> deleteLease(CompleteLease lease) {
+            return execute(() -> {
+                redisTemplate.delete(leaseKey(lease.getPartitionId()));
+                redisTemplate.opsForSet().remove(partitionsKey, lease.getPartitionId());
+                return null;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Boolean> acquireLease(CompleteLease lease) {
+            return execute(() -> {
+                Long epoch = redisTemplate.execute(ACQUIRE_SCRIPT, Collections.singletonList(leaseKey(lease
+                        .getPartitionId())), hostName, String.valueOf(newExpireAt()));
+                redisTemplate.opsForSet().add(partitionsKey, lease.getPartitionId());
+                return updateLease(lease, hostName, epoch);
+            });
+        }
+
+        @Override
+        public CompletableFuture<Boolean> renewLease(CompleteLease lease) {
+            return ifOwned(lease, hostName, String.valueOf(newExpireAt()));
+        }
+
+        @Override
+        public CompletableFuture<Void> releaseLease(CompleteLease lease) {
+            return ifOwned(lease, "", "0").thenApply(owned -> null);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> updateLease(CompleteLease lease) {
+            return ifOwned(lease, hostName, "");
+        }
+
+        private CompletableFuture<Boolean> ifOwned(CompleteLease lease, String newOwner, String newExpireAt) {
+            return execute(() -> {
+                Long epoch = redisTemplate.execute(IF_OWNED_SCRIPT,
+                        Collections.singletonList(leaseKey(lease.getPartitionId())), hostName,
+                        String.valueOf(System.currentTimeMillis()), newOwner, newExpireAt);
+                return updateLease(lease, newOwner, epoch);
+            });
+        }
+
+        private boolean updateLease(CompleteLease lease, String owner, Long epoch) {
+            if (epoch == null || epoch == NOT_OWNED) {
+                return false;
+            }
+            lease.setOwner(owner);
+            lease.setEpoch(epoch);
+            return true;
+        }
+
+        private long newExpireAt() {
+            return System.currentTimeMillis() + leaseDurationInMillis;
+        }
+
+        private String leaseKey(String partitionId) {
+            return prefix + SEPARATOR + "lease" + SEPARATOR + partitionId;
+        }
+    }
+
+    private static Checkpoint toCheckpoint(String partitionId, String value) {
+        int index = value.lastIndexOf(SEPARATOR);
+        return new Checkpoint(partitionId, value.substring(0, index), Long.parseLong(value.substring(index + 1)));
+    }
+
+    private static CompleteLease toLease(String partitionId, Map<Object, Object> entry) {
+        String owner = (String) entry.getOrDefault(OWNER, "");
+        long expireAt = Long.parseLong((String) entry.getOrDefault(EXPIRE_AT, "0"));
+        boolean owned = !owner.isEmpty() && System.currentTimeMillis() < expireAt;
+
+        CompleteLease lease = new CompleteLease(partitionId);
+        lease.setOwner(owned ? owner : "");
+        lease.setEpoch(Long.parseLong((String) entry.getOrDefault(EPOCH, "0")));
+        lease.setIsOwned(owned);
+        return lease;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.cloud.autoconfigure.metrics;
+
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import com.microsoft.azure.spring.integration.core.metrics.MicrometerMessagingMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Build {@link MessagingMetrics} of messaging auto-configurations from the {@link MeterRegistry} bean.
+ * <p>
+ * Micrometer is optional, so auto-configurations only reach it through this class, which checks it's on classpath
+ * before loading any of its types.
+ *
+ * @author Warren Zhu
+ */
+public final class MessagingMetricsSupport {
+    private static final boolean MICROMETER_PRESENT =
+            ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+                    MessagingMetricsSupport.class.getClassLoader());
+
+    private MessagingMetricsSupport() {
+    }
+
+    public static boolean isMicrometerPresent() {
+        return MICROMETER_PRESENT;
+    }
+
+    /**
+     * Return Micrometer backed metrics tagged with given service, or {@link MessagingMetrics#NOOP} if Micrometer is
+     * not on classpath or there is no unique {@link MeterRegistry} bean
+     */
+    public static MessagingMetrics messagingMetrics(BeanFactory beanFactory, String service) {
+        if (!MICROMETER_PRESENT) {
+            return MessagingMetrics.NOOP;
+        }
+
+        return Micrometer.messagingMetrics(beanFactory, service);
+    }
+
+    /**
+     * Only loaded when Micrometer is on classpath
+     */
+    private static class Micrometer {
+        static MessagingMetrics messagingMetrics(BeanFactory beanFactory, String service) {
+            MeterRegistry meterRegistry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+            return meterRegistry == null ? MessagingMetrics.NOOP :
+                    new MicrometerMessagingMetrics(meterRegistry, service);
+        }
+    }
+}
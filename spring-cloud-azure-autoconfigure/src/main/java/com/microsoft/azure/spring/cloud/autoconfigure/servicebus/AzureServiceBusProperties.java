@@ -23,6 +23,16 @@ public class AzureServiceBusProperties {
 
     private String connectionString;
 
+    /**
+     * Whether to record send, consume and checkpoint metrics when a MeterRegistry is available. Default is true
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * Max threads running message handlers of all queues, or of all topic subscriptions. Default is 64
+     */
+    private int handlerPoolSize = 64;
+
     public String getNamespace() {
         return namespace;
     }
@@ -39,6 +49,22 @@ public class AzureServiceBusProperties {
         this.connectionString = connectionString;
     }
 
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public int getHandlerPoolSize() {
+        return handlerPoolSize;
+    }
+
+    public void setHandlerPoolSize(int handlerPoolSize) {
+        this.handlerPoolSize = handlerPoolSize;
+    }
+
     @PostConstruct
     public void validate() {
         if (!StringUtils.hasText(namespace) && !StringUtils.hasText(connectionString)) {
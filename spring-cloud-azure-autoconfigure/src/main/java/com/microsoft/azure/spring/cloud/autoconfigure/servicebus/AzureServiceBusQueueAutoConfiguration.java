@@ -6,14 +6,18 @@
 
 package com.microsoft.azure.spring.cloud.autoconfigure.servicebus;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.servicebus.QueueClient;
 import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoConfiguration;
+import com.microsoft.azure.spring.cloud.autoconfigure.metrics.MessagingMetricsSupport;
 import com.microsoft.azure.spring.cloud.autoconfigure.telemetry.TelemetryCollector;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
 import com.microsoft.azure.spring.integration.servicebus.factory.DefaultServiceBusQueueClientFactory;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusQueueClientFactory;
 import com.microsoft.azure.spring.integration.servicebus.queue.ServiceBusQueueOperation;
 import com.microsoft.azure.spring.integration.servicebus.queue.ServiceBusQueueTemplate;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -36,10 +40,17 @@ import javax.annotation.PostConstruct;
 public class AzureServiceBusQueueAutoConfiguration {
     private static final String SERVICE_BUS_QUEUE = "ServiceBusQueue";
     private static final String NAMESPACE = "Namespace";
+    private static final String SERVICE_BUS_METRICS = "servicebus";
 
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(SERVICE_BUS_QUEUE);
@@ -65,7 +76,19 @@ public class AzureServiceBusQueueAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public ServiceBusQueueOperation queueOperation(ServiceBusQueueClientFactory factory) {
-        return new ServiceBusQueueTemplate(factory);
+    public ServiceBusQueueOperation queueOperation(ServiceBusQueueClientFactory factory,
+            AzureServiceBusProperties serviceBusProperties) {
+        ServiceBusQueueTemplate template = new ServiceBusQueueTemplate(factory);
+        template.setHandlerPoolSize(serviceBusProperties.getHandlerPoolSize());
+
+        if (serviceBusProperties.isMetricsEnabled()) {
+            template.setMessagingMetrics(MessagingMetricsSupport.messagingMetrics(beanFactory, SERVICE_BUS_METRICS));
+        }
+
+        if (objectMapper != null) {
+            template.setMessageConverter(new ServiceBusMessageConverter(objectMapper));
+        }
+
+        return template;
     }
 }
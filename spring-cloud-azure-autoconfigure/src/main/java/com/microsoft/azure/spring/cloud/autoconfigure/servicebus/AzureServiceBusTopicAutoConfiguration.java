@@ -6,14 +6,18 @@
 
 package com.microsoft.azure.spring.cloud.autoconfigure.servicebus;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.servicebus.TopicClient;
 import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoConfiguration;
+import com.microsoft.azure.spring.cloud.autoconfigure.metrics.MessagingMetricsSupport;
 import com.microsoft.azure.spring.cloud.autoconfigure.telemetry.TelemetryCollector;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
 import com.microsoft.azure.spring.integration.servicebus.factory.DefaultServiceBusTopicClientFactory;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusTopicClientFactory;
 import com.microsoft.azure.spring.integration.servicebus.topic.ServiceBusTopicOperation;
 import com.microsoft.azure.spring.integration.servicebus.topic.ServiceBusTopicTemplate;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -36,10 +40,17 @@ import javax.annotation.PostConstruct;
 public class AzureServiceBusTopicAutoConfiguration {
     private static final String SERVICE_BUS_TOPIC = "ServiceBusTopic";
     private static final String NAMESPACE = "Namespace";
+    private static final String SERVICE_BUS_METRICS = "servicebus";
 
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(SERVICE_BUS_TOPIC);
@@ -65,7 +76,19 @@ public class AzureServiceBusTopicAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public ServiceBusTopicOperation topicOperation(ServiceBusTopicClientFactory factory) {
-        return new ServiceBusTopicTemplate(factory);
+    public ServiceBusTopicOperation topicOperation(ServiceBusTopicClientFactory factory,
+            AzureServiceBusProperties serviceBusProperties) {
+        ServiceBusTopicTemplate template = new ServiceBusTopicTemplate(factory);
+        template.setHandlerPoolSize(serviceBusProperties.getHandlerPoolSize());
+
+        if (serviceBusProperties.isMetricsEnabled()) {
+            template.setMessagingMetrics(MessagingMetricsSupport.messagingMetrics(beanFactory, SERVICE_BUS_METRICS));
+        }
+
+        if (objectMapper != null) {
+            template.setMessageConverter(new ServiceBusMessageConverter(objectMapper));
+        }
+
+        return template;
     }
 }
@@ -29,6 +29,11 @@ public class AzureStorageProperties {
      */
     private String accessKey;
 
+    /**
+     * Whether to record storage queue send and checkpoint metrics when a MeterRegistry is available. Default is true
+     */
+    private boolean metricsEnabled = true;
+
     public String getAccount() {
         return account;
     }
@@ -44,4 +49,12 @@ public class AzureStorageProperties {
     public void setAccessKey(String accessKey) {
         this.accessKey = accessKey;
     }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
 }
@@ -6,15 +6,19 @@
 
 package com.microsoft.azure.spring.cloud.autoconfigure.storage;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.spring.cloud.autoconfigure.context.AzureContextAutoConfiguration;
+import com.microsoft.azure.spring.cloud.autoconfigure.metrics.MessagingMetricsSupport;
 import com.microsoft.azure.spring.cloud.autoconfigure.telemetry.TelemetryCollector;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.integration.storage.queue.StorageQueueOperation;
 import com.microsoft.azure.spring.integration.storage.queue.StorageQueueTemplate;
+import com.microsoft.azure.spring.integration.storage.queue.converter.StorageQueueMessageConverter;
 import com.microsoft.azure.spring.integration.storage.queue.factory.DefaultStorageQueueClientFactory;
 import com.microsoft.azure.spring.integration.storage.queue.factory.StorageQueueClientFactory;
 import com.microsoft.azure.storage.CloudStorageAccount;
 import com.microsoft.azure.storage.queue.CloudQueueClient;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -34,10 +38,17 @@ import javax.annotation.PostConstruct;
 public class AzureStorageQueueAutoConfiguration {
 
     private static final String STORAGE_QUEUE = "StorageQueue";
+    private static final String STORAGE_QUEUE_METRICS = "storagequeue";
 
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired
+    private BeanFactory beanFactory;
+
+    @Autowired(required = false)
+    private ObjectMapper objectMapper;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(STORAGE_QUEUE);
@@ -57,7 +68,19 @@ public class AzureStorageQueueAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    StorageQueueOperation storageQueueOperation(StorageQueueClientFactory storageQueueClientFactory) {
-        return new StorageQueueTemplate(storageQueueClientFactory);
+    StorageQueueOperation storageQueueOperation(StorageQueueClientFactory storageQueueClientFactory,
+            AzureStorageProperties storageProperties) {
+        StorageQueueTemplate storageQueueTemplate = new StorageQueueTemplate(storageQueueClientFactory);
+
+        if (storageProperties.isMetricsEnabled()) {
+            storageQueueTemplate.setMessagingMetrics(
+                    MessagingMetricsSupport.messagingMetrics(beanFactory, STORAGE_QUEUE_METRICS));
+        }
+
+        if (objectMapper != null) {
+            storageQueueTemplate.setMessageConverter(new StorageQueueMessageConverter(objectMapper));
+        }
+
+        return storageQueueTemplate;
     }
 }
@@ -7,6 +7,7 @@
 package com.microsoft.azure.spring.cloud.autoconfigure.eventhub;
 
 import com.microsoft.azure.eventhubs.EventHubClient;
+import com.microsoft.azure.spring.integration.eventhub.api.CheckpointStore;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
 import com.microsoft.azure.spring.integration.eventhub.factory.EventHubConnectionStringProvider;
@@ -16,6 +17,7 @@ import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -63,6 +65,32 @@ public class AzureEventHubAutoConfigurationTest {
         });
     }
 
+    @Test
+    public void testRedisCheckpointStore() {
+        this.contextRunner.withUserConfiguration(RedisTestConfiguration.class)
+                          .withPropertyValues("spring.cloud.azure.eventhub.namespace=ns1")
+                          .withPropertyValues("spring.cloud.azure.eventhub.checkpoint-store=redis").run(context -> {
+            assertThat(context).hasSingleBean(CheckpointStore.class);
+            assertThat(context).getBean(CheckpointStore.class).isInstanceOf(RedisCheckpointStore.class);
+        });
+    }
+
+    @Test
+    public void testRedisCheckpointStoreNotConfigured() {
+        this.contextRunner.withUserConfiguration(RedisTestConfiguration.class)
+                          .withPropertyValues("spring.cloud.azure.eventhub.namespace=ns1")
+                          .run(context -> assertThat(context).doesNotHaveBean(CheckpointStore.class));
+    }
+
+    @Configuration
+    static class RedisTestConfiguration {
+
+        @Bean
+        RedisConnectionFactory redisConnectionFactory() {
+            return mock(RedisConnectionFactory.class);
+        }
+    }
+
     @Configuration
     static class TestConfiguration {
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.cloud.autoconfigure.eventhub;
+
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+import com.microsoft.azure.eventprocessorhost.CompleteLease;
+import com.microsoft.azure.eventprocessorhost.ICheckpointManager;
+import com.microsoft.azure.eventprocessorhost.ILeaseManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RedisCheckpointStoreTest {
+    private static final String EVENT_HUB = "eventHub";
+    private static final String CONSUMER_GROUP = "group";
+    private static final String HOST = "host";
+    private static final String CHECKPOINTS_KEY = "spring-cloud-azure:eventhub:eventHub:group:checkpoints";
+
+    private StringRedisTemplate redisTemplate;
+
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private RedisCheckpointStore store;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.redisTemplate = mock(StringRedisTemplate.class);
+        this.hashOperations = mock(HashOperations.class);
+        when(this.redisTemplate.<Object, Object>opsForHash()).thenReturn(this.hashOperations);
+        this.store = new RedisCheckpointStore(this.redisTemplate);
+    }
+
+    @Test
+    public void testGetCheckpoint() throws Exception {
+        when(this.hashOperations.get(CHECKPOINTS_KEY, "0")).thenReturn("100:10");
+        ICheckpointManager manager = this.store.getCheckpointManager(EVENT_HUB, CONSUMER_GROUP, HOST);
+
+        Checkpoint checkpoint = manager.getCheckpoint("0").get();
+
+        assertThat(checkpoint.getOffset()).isEqualTo("100");
+        assertThat(checkpoint.getSequenceNumber()).isEqualTo(10L);
+        assertThat(manager.getCheckpoint("1").get()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateCheckpointWithoutLeaseFails() {
+        when(this.redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString(),
+                anyString())).thenReturn(-1L);
+        ICheckpointManager manager = this.store.getCheckpointManager(EVENT_HUB, CONSUMER_GROUP, HOST);
+
+        CompletableFuture<Void> future = manager.updateCheckpoint(new CompleteLease("0"), new Checkpoint("0", "100",
+                10L));
+
+        assertThat(future).isCompletedExceptionally();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRenewLeaseNotOwned() throws Exception {
+        when(this.redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString(),
+                anyString())).thenReturn(-1L);
+        ILeaseManager manager = this.store.getLeaseManager(EVENT_HUB, CONSUMER_GROUP, HOST);
+
+        assertThat(manager.renewLease(new CompleteLease("0")).get()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAcquireLease() throws Exception {
+        when(this.redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(3L);
+        when(this.redisTemplate.opsForSet()).thenReturn(mock(SetOperations.class));
+        ILeaseManager manager = this.store.getLeaseManager(EVENT_HUB, CONSUMER_GROUP, HOST);
+        CompleteLease lease = new CompleteLease("0");
+
+        assertThat(manager.acquireLease(lease).get()).isTrue();
+        assertThat(lease.getOwner()).isEqualTo(HOST);
+        assertThat(lease.getEpoch()).isEqualTo(3L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetAllLeasesWhenEmpty() throws Exception {
+        when(this.redisTemplate.opsForSet()).thenReturn(mock(SetOperations.class));
+        ILeaseManager manager = this.store.getLeaseManager(EVENT_HUB, CONSUMER_GROUP, HOST);
+
+        List<?> leases = manager.getAllLeases().get();
+
+        assertThat(leases).isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic payloads and headers shared by benchmarks, so results are comparable across runs
+ *
+ * @author Warren Zhu
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static Map<String, Object> headers(int headerCount) {
+        Map<String, Object> headers = new HashMap<>();
+
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("header-" + i, "value-" + i);
+        }
+
+        return headers;
+    }
+
+    public static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    public static String randomString(int size) {
+        Random random = new Random(size);
+        StringBuilder builder = new StringBuilder(size);
+
+        for (int i = 0; i < size; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core;
+
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.core.api.SendOperation;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link DefaultMessageHandler#handleMessageInternal(Message)} against a send operation which completes
+ * immediately, so only partition key resolution, destination lookup and response handling are measured.
+ *
+ * @author Warren Zhu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DefaultMessageHandlerBenchmark {
+    private static final String PARTITION_KEY_HEADER = "key";
+
+    /**
+     * none: no partition key, literal: fixed partition key, spel: partition key evaluated from header
+     */
+    @Param({"none", "literal", "spel"})
+    public String partitionKey;
+
+    @Param({"false", "true"})
+    public boolean sync;
+
+    @Param({"1024"})
+    public int payloadSize;
+
+    @Param({"0", "4", "16"})
+    public int headerCount;
+
+    private DefaultMessageHandler handler;
+    private Message<?> message;
+
+    @Setup
+    public void setUp() {
+        this.handler = new DefaultMessageHandler("destination", new CompletedSendOperation());
+        this.handler.setBeanFactory(new DefaultListableBeanFactory());
+        this.handler.setSync(this.sync);
+
+        if ("literal".equals(this.partitionKey)) {
+            this.handler.setPartitionKey("partition-key");
+        } else if ("spel".equals(this.partitionKey)) {
+            this.handler.setPartitionKeyExpressionString("headers['" + PARTITION_KEY_HEADER + "']");
+        }
+
+        this.handler.afterPropertiesSet();
+        this.message = MessageBuilder.withPayload(BenchmarkData.randomBytes(this.payloadSize))
+                                     .copyHeaders(BenchmarkData.headers(this.headerCount))
+                                     .setHeader(PARTITION_KEY_HEADER, "partition-key").build();
+    }
+
+    @Benchmark
+    public void handleMessage() throws Exception {
+        this.handler.handleMessageInternal(this.message);
+    }
+
+    private static class CompletedSendOperation implements SendOperation {
+        private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+        @Override
+        public <T> CompletableFuture<Void> sendAsync(String destination, Message<T> message,
+                PartitionSupplier partitionSupplier) {
+            return COMPLETED;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.spring.integration.core.BenchmarkData;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import com.microsoft.azure.spring.integration.storage.queue.converter.StorageQueueMessageConverter;
+import com.microsoft.azure.storage.queue.CloudQueueMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark {@link AbstractAzureMessageConverter#fromMessage(Message, Class)} and
+ * {@link AbstractAzureMessageConverter#toMessage(Object, Map, Class)} of all converters.
+ *
+ * @author Warren Zhu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AzureMessageConverterBenchmark {
+
+    @Param({"eventhub", "servicebus", "storagequeue"})
+    public String service;
+
+    @Param({"bytes", "json"})
+    public String payloadType;
+
+    @Param({"64", "1024", "65536"})
+    public int payloadSize;
+
+    @Param({"0", "4", "16"})
+    public int headerCount;
+
+    private AzureMessageConverter<Object> converter;
+    private Class<Object> azureMessageClass;
+    private Class<?> targetPayloadClass;
+    private Message<?> message;
+    private Object azureMessage;
+    private Map<String, Object> headers;
+
+    @Setup
+    public void setUp() {
+        this.converter = converter(this.service);
+        this.azureMessageClass = azureMessageClass(this.service);
+        this.headers = BenchmarkData.headers(this.headerCount);
+
+        Object payload;
+        if ("json".equals(this.payloadType)) {
+            payload = new Payload(BenchmarkData.randomString(this.payloadSize));
+            this.targetPayloadClass = Payload.class;
+        } else {
+            payload = BenchmarkData.randomBytes(this.payloadSize);
+            this.targetPayloadClass = byte[].class;
+        }
+
+        this.message = MessageBuilder.withPayload(payload).copyHeaders(this.headers).build();
+        this.azureMessage = this.converter.fromMessage(this.message, this.azureMessageClass);
+    }
+
+    @Benchmark
+    public Object fromMessage() {
+        return this.converter.fromMessage(this.message, this.azureMessageClass);
+    }
+
+    @Benchmark
+    public Message<?> toMessage() {
+        return this.converter.toMessage(this.azureMessage, this.headers, this.targetPayloadClass);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AzureMessageConverter<Object> converter(String service) {
+        switch (service) {
+            case "eventhub":
+                return (AzureMessageConverter<Object>) (AzureMessageConverter<?>) new EventHubMessageConverter();
+            case "servicebus":
+                return (AzureMessageConverter<Object>) (AzureMessageConverter<?>) new ServiceBusMessageConverter();
+            case "storagequeue":
+                return (AzureMessageConverter<Object>) (AzureMessageConverter<?>) new StorageQueueMessageConverter();
+            default:
+                throw new IllegalArgumentException("Unknown service: " + service);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> azureMessageClass(String service) {
+        switch (service) {
+            case "eventhub":
+                return (Class<Object>) (Class<?>) EventData.class;
+            case "servicebus":
+                return (Class<Object>) (Class<?>) IMessage.class;
+            case "storagequeue":
+                return (Class<Object>) (Class<?>) CloudQueueMessage.class;
+            default:
+                throw new IllegalArgumentException("Unknown service: " + service);
+        }
+    }
+
+    public static class Payload {
+        private String content;
+
+        public Payload() {
+        }
+
+        Payload(String content) {
+            this.content = content;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+    }
+}
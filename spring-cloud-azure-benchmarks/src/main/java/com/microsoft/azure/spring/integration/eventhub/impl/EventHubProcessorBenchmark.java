@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.CloseReason;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.BenchmarkData;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import org.mockito.invocation.InvocationOnMock;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Benchmark {@link EventHubProcessor#onEvents(PartitionContext, Iterable)} with each
+ * {@link com.microsoft.azure.spring.integration.eventhub.checkpoint.CheckpointManager}. Partition context is a
+ * stub-only mock whose checkpoints complete immediately, so the cost of deciding and coalescing checkpoints is
+ * measured, not the checkpoint store.
+ *
+ * @author Warren Zhu
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventHubProcessorBenchmark {
+
+    @Param({"RECORD", "BATCH", "MANUAL", "PARTITION_COUNT", "TIME"})
+    public CheckpointMode checkpointMode;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    @Param({"64", "1024"})
+    public int payloadSize;
+
+    @Param({"0", "8"})
+    public int headerCount;
+
+    private EventHubProcessor processor;
+    private PartitionContext context;
+    private List<EventData> events;
+    private Message<?> lastMessage;
+
+    @Setup
+    public void setUp() {
+        CheckpointConfig checkpointConfig =
+                CheckpointConfig.builder().checkpointMode(this.checkpointMode).checkpointCount(this.batchSize)
+                                .checkpointInterval(Duration.ofSeconds(1)).build();
+        this.processor = new EventHubProcessor(m -> this.lastMessage = m, byte[].class, checkpointConfig,
+                new EventHubMessageConverter());
+
+        this.context = mock(PartitionContext.class, withSettings().stubOnly().defaultAnswer(this::answer));
+
+        this.events = new ArrayList<>(this.batchSize);
+        byte[] payload = BenchmarkData.randomBytes(this.payloadSize);
+
+        for (int i = 0; i < this.batchSize; i++) {
+            EventData eventData = EventData.create(payload);
+            eventData.getProperties().putAll(BenchmarkData.headers(this.headerCount));
+            eventData.setSystemProperties(
+                    new EventData.SystemProperties(i, Instant.now(), String.valueOf(i * this.payloadSize), null));
+            this.events.add(eventData);
+        }
+    }
+
+    /**
+     * Stub-only mock records no invocations, which would otherwise pile up and skew measurement. Both
+     * {@code checkpoint()} and {@code checkpoint(EventData)} complete immediately.
+     */
+    private Object answer(InvocationOnMock invocation) throws Throwable {
+        switch (invocation.getMethod().getName()) {
+            case "getPartitionId":
+                return "0";
+            case "getEventHubPath":
+                return "eventhub";
+            case "getConsumerGroupName":
+                return "group";
+            case "checkpoint":
+                return CompletableFuture.completedFuture(null);
+            default:
+                return RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.processor.onClose(this.context, CloseReason.Shutdown);
+        this.processor.close();
+    }
+
+    @Benchmark
+    public Message<?> onEvents() throws Exception {
+        this.processor.onEvents(this.context, this.events);
+        return this.lastMessage;
+    }
+}
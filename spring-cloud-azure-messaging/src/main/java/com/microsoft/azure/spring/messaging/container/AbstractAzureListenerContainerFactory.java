@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.messaging.container;
 
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfig;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
 import com.microsoft.azure.spring.messaging.endpoint.AbstractAzureListenerEndpoint;
 import com.microsoft.azure.spring.messaging.endpoint.AzureListenerEndpoint;
@@ -22,6 +23,8 @@ abstract class AbstractAzureListenerContainerFactory<C extends AbstractListenerC
 
     private final SubscribeByGroupOperation subscribeOperation;
 
+    private ReceiveConfig receiveConfig;
+
     protected AbstractAzureListenerContainerFactory(SubscribeByGroupOperation subscribeOperation) {
         this.subscribeOperation = subscribeOperation;
     }
@@ -29,6 +32,7 @@ abstract class AbstractAzureListenerContainerFactory<C extends AbstractListenerC
     @Override
     public C createListenerContainer(AzureListenerEndpoint endpoint) {
         C instance = createContainerInstance();
+        instance.setReceiveConfig(this.receiveConfig);
         initializeContainer(instance);
         endpoint.setupListenerContainer(instance);
         return instance;
@@ -51,4 +55,16 @@ abstract class AbstractAzureListenerContainerFactory<C extends AbstractListenerC
         return subscribeOperation;
     }
 
+    public ReceiveConfig getReceiveConfig() {
+        return receiveConfig;
+    }
+
+    /**
+     * Tune batch size, prefetch count and receive timeout of containers created by this factory. The config is
+     * applied to the subscribe operation right before each container subscribes.
+     */
+    public void setReceiveConfig(ReceiveConfig receiveConfig) {
+        this.receiveConfig = receiveConfig;
+    }
+
 }
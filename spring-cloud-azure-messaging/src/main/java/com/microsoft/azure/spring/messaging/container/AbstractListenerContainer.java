@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.messaging.container;
 
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfig;
 import com.microsoft.azure.spring.messaging.listener.AzureMessageHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +19,7 @@ abstract class AbstractListenerContainer implements BeanNameAware, DisposableBea
     private String destination;
     private String group;
     private AzureMessageHandler messageHandler;
+    private ReceiveConfig receiveConfig;
     private boolean autoStartup = true;
     private int phase = 0;
 
@@ -121,6 +123,14 @@ abstract class AbstractListenerContainer implements BeanNameAware, DisposableBea
         this.messageHandler = messageHandler;
     }
 
+    public ReceiveConfig getReceiveConfig() {
+        return receiveConfig;
+    }
+
+    public void setReceiveConfig(ReceiveConfig receiveConfig) {
+        this.receiveConfig = receiveConfig;
+    }
+
     @Override
     public boolean isAutoStartup() {
         return autoStartup;
@@ -6,7 +6,9 @@
 
 package com.microsoft.azure.spring.messaging.container;
 
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfigurable;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
+import org.springframework.util.Assert;
 
 /**
  * @author Warren Zhu
@@ -21,6 +23,7 @@ class DefaultMessageListenerContainer extends AbstractListenerContainer {
     @Override
     protected void doStart() {
         synchronized (this.getLifecycleMonitor()) {
+            applyReceiveConfig();
             subscribeOperation.subscribe(getDestination(), getGroup(), getMessageHandler()::handleMessage,
                     getMessageHandler().getMessagePayloadType());
         }
@@ -32,4 +35,14 @@ class DefaultMessageListenerContainer extends AbstractListenerContainer {
             subscribeOperation.unsubscribe(getDestination(), getGroup());
         }
     }
+
+    private void applyReceiveConfig() {
+        if (getReceiveConfig() == null) {
+            return;
+        }
+
+        Assert.state(subscribeOperation instanceof ReceiveConfigurable,
+                () -> "Receive config is not supported by " + subscribeOperation.getClass().getSimpleName());
+        ((ReceiveConfigurable) subscribeOperation).setReceiveConfig(getReceiveConfig());
+    }
 }
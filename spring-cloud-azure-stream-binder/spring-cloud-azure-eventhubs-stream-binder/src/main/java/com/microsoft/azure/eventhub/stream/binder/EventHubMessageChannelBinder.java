@@ -12,7 +12,10 @@ import com.microsoft.azure.eventhub.stream.binder.properties.EventHubProducerPro
 import com.microsoft.azure.eventhub.stream.binder.provisioning.EventHubChannelProvisioner;
 import com.microsoft.azure.spring.integration.core.DefaultMessageHandler;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfig;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
 import com.microsoft.azure.spring.integration.eventhub.inbound.EventHubInboundChannelAdapter;
 import org.springframework.cloud.stream.binder.*;
@@ -23,6 +26,7 @@ import org.springframework.integration.expression.FunctionExpression;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import java.util.UUID;
@@ -39,6 +43,8 @@ public class EventHubMessageChannelBinder extends
 
     private EventHubExtendedBindingProperties bindingProperties = new EventHubExtendedBindingProperties();
 
+    private MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
+
     public EventHubMessageChannelBinder(String[] headersToEmbed, EventHubChannelProvisioner provisioningProvider,
             EventHubOperation eventHubOperation) {
         super(headersToEmbed, provisioningProvider);
@@ -52,6 +58,12 @@ public class EventHubMessageChannelBinder extends
         handler.setBeanFactory(getBeanFactory());
         handler.setSync(producerProperties.getExtension().isSync());
         handler.setSendTimeout(producerProperties.getExtension().getSendTimeout());
+        handler.setMessagingMetrics(this.messagingMetrics);
+        if (StringUtils.hasText(producerProperties.getExtension().getCompression())) {
+            handler.setCompressionConfig(
+                    CompressionConfig.builder().encoding(producerProperties.getExtension().getCompression())
+                                     .threshold(producerProperties.getExtension().getCompressionThreshold()).build());
+        }
         if (producerProperties.isPartitioned()) {
             handler.setPartitionKeyExpressionString(
                     "'partitionKey-' + headers['" + BinderHeaders.PARTITION_HEADER + "']");
@@ -68,8 +80,10 @@ public class EventHubMessageChannelBinder extends
         this.eventHubOperation.setStartPosition(properties.getExtension().getStartPosition());
         CheckpointConfig checkpointConfig =
                 CheckpointConfig.builder().checkpointMode(properties.getExtension().getCheckpointMode())
-                                .checkpointCount(properties.getExtension().getCheckpointCount()).build();
+                                .checkpointCount(properties.getExtension().getCheckpointCount())
+                                .checkpointInterval(properties.getExtension().getCheckpointInterval()).build();
         this.eventHubOperation.setCheckpointConfig(checkpointConfig);
+        this.eventHubOperation.setReceiveConfig(buildReceiveConfig(properties.getExtension()));
 
         boolean anonymous = !StringUtils.hasText(group);
         if (anonymous) {
@@ -82,6 +96,29 @@ public class EventHubMessageChannelBinder extends
         return inboundAdapter;
     }
 
+    private static ReceiveConfig buildReceiveConfig(EventHubConsumerProperties properties) {
+        ReceiveConfig.ReceiveConfigBuilder builder = StringUtils.hasText(properties.getReceivePreset()) ?
+                ReceiveConfig.preset(properties.getReceivePreset()) : ReceiveConfig.builder();
+
+        if (properties.getMaxBatchSize() != null) {
+            builder.maxBatchSize(properties.getMaxBatchSize());
+        }
+
+        if (properties.getPrefetchCount() != null) {
+            builder.prefetchCount(properties.getPrefetchCount());
+        }
+
+        if (properties.getReceiveTimeout() != null) {
+            builder.receiveTimeout(properties.getReceiveTimeout());
+        }
+
+        if (properties.getInvokeProcessorAfterReceiveTimeout() != null) {
+            builder.invokeProcessorAfterReceiveTimeout(properties.getInvokeProcessorAfterReceiveTimeout());
+        }
+
+        return builder.build();
+    }
+
     @Override
     public EventHubConsumerProperties getExtendedConsumerProperties(String destination) {
         return this.bindingProperties.getExtendedConsumerProperties(destination);
@@ -105,4 +142,12 @@ public class EventHubMessageChannelBinder extends
     public void setBindingProperties(EventHubExtendedBindingProperties bindingProperties) {
         this.bindingProperties = bindingProperties;
     }
+
+    /**
+     * Metrics of message handlers created by this binder, which record failures only visible to them
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.messagingMetrics = messagingMetrics;
+    }
 }
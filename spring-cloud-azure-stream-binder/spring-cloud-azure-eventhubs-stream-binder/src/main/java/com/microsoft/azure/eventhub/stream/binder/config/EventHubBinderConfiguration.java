@@ -12,9 +12,11 @@ import com.microsoft.azure.eventhub.stream.binder.provisioning.EventHubChannelPr
 import com.microsoft.azure.eventhub.stream.binder.provisioning.EventHubChannelResourceManagerProvisioner;
 import com.microsoft.azure.spring.cloud.autoconfigure.eventhub.AzureEventHubProperties;
 import com.microsoft.azure.spring.cloud.autoconfigure.eventhub.EventHubUtils;
+import com.microsoft.azure.spring.cloud.autoconfigure.metrics.MessagingMetricsSupport;
 import com.microsoft.azure.spring.cloud.autoconfigure.telemetry.TelemetryCollector;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -33,11 +35,15 @@ import javax.annotation.PostConstruct;
 public class EventHubBinderConfiguration {
 
     private static final String EVENT_HUB_BINDER = "EventHubBinder";
+    private static final String EVENT_HUB_METRICS = "eventhub";
     private static final String NAMESPACE = "Namespace";
 
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired
+    private BeanFactory beanFactory;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(EVENT_HUB_BINDER);
@@ -60,10 +66,16 @@ public class EventHubBinderConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public EventHubMessageChannelBinder eventHubBinder(EventHubChannelProvisioner eventHubChannelProvisioner,
-            EventHubOperation eventHubOperation, EventHubExtendedBindingProperties bindingProperties) {
+            EventHubOperation eventHubOperation, EventHubExtendedBindingProperties bindingProperties,
+            AzureEventHubProperties eventHubProperties) {
         EventHubMessageChannelBinder binder =
                 new EventHubMessageChannelBinder(null, eventHubChannelProvisioner, eventHubOperation);
         binder.setBindingProperties(bindingProperties);
+
+        if (eventHubProperties.isMetricsEnabled()) {
+            binder.setMessagingMetrics(MessagingMetricsSupport.messagingMetrics(beanFactory, EVENT_HUB_METRICS));
+        }
+
         return binder;
     }
 }
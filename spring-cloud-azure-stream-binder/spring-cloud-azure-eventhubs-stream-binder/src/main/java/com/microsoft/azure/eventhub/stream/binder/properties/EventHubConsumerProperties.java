@@ -7,6 +7,7 @@
 package com.microsoft.azure.eventhub.stream.binder.properties;
 
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfig;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
 
 import java.time.Duration;
@@ -48,6 +49,47 @@ public class EventHubConsumerProperties {
      */
     private Duration checkpointInterval = Duration.ofSeconds(5);
 
+    /**
+     * Receive preset applied before the explicit receive properties below.
+     * Either {@value ReceiveConfig#LOW_LATENCY} or {@value ReceiveConfig#HIGH_THROUGHPUT}
+     *
+     * <p>
+     * Default : none
+     */
+    private String receivePreset;
+
+    /**
+     * The max count of events delivered to the consumer in one batch
+     *
+     * <p>
+     * Default : from preset, otherwise 10
+     */
+    private Integer maxBatchSize;
+
+    /**
+     * The count of events fetched ahead of processing for each partition. Can't be less than 10 or maxBatchSize
+     *
+     * <p>
+     * Default : from preset, otherwise 300
+     */
+    private Integer prefetchCount;
+
+    /**
+     * The max time to wait for events before one receive call returns
+     *
+     * <p>
+     * Default : from preset, otherwise 60s
+     */
+    private Duration receiveTimeout;
+
+    /**
+     * Whether to invoke the consumer with no events when receive timed out
+     *
+     * <p>
+     * Default : from preset, otherwise false
+     */
+    private Boolean invokeProcessorAfterReceiveTimeout;
+
     public StartPosition getStartPosition() {
         return startPosition;
     }
@@ -79,4 +121,44 @@ public class EventHubConsumerProperties {
     public void setCheckpointInterval(Duration checkpointInterval) {
         this.checkpointInterval = checkpointInterval;
     }
+
+    public String getReceivePreset() {
+        return receivePreset;
+    }
+
+    public void setReceivePreset(String receivePreset) {
+        this.receivePreset = receivePreset;
+    }
+
+    public Integer getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(Integer maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Integer getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    public void setPrefetchCount(Integer prefetchCount) {
+        this.prefetchCount = prefetchCount;
+    }
+
+    public Duration getReceiveTimeout() {
+        return receiveTimeout;
+    }
+
+    public void setReceiveTimeout(Duration receiveTimeout) {
+        this.receiveTimeout = receiveTimeout;
+    }
+
+    public Boolean getInvokeProcessorAfterReceiveTimeout() {
+        return invokeProcessorAfterReceiveTimeout;
+    }
+
+    public void setInvokeProcessorAfterReceiveTimeout(Boolean invokeProcessorAfterReceiveTimeout) {
+        this.invokeProcessorAfterReceiveTimeout = invokeProcessorAfterReceiveTimeout;
+    }
 }
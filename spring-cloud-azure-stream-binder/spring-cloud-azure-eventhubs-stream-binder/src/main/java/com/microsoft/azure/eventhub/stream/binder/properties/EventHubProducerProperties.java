@@ -27,6 +27,22 @@ public class EventHubProducerProperties {
      */
     private long sendTimeout = 10000;
 
+    /**
+     * Content encoding to compress payload with, one of gzip, lz4 or zstd. lz4 and zstd require lz4-java and
+     * zstd-jni on classpath. Consumers decompress transparently.
+     * <p>
+     * Default: null, no compression
+     */
+    private String compression;
+
+    /**
+     * Effective only if compression is set.
+     * Payload smaller than this size in bytes is sent uncompressed.
+     * <p>
+     * Default: 1024
+     */
+    private int compressionThreshold = 1024;
+
     public boolean isSync() {
         return sync;
     }
@@ -42,4 +58,20 @@ public class EventHubProducerProperties {
     public void setSendTimeout(long sendTimeout) {
         this.sendTimeout = sendTimeout;
     }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
 }
@@ -11,11 +11,13 @@ import com.microsoft.azure.servicebus.stream.binder.properties.ServiceBusExtende
 import com.microsoft.azure.servicebus.stream.binder.properties.ServiceBusQueueExtendedBindingProperties;
 import com.microsoft.azure.servicebus.stream.binder.provisioning.ServiceBusChannelProvisioner;
 import com.microsoft.azure.servicebus.stream.binder.provisioning.ServiceBusQueueChannelResourceManagerProvisioner;
+import com.microsoft.azure.spring.cloud.autoconfigure.metrics.MessagingMetricsSupport;
 import com.microsoft.azure.spring.cloud.autoconfigure.servicebus.AzureServiceBusProperties;
 import com.microsoft.azure.spring.cloud.autoconfigure.servicebus.ServiceBusUtils;
 import com.microsoft.azure.spring.cloud.autoconfigure.telemetry.TelemetryCollector;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.integration.servicebus.queue.ServiceBusQueueOperation;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -35,11 +37,15 @@ import javax.annotation.PostConstruct;
 public class ServiceBusQueueBinderConfiguration {
 
     private static final String SERVICE_BUS_QUEUE_BINDER = "ServiceBusQueueBinder";
+    private static final String SERVICE_BUS_METRICS = "servicebus";
     private static final String NAMESPACE = "Namespace";
 
     @Autowired(required = false)
     private ResourceManagerProvider resourceManagerProvider;
 
+    @Autowired
+    private BeanFactory beanFactory;
+
     @PostConstruct
     public void collectTelemetry() {
         TelemetryCollector.getInstance().addService(SERVICE_BUS_QUEUE_BINDER);
@@ -68,10 +74,16 @@ public class ServiceBusQueueBinderConfiguration {
     @Bean
     public ServiceBusQueueMessageChannelBinder serviceBusQueueBinder(
             ServiceBusChannelProvisioner queueChannelProvisioner, ServiceBusQueueOperation serviceBusQueueOperation,
-            ServiceBusQueueExtendedBindingProperties bindingProperties) {
+            ServiceBusQueueExtendedBindingProperties bindingProperties,
+            AzureServiceBusProperties serviceBusProperties) {
         ServiceBusQueueMessageChannelBinder binder =
                 new ServiceBusQueueMessageChannelBinder(null, queueChannelProvisioner, serviceBusQueueOperation);
         binder.setBindingProperties(bindingProperties);
+
+        if (serviceBusProperties.isMetricsEnabled()) {
+            binder.setMessagingMetrics(MessagingMetricsSupport.messagingMetrics(beanFactory, SERVICE_BUS_METRICS));
+        }
+
         return binder;
     }
 }
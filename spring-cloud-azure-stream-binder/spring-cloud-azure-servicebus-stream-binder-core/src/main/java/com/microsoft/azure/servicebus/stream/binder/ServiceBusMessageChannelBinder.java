@@ -11,8 +11,13 @@ import com.microsoft.azure.servicebus.stream.binder.properties.ServiceBusExtende
 import com.microsoft.azure.servicebus.stream.binder.properties.ServiceBusProducerProperties;
 import com.microsoft.azure.servicebus.stream.binder.provisioning.ServiceBusChannelProvisioner;
 import com.microsoft.azure.spring.integration.core.DefaultMessageHandler;
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import com.microsoft.azure.spring.integration.servicebus.ServiceBusBatchAccumulator;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
 import org.springframework.cloud.stream.binder.*;
 import org.springframework.cloud.stream.provisioning.ProducerDestination;
@@ -20,6 +25,13 @@ import org.springframework.integration.expression.FunctionExpression;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * @author Warren Zhu
@@ -32,6 +44,13 @@ public abstract class ServiceBusMessageChannelBinder<T extends ServiceBusExtende
 
     protected T bindingProperties;
 
+    private MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
+
+    // Keyed by producer properties instance, which is the same for creating and unbinding one binding. Several
+    // bindings may send to the same destination.
+    private final Map<ExtendedProducerProperties<ServiceBusProducerProperties>, ServiceBusBatchAccumulator>
+            batchAccumulators = Collections.synchronizedMap(new IdentityHashMap<>());
+
     public ServiceBusMessageChannelBinder(String[] headersToEmbed, ServiceBusChannelProvisioner provisioningProvider) {
         super(headersToEmbed, provisioningProvider);
     }
@@ -39,20 +58,49 @@ public abstract class ServiceBusMessageChannelBinder<T extends ServiceBusExtende
     @Override
     protected MessageHandler createProducerMessageHandler(ProducerDestination destination,
             ExtendedProducerProperties<ServiceBusProducerProperties> producerProperties, MessageChannel errorChannel) {
-        DefaultMessageHandler handler = new DefaultMessageHandler(destination.getName(), getSendOperation());
+        ServiceBusProducerProperties extension = producerProperties.getExtension();
+        SendOperation sendOperation = getSendOperation();
+
+        if (extension.getBatchLingerTime() > 0) {
+            Assert.state(sendOperation instanceof BatchSendOperation, "Batch send is not supported by send operation");
+            ServiceBusBatchAccumulator accumulator = new ServiceBusBatchAccumulator(
+                    (BatchSendOperation) sendOperation,
+                    BatchConfig.builder().lingerTime(Duration.ofMillis(extension.getBatchLingerTime()))
+                               .maxBatchSizeInBytes(extension.getMaxBatchSizeInBytes()).build());
+            this.batchAccumulators.put(producerProperties, accumulator);
+            sendOperation = accumulator;
+        }
+
+        DefaultMessageHandler handler = new DefaultMessageHandler(destination.getName(), sendOperation);
         handler.setBeanFactory(getBeanFactory());
-        handler.setSync(producerProperties.getExtension().isSync());
-        handler.setSendTimeout(producerProperties.getExtension().getSendTimeout());
+        handler.setSync(extension.isSync());
+        handler.setSendTimeout(extension.getSendTimeout());
+        handler.setMessagingMetrics(this.messagingMetrics);
+        if (StringUtils.hasText(extension.getCompression())) {
+            handler.setCompressionConfig(CompressionConfig.builder().encoding(extension.getCompression())
+                                                          .threshold(extension.getCompressionThreshold()).build());
+        }
         if (producerProperties.isPartitioned()) {
             handler.setPartitionKeyExpressionString(
                     "'partitionKey-' + headers['" + BinderHeaders.PARTITION_HEADER + "']");
-        } else {
+        } else if (extension.getBatchLingerTime() <= 0) {
+            // Messages are only batched with the same partition key, so skip spreading them by payload
             handler.setPartitionKeyExpression(new FunctionExpression<Message<?>>(m -> m.getPayload().hashCode()));
         }
 
         return handler;
     }
 
+    @Override
+    protected void afterUnbindProducer(ProducerDestination destination,
+            ExtendedProducerProperties<ServiceBusProducerProperties> producerProperties) {
+        ServiceBusBatchAccumulator accumulator = this.batchAccumulators.remove(producerProperties);
+
+        if (accumulator != null) {
+            accumulator.destroy();
+        }
+    }
+
     @Override
     public ServiceBusConsumerProperties getExtendedConsumerProperties(String channelName) {
         return this.bindingProperties.getExtendedConsumerProperties(channelName);
@@ -77,6 +125,14 @@ public abstract class ServiceBusMessageChannelBinder<T extends ServiceBusExtende
         this.bindingProperties = bindingProperties;
     }
 
+    /**
+     * Metrics of message handlers created by this binder, which record failures only visible to them
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.messagingMetrics = messagingMetrics;
+    }
+
     protected CheckpointConfig buildCheckpointConfig(
             ExtendedConsumerProperties<ServiceBusConsumerProperties> properties) {
         return CheckpointConfig.builder().checkpointMode(properties.getExtension().getCheckpointMode()).build();
@@ -86,7 +142,12 @@ public abstract class ServiceBusMessageChannelBinder<T extends ServiceBusExtende
             ExtendedConsumerProperties<ServiceBusConsumerProperties> properties) {
         ServiceBusConsumerProperties consumerProperties = properties.getExtension();
         return ServiceBusClientConfig.builder().setPrefetchCount(consumerProperties.getPrefetchCount())
-                                     .setConcurrency(consumerProperties.getConcurrency()).build();
+                                     .setConcurrency(consumerProperties.getConcurrency())
+                                     .setAdaptiveConcurrency(consumerProperties.isAdaptiveConcurrency())
+                                     .setMinConcurrency(consumerProperties.getMinConcurrency())
+                                     .setCompletionBatchSize(consumerProperties.getCompletionBatchSize())
+                                     .setCompletionLingerTime(
+                                             Duration.ofMillis(consumerProperties.getCompletionLingerTime())).build();
     }
 
     abstract SendOperation getSendOperation();
@@ -14,6 +14,10 @@ import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 public class ServiceBusConsumerProperties {
     private int prefetchCount = 1;
     private int concurrency = 1;
+    private boolean adaptiveConcurrency = false;
+    private int minConcurrency = 1;
+    private int completionBatchSize = 1;
+    private long completionLingerTime = 10;
 
     private CheckpointMode checkpointMode = CheckpointMode.RECORD;
 
@@ -53,4 +57,62 @@ public class ServiceBusConsumerProperties {
     public void setConcurrency(int concurrency) {
         this.concurrency = concurrency;
     }
+
+    /**
+     * Adapt the limit of concurrent message handlers between min concurrency and concurrency from handler latency,
+     * errors and backlog.
+     *
+     * <p>
+     * Default : false
+     */
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
+    /**
+     * Min limit of concurrent message handlers when concurrency is adaptive.
+     *
+     * <p>
+     * Default : 1
+     */
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = minConcurrency;
+    }
+
+    /**
+     * Max count of messages completed together by one batch request. Completion is coalesced only if greater than 1,
+     * in which case messages are pulled by a receiver which also completes them.
+     *
+     * <p>
+     * Default : 1
+     */
+    public int getCompletionBatchSize() {
+        return completionBatchSize;
+    }
+
+    public void setCompletionBatchSize(int completionBatchSize) {
+        this.completionBatchSize = completionBatchSize;
+    }
+
+    /**
+     * Max time in milliseconds a message waits for others to be completed together.
+     *
+     * <p>
+     * Default : 10
+     */
+    public long getCompletionLingerTime() {
+        return completionLingerTime;
+    }
+
+    public void setCompletionLingerTime(long completionLingerTime) {
+        this.completionLingerTime = completionLingerTime;
+    }
 }
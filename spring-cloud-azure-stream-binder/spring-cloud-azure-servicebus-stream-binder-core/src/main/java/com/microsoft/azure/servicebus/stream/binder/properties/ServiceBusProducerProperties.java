@@ -12,6 +12,18 @@ package com.microsoft.azure.servicebus.stream.binder.properties;
 public class ServiceBusProducerProperties {
     private boolean sync = false;
     private long sendTimeout = 10000;
+    private String compression;
+    private int compressionThreshold = 1024;
+
+    /**
+     * Time in milliseconds to accumulate messages before sending them in one batch. Zero disables batching
+     */
+    private long batchLingerTime = 0;
+
+    /**
+     * Estimated payload size in bytes to send accumulated batch before linger time. Zero means 256KB
+     */
+    private int maxBatchSizeInBytes = 0;
 
     public boolean isSync() {
         return sync;
@@ -28,4 +40,36 @@ public class ServiceBusProducerProperties {
     public void setSendTimeout(long sendTimeout) {
         this.sendTimeout = sendTimeout;
     }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public long getBatchLingerTime() {
+        return batchLingerTime;
+    }
+
+    public void setBatchLingerTime(long batchLingerTime) {
+        this.batchLingerTime = batchLingerTime;
+    }
+
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    public void setMaxBatchSizeInBytes(int maxBatchSizeInBytes) {
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+    }
 }
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.integration.core;
 
+import com.microsoft.azure.spring.integration.core.api.Batchable;
 import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
 import com.microsoft.azure.spring.integration.core.api.SubscribeOperation;
@@ -19,7 +20,7 @@ import java.util.Map;
 
 public abstract class AbstractInboundChannelAdapter extends MessageProducerSupport {
     private final String destination;
-    private final ListenerMode listenerMode = ListenerMode.RECORD;
+    private ListenerMode listenerMode = ListenerMode.RECORD;
     protected String consumerGroup;
     protected SubscribeOperation subscribeOperation;
     protected SubscribeByGroupOperation subscribeByGroupOperation;
@@ -35,8 +36,10 @@ public abstract class AbstractInboundChannelAdapter extends MessageProducerSuppo
         super.doStart();
 
         if (useGroupOperation()) {
+            applyListenerMode(this.subscribeByGroupOperation);
             this.subscribeByGroupOperation.subscribe(this.destination, this.consumerGroup, this::receiveMessage);
         } else {
+            applyListenerMode(this.subscribeOperation);
             this.subscribeOperation.subscribe(this.destination, this::receiveMessage);
         }
     }
@@ -56,6 +59,15 @@ public abstract class AbstractInboundChannelAdapter extends MessageProducerSuppo
         super.doStop();
     }
 
+    private void applyListenerMode(Object operation) {
+        if (operation instanceof Batchable) {
+            ((Batchable) operation).setListenerMode(this.listenerMode);
+        } else {
+            Assert.state(this.listenerMode == ListenerMode.RECORD,
+                    () -> "Only RECORD listener mode is supported by " + operation.getClass().getSimpleName());
+        }
+    }
+
     private boolean useGroupOperation() {
         return this.subscribeByGroupOperation != null && StringUtils.hasText(consumerGroup);
     }
@@ -64,8 +76,18 @@ public abstract class AbstractInboundChannelAdapter extends MessageProducerSuppo
         Map<String, Object> properties = new HashMap<>();
         properties.put("consumerGroup", consumerGroup);
         properties.put("destination", destination);
+        properties.put("listenerMode", listenerMode);
 
         return properties;
     }
 
+    public ListenerMode getListenerMode() {
+        return listenerMode;
+    }
+
+    public void setListenerMode(ListenerMode listenerMode) {
+        Assert.notNull(listenerMode, "listenerMode can't be null");
+        this.listenerMode = listenerMode;
+    }
+
 }
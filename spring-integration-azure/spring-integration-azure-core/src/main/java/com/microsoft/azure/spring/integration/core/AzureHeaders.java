@@ -26,4 +26,21 @@ public class AzureHeaders {
      * The {@value CHECKPOINTER} header for checkpoint the specific message.
      */
     public static final String CHECKPOINTER = PREFIX + "checkpointer";
+
+    /**
+     * The {@value BATCH_CONVERTED_HEADERS} header for the headers of each record in a batch message.
+     */
+    public static final String BATCH_CONVERTED_HEADERS = PREFIX + "batch_converted_headers";
+
+    /**
+     * The {@value COMPRESSION} header for the {@link com.microsoft.azure.spring.integration.core.api.CompressionConfig}
+     * to compress the outbound message with. It is not sent to the messaging service.
+     */
+    public static final String COMPRESSION = PREFIX + "compression";
+
+    /**
+     * The {@value CONTENT_ENCODING} application property marking the compression of message body. Unknown
+     * encodings are passed through without decompression.
+     */
+    public static final String CONTENT_ENCODING = PREFIX + "content_encoding";
 }
@@ -6,8 +6,10 @@
 
 package com.microsoft.azure.spring.integration.core;
 
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
 import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.EvaluationContext;
@@ -17,6 +19,7 @@ import org.springframework.integration.MessageTimeoutException;
 import org.springframework.integration.expression.ExpressionUtils;
 import org.springframework.integration.expression.ValueExpression;
 import org.springframework.integration.handler.AbstractMessageHandler;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.converter.MessageConverter;
@@ -50,6 +53,8 @@ public class DefaultMessageHandler extends AbstractMessageHandler {
     private EvaluationContext evaluationContext;
     private Expression sendTimeoutExpression = new ValueExpression<>(DEFAULT_SEND_TIMEOUT);
     private Expression partitionKeyExpression;
+    private MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
+    private CompressionConfig compressionConfig;
 
     public DefaultMessageHandler(String destination, @NonNull SendOperation sendOperation) {
         Assert.hasText(destination, "destination can't be null or empty");
@@ -68,12 +73,17 @@ public class DefaultMessageHandler extends AbstractMessageHandler {
     @SuppressWarnings("unchecked")
     protected void handleMessageInternal(Message<?> message) throws Exception {
 
+        if (this.compressionConfig != null && !message.getHeaders().containsKey(AzureHeaders.COMPRESSION)) {
+            message = MessageBuilder.fromMessage(message).setHeader(AzureHeaders.COMPRESSION, this.compressionConfig)
+                                    .build();
+        }
+
         PartitionSupplier partitionSupplier = toPartitionSupplier(message);
         String destination = toDestination(message);
         CompletableFuture<?> future = this.sendOperation.sendAsync(destination, message, partitionSupplier);
 
         if (this.sync) {
-            waitingSendResponse(future, message);
+            waitingSendResponse(destination, future, message);
             return;
         }
 
@@ -102,7 +112,7 @@ public class DefaultMessageHandler extends AbstractMessageHandler {
         });
     }
 
-    private void waitingSendResponse(CompletableFuture future, Message<?> message)
+    private void waitingSendResponse(String destination, CompletableFuture future, Message<?> message)
             throws InterruptedException, ExecutionException {
         Long sendTimeout = this.sendTimeoutExpression.getValue(this.evaluationContext, message, Long.class);
         if (sendTimeout < 0) {
@@ -114,6 +124,7 @@ public class DefaultMessageHandler extends AbstractMessageHandler {
                     log.debug("{} sent successfully in sync mode", message);
                 }
             } catch (TimeoutException e) {
+                this.messagingMetrics.recordFailure(destination, "send.timeout");
                 throw new MessageTimeoutException(message, "Timeout waiting for send event hub response", e);
             }
         }
@@ -134,6 +145,15 @@ public class DefaultMessageHandler extends AbstractMessageHandler {
         log.info("DefaultMessageHandler syncTimeout becomes: {}", sendTimeoutExpression);
     }
 
+    /**
+     * Compress payload of messages sent by this handler unless message has its own
+     * {@link AzureHeaders#COMPRESSION} header. Default is null, no compression
+     */
+    public void setCompressionConfig(CompressionConfig compressionConfig) {
+        this.compressionConfig = compressionConfig;
+        log.info("DefaultMessageHandler compressionConfig becomes: {}", compressionConfig);
+    }
+
     public void setPartitionKey(String partitionKey) {
         setPartitionKeyExpression(new LiteralExpression(partitionKey));
     }
@@ -177,10 +197,20 @@ public class DefaultMessageHandler extends AbstractMessageHandler {
         properties.put("sync", sync);
         properties.put("sendTimeout", sendTimeoutExpression);
         properties.put("destination", destination);
+        properties.put("compression", compressionConfig);
 
         return properties;
     }
 
+    /**
+     * Record failures only visible to this handler, such as sync send timeout. Send latency and outcome are
+     * recorded by the {@link SendOperation}. Default is {@link MessagingMetrics#NOOP}.
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.messagingMetrics = messagingMetrics;
+    }
+
     public void setSendCallback(ListenableFutureCallback<Void> callback) {
         this.sendCallback = callback;
     }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.api;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Batch related config used when messages are accumulated before sending
+ *
+ * @author Warren Zhu
+ */
+public class BatchConfig {
+    /**
+     * The max time to wait for more messages before sending a batch which is not full
+     */
+    private final Duration lingerTime;
+
+    /**
+     * The max size in bytes of one batch. Zero means the max size allowed by the messaging service
+     */
+    private final int maxBatchSizeInBytes;
+
+    public BatchConfig(Duration lingerTime, int maxBatchSizeInBytes) {
+        Assert.isTrue(lingerTime != null && !lingerTime.isNegative(), "lingerTime can't be null or negative");
+        Assert.isTrue(maxBatchSizeInBytes >= 0, "maxBatchSizeInBytes can't be negative");
+        this.lingerTime = lingerTime;
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+    }
+
+    public static BatchConfigBuilder builder() {
+        return new BatchConfigBuilder();
+    }
+
+    public Duration getLingerTime() {
+        return lingerTime;
+    }
+
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchConfig{" + "lingerTime=" + lingerTime + ", maxBatchSizeInBytes=" + maxBatchSizeInBytes + '}';
+    }
+
+    public static class BatchConfigBuilder {
+        private Duration lingerTime = Duration.ofMillis(10);
+        private int maxBatchSizeInBytes;
+
+        public BatchConfigBuilder lingerTime(Duration lingerTime) {
+            this.lingerTime = lingerTime;
+            return this;
+        }
+
+        public BatchConfigBuilder maxBatchSizeInBytes(int maxBatchSizeInBytes) {
+            this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+            return this;
+        }
+
+        public BatchConfig build() {
+            return new BatchConfig(lingerTime, maxBatchSizeInBytes);
+        }
+    }
+}
@@ -9,6 +9,8 @@ package com.microsoft.azure.spring.integration.core.api;
 import org.springframework.messaging.Message;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 
@@ -31,4 +33,14 @@ public interface BatchSendOperation {
     default <T> CompletableFuture<Void> sendAsync(String destination, Collection<Message<T>> messages) {
         return sendAsync(destination, messages, null);
     }
+
+    /**
+     * Send a {@link List<Message>} which may be split into several batches. Each returned future completes when the
+     * batch of the message at the same index is sent, so messages of sent batches don't fail with other batches.
+     * Default sends them as one batch.
+     */
+    default <T> List<CompletableFuture<Void>> sendEachAsync(String destination, List<Message<T>> messages,
+            PartitionSupplier partitionSupplier) {
+        return Collections.nCopies(messages.size(), sendAsync(destination, messages, partitionSupplier));
+    }
 }
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.api;
+
+/**
+ * Support consuming records in batch by setting {@link ListenerMode}
+ *
+ * @author Warren Zhu
+ */
+public interface Batchable {
+
+    void setListenerMode(ListenerMode listenerMode);
+
+    ListenerMode getListenerMode();
+}
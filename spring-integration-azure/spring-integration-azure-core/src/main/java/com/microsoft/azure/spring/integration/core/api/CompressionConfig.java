@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.api;
+
+import org.springframework.util.Assert;
+
+/**
+ * Payload compression related config
+ *
+ * @author Warren Zhu
+ */
+public class CompressionConfig {
+    public static final String GZIP = "gzip";
+    public static final String LZ4 = "lz4";
+    public static final String ZSTD = "zstd";
+
+    /**
+     * Content encoding of compressed payload, such as {@value GZIP}, {@value LZ4} or {@value ZSTD}
+     */
+    private final String encoding;
+
+    /**
+     * Payload smaller than this size in bytes is sent uncompressed
+     */
+    private final int threshold;
+
+    public CompressionConfig(String encoding, int threshold) {
+        Assert.hasText(encoding, "encoding can't be null or empty");
+        Assert.isTrue(threshold >= 0, "threshold can't be negative");
+        this.encoding = encoding;
+        this.threshold = threshold;
+    }
+
+    public static CompressionConfigBuilder builder() {
+        return new CompressionConfigBuilder();
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionConfig{" + "encoding='" + encoding + '\'' + ", threshold=" + threshold + '}';
+    }
+
+    public static class CompressionConfigBuilder {
+        private String encoding = GZIP;
+        private int threshold = 1024;
+
+        public CompressionConfigBuilder encoding(String encoding) {
+            this.encoding = encoding;
+            return this;
+        }
+
+        public CompressionConfigBuilder threshold(int threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        public CompressionConfig build() {
+            return new CompressionConfig(encoding, threshold);
+        }
+    }
+}
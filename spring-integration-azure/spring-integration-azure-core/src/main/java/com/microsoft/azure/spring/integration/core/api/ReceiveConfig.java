@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.api;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Receive related config used to tune how many messages are fetched and delivered at once.
+ * <p>
+ * Unset values are {@code null} and fall back to the default of the messaging service client.
+ *
+ * @author Warren Zhu
+ */
+public class ReceiveConfig {
+    public static final String LOW_LATENCY = "low-latency";
+    public static final String HIGH_THROUGHPUT = "high-throughput";
+
+    /**
+     * The max count of messages delivered to the listener in one batch
+     */
+    private final Integer maxBatchSize;
+
+    /**
+     * The count of messages fetched ahead of processing
+     */
+    private final Integer prefetchCount;
+
+    /**
+     * The max time to wait for messages before one receive call returns
+     */
+    private final Duration receiveTimeout;
+
+    /**
+     * Whether to invoke the listener with an empty batch when receive timed out
+     */
+    private final Boolean invokeProcessorAfterReceiveTimeout;
+
+    public ReceiveConfig(Integer maxBatchSize, Integer prefetchCount, Duration receiveTimeout,
+            Boolean invokeProcessorAfterReceiveTimeout) {
+        Assert.isTrue(maxBatchSize == null || maxBatchSize > 0, "maxBatchSize should be positive");
+        Assert.isTrue(prefetchCount == null || prefetchCount > 0, "prefetchCount should be positive");
+        Assert.isTrue(maxBatchSize == null || prefetchCount == null || prefetchCount >= maxBatchSize,
+                "prefetchCount can't be less than maxBatchSize");
+        Assert.isTrue(receiveTimeout == null || !receiveTimeout.isNegative() && !receiveTimeout.isZero(),
+                "receiveTimeout should be positive");
+        this.maxBatchSize = maxBatchSize;
+        this.prefetchCount = prefetchCount;
+        this.receiveTimeout = receiveTimeout;
+        this.invokeProcessorAfterReceiveTimeout = invokeProcessorAfterReceiveTimeout;
+    }
+
+    public static ReceiveConfigBuilder builder() {
+        return new ReceiveConfigBuilder();
+    }
+
+    /**
+     * Small batches delivered as soon as any message arrives
+     */
+    public static ReceiveConfigBuilder lowLatency() {
+        return builder().maxBatchSize(1).prefetchCount(10).receiveTimeout(Duration.ofSeconds(1))
+                        .invokeProcessorAfterReceiveTimeout(false);
+    }
+
+    /**
+     * Large batches backed by a deep prefetch buffer
+     */
+    public static ReceiveConfigBuilder highThroughput() {
+        return builder().maxBatchSize(500).prefetchCount(2000).receiveTimeout(Duration.ofSeconds(60))
+                        .invokeProcessorAfterReceiveTimeout(false);
+    }
+
+    /**
+     * Resolve preset by name, either {@value #LOW_LATENCY} or {@value #HIGH_THROUGHPUT}
+     */
+    public static ReceiveConfigBuilder preset(String name) {
+        Assert.hasText(name, "preset name can't be null or empty");
+
+        switch (name.toLowerCase()) {
+            case LOW_LATENCY:
+                return lowLatency();
+            case HIGH_THROUGHPUT:
+                return highThroughput();
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Unknown receive preset '%s', should be '%s' or '%s'", name, LOW_LATENCY,
+                                HIGH_THROUGHPUT));
+        }
+    }
+
+    public Integer getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Integer getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    public Duration getReceiveTimeout() {
+        return receiveTimeout;
+    }
+
+    public Boolean getInvokeProcessorAfterReceiveTimeout() {
+        return invokeProcessorAfterReceiveTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiveConfig{" + "maxBatchSize=" + maxBatchSize + ", prefetchCount=" + prefetchCount +
+                ", receiveTimeout=" + receiveTimeout + ", invokeProcessorAfterReceiveTimeout=" +
+                invokeProcessorAfterReceiveTimeout + '}';
+    }
+
+    public static class ReceiveConfigBuilder {
+        private Integer maxBatchSize;
+        private Integer prefetchCount;
+        private Duration receiveTimeout;
+        private Boolean invokeProcessorAfterReceiveTimeout;
+
+        public ReceiveConfigBuilder maxBatchSize(Integer maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public ReceiveConfigBuilder prefetchCount(Integer prefetchCount) {
+            this.prefetchCount = prefetchCount;
+            return this;
+        }
+
+        public ReceiveConfigBuilder receiveTimeout(Duration receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+            return this;
+        }
+
+        public ReceiveConfigBuilder invokeProcessorAfterReceiveTimeout(Boolean invokeProcessorAfterReceiveTimeout) {
+            this.invokeProcessorAfterReceiveTimeout = invokeProcessorAfterReceiveTimeout;
+            return this;
+        }
+
+        public ReceiveConfig build() {
+            return new ReceiveConfig(maxBatchSize, prefetchCount, receiveTimeout, invokeProcessorAfterReceiveTimeout);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.api;
+
+/**
+ * Support tuning receive batch size, prefetch and timeout by setting {@link ReceiveConfig}
+ *
+ * @author Warren Zhu
+ */
+public interface ReceiveConfigurable {
+
+    void setReceiveConfig(ReceiveConfig receiveConfig);
+
+    ReceiveConfig getReceiveConfig();
+}
@@ -6,48 +6,171 @@
 
 package com.microsoft.azure.spring.integration.core.converter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionCodec;
+import com.microsoft.azure.spring.integration.core.converter.compression.CompressionCodecs;
+import com.microsoft.azure.spring.integration.core.converter.codec.JacksonPayloadCodec;
+import com.microsoft.azure.spring.integration.core.converter.codec.PayloadCodec;
+import com.microsoft.azure.spring.integration.core.converter.codec.PayloadCodecs;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
 
-import java.io.IOException;
-import java.util.Arrays;
+import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Abstract class handles common conversion logic between <T> and {@link Message}
+ * <p>
+ * Payload other than String and byte[] is encoded by the {@link PayloadCodec} matching the content type header of
+ * message, or by the default JSON codec if no content type header is present or no codec matches. Built-in binary
+ * codecs from {@link PayloadCodecs#builtIn(ObjectMapper)} are registered when their libraries are on classpath.
+ * <p>
+ * Converters which can carry a content encoding property compress payload no smaller than the threshold of
+ * {@link CompressionConfig} from the {@link AzureHeaders#COMPRESSION} header, or of the default one, and decompress
+ * it transparently in {@link #toMessage(Object, Map, Class)}. Payload with an unknown content encoding, such as
+ * {@code identity}, is passed through as is and keeps its {@link AzureHeaders#CONTENT_ENCODING} header.
  *
  * @author Warren Zhu
  */
 public abstract class AbstractAzureMessageConverter<T> implements AzureMessageConverter<T> {
-    private static ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = new ObjectMapper();
 
-    private static byte[] toPayload(Object object) {
-        try {
-            return objectMapper.writeValueAsBytes(object);
-        } catch (JsonProcessingException e) {
-            throw new ConversionException("Failed to write JSON: " + object, e);
+    private final ObjectMapper objectMapper;
+    private final List<PayloadCodec> codecs = new CopyOnWriteArrayList<>();
+    private volatile PayloadCodec defaultCodec;
+    private volatile CompressionConfig compressionConfig;
+    private volatile int maxDecompressedSize = CompressionCodec.DEFAULT_MAX_DECOMPRESSED_SIZE;
+
+    protected AbstractAzureMessageConverter() {
+        this(DEFAULT_OBJECT_MAPPER);
+    }
+
+    protected AbstractAzureMessageConverter(ObjectMapper objectMapper) {
+        Assert.notNull(objectMapper, "objectMapper can't be null");
+        this.objectMapper = objectMapper;
+        this.defaultCodec = JacksonPayloadCodec.json(objectMapper);
+        this.codecs.addAll(PayloadCodecs.builtIn(objectMapper));
+    }
+
+    /**
+     * Register a codec. Codecs added later take precedence over earlier ones with the same content type.
+     */
+    public void addCodec(PayloadCodec codec) {
+        Assert.notNull(codec, "codec can't be null");
+        this.codecs.add(0, codec);
+    }
+
+    /**
+     * Codec used when message has no content type header or no codec matches it. Default is JSON
+     */
+    public void setDefaultCodec(PayloadCodec defaultCodec) {
+        Assert.notNull(defaultCodec, "defaultCodec can't be null");
+        this.defaultCodec = defaultCodec;
+    }
+
+    public PayloadCodec getDefaultCodec() {
+        return defaultCodec;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Compression applied to messages without {@link AzureHeaders#COMPRESSION} header. Default is null, no compression
+     */
+    public void setCompressionConfig(CompressionConfig compressionConfig) {
+        this.compressionConfig = compressionConfig;
+    }
+
+    public CompressionConfig getCompressionConfig() {
+        return compressionConfig;
+    }
+
+    /**
+     * Max size in bytes a compressed payload may expand to, larger ones fail conversion. Default is 16 MB
+     */
+    public void setMaxDecompressedSize(int maxDecompressedSize) {
+        Assert.isTrue(maxDecompressedSize > 0, "maxDecompressedSize should be positive");
+        this.maxDecompressedSize = maxDecompressedSize;
+    }
+
+    public int getMaxDecompressedSize() {
+        return maxDecompressedSize;
+    }
+
+    private PayloadCodec codecFor(Object contentType, Class<?> payloadType) {
+        MimeType mimeType = toMimeType(contentType);
+
+        if (mimeType != null) {
+            for (PayloadCodec codec : this.codecs) {
+                if (codec.getContentType().isCompatibleWith(mimeType) && codec.supports(payloadType)) {
+                    return codec;
+                }
+            }
         }
+
+        return this.defaultCodec;
     }
 
-    private static <U> U fromPayload(byte[] payload, Class<U> payloadType) {
-        try {
-            return objectMapper.readerFor(payloadType).readValue(payload);
-        } catch (IOException e) {
-            throw new ConversionException("Failed to read JSON: " + Arrays.toString(payload), e);
+    private static MimeType toMimeType(Object contentType) {
+        if (contentType instanceof MimeType) {
+            return (MimeType) contentType;
+        }
+
+        if (contentType instanceof String) {
+            try {
+                return MimeType.valueOf((String) contentType);
+            } catch (InvalidMimeTypeException e) {
+                return null;
+            }
         }
+
+        return null;
     }
 
     @Override
     public T fromMessage(@NonNull Message<?> message, @NonNull Class<T> targetClass) {
-        T azureMessage = internalFromMessage(message, targetClass);
+        Object payload = message.getPayload();
+
+        if (targetClass.isInstance(payload)) {
+            T azureMessage = targetClass.cast(payload);
+            setCustomHeaders(message.getHeaders(), azureMessage);
+            return azureMessage;
+        }
+
+        CompressionConfig compression = compressionFor(message.getHeaders());
+        byte[] bytes = compression == null ? null : toBytes(payload, message.getHeaders());
+        String contentEncoding = null;
+        T azureMessage;
+
+        if (bytes != null && bytes.length >= compression.getThreshold()) {
+            contentEncoding = compression.getEncoding();
+            azureMessage = fromByte(CompressionCodecs.forEncoding(contentEncoding).compress(bytes));
+        } else if (payload instanceof String) {
+            azureMessage = fromString((String) payload);
+        } else {
+            azureMessage = fromByte(bytes != null ? bytes : toBytes(payload, message.getHeaders()));
+        }
 
         setCustomHeaders(message.getHeaders(), azureMessage);
 
+        // After custom headers, so a mapped content encoding header can't replace or fake the marker
+        if (supportsContentEncoding()) {
+            setContentEncoding(azureMessage, contentEncoding);
+        }
+
         return azureMessage;
     }
 
@@ -61,6 +184,27 @@ public abstract class AbstractAzureMessageConverter<T> implements AzureMessageCo
         return (Message<U>) internalToMessage(azureMessage, mergedHeaders, targetPayloadClass);
     }
 
+    /**
+     * Convert to a {@link Message} whose headers are only built when first accessed. Headers are those of azure
+     * message plus the ones added by {@code headersCustomizer}, which is also invoked lazily. Payload is converted
+     * eagerly, so conversion failures still surface on receive.
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Message<U> toLazyMessage(@NonNull T azureMessage, Consumer<Map<String, Object>> headersCustomizer,
+            @NonNull Class<U> targetPayloadClass) {
+        Object payload = targetPayloadClass.isInstance(azureMessage) ? azureMessage :
+                decodePayload(azureMessage, null, targetPayloadClass);
+
+        return new LazyHeadersMessage<>((U) payload, () -> {
+            Map<String, Object> headers = new HashMap<>(buildCustomHeaders(azureMessage));
+            if (compressionCodecOf(azureMessage) != null) {
+                headers.remove(AzureHeaders.CONTENT_ENCODING);
+            }
+            headersCustomizer.accept(headers);
+            return headers;
+        });
+    }
+
     protected abstract byte[] getPayload(T azureMessage);
 
     protected abstract T fromString(String payload);
@@ -74,39 +218,96 @@ public abstract class AbstractAzureMessageConverter<T> implements AzureMessageCo
         return new HashMap<>();
     }
 
-    private T internalFromMessage(Message<?> message, Class<T> targetClass) {
-        Object payload = message.getPayload();
+    /**
+     * Whether azure message could carry a content encoding property. Payload is never compressed if false
+     */
+    protected boolean supportsContentEncoding() {
+        return false;
+    }
 
-        if (targetClass.isInstance(payload)) {
-            return targetClass.cast(payload);
+    /**
+     * Mark azure message with the content encoding of its body, or remove the mark if {@code contentEncoding} is
+     * null. Only invoked if {@link #supportsContentEncoding()}
+     */
+    protected void setContentEncoding(T azureMessage, String contentEncoding) {
+    }
+
+    protected String getContentEncoding(T azureMessage) {
+        return null;
+    }
+
+    /**
+     * Content type of azure message selecting the codec in {@link #toLazyMessage(Object, Consumer, Class)}.
+     * Subclasses should override to read it without building all custom headers.
+     */
+    protected Object getContentType(T azureMessage) {
+        return buildCustomHeaders(azureMessage).get(MessageHeaders.CONTENT_TYPE);
+    }
+
+    private CompressionConfig compressionFor(MessageHeaders headers) {
+        if (!supportsContentEncoding()) {
+            return null;
+        }
+
+        Object compression = headers.get(AzureHeaders.COMPRESSION);
+
+        if (compression instanceof CompressionConfig) {
+            return (CompressionConfig) compression;
         }
 
+        return this.compressionConfig;
+    }
+
+    private byte[] toBytes(Object payload, MessageHeaders headers) {
         if (payload instanceof String) {
-            return fromString((String) payload);
+            return ((String) payload).getBytes(Charset.defaultCharset());
         }
 
         if (payload instanceof byte[]) {
-            return fromByte((byte[]) payload);
+            return (byte[]) payload;
         }
 
-        return fromByte(toPayload(payload));
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        return codecFor(contentType, payload.getClass()).encode(payload);
     }
 
     private <U> Message<?> internalToMessage(T azureMessage, Map<String, Object> headers, Class<U> targetPayloadClass) {
-        byte[] payload = getPayload(azureMessage);
-
         if (targetPayloadClass.isInstance(azureMessage)) {
             return MessageBuilder.withPayload(azureMessage).copyHeaders(headers).build();
         }
 
+        if (compressionCodecOf(azureMessage) != null) {
+            headers.remove(AzureHeaders.CONTENT_ENCODING);
+        }
+
+        return MessageBuilder.withPayload(decodePayload(azureMessage, headers, targetPayloadClass)).copyHeaders(headers)
+                             .build();
+    }
+
+    /**
+     * @param headers merged headers to look up content type from, or null to read it from azure message
+     */
+    private Object decodePayload(T azureMessage, Map<String, Object> headers, Class<?> targetPayloadClass) {
+        byte[] payload = getPayload(azureMessage);
+        CompressionCodec codec = compressionCodecOf(azureMessage);
+
+        if (codec != null) {
+            payload = codec.decompress(payload, this.maxDecompressedSize);
+        }
+
         if (targetPayloadClass == String.class) {
-            return MessageBuilder.withPayload(new String(payload)).copyHeaders(headers).build();
+            return new String(payload);
         }
 
         if (targetPayloadClass == byte[].class) {
-            return MessageBuilder.withPayload(payload).copyHeaders(headers).build();
+            return payload;
         }
 
-        return MessageBuilder.withPayload(fromPayload(payload, targetPayloadClass)).copyHeaders(headers).build();
+        Object contentType = headers == null ? getContentType(azureMessage) : headers.get(MessageHeaders.CONTENT_TYPE);
+        return codecFor(contentType, targetPayloadClass).decode(payload, targetPayloadClass);
+    }
+
+    private CompressionCodec compressionCodecOf(T azureMessage) {
+        return supportsContentEncoding() ? CompressionCodecs.find(getContentEncoding(azureMessage)) : null;
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import org.springframework.integration.mapping.HeaderMapper;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
+import org.springframework.util.PatternMatchUtils;
+
+import java.util.*;
+
+/**
+ * {@link HeaderMapper} between {@link MessageHeaders} and application properties of azure message.
+ * <p>
+ * Headers are filtered by ordered patterns supporting {@code *} wildcards, where the first matching pattern decides
+ * and patterns starting with {@code !} exclude. Headers matching no pattern are not mapped. Outbound values of
+ * primitive AMQP types are kept as is, others are mapped by {@code toString()}.
+ * <p>
+ * By default, all headers are mapped inbound. Outbound excludes {@code id}, {@code timestamp}, reply and error
+ * channels and {@code azure_} prefixed headers, which are only meaningful within the application.
+ *
+ * @author Warren Zhu
+ */
+public class AzureHeaderMapper implements HeaderMapper<Map<String, Object>> {
+    private static final String NEGATION = "!";
+    private static final List<String> DEFAULT_OUTBOUND_PATTERNS = Collections.unmodifiableList(
+            Arrays.asList("!" + MessageHeaders.ID, "!" + MessageHeaders.TIMESTAMP, "!" + MessageHeaders.REPLY_CHANNEL,
+                    "!" + MessageHeaders.ERROR_CHANNEL, "!azure_*", "*"));
+    private static final List<String> DEFAULT_INBOUND_PATTERNS = Collections.singletonList("*");
+    private static final Set<Class<?>> AMQP_TYPES = new HashSet<>(
+            Arrays.asList(String.class, Boolean.class, Byte.class, Short.class, Integer.class, Long.class,
+                    Float.class, Double.class, Character.class, UUID.class, Date.class, byte[].class));
+
+    private List<String> outboundPatterns = DEFAULT_OUTBOUND_PATTERNS;
+    private List<String> inboundPatterns = DEFAULT_INBOUND_PATTERNS;
+
+    public void setOutboundHeaderPatterns(String... patterns) {
+        Assert.notEmpty(patterns, "patterns can't be empty");
+        this.outboundPatterns = Collections.unmodifiableList(Arrays.asList(patterns));
+    }
+
+    public void setInboundHeaderPatterns(String... patterns) {
+        Assert.notEmpty(patterns, "patterns can't be empty");
+        this.inboundPatterns = Collections.unmodifiableList(Arrays.asList(patterns));
+    }
+
+    public List<String> getOutboundHeaderPatterns() {
+        return outboundPatterns;
+    }
+
+    public List<String> getInboundHeaderPatterns() {
+        return inboundPatterns;
+    }
+
+    @Override
+    public void fromHeaders(MessageHeaders headers, Map<String, Object> target) {
+        headers.forEach((name, value) -> {
+            if (value != null && matches(name, this.outboundPatterns)) {
+                target.put(name, toAmqpValue(value));
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Object> toHeaders(Map<String, Object> source) {
+        Map<String, Object> headers = new HashMap<>();
+
+        source.forEach((name, value) -> {
+            if (value != null && matches(name, this.inboundPatterns)) {
+                headers.put(name, value);
+            }
+        });
+
+        return headers;
+    }
+
+    private static boolean matches(String name, List<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.startsWith(NEGATION)) {
+                if (PatternMatchUtils.simpleMatch(pattern.substring(NEGATION.length()), name)) {
+                    return false;
+                }
+            } else if (PatternMatchUtils.simpleMatch(pattern, name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Object toAmqpValue(Object value) {
+        return AMQP_TYPES.contains(value.getClass()) ? value : value.toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.ObjectUtils;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link Message} whose {@link MessageHeaders} are built from the native azure message on first access. Consumers
+ * only reading payload never pay for header maps. Id and timestamp headers are generated when headers are built.
+ *
+ * @author Warren Zhu
+ */
+final class LazyHeadersMessage<T> implements Message<T> {
+    private final T payload;
+    private Supplier<Map<String, Object>> headersSupplier;
+    private volatile MessageHeaders headers;
+
+    LazyHeadersMessage(T payload, Supplier<Map<String, Object>> headersSupplier) {
+        this.payload = payload;
+        this.headersSupplier = headersSupplier;
+    }
+
+    @Override
+    public T getPayload() {
+        return this.payload;
+    }
+
+    @Override
+    public MessageHeaders getHeaders() {
+        MessageHeaders result = this.headers;
+
+        if (result == null) {
+            synchronized (this) {
+                result = this.headers;
+
+                if (result == null) {
+                    result = new MessageHeaders(this.headersSupplier.get());
+                    this.headers = result;
+                    this.headersSupplier = null;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof Message)) {
+            return false;
+        }
+
+        Message<?> otherMessage = (Message<?>) other;
+        return ObjectUtils.nullSafeEquals(this.payload, otherMessage.getPayload()) &&
+                getHeaders().equals(otherMessage.getHeaders());
+    }
+
+    @Override
+    public int hashCode() {
+        return ObjectUtils.nullSafeHashCode(this.payload) * 23 + getHeaders().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [payload=" + ObjectUtils.nullSafeToString(this.payload) + ", headers=" +
+                getHeaders() + "]";
+    }
+}
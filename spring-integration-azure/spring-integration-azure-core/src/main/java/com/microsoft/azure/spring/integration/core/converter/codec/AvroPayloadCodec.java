@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.codec;
+
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.springframework.util.MimeType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PayloadCodec} for Avro generated {@link SpecificRecord} classes. Schema is resolved once per class, and datum
+ * readers and writers are cached with it. Both writer and reader use the schema of the payload class, so producer and
+ * consumer should share the generated class.
+ *
+ * @author Warren Zhu
+ */
+public class AvroPayloadCodec implements PayloadCodec {
+    public static final MimeType AVRO = new MimeType("avro", "binary");
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private static final ThreadLocal<EncoderState> ENCODER = ThreadLocal.withInitial(EncoderState::new);
+    private static final ThreadLocal<BinaryDecoder> DECODER = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<Class<?>, DatumWriter<Object>> writers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, DatumReader<?>> readers = new ConcurrentHashMap<>();
+
+    @Override
+    public MimeType getContentType() {
+        return AVRO;
+    }
+
+    @Override
+    public boolean supports(Class<?> payloadType) {
+        return SpecificRecord.class.isAssignableFrom(payloadType);
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        DatumWriter<Object> writer = this.writers.computeIfAbsent(payload.getClass(), SpecificDatumWriter::new);
+        EncoderState state = ENCODER.get();
+        state.out.reset();
+
+        try {
+            state.encoder = EncoderFactory.get().binaryEncoder(state.out, state.encoder);
+            writer.write(payload, state.encoder);
+            state.encoder.flush();
+            return state.out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new ConversionException("Failed to write avro: " + payload, e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <U> U decode(byte[] payload, Class<U> payloadType) {
+        DatumReader<U> reader =
+                (DatumReader<U>) this.readers.computeIfAbsent(payloadType, SpecificDatumReader::new);
+
+        try {
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(payload, DECODER.get());
+            DECODER.set(decoder);
+            return reader.read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new ConversionException("Failed to read avro as " + payloadType.getName(), e);
+        }
+    }
+
+    private static class EncoderState {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        private BinaryEncoder encoder;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.codec;
+
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PayloadCodec} backed by Jackson, which supports text JSON and binary formats with a Jackson data format such
+ * as Smile and CBOR.
+ * <p>
+ * Readers and writers are cached per payload type. Payloads are serialized into a thread-local buffer, so only the
+ * byte array handed to the azure message is allocated per message.
+ *
+ * @author Warren Zhu
+ */
+public class JacksonPayloadCodec implements PayloadCodec {
+    public static final MimeType SMILE = new MimeType("application", "x-jackson-smile");
+    public static final MimeType CBOR = new MimeType("application", "cbor");
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    // ByteArrayBuilder only retains its last segment after reset, which is bounded by its max block size
+    private static final ThreadLocal<ByteArrayBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new ByteArrayBuilder(INITIAL_BUFFER_SIZE));
+
+    private final ObjectMapper objectMapper;
+    private final MimeType contentType;
+    private final ConcurrentHashMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JacksonPayloadCodec(ObjectMapper objectMapper, MimeType contentType) {
+        Assert.notNull(objectMapper, "objectMapper can't be null");
+        Assert.notNull(contentType, "contentType can't be null");
+        this.objectMapper = objectMapper;
+        this.contentType = contentType;
+    }
+
+    public static JacksonPayloadCodec json(ObjectMapper objectMapper) {
+        return new JacksonPayloadCodec(objectMapper, MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    @Override
+    public MimeType getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean supports(Class<?> payloadType) {
+        return true;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        ObjectWriter writer = this.writers.computeIfAbsent(payload.getClass(), this.objectMapper::writerFor);
+        ByteArrayBuilder buffer = BUFFER.get();
+
+        try {
+            writer.writeValue(buffer, payload);
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new ConversionException(String.format("Failed to write %s: %s", contentType, payload), e);
+        } finally {
+            // toByteArray() doesn't reset a builder whose content fits in its current block
+            buffer.reset();
+        }
+    }
+
+    @Override
+    public <U> U decode(byte[] payload, Class<U> payloadType) {
+        try {
+            return this.readers.computeIfAbsent(payloadType, this.objectMapper::readerFor).readValue(payload);
+        } catch (IOException e) {
+            throw new ConversionException(
+                    String.format("Failed to read %s: %s", contentType, Arrays.toString(payload)), e);
+        }
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
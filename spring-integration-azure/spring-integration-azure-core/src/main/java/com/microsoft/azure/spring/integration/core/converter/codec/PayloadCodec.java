@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.codec;
+
+import org.springframework.util.MimeType;
+
+/**
+ * Encode payload of types other than String and byte[] into the body of azure message and decode it back. Codec is
+ * selected by the content type header of message.
+ *
+ * @author Warren Zhu
+ */
+public interface PayloadCodec {
+
+    /**
+     * @return content type which selects this codec
+     */
+    MimeType getContentType();
+
+    /**
+     * @return whether payload of given type can be encoded and decoded
+     */
+    boolean supports(Class<?> payloadType);
+
+    byte[] encode(Object payload);
+
+    <U> U decode(byte[] payload, Class<U> payloadType);
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.MimeType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Built-in binary {@link PayloadCodec}s. Each is only created when its library is on the classpath, since all of them
+ * are optional dependencies.
+ *
+ * @author Warren Zhu
+ */
+public final class PayloadCodecs {
+    private static final ClassLoader CLASS_LOADER = PayloadCodecs.class.getClassLoader();
+    private static final String SMILE_FACTORY = "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+    private static final String CBOR_FACTORY = "com.fasterxml.jackson.dataformat.cbor.CBORFactory";
+
+    private PayloadCodecs() {
+    }
+
+    /**
+     * @param objectMapper configured mapper whose modules and features the Jackson binary codecs inherit
+     */
+    public static List<PayloadCodec> builtIn(ObjectMapper objectMapper) {
+        List<PayloadCodec> codecs = new ArrayList<>();
+
+        if (ClassUtils.isPresent(SMILE_FACTORY, CLASS_LOADER)) {
+            codecs.add(jackson(objectMapper, SMILE_FACTORY, JacksonPayloadCodec.SMILE));
+        }
+
+        if (ClassUtils.isPresent(CBOR_FACTORY, CLASS_LOADER)) {
+            codecs.add(jackson(objectMapper, CBOR_FACTORY, JacksonPayloadCodec.CBOR));
+        }
+
+        if (ClassUtils.isPresent("org.apache.avro.specific.SpecificRecord", CLASS_LOADER)) {
+            codecs.add(new AvroPayloadCodec());
+        }
+
+        if (ClassUtils.isPresent("com.google.protobuf.Message", CLASS_LOADER)) {
+            codecs.add(new ProtobufPayloadCodec());
+        }
+
+        return codecs;
+    }
+
+    /**
+     * Data format factory is created reflectively so this class loads without the data format on classpath
+     */
+    private static JacksonPayloadCodec jackson(ObjectMapper objectMapper, String factoryClassName,
+            MimeType contentType) {
+        Class<?> factoryClass = ClassUtils.resolveClassName(factoryClassName, CLASS_LOADER);
+        JsonFactory factory = (JsonFactory) BeanUtils.instantiateClass(factoryClass);
+        return new JacksonPayloadCodec(copyWith(objectMapper, factory), contentType);
+    }
+
+    /**
+     * Copy of given mapper writing through another factory. Registered serializers and deserializers of modules live
+     * in the serializer factory and deserialization context, the rest of configuration in the two configs.
+     * {@code ObjectMapper.copyWith(JsonFactory)} is not available in Jackson 2.9.
+     */
+    static ObjectMapper copyWith(ObjectMapper objectMapper, JsonFactory factory) {
+        ObjectMapper copy = new ObjectMapper(factory, (DefaultSerializerProvider) objectMapper.getSerializerProvider(),
+                (DefaultDeserializationContext) objectMapper.getDeserializationContext());
+        copy.setSerializerFactory(objectMapper.getSerializerFactory());
+        copy.setConfig(objectMapper.getSerializationConfig());
+        copy.setConfig(objectMapper.getDeserializationConfig());
+        copy.setInjectableValues(objectMapper.getInjectableValues());
+        return copy;
+    }
+}
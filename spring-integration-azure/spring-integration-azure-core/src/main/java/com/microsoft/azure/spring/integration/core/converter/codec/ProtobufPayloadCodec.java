@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.codec;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.springframework.util.MimeType;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link PayloadCodec} for Protobuf generated {@link Message} classes. The parser of each class is looked up once
+ * through its generated static {@code parser()} method.
+ *
+ * @author Warren Zhu
+ */
+public class ProtobufPayloadCodec implements PayloadCodec {
+    public static final MimeType PROTOBUF = new MimeType("application", "x-protobuf");
+
+    private final ConcurrentHashMap<Class<?>, Parser<?>> parsers = new ConcurrentHashMap<>();
+
+    @Override
+    public MimeType getContentType() {
+        return PROTOBUF;
+    }
+
+    @Override
+    public boolean supports(Class<?> payloadType) {
+        return Message.class.isAssignableFrom(payloadType);
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        return ((Message) payload).toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <U> U decode(byte[] payload, Class<U> payloadType) {
+        try {
+            return (U) this.parsers.computeIfAbsent(payloadType, ProtobufPayloadCodec::findParser).parseFrom(payload);
+        } catch (InvalidProtocolBufferException e) {
+            throw new ConversionException("Failed to read protobuf as " + payloadType.getName(), e);
+        }
+    }
+
+    private static Parser<?> findParser(Class<?> payloadType) {
+        Method parser = ReflectionUtils.findMethod(payloadType, "parser");
+
+        if (parser == null) {
+            throw new ConversionException("No static parser() method found in " + payloadType.getName());
+        }
+
+        return (Parser<?>) ReflectionUtils.invokeMethod(parser, null);
+    }
+}
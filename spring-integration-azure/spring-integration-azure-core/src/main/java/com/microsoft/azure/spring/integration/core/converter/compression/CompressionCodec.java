@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+/**
+ * Compress and decompress message body. The encoding name is stored with the message so the consumer can pick the
+ * same codec. Decompression is bounded by a max size, so a small crafted payload can't exhaust the heap.
+ *
+ * @author Warren Zhu
+ */
+public interface CompressionCodec {
+
+    int DEFAULT_MAX_DECOMPRESSED_SIZE = 16 * 1024 * 1024;
+
+    String getEncoding();
+
+    byte[] compress(byte[] payload);
+
+    /**
+     * @throws com.microsoft.azure.spring.integration.core.converter.ConversionException if decompressed payload is
+     * larger than {@code maxSize} bytes
+     */
+    byte[] decompress(byte[] payload, int maxSize);
+
+    default byte[] decompress(byte[] payload) {
+        return decompress(payload, DEFAULT_MAX_DECOMPRESSED_SIZE);
+    }
+}
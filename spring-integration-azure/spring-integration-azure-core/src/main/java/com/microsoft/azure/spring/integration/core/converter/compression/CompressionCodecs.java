@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link CompressionCodec} by encoding. Gzip is always available, lz4 and zstd only when their optional
+ * libraries are on classpath.
+ *
+ * @author Warren Zhu
+ */
+public final class CompressionCodecs {
+    private static final ClassLoader CLASS_LOADER = CompressionCodecs.class.getClassLoader();
+    private static final Map<String, CompressionCodec> CODECS = new ConcurrentHashMap<>();
+
+    static {
+        register(new GzipCompressionCodec());
+
+        if (ClassUtils.isPresent("net.jpountz.lz4.LZ4FrameOutputStream", CLASS_LOADER)) {
+            register(new Lz4CompressionCodec());
+        }
+
+        if (ClassUtils.isPresent("com.github.luben.zstd.Zstd", CLASS_LOADER)) {
+            register(new ZstdCompressionCodec());
+        }
+    }
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * Register a codec, replacing the one with the same encoding
+     */
+    public static void register(CompressionCodec codec) {
+        CODECS.put(codec.getEncoding(), codec);
+    }
+
+    public static CompressionCodec forEncoding(String encoding) {
+        CompressionCodec codec = find(encoding);
+
+        if (codec == null) {
+            throw new ConversionException(
+                    String.format("Compression codec '%s' is not available, supported: %s", encoding,
+                            CODECS.keySet()));
+        }
+
+        return codec;
+    }
+
+    /**
+     * @return codec of the encoding, or null if encoding is null, identity or unknown
+     */
+    public static CompressionCodec find(String encoding) {
+        return encoding == null ? null : CODECS.get(encoding);
+    }
+
+    /**
+     * Read decompressing stream to the end, failing as soon as more than {@code maxSize} bytes are read
+     */
+    static byte[] readBounded(InputStream in, int maxSize, String encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+
+            if (total > maxSize) {
+                throw new ConversionException(
+                        String.format("Decompressed %s payload exceeds max size of %d bytes", encoding, maxSize));
+            }
+
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+}
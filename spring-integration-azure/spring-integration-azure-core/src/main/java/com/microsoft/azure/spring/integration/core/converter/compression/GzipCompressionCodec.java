@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link CompressionCodec} backed by JDK gzip
+ *
+ * @author Warren Zhu
+ */
+public class GzipCompressionCodec implements CompressionCodec {
+
+    @Override
+    public String getEncoding() {
+        return CompressionConfig.GZIP;
+    }
+
+    @Override
+    public byte[] compress(byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 32);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to compress payload with gzip", e);
+        }
+
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] payload, int maxSize) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return CompressionCodecs.readBounded(gzip, maxSize, getEncoding());
+        } catch (IOException e) {
+            throw new ConversionException("Failed to decompress payload with gzip", e);
+        }
+    }
+}
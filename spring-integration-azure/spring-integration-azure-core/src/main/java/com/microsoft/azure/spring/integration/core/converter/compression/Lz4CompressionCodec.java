@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * {@link CompressionCodec} writing the standard LZ4 frame format, so consumers in other languages can read it.
+ * Requires {@code lz4-java}.
+ *
+ * @author Warren Zhu
+ */
+public class Lz4CompressionCodec implements CompressionCodec {
+
+    @Override
+    public String getEncoding() {
+        return CompressionConfig.LZ4;
+    }
+
+    @Override
+    public byte[] compress(byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 32);
+
+        try (LZ4FrameOutputStream lz4 = new LZ4FrameOutputStream(out)) {
+            lz4.write(payload);
+        } catch (IOException e) {
+            throw new ConversionException("Failed to compress payload with lz4", e);
+        }
+
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] payload, int maxSize) {
+        try (LZ4FrameInputStream lz4 = new LZ4FrameInputStream(new ByteArrayInputStream(payload))) {
+            return CompressionCodecs.readBounded(lz4, maxSize, getEncoding());
+        } catch (IOException e) {
+            throw new ConversionException("Failed to decompress payload with lz4", e);
+        }
+    }
+}
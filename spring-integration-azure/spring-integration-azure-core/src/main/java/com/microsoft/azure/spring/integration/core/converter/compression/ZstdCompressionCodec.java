@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+
+/**
+ * {@link CompressionCodec} backed by zstd. Compressed frames record content size, which is checked against the max
+ * size before sizing the decompression buffer. Requires {@code zstd-jni}.
+ *
+ * @author Warren Zhu
+ */
+public class ZstdCompressionCodec implements CompressionCodec {
+    private static final int DEFAULT_LEVEL = 3;
+
+    private final int level;
+
+    public ZstdCompressionCodec() {
+        this(DEFAULT_LEVEL);
+    }
+
+    public ZstdCompressionCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return CompressionConfig.ZSTD;
+    }
+
+    @Override
+    public byte[] compress(byte[] payload) {
+        try {
+            return Zstd.compress(payload, this.level);
+        } catch (ZstdException e) {
+            throw new ConversionException("Failed to compress payload with zstd", e);
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] payload, int maxSize) {
+        long size = Zstd.decompressedSize(payload);
+
+        if (size <= 0) {
+            throw new ConversionException("Unknown content size of zstd payload: " + size);
+        }
+
+        if (size > maxSize) {
+            throw new ConversionException(
+                    String.format("Decompressed zstd payload of %d bytes exceeds max size of %d bytes", size, maxSize));
+        }
+
+        try {
+            return Zstd.decompress(payload, (int) size);
+        } catch (ZstdException e) {
+            throw new ConversionException("Failed to decompress payload with zstd", e);
+        }
+    }
+}
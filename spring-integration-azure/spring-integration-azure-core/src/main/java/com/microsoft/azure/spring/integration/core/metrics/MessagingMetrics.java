@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.metrics;
+
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Record send, consume and checkpoint of azure messaging services.
+ * <p>
+ * Every method wraps the operation it measures. {@link #NOOP} returns the operation untouched, so disabled metrics
+ * add nothing but one virtual call to the hot path.
+ *
+ * @author Warren Zhu
+ */
+public interface MessagingMetrics {
+
+    MessagingMetrics NOOP = new MessagingMetrics() {
+    };
+
+    /**
+     * Record latency, outcome, message count and size of one send
+     *
+     * @param partitionId partition sent to, {@code null} if resolved by service
+     */
+    default <T> CompletableFuture<T> recordSend(String destination, String partitionId, int messageCount,
+            long bytes, Supplier<CompletableFuture<T>> send) {
+        return send.get();
+    }
+
+    /**
+     * Record latency and outcome of one receive, and count of messages received
+     *
+     * @param receive completes with {@code null} if no message is available
+     */
+    default <T> CompletableFuture<T> recordReceive(String destination, String group,
+            Supplier<CompletableFuture<T>> receive) {
+        return receive.get();
+    }
+
+    /**
+     * Wrap consumer to record handling time and outcome of each message
+     */
+    default Consumer<Message<?>> recordHandler(String destination, String group, Consumer<Message<?>> consumer) {
+        return consumer;
+    }
+
+    /**
+     * Record latency and outcome of one checkpoint
+     */
+    default <T> CompletableFuture<T> recordCheckpoint(String destination, String group, String partitionId,
+            Supplier<CompletableFuture<T>> checkpoint) {
+        return checkpoint.get();
+    }
+
+    /**
+     * Publish queue depth and active threads of an executor running message handlers. The executor should be
+     * referenced elsewhere as long as it's in use since it may only be weakly referenced.
+     */
+    default <T> void recordExecutor(String name, T executor, ToDoubleFunction<T> queueSize,
+            ToDoubleFunction<T> activeCount) {
+    }
+
+    /**
+     * Stop publishing metrics of an executor recorded by {@link #recordExecutor}
+     */
+    default void removeExecutor(String name) {
+    }
+
+    /**
+     * Count a failure which is not surfaced by a recorded future, such as send timeout
+     */
+    default void recordFailure(String destination, String operation) {
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.metrics;
+
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link MessagingMetrics} backed by Micrometer.
+ * <p>
+ * Meters are tagged by service, destination and consumer group. Partition tag is only added when
+ * {@code includePartition} is enabled since it multiplies the count of time series by partition count. Meters are
+ * cached by tags so recording doesn't allocate builders on the hot path. Executor gauges are replaced when an
+ * executor of the same name is recorded again, and removed by {@link #removeExecutor(String)}.
+ *
+ * @author Warren Zhu
+ */
+public class MicrometerMessagingMetrics implements MessagingMetrics {
+    public static final String SEND_METRIC = "azure.messaging.send";
+    public static final String SEND_MESSAGES_METRIC = "azure.messaging.send.messages";
+    public static final String SEND_BYTES_METRIC = "azure.messaging.send.bytes";
+    public static final String RECEIVE_METRIC = "azure.messaging.receive";
+    public static final String RECEIVE_MESSAGES_METRIC = "azure.messaging.receive.messages";
+    public static final String HANDLER_METRIC = "azure.messaging.handler";
+    public static final String CHECKPOINT_METRIC = "azure.messaging.checkpoint";
+    public static final String FAILURE_METRIC = "azure.messaging.failures";
+    public static final String EXECUTOR_QUEUED_METRIC = "azure.messaging.executor.queued";
+    public static final String EXECUTOR_ACTIVE_METRIC = "azure.messaging.executor.active";
+
+    private static final String SUCCESS = "success";
+    private static final String FAILURE = "failure";
+
+    private final MeterRegistry meterRegistry;
+    private final String service;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Tags, Timer>> timers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Tags, Counter>> counters = new ConcurrentHashMap<>();
+
+    // executor name -> gauges
+    private final ConcurrentHashMap<String, List<Meter>> executorGauges = new ConcurrentHashMap<>();
+
+    private boolean includePartition = false;
+
+    private boolean percentileHistogram = true;
+
+    /**
+     * @param service name of the messaging service, such as eventhub, servicebus or storagequeue
+     */
+    public MicrometerMessagingMetrics(MeterRegistry meterRegistry, String service) {
+        Assert.notNull(meterRegistry, "meterRegistry can't be null");
+        Assert.hasText(service, "service can't be null or empty");
+        this.meterRegistry = meterRegistry;
+        this.service = service;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> recordSend(String destination, String partitionId, int messageCount,
+            long bytes, Supplier<CompletableFuture<T>> send) {
+        Tags tags = partitionTags(Tags.of("service", service, "destination", destination), partitionId);
+        counter(SEND_MESSAGES_METRIC, tags).increment(messageCount);
+        counter(SEND_BYTES_METRIC, tags).increment(bytes);
+        return record(SEND_METRIC, tags, send);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> recordReceive(String destination, String group,
+            Supplier<CompletableFuture<T>> receive) {
+        Tags tags = groupTags(destination, group);
+        Counter received = counter(RECEIVE_MESSAGES_METRIC, tags);
+        CompletableFuture<T> future = record(RECEIVE_METRIC, tags, receive);
+        future.thenAccept(v -> {
+            if (v != null) {
+                received.increment();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public Consumer<Message<?>> recordHandler(String destination, String group, Consumer<Message<?>> consumer) {
+        Tags tags = groupTags(destination, group);
+
+        return message -> {
+            Tags messageTags = partitionTags(tags, message.getHeaders().get(AzureHeaders.RAW_PARTITION_ID));
+            long start = System.nanoTime();
+            String outcome = FAILURE;
+
+            try {
+                consumer.accept(message);
+                outcome = SUCCESS;
+            } finally {
+                timer(HANDLER_METRIC, messageTags.and("outcome", outcome))
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    @Override
+    public <T> CompletableFuture<T> recordCheckpoint(String destination, String group, String partitionId,
+            Supplier<CompletableFuture<T>> checkpoint) {
+        Tags tags = partitionTags(groupTags(destination, group), partitionId);
+        return record(CHECKPOINT_METRIC, tags, checkpoint);
+    }
+
+    @Override
+    public void recordFailure(String destination, String operation) {
+        counter(FAILURE_METRIC, Tags.of("service", service, "destination", destination, "operation", operation))
+                .increment();
+    }
+
+    @Override
+    public <T> void recordExecutor(String name, T executor, ToDoubleFunction<T> queueSize,
+            ToDoubleFunction<T> activeCount) {
+        Tags tags = Tags.of("service", service, "executor", name);
+        this.executorGauges.compute(name, (k, previous) -> {
+            if (previous != null) {
+                previous.forEach(this.meterRegistry::remove);
+            }
+
+            return Arrays.asList(
+                    Gauge.builder(EXECUTOR_QUEUED_METRIC, executor, queueSize).tags(tags).register(this.meterRegistry),
+                    Gauge.builder(EXECUTOR_ACTIVE_METRIC, executor, activeCount).tags(tags)
+                         .register(this.meterRegistry));
+        });
+    }
+
+    @Override
+    public void removeExecutor(String name) {
+        List<Meter> removed = this.executorGauges.remove(name);
+
+        if (removed != null) {
+            removed.forEach(this.meterRegistry::remove);
+        }
+    }
+
+    private <T> CompletableFuture<T> record(String name, Tags tags, Supplier<CompletableFuture<T>> operation) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            timer(name, tags.and("outcome", FAILURE)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+
+        future.whenComplete((v, t) -> timer(name, tags.and("outcome", t == null ? SUCCESS : FAILURE))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        return future;
+    }
+
+    private Tags groupTags(String destination, String group) {
+        return Tags.of("service", service, "destination", destination, "group", group == null ? "none" : group);
+    }
+
+    private Tags partitionTags(Tags tags, Object partitionId) {
+        if (!this.includePartition) {
+            return tags;
+        }
+
+        return tags.and("partition", partitionId == null ? "none" : partitionId.toString());
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return this.timers.computeIfAbsent(name, k -> new ConcurrentHashMap<>()).computeIfAbsent(tags,
+                t -> Timer.builder(name).tags(t).publishPercentileHistogram(this.percentileHistogram)
+                          .register(this.meterRegistry));
+    }
+
+    private Counter counter(String name, Tags tags) {
+        return this.counters.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(tags, t -> Counter.builder(name).tags(t).register(this.meterRegistry));
+    }
+
+    public boolean isIncludePartition() {
+        return includePartition;
+    }
+
+    /**
+     * Tag meters with partition id. Default is false to keep cardinality low
+     */
+    public void setIncludePartition(boolean includePartition) {
+        this.includePartition = includePartition;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    /**
+     * Publish histogram buckets of timers so percentiles can be aggregated across instances. Default is true
+     */
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+}
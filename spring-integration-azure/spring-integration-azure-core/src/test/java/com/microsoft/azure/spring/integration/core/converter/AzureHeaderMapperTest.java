@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter;
+
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import org.junit.Test;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AzureHeaderMapperTest {
+    private AzureHeaderMapper mapper = new AzureHeaderMapper();
+
+    @Test
+    public void testDefaultOutboundExcludesInternalHeaders() {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.PARTITION_KEY, "key");
+        headers.put(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON);
+        headers.put("count", 5);
+        headers.put("flag", true);
+
+        Map<String, Object> properties = new HashMap<>();
+        this.mapper.fromHeaders(new MessageHeaders(headers), properties);
+
+        assertEquals(3, properties.size());
+        assertEquals("application/json", properties.get(MessageHeaders.CONTENT_TYPE));
+        assertEquals(5, properties.get("count"));
+        assertEquals(true, properties.get("flag"));
+    }
+
+    @Test
+    public void testPatternsMatchedInOrder() {
+        this.mapper.setOutboundHeaderPatterns("!foo_secret", "foo_*");
+        this.mapper.setInboundHeaderPatterns("bar");
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("foo_a", "a");
+        headers.put("foo_secret", "s");
+        headers.put("other", "o");
+
+        Map<String, Object> properties = new HashMap<>();
+        this.mapper.fromHeaders(new MessageHeaders(headers), properties);
+        assertEquals(1, properties.size());
+        assertEquals("a", properties.get("foo_a"));
+
+        properties.put("bar", 1L);
+        Map<String, Object> inbound = this.mapper.toHeaders(properties);
+        assertEquals(1, inbound.size());
+        assertEquals(1L, inbound.get("bar"));
+    }
+}
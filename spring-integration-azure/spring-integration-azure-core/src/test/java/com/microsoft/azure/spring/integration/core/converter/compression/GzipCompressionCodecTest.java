@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.converter.compression;
+
+import com.microsoft.azure.spring.integration.core.converter.ConversionException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class GzipCompressionCodecTest {
+    private final GzipCompressionCodec codec = new GzipCompressionCodec();
+    private final byte[] payload = new byte[10_000];
+
+    @Test
+    public void testDecompressWithinMaxSize() {
+        assertArrayEquals(this.payload, this.codec.decompress(this.codec.compress(this.payload), 10_000));
+    }
+
+    @Test(expected = ConversionException.class)
+    public void testDecompressBeyondMaxSizeFails() {
+        this.codec.decompress(this.codec.compress(this.payload), 9_999);
+    }
+}
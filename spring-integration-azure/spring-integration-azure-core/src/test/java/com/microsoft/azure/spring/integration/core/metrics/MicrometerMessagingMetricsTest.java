@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.core.metrics;
+
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class MicrometerMessagingMetricsTest {
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MicrometerMessagingMetrics metrics;
+
+    @Before
+    public void setUp() {
+        this.metrics = new MicrometerMessagingMetrics(meterRegistry, "eventhub");
+    }
+
+    @Test
+    public void testRecordSend() {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        this.metrics.recordSend("hub", "1", 2, 100, () -> sent);
+
+        assertEquals(2, this.meterRegistry.get(MicrometerMessagingMetrics.SEND_MESSAGES_METRIC).counter().count(),
+                0);
+        assertEquals(100, this.meterRegistry.get(MicrometerMessagingMetrics.SEND_BYTES_METRIC).counter().count(), 0);
+        assertNull(this.meterRegistry.find(MicrometerMessagingMetrics.SEND_METRIC).timer());
+
+        sent.complete(null);
+        assertEquals(1, this.meterRegistry.get(MicrometerMessagingMetrics.SEND_METRIC).tags("outcome", "success")
+                                          .timer().count());
+    }
+
+    @Test
+    public void testRecordSendFailure() {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        this.metrics.recordSend("hub", null, 1, 10, () -> sent);
+        sent.completeExceptionally(new IllegalStateException("failed"));
+
+        assertEquals(1, this.meterRegistry.get(MicrometerMessagingMetrics.SEND_METRIC).tags("outcome", "failure")
+                                          .timer().count());
+    }
+
+    @Test
+    public void testRecordReceiveCountsOnlyMessages() {
+        this.metrics.recordReceive("queue", null, () -> CompletableFuture.completedFuture("message"));
+        this.metrics.recordReceive("queue", null, () -> CompletableFuture.completedFuture(null));
+
+        assertEquals(1, this.meterRegistry.get(MicrometerMessagingMetrics.RECEIVE_MESSAGES_METRIC).counter().count(),
+                0);
+        assertEquals(2, this.meterRegistry.get(MicrometerMessagingMetrics.RECEIVE_METRIC).tags("outcome", "success")
+                                          .timer().count());
+    }
+
+    @Test
+    public void testRecordHandlerWithPartition() {
+        this.metrics.setIncludePartition(true);
+        Consumer<Message<?>> consumer =
+                this.metrics.recordHandler("hub", "group", m -> {
+                    throw new IllegalStateException("failed");
+                });
+
+        try {
+            consumer.accept(MessageBuilder.withPayload("payload").setHeader(AzureHeaders.RAW_PARTITION_ID, "3")
+                                          .build());
+            fail("Handler exception should be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals(1, this.meterRegistry.get(MicrometerMessagingMetrics.HANDLER_METRIC)
+                                              .tags("group", "group", "partition", "3", "outcome", "failure").timer()
+                                              .count());
+        }
+    }
+
+    @Test
+    public void testNoPartitionTagByDefault() {
+        this.metrics.recordCheckpoint("hub", "group", "3", () -> CompletableFuture.completedFuture(null));
+
+        assertNull(this.meterRegistry.find(MicrometerMessagingMetrics.CHECKPOINT_METRIC).tags("partition", "3")
+                                     .timer());
+        assertEquals(1, this.meterRegistry.get(MicrometerMessagingMetrics.CHECKPOINT_METRIC).timer().count());
+    }
+
+    @Test
+    public void testExecutorGaugesReplacedAndRemoved() {
+        this.metrics.recordExecutor("queue", new AtomicInteger(1), AtomicInteger::get, AtomicInteger::get);
+        this.metrics.recordExecutor("queue", new AtomicInteger(2), AtomicInteger::get, AtomicInteger::get);
+
+        assertEquals(2, this.meterRegistry.get(MicrometerMessagingMetrics.EXECUTOR_QUEUED_METRIC)
+                                          .tag("executor", "queue").gauge().value(), 0);
+
+        this.metrics.removeExecutor("queue");
+
+        assertNull(this.meterRegistry.find(MicrometerMessagingMetrics.EXECUTOR_QUEUED_METRIC).gauge());
+        assertNull(this.meterRegistry.find(MicrometerMessagingMetrics.EXECUTOR_ACTIVE_METRIC).gauge());
+    }
+}
@@ -6,16 +6,22 @@
 
 package com.microsoft.azure.spring.integration.test.support;
 
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
 import com.microsoft.azure.spring.integration.core.converter.AzureMessageConverter;
 import com.microsoft.azure.spring.integration.test.support.pojo.User;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public abstract class AzureMessageConverterTest<T> {
@@ -49,6 +55,41 @@ public abstract class AzureMessageConverterTest<T> {
         convertAndBack(new User(payload), User.class);
     }
 
+    @Test
+    public void payloadAsUserClassReusingBuffer() {
+        convertAndBack(new User(payload + payload), User.class);
+        convertAndBack(new User(payload), User.class);
+    }
+
+    @Test
+    public void payloadAsUserClassWithSmileContentType() {
+        Assume.assumeTrue(carriesContentType());
+        User user = new User(payload);
+        Message<User> message = MessageBuilder.withPayload(user)
+                                              .setHeader(MessageHeaders.CONTENT_TYPE, "application/x-jackson-smile")
+                                              .build();
+        T azureMessage = converter.fromMessage(message, targetClass);
+
+        byte[] body = converter.toMessage(azureMessage, byte[].class).getPayload();
+        assertEquals("Smile header expected", ":)", new String(body, 0, 2));
+        assertEquals(user, converter.toMessage(azureMessage, User.class).getPayload());
+    }
+
+    @Test
+    public void payloadAsStringCompressed() {
+        String largePayload = String.join("", Collections.nCopies(100, payload));
+        CompressionConfig compression =
+                CompressionConfig.builder().encoding(CompressionConfig.GZIP).threshold(0).build();
+        Message<String> message =
+                MessageBuilder.withPayload(largePayload).setHeader(AzureHeaders.COMPRESSION, compression).build();
+        T azureMessage = converter.fromMessage(message, targetClass);
+
+        Message<String> convertedMessage = converter.toMessage(azureMessage, String.class);
+        assertEquals(largePayload, convertedMessage.getPayload());
+        assertFalse(convertedMessage.getHeaders().containsKey(AzureHeaders.CONTENT_ENCODING));
+        assertFalse(convertedMessage.getHeaders().containsKey(AzureHeaders.COMPRESSION));
+    }
+
     private <U> void convertAndBack(U payload, Class<U> payloadClass) {
         Message<U> message = MessageBuilder.withPayload(payload).build();
         T azureMessage = converter.fromMessage(message, targetClass);
@@ -68,6 +109,13 @@ public abstract class AzureMessageConverterTest<T> {
     protected void assertMessageHeadersEqual(T azureMessage, Message<?> message) {
     }
 
+    /**
+     * @return whether content type header is kept in azure message, which selects codec when decoding
+     */
+    protected boolean carriesContentType() {
+        return true;
+    }
+
     protected abstract T getInstance();
 
     protected abstract AzureMessageConverter<T> getConverter();
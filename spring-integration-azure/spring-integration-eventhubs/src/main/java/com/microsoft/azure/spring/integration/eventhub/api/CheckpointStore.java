@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.api;
+
+import com.microsoft.azure.eventprocessorhost.ICheckpointManager;
+import com.microsoft.azure.eventprocessorhost.ILeaseManager;
+
+/**
+ * Store of checkpoints and partition leases used by event processor host instead of Azure Storage blob.
+ *
+ * @author Warren Zhu
+ */
+public interface CheckpointStore {
+
+    ICheckpointManager getCheckpointManager(String eventHubName, String consumerGroup, String hostName);
+
+    ILeaseManager getLeaseManager(String eventHubName, String consumerGroup, String hostName);
+}
@@ -17,6 +17,11 @@ public interface EventHubClientFactory {
 
     EventHubClient getOrCreateClient(String name);
 
+    /**
+     * Create a new client with its own connection, which is not cached. Caller is responsible to close it.
+     */
+    EventHubClient createClient(String name);
+
     PartitionSender getOrCreatePartitionSender(String eventhub, String partition);
 
     EventProcessorHost getOrCreateEventProcessorHost(String name, String consumerGroup);
@@ -7,6 +7,8 @@
 package com.microsoft.azure.spring.integration.eventhub.api;
 
 import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
+import com.microsoft.azure.spring.integration.core.api.Batchable;
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfigurable;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
@@ -16,7 +18,8 @@ import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation
  *
  * @author Warren Zhu
  */
-public interface EventHubOperation extends SendOperation, BatchSendOperation, SubscribeByGroupOperation {
+public interface EventHubOperation extends SendOperation, BatchSendOperation, SubscribeByGroupOperation, Batchable,
+        ReceiveConfigurable {
 
     void setStartPosition(StartPosition startPosition);
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.api;
+
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.core.api.StartPosition;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Azure event hub operation to support send and subscribe in a reactive way with backpressure
+ *
+ * @author Warren Zhu
+ */
+public interface EventHubReactiveOperation {
+
+    /**
+     * Send a {@link Message} to the given destination with a given partition supplier.
+     * @param destination destination
+     * @param message message
+     * @param partitionSupplier partition supplier
+     * @return {@link Mono} completed when message is sent
+     */
+    <T> Mono<Void> send(String destination, Message<T> message, PartitionSupplier partitionSupplier);
+
+    /**
+     * Send all {@link Message} of the {@link Flux} to the given destination in batches.
+     * @param destination destination
+     * @param messages messages
+     * @param partitionSupplier partition supplier
+     * @return {@link Mono} completed when all messages are sent
+     */
+    <T> Mono<Void> send(String destination, Flux<Message<T>> messages, PartitionSupplier partitionSupplier);
+
+    /**
+     * Subscribe to the destination with consumer group. Events are only received when subscribers request them.
+     * @param destination destination
+     * @param consumerGroup consumer group
+     * @param messagePayloadType message payload type
+     * @return {@link Flux} of received messages
+     */
+    Flux<Message<?>> subscribe(String destination, String consumerGroup, Class<?> messagePayloadType);
+
+    void setStartPosition(StartPosition startPosition);
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.api;
+
+import com.microsoft.azure.eventhubs.EventData;
+import org.springframework.util.Assert;
+
+import java.util.function.Function;
+
+/**
+ * Config of processing events of one partition in parallel while keeping order of events with the same key.
+ * Checkpoint only advances to the last event before which all events are processed.
+ *
+ * @author Warren Zhu
+ */
+public class PartitionConcurrencyConfig {
+    /**
+     * Number of workers processing events of one event processor. Events with the same key go to the same worker
+     */
+    private final int concurrency;
+
+    /**
+     * Max count of events dispatched but not processed. Receiving is blocked when exceeded
+     */
+    private final int maxInFlight;
+
+    /**
+     * Extract ordering key from event. Events with {@code null} key have no order guarantee
+     */
+    private final Function<EventData, Object> keyExtractor;
+
+    public PartitionConcurrencyConfig(int concurrency, int maxInFlight, Function<EventData, Object> keyExtractor) {
+        Assert.isTrue(concurrency > 0, "concurrency should be positive");
+        Assert.isTrue(maxInFlight > 0, "maxInFlight should be positive");
+        Assert.notNull(keyExtractor, "keyExtractor can't be null");
+        this.concurrency = concurrency;
+        this.maxInFlight = maxInFlight;
+        this.keyExtractor = keyExtractor;
+    }
+
+    public static PartitionConcurrencyConfigBuilder builder() {
+        return new PartitionConcurrencyConfigBuilder();
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Function<EventData, Object> getKeyExtractor() {
+        return keyExtractor;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionConcurrencyConfig{" + "concurrency=" + concurrency + ", maxInFlight=" + maxInFlight + '}';
+    }
+
+    public static class PartitionConcurrencyConfigBuilder {
+        private int concurrency = Runtime.getRuntime().availableProcessors();
+        private int maxInFlight = 1000;
+        private Function<EventData, Object> keyExtractor =
+                e -> e.getSystemProperties() == null ? null : e.getSystemProperties().getPartitionKey();
+
+        public PartitionConcurrencyConfigBuilder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public PartitionConcurrencyConfigBuilder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public PartitionConcurrencyConfigBuilder keyExtractor(Function<EventData, Object> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            return this;
+        }
+
+        public PartitionConcurrencyConfig build() {
+            return new PartitionConcurrencyConfig(concurrency, maxInFlight, keyExtractor);
+        }
+    }
+}
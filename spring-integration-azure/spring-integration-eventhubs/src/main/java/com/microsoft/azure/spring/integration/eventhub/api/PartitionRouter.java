@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.api;
+
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+
+/**
+ * Resolve partition id on client side so that events are sent through partition sender directly.
+ *
+ * @author Warren Zhu
+ */
+public interface PartitionRouter {
+
+    /**
+     * Resolve the partition id to send to.
+     *
+     * @param eventHubName event hub name
+     * @param partitionSupplier partition id or key provided by caller, could be {@code null}
+     * @return partition id, or {@code null} to let event hub service decide
+     */
+    String route(String eventHubName, PartitionSupplier partitionSupplier);
+}
@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -38,14 +39,17 @@ class BatchCheckpointManager extends CheckpointManager {
 
     @Override
     public void completeBatch(PartitionContext context) {
-        EventData eventData = this.lastEventByPartition.get(context.getPartitionId());
-        context.checkpoint().whenComplete((v, t) -> {
-            if (t != null) {
-                logCheckpointFail(context, eventData, t);
-            } else {
-                logCheckpointSuccess(context, eventData);
-            }
-        });
+        EventData eventData = this.lastEventByPartition.remove(context.getPartitionId());
+        if (eventData != null) {
+            checkpoint(context, eventData);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> onPartitionClose(PartitionContext context) {
+        // Events of an uncompleted batch are redelivered to the next owner
+        this.lastEventByPartition.remove(context.getPartitionId());
+        return super.onPartitionClose(context);
     }
 
     @Override
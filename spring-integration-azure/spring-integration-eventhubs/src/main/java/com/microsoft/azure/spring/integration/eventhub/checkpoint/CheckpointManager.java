@@ -10,11 +10,18 @@ import com.microsoft.azure.eventhubs.EventData;
 import com.microsoft.azure.eventprocessorhost.PartitionContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
 import com.microsoft.azure.spring.integration.eventhub.util.EventDataHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 /**
+ * Decide when to checkpoint according to {@link CheckpointMode}. Checkpoints are written through
+ * {@link CoalescingCheckpointWriter}, so at most one write is in flight per partition.
+ *
  * @author Warren Zhu
  */
 public abstract class CheckpointManager {
@@ -22,6 +29,8 @@ public abstract class CheckpointManager {
     private static final String CHECKPOINT_SUCCESS_MSG =
             "Consumer group '%s' checkpointed %s on partition %s in %s " + "mode";
     final CheckpointConfig checkpointConfig;
+    private final CoalescingCheckpointWriter checkpointWriter = new CoalescingCheckpointWriter(this);
+    private volatile MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
 
     public static CheckpointManager of(CheckpointConfig checkpointConfig) {
         switch (checkpointConfig.getCheckpointMode()) {
@@ -52,6 +61,35 @@ public abstract class CheckpointManager {
         // no-op
     }
 
+    /**
+     * Flush pending checkpoint of the closing partition
+     */
+    public CompletableFuture<Void> onPartitionClose(PartitionContext context) {
+        return this.checkpointWriter.flush(context);
+    }
+
+    /**
+     * Release threads held by this manager. Pending checkpoints should be flushed by {@link #onPartitionClose} before
+     */
+    public void close() {
+        // no-op
+    }
+
+    void checkpoint(PartitionContext context, EventData eventData) {
+        checkpoint(context, eventData, () -> context.checkpoint(eventData));
+    }
+
+    void checkpoint(PartitionContext context, EventData eventData,
+            Supplier<CompletableFuture<Void>> checkpointAction) {
+        this.checkpointWriter.write(context, eventData,
+                () -> this.messagingMetrics.recordCheckpoint(context.getEventHubPath(),
+                        context.getConsumerGroupName(), context.getPartitionId(), checkpointAction));
+    }
+
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        this.messagingMetrics = messagingMetrics;
+    }
+
     void logCheckpointFail(PartitionContext context, EventData eventData, Throwable t) {
         if (getLogger().isWarnEnabled()) {
             getLogger().warn(String
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Write checkpoint asynchronously with at most one write in flight per partition.
+ * <p>
+ * Event requested while a write is in flight is kept as pending and replaces older pending event, so only the latest
+ * offset is written after the in-flight write completes.
+ *
+ * @author Warren Zhu
+ */
+class CoalescingCheckpointWriter {
+    private final CheckpointManager checkpointManager;
+    private final ConcurrentHashMap<String, PartitionState> stateByPartition = new ConcurrentHashMap<>();
+
+    CoalescingCheckpointWriter(CheckpointManager checkpointManager) {
+        this.checkpointManager = checkpointManager;
+    }
+
+    /**
+     * Request a checkpoint. The checkpoint action is invoked when no other write of the same partition is in flight
+     * and no newer checkpoint is requested
+     */
+    void write(PartitionContext context, EventData eventData, Supplier<CompletableFuture<Void>> checkpointAction) {
+        PartitionState state =
+                this.stateByPartition.computeIfAbsent(context.getPartitionId(), k -> new PartitionState());
+
+        synchronized (state) {
+            state.pendingContext = context;
+            state.pendingEvent = eventData;
+            state.pendingAction = checkpointAction;
+
+            if (state.inFlight) {
+                return;
+            }
+
+            state.inFlight = true;
+        }
+
+        writeNext(state);
+    }
+
+    /**
+     * Wait pending checkpoint of given partition to be written, then forget the partition
+     */
+    CompletableFuture<Void> flush(PartitionContext context) {
+        PartitionState state = this.stateByPartition.get(context.getPartitionId());
+
+        if (state == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+
+        synchronized (state) {
+            if (state.inFlight) {
+                state.idleWaiters.add(flushed);
+            } else {
+                flushed.complete(null);
+            }
+        }
+
+        return flushed.whenComplete((v, t) -> this.stateByPartition.remove(context.getPartitionId(), state));
+    }
+
+    private void writeNext(PartitionState state) {
+        PartitionContext context;
+        EventData eventData;
+        Supplier<CompletableFuture<Void>> checkpointAction;
+        List<CompletableFuture<Void>> idleWaiters = null;
+
+        synchronized (state) {
+            context = state.pendingContext;
+            eventData = state.pendingEvent;
+            checkpointAction = state.pendingAction;
+            state.pendingContext = null;
+            state.pendingEvent = null;
+            state.pendingAction = null;
+
+            if (checkpointAction == null) {
+                state.inFlight = false;
+                idleWaiters = new ArrayList<>(state.idleWaiters);
+                state.idleWaiters.clear();
+            }
+        }
+
+        if (idleWaiters != null) {
+            idleWaiters.forEach(f -> f.complete(null));
+            return;
+        }
+
+        CompletableFuture<Void> future;
+        try {
+            future = checkpointAction.get();
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        future.whenComplete((v, t) -> {
+            if (t != null) {
+                this.checkpointManager.logCheckpointFail(context, eventData, t);
+            } else {
+                this.checkpointManager.logCheckpointSuccess(context, eventData);
+            }
+
+            writeNext(state);
+        });
+    }
+
+    private static class PartitionState {
+        private final List<CompletableFuture<Void>> idleWaiters = new ArrayList<>();
+        private PartitionContext pendingContext;
+        private EventData pendingEvent;
+        private Supplier<CompletableFuture<Void>> pendingAction;
+        private boolean inFlight;
+    }
+}
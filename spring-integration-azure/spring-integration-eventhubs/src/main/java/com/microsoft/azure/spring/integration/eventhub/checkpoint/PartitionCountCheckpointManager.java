@@ -14,8 +14,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Do checkpoint when uncheckpointed count exceeds {@link CheckpointConfig#getCheckpointCount()} for one partition.
@@ -25,7 +25,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 class PartitionCountCheckpointManager extends CheckpointManager {
     private static final Logger log = LoggerFactory.getLogger(PartitionCountCheckpointManager.class);
-    private final ConcurrentHashMap<String, AtomicInteger> countByPartition = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PartitionState> stateByPartition = new ConcurrentHashMap<>();
 
     PartitionCountCheckpointManager(CheckpointConfig checkpointConfig) {
         super(checkpointConfig);
@@ -34,23 +34,58 @@ class PartitionCountCheckpointManager extends CheckpointManager {
     }
 
     public void onMessage(PartitionContext context, EventData eventData) {
-        String partitionId = context.getPartitionId();
-        this.countByPartition.computeIfAbsent(partitionId, (k) -> new AtomicInteger(0));
-        AtomicInteger count = this.countByPartition.get(partitionId);
-        if (count.incrementAndGet() >= checkpointConfig.getCheckpointCount()) {
-            context.checkpoint(eventData).whenComplete((v, t) -> {
-                if (t != null) {
-                    logCheckpointFail(context, eventData, t);
-                } else {
-                    logCheckpointSuccess(context, eventData);
-                    count.set(0);
+        PartitionState state = this.stateByPartition.computeIfAbsent(context.getPartitionId(),
+                k -> new PartitionState());
+
+        synchronized (state) {
+            state.lastContext = context;
+            state.lastEvent = eventData;
+
+            if (++state.count < checkpointConfig.getCheckpointCount()) {
+                return;
+            }
+
+            state.count = 0;
+        }
+
+        checkpoint(context, eventData);
+    }
+
+    /**
+     * Checkpoint the last event received since the last count checkpoint before the partition is released
+     */
+    @Override
+    public CompletableFuture<Void> onPartitionClose(PartitionContext context) {
+        PartitionState state = this.stateByPartition.remove(context.getPartitionId());
+
+        if (state != null) {
+            PartitionContext lastContext;
+            EventData lastEvent;
+
+            synchronized (state) {
+                if (state.count == 0) {
+                    return super.onPartitionClose(context);
                 }
-            });
+
+                state.count = 0;
+                lastContext = state.lastContext;
+                lastEvent = state.lastEvent;
+            }
+
+            checkpoint(lastContext, lastEvent);
         }
+
+        return super.onPartitionClose(context);
     }
 
     @Override
     protected Logger getLogger() {
         return log;
     }
+
+    private static class PartitionState {
+        private PartitionContext lastContext;
+        private EventData lastEvent;
+        private int count;
+    }
 }
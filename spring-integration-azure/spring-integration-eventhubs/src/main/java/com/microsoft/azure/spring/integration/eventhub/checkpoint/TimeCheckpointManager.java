@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.integration.eventhub.checkpoint;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.eventhubs.EventData;
 import com.microsoft.azure.eventprocessorhost.PartitionContext;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
@@ -14,43 +15,121 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.Assert;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Do checkpoint when the time since last successful checkpoint exceeds {@link CheckpointConfig#getCheckpointInterval()}
- * for one partition. Effective when {@link CheckpointMode#PARTITION_COUNT}
+ * Do checkpoint when the time since last checkpoint exceeds {@link CheckpointConfig#getCheckpointInterval()}
+ * for one partition. A background timer also checkpoints the last processed event of idle partitions. The timer
+ * thread belongs to this manager and is stopped by {@link #close()}.
+ * Effective when {@link CheckpointMode#TIME}
  *
  * @author Warren Zhu
  */
 class TimeCheckpointManager extends CheckpointManager {
     private static final Logger log = LoggerFactory.getLogger(TimeCheckpointManager.class);
-    private final AtomicReference<LocalDateTime> lastCheckpointTime = new AtomicReference<>(LocalDateTime.now());
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("eventhub-checkpoint-timer-%d").setDaemon(true).build());
+    private final ConcurrentHashMap<String, PartitionState> stateByPartition = new ConcurrentHashMap<>();
+    private final long intervalNanos;
 
     TimeCheckpointManager(CheckpointConfig checkpointConfig) {
         super(checkpointConfig);
         Assert.isTrue(this.checkpointConfig.getCheckpointMode() == CheckpointMode.TIME,
                 () -> "TimeCheckpointManager should have checkpointMode time");
+        Assert.isTrue(this.checkpointConfig.getCheckpointInterval() != null &&
+                        !this.checkpointConfig.getCheckpointInterval().isNegative() &&
+                        !this.checkpointConfig.getCheckpointInterval().isZero(),
+                () -> "TimeCheckpointManager should have positive checkpointInterval");
+        this.intervalNanos = this.checkpointConfig.getCheckpointInterval().toNanos();
     }
 
     public void onMessage(PartitionContext context, EventData eventData) {
-        LocalDateTime now = LocalDateTime.now();
-        if (Duration.between(now, this.lastCheckpointTime.get())
-                    .compareTo(this.checkpointConfig.getCheckpointInterval()) > 0) {
-            context.checkpoint(eventData).whenComplete((v, t) -> {
-                if (t != null) {
-                    logCheckpointFail(context, eventData, t);
-                } else {
-                    logCheckpointSuccess(context, eventData);
-                    lastCheckpointTime.set(now);
-                }
-            });
+        PartitionState state = this.stateByPartition.computeIfAbsent(context.getPartitionId(), k -> {
+            PartitionState newState = new PartitionState();
+
+            try {
+                newState.timer = this.scheduler.scheduleAtFixedRate(() -> checkpointIfDue(newState),
+                        this.intervalNanos, this.intervalNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                log.warn("Checkpoint timer of partition {} not started since manager is closed",
+                        context.getPartitionId());
+            }
+
+            return newState;
+        });
+
+        synchronized (state) {
+            state.lastContext = context;
+            state.lastEvent = eventData;
+        }
+
+        checkpointIfDue(state);
+    }
+
+    @Override
+    public CompletableFuture<Void> onPartitionClose(PartitionContext context) {
+        PartitionState state = this.stateByPartition.remove(context.getPartitionId());
+
+        if (state != null) {
+            if (state.timer != null) {
+                state.timer.cancel(false);
+            }
+
+            checkpointIfPending(state);
+        }
+
+        return super.onPartitionClose(context);
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    private void checkpointIfDue(PartitionState state) {
+        synchronized (state) {
+            if (System.nanoTime() - state.lastCheckpointNanos < this.intervalNanos) {
+                return;
+            }
         }
+
+        checkpointIfPending(state);
+    }
+
+    private void checkpointIfPending(PartitionState state) {
+        PartitionContext context;
+        EventData eventData;
+
+        synchronized (state) {
+            if (state.lastEvent == null || state.lastEvent == state.checkpointedEvent) {
+                return;
+            }
+
+            context = state.lastContext;
+            eventData = state.lastEvent;
+            state.checkpointedEvent = eventData;
+            state.lastCheckpointNanos = System.nanoTime();
+        }
+
+        checkpoint(context, eventData);
     }
 
     @Override
     protected Logger getLogger() {
         return log;
     }
+
+    private static class PartitionState {
+        private PartitionContext lastContext;
+        private EventData lastEvent;
+        private EventData checkpointedEvent;
+        private long lastCheckpointNanos = System.nanoTime();
+        private ScheduledFuture<?> timer;
+    }
 }
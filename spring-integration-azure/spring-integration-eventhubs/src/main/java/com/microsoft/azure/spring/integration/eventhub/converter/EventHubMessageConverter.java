@@ -6,20 +6,47 @@
 
 package com.microsoft.azure.spring.integration.eventhub.converter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.converter.AbstractAzureMessageConverter;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
 
 import java.nio.charset.Charset;
 import java.util.Map;
 
 /**
  * A converter to turn a {@link Message} to {@link EventData} and vice versa.
+ * <p>
+ * Headers are mapped to and from {@link EventData#getProperties()} by {@link AzureHeaderMapper}.
  *
  * @author Warren Zhu
  */
 public class EventHubMessageConverter extends AbstractAzureMessageConverter<EventData> {
+    private AzureHeaderMapper headerMapper = new AzureHeaderMapper();
+
+    public EventHubMessageConverter() {
+        super();
+    }
+
+    /**
+     * @param objectMapper mapper to convert payload of other types than String and byte[] to and from JSON
+     */
+    public EventHubMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    public void setHeaderMapper(AzureHeaderMapper headerMapper) {
+        Assert.notNull(headerMapper, "headerMapper can't be null");
+        this.headerMapper = headerMapper;
+    }
+
+    public AzureHeaderMapper getHeaderMapper() {
+        return headerMapper;
+    }
 
     @Override
     protected byte[] getPayload(EventData azureMessage) {
@@ -39,13 +66,38 @@ public class EventHubMessageConverter extends AbstractAzureMessageConverter<Even
     @Override
     protected void setCustomHeaders(MessageHeaders headers, EventData azureMessage) {
         super.setCustomHeaders(headers, azureMessage);
-        headers.entrySet().forEach(e->azureMessage.getProperties().put(e.getKey(), e.getValue().toString()));
+        this.headerMapper.fromHeaders(headers, azureMessage.getProperties());
+    }
+
+    @Override
+    protected boolean supportsContentEncoding() {
+        return true;
+    }
+
+    @Override
+    protected void setContentEncoding(EventData azureMessage, String contentEncoding) {
+        if (contentEncoding == null) {
+            azureMessage.getProperties().remove(AzureHeaders.CONTENT_ENCODING);
+        } else {
+            azureMessage.getProperties().put(AzureHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+    }
+
+    @Override
+    protected String getContentEncoding(EventData azureMessage) {
+        Object contentEncoding = azureMessage.getProperties().get(AzureHeaders.CONTENT_ENCODING);
+        return contentEncoding == null ? null : contentEncoding.toString();
+    }
+
+    @Override
+    protected Object getContentType(EventData azureMessage) {
+        return azureMessage.getProperties().get(MessageHeaders.CONTENT_TYPE);
     }
 
     @Override
     protected Map<String, Object> buildCustomHeaders(EventData azureMessage) {
         Map<String, Object> headers = super.buildCustomHeaders(azureMessage);
-        headers.putAll(azureMessage.getProperties());
+        headers.putAll(this.headerMapper.toHeaders(azureMessage.getProperties()));
         return headers;
     }
 }
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.integration.eventhub.factory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.eventhubs.EventHubClient;
 import com.microsoft.azure.eventhubs.EventHubException;
 import com.microsoft.azure.eventhubs.PartitionSender;
@@ -13,6 +14,8 @@ import com.microsoft.azure.eventhubs.impl.EventHubClientImpl;
 import com.microsoft.azure.eventprocessorhost.EventProcessorHost;
 import com.microsoft.azure.spring.cloud.context.core.util.Memoizer;
 import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import com.microsoft.azure.spring.integration.eventhub.api.CheckpointStore;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
 import com.microsoft.azure.spring.integration.eventhub.util.HostnameHelper;
@@ -26,13 +29,22 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
  * Default implementation of {@link EventHubClientFactory}.
  *
+ * <p>
+ * All event hub clients share one scheduled executor, which is shut down after clients are closed in
+ * {@link #destroy()}. Its queue depth and active threads are published by
+ * {@link #setMessagingMetrics(MessagingMetrics)} until then. Event processor host saves checkpoints and leases to
+ * Azure Storage blob unless a {@link CheckpointStore} is provided.
+ *
  * @author Warren Zhu
  */
 public class DefaultEventHubClientFactory implements EventHubClientFactory, DisposableBean {
@@ -40,6 +52,9 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
     private static final String PROJECT_VERSION =
             DefaultEventHubClientFactory.class.getPackage().getImplementationVersion();
     private static final String USER_AGENT = "spring-cloud-azure/" + PROJECT_VERSION;
+    private static final int DEFAULT_SCHEDULER_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final String SCHEDULER_NAME = "eventhub-client";
 
     // Maps used for cache and clean up clients
     private final Map<String, EventHubClient> clientsByName = new ConcurrentHashMap<>();
@@ -50,7 +65,10 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
     private final BiFunction<EventHubClient, String, PartitionSender> partitionSenderCreator =
             Memoizer.memoize(partitionSenderMap, this::createPartitionSender);
     private final String checkpointStorageConnectionString;
+    private final CheckpointStore checkpointStore;
     private final EventHubConnectionStringProvider connectionStringProvider;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
     // Memoized functional client creator
     private final Function<String, EventHubClient> eventHubClientCreator =
             Memoizer.memoize(clientsByName, this::createEventHubClient);
@@ -59,16 +77,42 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
 
     public DefaultEventHubClientFactory(@NonNull EventHubConnectionStringProvider connectionStringProvider,
             String checkpointConnectionString) {
-        Assert.hasText(checkpointConnectionString, "checkpointConnectionString can't be null or empty");
+        this(connectionStringProvider, checkpointConnectionString, DEFAULT_SCHEDULER_POOL_SIZE);
+    }
+
+    public DefaultEventHubClientFactory(@NonNull EventHubConnectionStringProvider connectionStringProvider,
+            String checkpointConnectionString, int schedulerPoolSize) {
+        this(connectionStringProvider, checkpointConnectionString, null, schedulerPoolSize);
+    }
+
+    public DefaultEventHubClientFactory(@NonNull EventHubConnectionStringProvider connectionStringProvider,
+            @NonNull CheckpointStore checkpointStore) {
+        this(connectionStringProvider, checkpointStore, DEFAULT_SCHEDULER_POOL_SIZE);
+    }
+
+    public DefaultEventHubClientFactory(@NonNull EventHubConnectionStringProvider connectionStringProvider,
+            @NonNull CheckpointStore checkpointStore, int schedulerPoolSize) {
+        this(connectionStringProvider, null, checkpointStore, schedulerPoolSize);
+    }
+
+    private DefaultEventHubClientFactory(EventHubConnectionStringProvider connectionStringProvider,
+            String checkpointConnectionString, CheckpointStore checkpointStore, int schedulerPoolSize) {
+        if (checkpointStore == null) {
+            Assert.hasText(checkpointConnectionString, "checkpointConnectionString can't be null or empty");
+        }
+        Assert.isTrue(schedulerPoolSize > 0, "schedulerPoolSize should be positive");
         this.connectionStringProvider = connectionStringProvider;
         this.checkpointStorageConnectionString = checkpointConnectionString;
+        this.checkpointStore = checkpointStore;
+        this.scheduler = new ScheduledThreadPoolExecutor(schedulerPoolSize,
+                new ThreadFactoryBuilder().setNameFormat(SCHEDULER_NAME + "-%d").setDaemon(true).build());
         EventHubClientImpl.USER_AGENT = USER_AGENT + "/" + EventHubClientImpl.USER_AGENT;
     }
 
     private EventHubClient createEventHubClient(String eventHubName) {
         try {
             return EventHubClient.createSync(this.connectionStringProvider.getConnectionString(eventHubName),
-                    Executors.newSingleThreadScheduledExecutor());
+                    this.scheduler);
         } catch (EventHubException | IOException e) {
             throw new EventHubRuntimeException("Error when creating event hub client", e);
         }
@@ -83,24 +127,55 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
     }
 
     private EventProcessorHost createEventProcessorHost(String name, String consumerGroup) {
-        return new EventProcessorHost(EventProcessorHost.createHostName(HostnameHelper.getHostname()), name,
-                consumerGroup, connectionStringProvider.getConnectionString(name), checkpointStorageConnectionString,
-                name);
+        String hostName = EventProcessorHost.createHostName(HostnameHelper.getHostname());
+
+        if (checkpointStore != null) {
+            return new EventProcessorHost(hostName, name, consumerGroup,
+                    connectionStringProvider.getConnectionString(name),
+                    checkpointStore.getCheckpointManager(name, consumerGroup, hostName),
+                    checkpointStore.getLeaseManager(name, consumerGroup, hostName));
+        }
+
+        return new EventProcessorHost(hostName, name, consumerGroup,
+                connectionStringProvider.getConnectionString(name), checkpointStorageConnectionString, name);
     }
 
-    private <K, V> void close(Map<K, V> map, Function<V, CompletableFuture<Void>> close) {
-        CompletableFuture.allOf(map.values().stream().map(close).toArray(CompletableFuture[]::new))
-                         .exceptionally((ex) -> {
-                             log.warn("Failed to clean event hub client factory", ex);
-                             return null;
-                         });
+    private <K, V> CompletableFuture<Void> close(Map<K, V> map, Function<V, CompletableFuture<Void>> close) {
+        return CompletableFuture.allOf(map.values().stream().map(close).toArray(CompletableFuture[]::new))
+                                .exceptionally((ex) -> {
+                                    log.warn("Failed to clean event hub client factory", ex);
+                                    return null;
+                                });
     }
 
     @Override
     public void destroy() throws Exception {
-        close(clientsByName, EventHubClient::close);
-        close(partitionSenderMap, PartitionSender::close);
-        close(processorHostMap, EventProcessorHost::unregisterEventProcessor);
+        CompletableFuture<Void> closed = CompletableFuture.allOf(close(processorHostMap,
+                EventProcessorHost::unregisterEventProcessor), close(partitionSenderMap, PartitionSender::close),
+                close(clientsByName, EventHubClient::close));
+
+        try {
+            closed.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to close event hub clients in time", e);
+        } finally {
+            this.messagingMetrics.removeExecutor(SCHEDULER_NAME);
+            this.scheduler.shutdown();
+            if (!this.scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                this.scheduler.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Publish queue depth and active threads of the scheduler shared by all clients
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.messagingMetrics.removeExecutor(SCHEDULER_NAME);
+        this.messagingMetrics = messagingMetrics;
+        messagingMetrics.recordExecutor(SCHEDULER_NAME, this.scheduler, e -> e.getQueue().size(),
+                ScheduledThreadPoolExecutor::getActiveCount);
     }
 
     @Override
@@ -108,6 +183,11 @@ public class DefaultEventHubClientFactory implements EventHubClientFactory, Disp
         return this.eventHubClientCreator.apply(name);
     }
 
+    @Override
+    public EventHubClient createClient(String name) {
+        return createEventHubClient(name);
+    }
+
     @Override
     public PartitionSender getOrCreatePartitionSender(String eventhub, String partition) {
         return this.partitionSenderCreator.apply(getOrCreateClient(eventhub), partition);
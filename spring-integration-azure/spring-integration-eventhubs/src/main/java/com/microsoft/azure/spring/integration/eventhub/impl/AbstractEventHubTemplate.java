@@ -7,37 +7,59 @@
 package com.microsoft.azure.spring.integration.eventhub.impl;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.eventhubs.EventData;
 import com.microsoft.azure.eventhubs.EventHubClient;
 import com.microsoft.azure.eventhubs.EventPosition;
 import com.microsoft.azure.eventprocessorhost.EventProcessorHost;
 import com.microsoft.azure.eventprocessorhost.EventProcessorOptions;
+import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfig;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.api.PartitionConcurrencyConfig;
+import com.microsoft.azure.spring.integration.eventhub.api.PartitionRouter;
 import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.metrics.PartitionLagTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * Abstract base implementation of event hub template.
  *
  * <p>
- * The main event hub component for sending to and consuming from event hub
+ * The main event hub component for sending to and consuming from event hub. If {@link BatchConfig} is set,
+ * single message is accumulated by {@link EventHubBatchAccumulator} before sending. Its linger timers run on one
+ * scheduler thread of the template, which is shut down in {@link #destroy()}. If {@link PartitionRouter} is
+ * set, partition id is resolved on client side and events are sent through partition sender. If
+ * {@code maxConnectionsPerEventHub} is greater than one, sends without partition id are spread over
+ * {@link EventHubClientPool}.
  *
  * @author Warren Zhu
  */
-public class AbstractEventHubTemplate {
+public class AbstractEventHubTemplate implements DisposableBean {
     private static final Logger log = LoggerFactory.getLogger(AbstractEventHubTemplate.class);
+    private static final int MAX_IN_FLIGHT_PER_CONNECTION = 100;
+    static final int MIN_PREFETCH_COUNT = 10;
+    private static final Duration CONNECTION_IDLE_TIMEOUT = Duration.ofMinutes(1);
     private final EventHubClientFactory clientFactory;
 
     private EventHubMessageConverter messageConverter = new EventHubMessageConverter();
@@ -46,11 +68,38 @@ public class AbstractEventHubTemplate {
 
     private CheckpointConfig checkpointConfig = CheckpointConfig.builder().checkpointMode(CheckpointMode.BATCH).build();
 
+    private ListenerMode listenerMode = ListenerMode.RECORD;
+
+    private BatchConfig batchConfig;
+
+    private volatile EventHubBatchAccumulator batchAccumulator;
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private volatile boolean destroyed;
+
+    private PartitionRouter partitionRouter;
+
+    private int maxConnectionsPerEventHub = 1;
+
+    private final Map<String, EventHubClientPool> clientPools = new ConcurrentHashMap<>();
+
+    private PartitionConcurrencyConfig partitionConcurrencyConfig;
+
+    private ReceiveConfig receiveConfig;
+
+    private PartitionLagTracker partitionLagTracker;
+
+    private MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
+
+    // (eventHubName, consumerGroup) -> eventProcessor
+    private final Map<Tuple<String, String>, EventHubProcessor> processorMap = new ConcurrentHashMap<>();
+
     AbstractEventHubTemplate(EventHubClientFactory clientFactory) {
         this.clientFactory = clientFactory;
     }
 
-    private static EventProcessorOptions buildEventProcessorOptions(StartPosition startPosition) {
+    protected EventProcessorOptions buildEventProcessorOptions() {
         EventProcessorOptions options = EventProcessorOptions.getDefaultOptions();
 
         if (startPosition == StartPosition.EARLIEST) {
@@ -59,12 +108,60 @@ public class AbstractEventHubTemplate {
             options.setInitialPositionProvider((s) -> EventPosition.fromEndOfStream());
         }
 
+        if (this.receiveConfig != null) {
+            applyReceiveConfig(options, this.receiveConfig);
+        }
+
+        // Last enqueued position of partition is only returned by service when enabled
+        options.setReceiverRuntimeMetricEnabled(this.partitionLagTracker != null);
+
         return options;
     }
 
+    private static void applyReceiveConfig(EventProcessorOptions options, ReceiveConfig receiveConfig) {
+        if (receiveConfig.getMaxBatchSize() != null) {
+            options.setMaxBatchSize(receiveConfig.getMaxBatchSize());
+        }
+
+        if (receiveConfig.getPrefetchCount() != null) {
+            options.setPrefetchCount(receiveConfig.getPrefetchCount());
+        }
+
+        if (receiveConfig.getReceiveTimeout() != null) {
+            options.setReceiveTimeOut(receiveConfig.getReceiveTimeout());
+        }
+
+        if (receiveConfig.getInvokeProcessorAfterReceiveTimeout() != null) {
+            options.setInvokeProcessorAfterReceiveTimeout(receiveConfig.getInvokeProcessorAfterReceiveTimeout());
+        }
+    }
+
     public <T> CompletableFuture<Void> sendAsync(String eventHubName, @NonNull Message<T> message,
             PartitionSupplier partitionSupplier) {
-        return sendAsync(eventHubName, Collections.singleton(message), partitionSupplier);
+        if (this.destroyed) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(new EventHubRuntimeException(
+                    String.format("Failed to send to '%s' since EventHubTemplate has been destroyed", eventHubName)));
+            return future;
+        }
+
+        if (this.batchAccumulator == null) {
+            return sendAsync(eventHubName, Collections.singleton(message), partitionSupplier);
+        }
+
+        Assert.hasText(eventHubName, "eventHubName can't be null or empty");
+        EventData eventData = messageConverter.fromMessage(message, EventData.class);
+
+        try {
+            PartitionSupplier routed = route(eventHubName, partitionSupplier);
+            return this.messagingMetrics.recordSend(eventHubName, partitionId(routed), 1, sizeOf(eventData),
+                    () -> this.batchAccumulator.add(eventHubName, routed, eventData));
+        } catch (EventHubRuntimeException e) {
+            log.error(String.format("Failed to send to '%s' ", eventHubName), e);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
     }
 
     public <T> CompletableFuture<Void> sendAsync(String eventHubName, Collection<Message<T>> messages,
@@ -78,18 +175,12 @@ public class AbstractEventHubTemplate {
     private CompletableFuture<Void> doSend(String eventHubName, PartitionSupplier partitionSupplier,
             List<EventData> eventData) {
         try {
-            EventHubClient client = this.clientFactory.getOrCreateClient(eventHubName);
-
-            if (partitionSupplier == null) {
-                return client.send(eventData);
-            } else if (!Strings.isNullOrEmpty(partitionSupplier.getPartitionId())) {
-                return this.clientFactory.getOrCreatePartitionSender(eventHubName, partitionSupplier.getPartitionId())
-                                         .send(eventData);
-            } else if (!Strings.isNullOrEmpty(partitionSupplier.getPartitionKey())) {
-                return client.send(eventData, partitionSupplier.getPartitionKey());
-            } else {
-                return client.send(eventData);
-            }
+            PartitionSupplier routed = route(eventHubName, partitionSupplier);
+            String partitionId = partitionId(routed);
+            long bytes = eventData.stream().mapToLong(AbstractEventHubTemplate::sizeOf).sum();
+
+            return this.messagingMetrics.recordSend(eventHubName, partitionId, eventData.size(), bytes,
+                    () -> sendToEventHub(eventHubName, routed, partitionId, eventData));
         } catch (EventHubRuntimeException e) {
             log.error(String.format("Failed to send to '%s' ", eventHubName), e);
             CompletableFuture<Void> future = new CompletableFuture<>();
@@ -98,9 +189,61 @@ public class AbstractEventHubTemplate {
         }
     }
 
+    private CompletableFuture<Void> sendToEventHub(String eventHubName, PartitionSupplier partitionSupplier,
+            String partitionId, List<EventData> eventData) {
+        if (partitionId != null) {
+            return this.clientFactory.getOrCreatePartitionSender(eventHubName, partitionId).send(eventData);
+        }
+
+        String partitionKey = partitionSupplier == null ? null : partitionSupplier.getPartitionKey();
+        Function<EventHubClient, CompletableFuture<Void>> send = client -> Strings.isNullOrEmpty(partitionKey) ?
+                client.send(eventData) : client.send(eventData, partitionKey);
+
+        if (this.maxConnectionsPerEventHub > 1) {
+            return this.clientPools.computeIfAbsent(eventHubName, this::createClientPool).execute(send);
+        }
+
+        return send.apply(this.clientFactory.getOrCreateClient(eventHubName));
+    }
+
+    private static String partitionId(PartitionSupplier partitionSupplier) {
+        if (partitionSupplier == null || Strings.isNullOrEmpty(partitionSupplier.getPartitionId())) {
+            return null;
+        }
+
+        return partitionSupplier.getPartitionId();
+    }
+
+    private static long sizeOf(EventData eventData) {
+        return eventData.getBytes() == null ? 0 : eventData.getBytes().length;
+    }
+
+    private EventHubClientPool createClientPool(String eventHubName) {
+        return new EventHubClientPool(() -> this.clientFactory.createClient(eventHubName),
+                this.maxConnectionsPerEventHub, MAX_IN_FLIGHT_PER_CONNECTION, CONNECTION_IDLE_TIMEOUT);
+    }
+
+    private PartitionSupplier route(String eventHubName, PartitionSupplier partitionSupplier) {
+        if (this.partitionRouter == null) {
+            return partitionSupplier;
+        }
+
+        String partitionId = this.partitionRouter.route(eventHubName, partitionSupplier);
+        if (Strings.isNullOrEmpty(partitionId)) {
+            return partitionSupplier;
+        }
+
+        PartitionSupplier routed = new PartitionSupplier();
+        routed.setPartitionId(partitionId);
+        return routed;
+    }
+
     protected void register(String name, String consumerGroup, EventHubProcessor eventProcessor) {
         EventProcessorHost host = this.clientFactory.getOrCreateEventProcessorHost(name, consumerGroup);
-        host.registerEventProcessorFactory(context -> eventProcessor, buildEventProcessorOptions(startPosition));
+        eventProcessor.setLagTracker(this.partitionLagTracker);
+        eventProcessor.setMessagingMetrics(this.messagingMetrics);
+        host.registerEventProcessorFactory(context -> eventProcessor, buildEventProcessorOptions());
+        this.processorMap.put(Tuple.of(name, consumerGroup), eventProcessor);
     }
 
     protected void unregister(String name, String consumerGroup) {
@@ -110,6 +253,11 @@ public class AbstractEventHubTemplate {
                                   log.warn(String.format("Failed to unregister consumer '%s' with group '%s'", name,
                                           consumerGroup), t);
                               }
+
+                              EventHubProcessor processor = this.processorMap.remove(Tuple.of(name, consumerGroup));
+                              if (processor != null) {
+                                  processor.close();
+                              }
                           });
     }
 
@@ -117,6 +265,14 @@ public class AbstractEventHubTemplate {
         Map<String, Object> properties = new HashMap<>();
         properties.put("startPosition", this.startPosition);
         properties.put("checkpointConfig", this.getCheckpointConfig());
+        properties.put("listenerMode", this.listenerMode);
+        properties.put("batchConfig", this.batchConfig);
+        properties.put("partitionRouter", this.partitionRouter);
+        properties.put("maxConnectionsPerEventHub", this.maxConnectionsPerEventHub);
+        properties.put("partitionConcurrencyConfig", this.partitionConcurrencyConfig);
+        properties.put("receiveConfig", this.receiveConfig);
+        properties.put("partitionLagTracker", this.partitionLagTracker);
+        properties.put("messagingMetrics", this.messagingMetrics);
 
         return properties;
     }
@@ -146,4 +302,140 @@ public class AbstractEventHubTemplate {
         log.info("EventHubTemplate checkpoint config becomes: {}", checkpointConfig);
         this.checkpointConfig = checkpointConfig;
     }
+
+    public ListenerMode getListenerMode() {
+        return listenerMode;
+    }
+
+    public void setListenerMode(ListenerMode listenerMode) {
+        log.info("EventHubTemplate listener mode becomes: {}", listenerMode);
+        this.listenerMode = listenerMode;
+    }
+
+    public PartitionRouter getPartitionRouter() {
+        return partitionRouter;
+    }
+
+    /**
+     * Resolve partition id on client side. Set {@code null} to let event hub service route events.
+     */
+    public void setPartitionRouter(PartitionRouter partitionRouter) {
+        log.info("EventHubTemplate partition router becomes: {}", partitionRouter);
+        this.partitionRouter = partitionRouter;
+    }
+
+    public int getMaxConnectionsPerEventHub() {
+        return maxConnectionsPerEventHub;
+    }
+
+    /**
+     * Max AMQP connections used to send to one event hub. Default is one, which shares the cached client.
+     */
+    public void setMaxConnectionsPerEventHub(int maxConnectionsPerEventHub) {
+        Assert.isTrue(maxConnectionsPerEventHub > 0, "maxConnectionsPerEventHub should be positive");
+        log.info("EventHubTemplate max connections per event hub becomes: {}", maxConnectionsPerEventHub);
+        this.maxConnectionsPerEventHub = maxConnectionsPerEventHub;
+    }
+
+    public PartitionConcurrencyConfig getPartitionConcurrencyConfig() {
+        return partitionConcurrencyConfig;
+    }
+
+    /**
+     * Process events of one partition in parallel for subsequent subscriptions. Set {@code null} to process events
+     * one after another.
+     */
+    public void setPartitionConcurrencyConfig(PartitionConcurrencyConfig partitionConcurrencyConfig) {
+        log.info("EventHubTemplate partition concurrency config becomes: {}", partitionConcurrencyConfig);
+        this.partitionConcurrencyConfig = partitionConcurrencyConfig;
+    }
+
+    public ReceiveConfig getReceiveConfig() {
+        return receiveConfig;
+    }
+
+    /**
+     * Tune batch size, prefetch count and receive timeout of event processor for subsequent subscriptions. Set
+     * {@code null} to use the defaults of {@link EventProcessorOptions}.
+     */
+    public void setReceiveConfig(ReceiveConfig receiveConfig) {
+        Assert.isTrue(receiveConfig == null || receiveConfig.getPrefetchCount() == null ||
+                receiveConfig.getPrefetchCount() >= MIN_PREFETCH_COUNT,
+                () -> "prefetchCount of event hub can't be less than " + MIN_PREFETCH_COUNT);
+        log.info("EventHubTemplate receive config becomes: {}", receiveConfig);
+        this.receiveConfig = receiveConfig;
+    }
+
+    public PartitionLagTracker getPartitionLagTracker() {
+        return partitionLagTracker;
+    }
+
+    /**
+     * Track consumer lag of each partition for subsequent subscriptions. Set {@code null} to disable.
+     */
+    public void setPartitionLagTracker(PartitionLagTracker partitionLagTracker) {
+        log.info("EventHubTemplate partition lag tracker becomes: {}", partitionLagTracker);
+        this.partitionLagTracker = partitionLagTracker;
+    }
+
+    public MessagingMetrics getMessagingMetrics() {
+        return messagingMetrics;
+    }
+
+    /**
+     * Record send, consumer handling and checkpoint metrics. Set {@link MessagingMetrics#NOOP} to disable.
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        log.info("EventHubTemplate messaging metrics becomes: {}", messagingMetrics);
+        this.messagingMetrics = messagingMetrics;
+    }
+
+    public BatchConfig getBatchConfig() {
+        return batchConfig;
+    }
+
+    /**
+     * Enable accumulating single message into batch before sending. Set {@code null} to disable.
+     */
+    public synchronized void setBatchConfig(BatchConfig batchConfig) {
+        log.info("EventHubTemplate batch config becomes: {}", batchConfig);
+        if (this.batchAccumulator != null) {
+            this.batchAccumulator.destroy();
+        }
+
+        this.batchConfig = batchConfig;
+        this.batchAccumulator = batchConfig == null ? null :
+                new EventHubBatchAccumulator(clientFactory, batchConfig, getOrCreateScheduler());
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getOrCreateScheduler() {
+        if (this.scheduler == null) {
+            this.scheduler = new ScheduledThreadPoolExecutor(1,
+                    new ThreadFactoryBuilder().setNameFormat("eventhub-template-%d").setDaemon(true).build());
+            this.scheduler.setRemoveOnCancelPolicy(true);
+            // Pending batches are flushed on destroy, so their linger timers can be dropped
+            this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+
+        return this.scheduler;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        this.destroyed = true;
+
+        if (this.batchAccumulator != null) {
+            this.batchAccumulator.destroy();
+        }
+
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+        }
+
+        this.clientPools.values().forEach(EventHubClientPool::close);
+        this.clientPools.clear();
+        this.processorMap.values().forEach(EventHubProcessor::close);
+        this.processorMap.clear();
+    }
 }
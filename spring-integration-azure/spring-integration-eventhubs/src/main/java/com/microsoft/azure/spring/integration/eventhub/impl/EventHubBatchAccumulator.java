@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.google.common.base.Strings;
+import com.microsoft.azure.eventhubs.BatchOptions;
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.EventDataBatch;
+import com.microsoft.azure.eventhubs.EventHubException;
+import com.microsoft.azure.eventhubs.PayloadSizeExceededException;
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulate {@link EventData} into {@link EventDataBatch} per event hub and partition id or partition key.
+ * <p>
+ * A batch is sent when it can't hold the next event or when {@link BatchConfig#getLingerTime()} elapsed since
+ * its first event. The future of each event is completed when its batch is acknowledged by event hub.
+ * <p>
+ * Linger timers run on the scheduler of the owning template, which is not shut down by {@link #destroy()}. Events
+ * added after destroy fail instead of being batched.
+ *
+ * @author Warren Zhu
+ */
+public class EventHubBatchAccumulator {
+    private static final Logger log = LoggerFactory.getLogger(EventHubBatchAccumulator.class);
+    private final EventHubClientFactory clientFactory;
+    private final BatchConfig batchConfig;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<BatchKey, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+    private volatile boolean destroyed;
+
+    public EventHubBatchAccumulator(EventHubClientFactory clientFactory, BatchConfig batchConfig,
+            ScheduledExecutorService scheduler) {
+        this.clientFactory = clientFactory;
+        this.batchConfig = batchConfig;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<Void> add(String eventHubName, PartitionSupplier partitionSupplier,
+            EventData eventData) {
+        BatchKey key = new BatchKey(eventHubName, partitionSupplier);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        List<PendingBatch> fullBatches = new ArrayList<>(1);
+
+        try {
+            this.pendingBatches.compute(key, (k, batch) -> {
+                if (this.destroyed) {
+                    throw new EventHubRuntimeException(
+                            String.format("Batch accumulator of event hub '%s' has been destroyed", k.eventHubName));
+                }
+
+                if (batch != null && batch.tryAdd(eventData, future)) {
+                    return batch;
+                }
+
+                if (batch != null) {
+                    fullBatches.add(batch);
+                }
+
+                PendingBatch next = createBatch(k);
+                if (next.tryAdd(eventData, future)) {
+                    return next;
+                }
+
+                next.cancelLinger();
+                future.completeExceptionally(new EventHubRuntimeException(
+                        String.format("Event data exceeds max batch size of event hub '%s'", k.eventHubName)));
+                return null;
+            });
+        } catch (EventHubRuntimeException e) {
+            // Full batch is still pending since compute aborted, so leave it to linger timer
+            fullBatches.clear();
+            log.error(String.format("Failed to batch event data to '%s' ", eventHubName), e);
+            future.completeExceptionally(e);
+        }
+
+        fullBatches.forEach(b -> send(key, b));
+        return future;
+    }
+
+    /**
+     * Send all pending batches without waiting for linger time
+     */
+    public void flush() {
+        this.pendingBatches.keySet().forEach(k -> {
+            PendingBatch batch = this.pendingBatches.remove(k);
+            if (batch != null) {
+                send(k, batch);
+            }
+        });
+    }
+
+    /**
+     * Send all pending batches and reject events added afterwards
+     */
+    public void destroy() {
+        this.destroyed = true;
+        flush();
+    }
+
+    private PendingBatch createBatch(BatchKey key) {
+        BatchOptions options = new BatchOptions();
+        if (this.batchConfig.getMaxBatchSizeInBytes() > 0) {
+            options.maxMessageSize = this.batchConfig.getMaxBatchSizeInBytes();
+        }
+
+        EventDataBatch eventDataBatch;
+        try {
+            if (key.partitionId != null) {
+                eventDataBatch = this.clientFactory.getOrCreatePartitionSender(key.eventHubName, key.partitionId)
+                                                   .createBatch(options);
+            } else {
+                options.partitionKey = key.partitionKey;
+                eventDataBatch = this.clientFactory.getOrCreateClient(key.eventHubName).createBatch(options);
+            }
+        } catch (EventHubException e) {
+            throw new EventHubRuntimeException("Error when creating event data batch", e);
+        }
+
+        PendingBatch batch = new PendingBatch(eventDataBatch);
+
+        try {
+            batch.lingerTask = this.scheduler.schedule(() -> lingerExpired(key, batch),
+                    this.batchConfig.getLingerTime().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new EventHubRuntimeException("Batch linger scheduler has been shut down", e);
+        }
+
+        return batch;
+    }
+
+    private void lingerExpired(BatchKey key, PendingBatch batch) {
+        if (this.pendingBatches.remove(key, batch)) {
+            send(key, batch);
+        }
+    }
+
+    private void send(BatchKey key, PendingBatch batch) {
+        batch.cancelLinger();
+        CompletableFuture<Void> future;
+
+        try {
+            if (key.partitionId != null) {
+                future = this.clientFactory.getOrCreatePartitionSender(key.eventHubName, key.partitionId)
+                                           .send(batch.eventDataBatch);
+            } else {
+                future = this.clientFactory.getOrCreateClient(key.eventHubName).send(batch.eventDataBatch);
+            }
+        } catch (EventHubRuntimeException e) {
+            log.error(String.format("Failed to send batch to '%s' ", key.eventHubName), e);
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        future.whenComplete((v, t) -> batch.complete(t));
+    }
+
+    private static class PendingBatch {
+        private final EventDataBatch eventDataBatch;
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private ScheduledFuture<?> lingerTask;
+
+        PendingBatch(EventDataBatch eventDataBatch) {
+            this.eventDataBatch = eventDataBatch;
+        }
+
+        boolean tryAdd(EventData eventData, CompletableFuture<Void> future) {
+            try {
+                if (!this.eventDataBatch.tryAdd(eventData)) {
+                    return false;
+                }
+            } catch (PayloadSizeExceededException e) {
+                return false;
+            }
+
+            this.futures.add(future);
+            return true;
+        }
+
+        void cancelLinger() {
+            if (this.lingerTask != null) {
+                this.lingerTask.cancel(false);
+            }
+        }
+
+        void complete(Throwable t) {
+            if (t != null) {
+                this.futures.forEach(f -> f.completeExceptionally(t));
+            } else {
+                this.futures.forEach(f -> f.complete(null));
+            }
+        }
+    }
+
+    private static class BatchKey {
+        private final String eventHubName;
+        private final String partitionId;
+        private final String partitionKey;
+
+        BatchKey(String eventHubName, PartitionSupplier partitionSupplier) {
+            this.eventHubName = eventHubName;
+
+            if (partitionSupplier != null && !Strings.isNullOrEmpty(partitionSupplier.getPartitionId())) {
+                this.partitionId = partitionSupplier.getPartitionId();
+                this.partitionKey = null;
+            } else if (partitionSupplier != null && !Strings.isNullOrEmpty(partitionSupplier.getPartitionKey())) {
+                this.partitionId = null;
+                this.partitionKey = partitionSupplier.getPartitionKey();
+            } else {
+                this.partitionId = null;
+                this.partitionKey = null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey batchKey = (BatchKey) o;
+            return Objects.equals(eventHubName, batchKey.eventHubName) &&
+                    Objects.equals(partitionId, batchKey.partitionId) &&
+                    Objects.equals(partitionKey, batchKey.partitionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventHubName, partitionId, partitionKey);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.microsoft.azure.eventhubs.EventHubClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Pool of {@link EventHubClient} for one event hub. Each client owns its own AMQP connection.
+ * <p>
+ * Every send goes to the client with least in-flight sends. A new client is created when all clients have at least
+ * {@code maxInFlightPerClient} in-flight sends and pool is not full. Idle clients beyond the first one are closed
+ * after {@code idleTimeout}. Clients are created outside the pool lock, so sends to other clients go on while a
+ * new connection is being opened; sends picking a client still being created wait for it.
+ *
+ * @author Warren Zhu
+ */
+public class EventHubClientPool {
+    private static final Logger log = LoggerFactory.getLogger(EventHubClientPool.class);
+    private final Supplier<EventHubClient> clientCreator;
+    private final int maxSize;
+    private final int maxInFlightPerClient;
+    private final long idleTimeoutNanos;
+    private final List<PooledClient> clients = new ArrayList<>();
+
+    public EventHubClientPool(Supplier<EventHubClient> clientCreator, int maxSize, int maxInFlightPerClient,
+            Duration idleTimeout) {
+        Assert.isTrue(maxSize > 0, "maxSize should be positive");
+        Assert.isTrue(maxInFlightPerClient > 0, "maxInFlightPerClient should be positive");
+        Assert.notNull(idleTimeout, "idleTimeout can't be null");
+        this.clientCreator = clientCreator;
+        this.maxSize = maxSize;
+        this.maxInFlightPerClient = maxInFlightPerClient;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * Apply the send action on the least loaded client and track it as in-flight until the future completes
+     */
+    public <T> CompletableFuture<T> execute(Function<EventHubClient, CompletableFuture<T>> action) {
+        PooledClient pooledClient = acquire();
+        CompletableFuture<T> future;
+
+        try {
+            future = action.apply(pooledClient.getClient());
+        } catch (RuntimeException e) {
+            pooledClient.release();
+            throw e;
+        }
+
+        return future.whenComplete((r, t) -> pooledClient.release());
+    }
+
+    public synchronized int size() {
+        return this.clients.size();
+    }
+
+    public synchronized CompletableFuture<Void> close() {
+        CompletableFuture<Void> closed = CompletableFuture.allOf(
+                this.clients.stream().map(PooledClient::close).toArray(CompletableFuture[]::new));
+        this.clients.clear();
+        return closed;
+    }
+
+    private PooledClient acquire() {
+        PooledClient leastLoaded;
+        boolean created = false;
+
+        synchronized (this) {
+            evictIdleClients();
+            leastLoaded = this.clients.stream().min(Comparator.comparingInt(c -> c.inFlight.get())).orElse(null);
+
+            if (leastLoaded == null ||
+                    (leastLoaded.inFlight.get() >= this.maxInFlightPerClient && this.clients.size() < this.maxSize)) {
+                leastLoaded = new PooledClient();
+                this.clients.add(leastLoaded);
+                created = true;
+            }
+
+            leastLoaded.inFlight.incrementAndGet();
+        }
+
+        if (created) {
+            connect(leastLoaded);
+        }
+
+        return leastLoaded;
+    }
+
+    private void connect(PooledClient pooledClient) {
+        try {
+            pooledClient.client.complete(this.clientCreator.get());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                this.clients.remove(pooledClient);
+            }
+
+            pooledClient.client.completeExceptionally(e);
+        }
+    }
+
+    private void evictIdleClients() {
+        long now = System.nanoTime();
+        Iterator<PooledClient> iterator = this.clients.iterator();
+
+        while (iterator.hasNext() && this.clients.size() > 1) {
+            PooledClient pooledClient = iterator.next();
+            if (pooledClient.inFlight.get() == 0 && now - pooledClient.lastReleased >= this.idleTimeoutNanos) {
+                iterator.remove();
+                pooledClient.close().exceptionally(t -> {
+                    log.warn("Failed to close idle event hub client", t);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static class PooledClient {
+        private final CompletableFuture<EventHubClient> client = new CompletableFuture<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastReleased = System.nanoTime();
+
+        EventHubClient getClient() {
+            try {
+                return this.client.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw new EventHubRuntimeException("Failed to create event hub client", e.getCause());
+            }
+        }
+
+        CompletableFuture<Void> close() {
+            return this.client.thenCompose(EventHubClient::close);
+        }
+
+        void release() {
+            this.lastReleased = System.nanoTime();
+            this.inFlight.decrementAndGet();
+        }
+    }
+}
@@ -14,40 +14,72 @@ import com.microsoft.azure.spring.integration.core.AzureCheckpointer;
 import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
-import com.microsoft.azure.spring.integration.core.api.Checkpointer;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import com.microsoft.azure.spring.integration.eventhub.api.PartitionConcurrencyConfig;
 import com.microsoft.azure.spring.integration.eventhub.checkpoint.CheckpointManager;
 import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.metrics.PartitionLagTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 /**
  * Implementation of {@link IEventProcessor} to be registered via event hub sdk.
  * <p>
- * Mainly handle message conversion and checkpoint
+ * Mainly handle message conversion and checkpoint. In {@link ListenerMode#BATCH}, all events received in one
+ * {@link #onEvents(PartitionContext, Iterable)} are delivered as one {@link Message} with a {@link List} payload.
+ * If {@link PartitionConcurrencyConfig} is provided, events of one partition are processed in parallel by
+ * {@link KeyOrderedDispatcher}. If {@link PartitionLagTracker} is set, the last processed event of each partition is
+ * tracked to compute consumer lag.
  *
  * @author Warren Zhu
  */
 public class EventHubProcessor implements IEventProcessor {
     private static final Logger log = LoggerFactory.getLogger(EventHubProcessor.class);
+    private static final long CLOSE_FLUSH_TIMEOUT_SECONDS = 30;
     private final Consumer<Message<?>> consumer;
     private final Class<?> payloadType;
     private final CheckpointConfig checkpointConfig;
     private final EventHubMessageConverter messageConverter;
     private final CheckpointManager checkpointManager;
+    private final ListenerMode listenerMode;
+    private final KeyOrderedDispatcher dispatcher;
+    private volatile PartitionLagTracker lagTracker;
 
     public EventHubProcessor(Consumer<Message<?>> consumer, Class<?> payloadType, CheckpointConfig checkpointConfig,
             EventHubMessageConverter messageConverter) {
+        this(consumer, payloadType, checkpointConfig, messageConverter, ListenerMode.RECORD);
+    }
+
+    public EventHubProcessor(Consumer<Message<?>> consumer, Class<?> payloadType, CheckpointConfig checkpointConfig,
+            EventHubMessageConverter messageConverter, ListenerMode listenerMode) {
+        this(consumer, payloadType, checkpointConfig, messageConverter, listenerMode, null);
+    }
+
+    public EventHubProcessor(Consumer<Message<?>> consumer, Class<?> payloadType, CheckpointConfig checkpointConfig,
+            EventHubMessageConverter messageConverter, ListenerMode listenerMode,
+            PartitionConcurrencyConfig concurrencyConfig) {
+        Assert.isTrue(listenerMode == ListenerMode.RECORD ||
+                        checkpointConfig.getCheckpointMode() != CheckpointMode.RECORD,
+                () -> "RECORD checkpoint mode is not supported in BATCH listener mode");
+        Assert.isTrue(listenerMode == ListenerMode.RECORD || concurrencyConfig == null,
+                () -> "PartitionConcurrencyConfig is not supported in BATCH listener mode");
         this.consumer = consumer;
         this.payloadType = payloadType;
         this.checkpointConfig = checkpointConfig;
         this.messageConverter = messageConverter;
         this.checkpointManager = CheckpointManager.of(checkpointConfig);
+        this.listenerMode = listenerMode;
+        this.dispatcher = concurrencyConfig == null ? null :
+                new KeyOrderedDispatcher(concurrencyConfig, this.checkpointManager, this::trackProcessed);
     }
 
     @Override
@@ -58,24 +90,127 @@ public class EventHubProcessor implements IEventProcessor {
     @Override
     public void onClose(PartitionContext context, CloseReason reason) throws Exception {
         log.info("Partition {} is closing for reason {}", context.getPartitionId(), reason);
+
+        if (this.dispatcher != null) {
+            this.dispatcher.drain(context, TimeUnit.SECONDS.toMillis(CLOSE_FLUSH_TIMEOUT_SECONDS));
+        }
+
+        try {
+            this.checkpointManager.onPartitionClose(context).get(CLOSE_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Partition {} failed to flush checkpoint in {} seconds", context.getPartitionId(),
+                    CLOSE_FLUSH_TIMEOUT_SECONDS);
+        }
+
+        PartitionLagTracker tracker = this.lagTracker;
+
+        if (tracker != null) {
+            tracker.onPartitionClose(context);
+        }
     }
 
     @Override
     public void onEvents(PartitionContext context, Iterable<EventData> events) throws Exception {
-        Map<String, Object> headers = new HashMap<>();
-        headers.put(AzureHeaders.RAW_PARTITION_ID, context.getPartitionId());
+        if (this.listenerMode == ListenerMode.BATCH) {
+            onEventBatch(context, events);
+            return;
+        }
+
+        if (this.dispatcher != null) {
+            for (EventData e : events) {
+                this.dispatcher.dispatch(context, e, () -> this.consumer.accept(toMessage(context, e)));
+            }
+            return;
+        }
+
+        EventData last = null;
 
         for (EventData e : events) {
-            Checkpointer checkpointer = new AzureCheckpointer(() -> context.checkpoint(e));
+            this.consumer.accept(toMessage(context, e));
+
+            this.checkpointManager.onMessage(context, e);
+            last = e;
+        }
+
+        this.checkpointManager.completeBatch(context);
+
+        if (last != null) {
+            trackProcessed(context, last);
+        }
+    }
+
+    private void trackProcessed(PartitionContext context, EventData eventData) {
+        PartitionLagTracker tracker = this.lagTracker;
+
+        if (tracker != null) {
+            tracker.onProcessed(context, eventData);
+        }
+    }
+
+    /**
+     * Headers are built on first access, so each event gets its own partition id and checkpointer headers without
+     * allocating header maps for consumers reading payload only
+     */
+    private Message<?> toMessage(PartitionContext context, EventData eventData) {
+        return messageConverter.toLazyMessage(eventData, headers -> {
+            headers.put(AzureHeaders.RAW_PARTITION_ID, context.getPartitionId());
+
             if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
-                headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
+                headers.put(AzureHeaders.CHECKPOINTER, new AzureCheckpointer(() -> context.checkpoint(eventData)));
             }
-            this.consumer.accept(messageConverter.toMessage(e, new MessageHeaders(headers), payloadType));
+        }, payloadType);
+    }
 
-            this.checkpointManager.onMessage(context, e);
+    private void onEventBatch(PartitionContext context, Iterable<EventData> events) {
+        List<EventData> eventData = new ArrayList<>();
+        events.forEach(eventData::add);
+
+        if (eventData.isEmpty()) {
+            return;
         }
 
+        List<Object> payloads = new ArrayList<>(eventData.size());
+        List<Map<String, Object>> convertedHeaders = new ArrayList<>(eventData.size());
+
+        for (EventData e : eventData) {
+            Message<?> message = messageConverter.toMessage(e, payloadType);
+            payloads.add(message.getPayload());
+            convertedHeaders.add(message.getHeaders());
+        }
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.RAW_PARTITION_ID, context.getPartitionId());
+        headers.put(AzureHeaders.BATCH_CONVERTED_HEADERS, convertedHeaders);
+
+        if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
+            EventData last = eventData.get(eventData.size() - 1);
+            headers.put(AzureHeaders.CHECKPOINTER, new AzureCheckpointer(() -> context.checkpoint(last)));
+        }
+
+        this.consumer.accept(MessageBuilder.withPayload(payloads).copyHeaders(headers).build());
+
+        eventData.forEach(e -> this.checkpointManager.onMessage(context, e));
         this.checkpointManager.completeBatch(context);
+        trackProcessed(context, eventData.get(eventData.size() - 1));
+    }
+
+    public void setLagTracker(PartitionLagTracker lagTracker) {
+        this.lagTracker = lagTracker;
+    }
+
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        this.checkpointManager.setMessagingMetrics(messagingMetrics);
+    }
+
+    /**
+     * Stop workers processing events in parallel and threads of checkpoint manager
+     */
+    public void close() {
+        if (this.dispatcher != null) {
+            this.dispatcher.shutdown();
+        }
+
+        this.checkpointManager.close();
     }
 
     @Override
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.microsoft.azure.eventprocessorhost.EventProcessorOptions;
+import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubReactiveOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Default implementation of {@link EventHubReactiveOperation}.
+ *
+ * <p>
+ * Event processor thread is blocked until subscribers request more messages and the emitted message is handed to a
+ * subscriber, so event processor host stops pulling from event hub and only delivered messages are checkpointed. If
+ * subscribers cancel first, the event processor fails with {@link EventHubRuntimeException} and the undelivered
+ * events are left for redelivery. Receive batch size and prefetch count are derived from {@code prefetch} unless
+ * {@link com.microsoft.azure.spring.integration.core.api.ReceiveConfig} is set.
+ *
+ * @author Warren Zhu
+ */
+public class EventHubReactiveTemplate extends AbstractEventHubTemplate implements EventHubReactiveOperation {
+    private static final Logger log = LoggerFactory.getLogger(EventHubReactiveTemplate.class);
+
+    private final ConcurrentHashMap<Tuple<String, String>, Flux<Message<?>>> fluxByNameAndGroup =
+            new ConcurrentHashMap<>();
+
+    private int prefetch = 256;
+
+    private int sendBatchSize = 100;
+
+    private Duration sendLingerTime = Duration.ofMillis(10);
+
+    public EventHubReactiveTemplate(EventHubClientFactory clientFactory) {
+        super(clientFactory);
+        log.info("Started EventHubReactiveTemplate with properties: {}", buildPropertiesMap());
+    }
+
+    @Override
+    public <T> Mono<Void> send(String destination, Message<T> message, PartitionSupplier partitionSupplier) {
+        return Mono.defer(() -> Mono.fromFuture(sendAsync(destination, message, partitionSupplier)));
+    }
+
+    @Override
+    public <T> Mono<Void> send(String destination, Flux<Message<T>> messages, PartitionSupplier partitionSupplier) {
+        if (getBatchConfig() != null) {
+            // Size aware batching is done by batch accumulator
+            return messages.flatMap(m -> send(destination, m, partitionSupplier)).then();
+        }
+
+        return messages.bufferTimeout(this.sendBatchSize, this.sendLingerTime)
+                       .concatMap(batch -> Mono.defer(() -> Mono.fromFuture(
+                               sendAsync(destination, batch, partitionSupplier)))).then();
+    }
+
+    @Override
+    public Flux<Message<?>> subscribe(String destination, String consumerGroup, Class<?> messagePayloadType) {
+        return fluxByNameAndGroup.computeIfAbsent(Tuple.of(destination, consumerGroup), k -> {
+            AtomicReference<DemandGate> gateRef = new AtomicReference<>();
+
+            // Prefetch of one keeps at most one emitted message waiting for subscriber demand
+            return Flux.<Message<?>>create(sink -> {
+                DemandGate gate = new DemandGate();
+                gateRef.set(gate);
+                sink.onRequest(gate::request);
+                sink.onDispose(() -> {
+                    gate.cancel();
+                    fluxByNameAndGroup.remove(k);
+                    unregister(destination, consumerGroup);
+                });
+                this.register(destination, consumerGroup,
+                        new EventHubProcessor(m -> emit(gate, sink, m), messagePayloadType, getCheckpointConfig(),
+                                getMessageConverter(), getListenerMode(), getPartitionConcurrencyConfig()));
+            }, FluxSink.OverflowStrategy.ERROR).publish(1).refCount().doOnNext(m -> gateRef.get().delivered(m));
+        });
+    }
+
+    @Override
+    protected EventProcessorOptions buildEventProcessorOptions() {
+        EventProcessorOptions options = super.buildEventProcessorOptions();
+
+        // Explicit receive config takes precedence over the one derived from prefetch
+        if (getReceiveConfig() == null) {
+            options.setMaxBatchSize(this.prefetch);
+            options.setPrefetchCount(Math.max(MIN_PREFETCH_COUNT, this.prefetch));
+        }
+
+        return options;
+    }
+
+    /**
+     * Return once the message is handed to a subscriber. Throw otherwise, so the event processor doesn't checkpoint
+     * it
+     */
+    private static void emit(DemandGate gate, FluxSink<Message<?>> sink, Message<?> message) {
+        try {
+            if (gate.acquire(message)) {
+                sink.next(message);
+
+                if (gate.awaitDelivery(message)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        gate.discard(message);
+        throw new EventHubRuntimeException("Subscription was cancelled before message was delivered");
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Max events received from event hub per partition ahead of subscriber demand
+     */
+    public void setPrefetch(int prefetch) {
+        Assert.isTrue(prefetch > 0, "prefetch should be positive");
+        this.prefetch = prefetch;
+    }
+
+    public int getSendBatchSize() {
+        return sendBatchSize;
+    }
+
+    public void setSendBatchSize(int sendBatchSize) {
+        Assert.isTrue(sendBatchSize > 0, "sendBatchSize should be positive");
+        this.sendBatchSize = sendBatchSize;
+    }
+
+    public Duration getSendLingerTime() {
+        return sendLingerTime;
+    }
+
+    public void setSendLingerTime(Duration sendLingerTime) {
+        Assert.notNull(sendLingerTime, "sendLingerTime can't be null");
+        this.sendLingerTime = sendLingerTime;
+    }
+
+    /**
+     * Track outstanding demand of subscribers and block emitting thread when there is no demand or until the emitted
+     * message is delivered
+     */
+    private static class DemandGate {
+        private final Set<Message<?>> undelivered = Collections.newSetFromMap(new IdentityHashMap<>());
+        private long demand;
+        private boolean cancelled;
+
+        synchronized void request(long n) {
+            this.demand = this.demand + n < 0 ? Long.MAX_VALUE : this.demand + n;
+            notifyAll();
+        }
+
+        synchronized void cancel() {
+            this.cancelled = true;
+            notifyAll();
+        }
+
+        synchronized void delivered(Message<?> message) {
+            if (this.undelivered.remove(message)) {
+                notifyAll();
+            }
+        }
+
+        synchronized void discard(Message<?> message) {
+            this.undelivered.remove(message);
+        }
+
+        synchronized boolean awaitDelivery(Message<?> message) throws InterruptedException {
+            while (this.undelivered.contains(message) && !this.cancelled) {
+                wait();
+            }
+
+            return !this.undelivered.contains(message);
+        }
+
+        synchronized boolean acquire(Message<?> message) throws InterruptedException {
+            while (this.demand == 0 && !this.cancelled) {
+                wait();
+            }
+
+            if (this.cancelled) {
+                return false;
+            }
+
+            if (this.demand != Long.MAX_VALUE) {
+                this.demand--;
+            }
+
+            this.undelivered.add(message);
+            return true;
+        }
+    }
+}
@@ -54,7 +54,7 @@ public class EventHubRxTemplate extends AbstractEventHubTemplate implements Even
         subjectByNameAndGroup.computeIfAbsent(nameAndConsumerGroup, k -> Observable.<Message<?>>create(subscriber -> {
             this.register(destination, consumerGroup,
                     new EventHubProcessor(subscriber::onNext, messagePayloadType, getCheckpointConfig(),
-                            getMessageConverter()));
+                            getMessageConverter(), getListenerMode(), getPartitionConcurrencyConfig()));
             subscriber.add(Subscriptions.create(() -> unregister(destination, consumerGroup)));
         }).share());
 
@@ -38,7 +38,9 @@ public class EventHubTemplate extends AbstractEventHubTemplate implements EventH
             Class<?> messagePayloadType) {
         if (subscribedNameAndGroup.putIfAbsent(Tuple.of(destination, consumerGroup), true) == null) {
             this.register(destination, consumerGroup,
-                    new EventHubProcessor(consumer, messagePayloadType, getCheckpointConfig(), getMessageConverter()));
+                    new EventHubProcessor(getMessagingMetrics().recordHandler(destination, consumerGroup, consumer),
+                            messagePayloadType, getCheckpointConfig(), getMessageConverter(),
+                            getListenerMode(), getPartitionConcurrencyConfig()));
             log.info("Consumer subscribed to destination '{}' with consumer group '{}'", destination, consumerGroup);
             return true;
         }
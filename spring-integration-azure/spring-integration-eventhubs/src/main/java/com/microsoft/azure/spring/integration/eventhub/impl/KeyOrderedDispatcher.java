@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.eventhub.api.PartitionConcurrencyConfig;
+import com.microsoft.azure.spring.integration.eventhub.checkpoint.CheckpointManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Dispatch events to single-threaded workers sharded by key, so events with the same key are processed in order.
+ * <p>
+ * Checkpoint manager is only notified of events in partition order once all events before them are processed, so
+ * checkpoint never passes an unprocessed event. Once an event fails, checkpoint of its partition stops before it
+ * until the partition is closed, so the failed event is redelivered to the next owner.
+ *
+ * @author Warren Zhu
+ */
+class KeyOrderedDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+    private final ExecutorService[] workers;
+    private final Semaphore inFlight;
+    private final PartitionConcurrencyConfig config;
+    private final CheckpointManager checkpointManager;
+    private final BiConsumer<PartitionContext, EventData> watermarkListener;
+    private final ConcurrentHashMap<String, Watermark> watermarkByPartition = new ConcurrentHashMap<>();
+    private final AtomicLong unkeyedCount = new AtomicLong();
+
+    /**
+     * @param watermarkListener notified with the last event of the partition once it and all events before it are
+     *                          processed
+     */
+    KeyOrderedDispatcher(PartitionConcurrencyConfig config, CheckpointManager checkpointManager,
+            BiConsumer<PartitionContext, EventData> watermarkListener) {
+        this.config = config;
+        this.checkpointManager = checkpointManager;
+        this.watermarkListener = watermarkListener;
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+        this.workers = new ExecutorService[config.getConcurrency()];
+        ThreadFactory threadFactory =
+                new ThreadFactoryBuilder().setNameFormat("eventhub-processor-%d").setDaemon(true).build();
+
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+    }
+
+    /**
+     * Dispatch handler of one event. Block when max in-flight events is reached. Event whose key can't be
+     * extracted is treated as failed without running its handler
+     */
+    void dispatch(PartitionContext context, EventData eventData, Runnable handler) throws InterruptedException {
+        this.inFlight.acquire();
+        Watermark watermark = this.watermarkByPartition.computeIfAbsent(context.getPartitionId(), k -> new Watermark());
+        Entry entry = watermark.add(context, eventData);
+        int worker;
+
+        try {
+            worker = selectWorker(context, eventData);
+        } catch (RuntimeException e) {
+            log.error("Partition {} failed to extract key of event", context.getPartitionId(), e);
+            watermark.complete(entry, true);
+            this.inFlight.release();
+            return;
+        }
+
+        try {
+            this.workers[worker].execute(() -> {
+                boolean failed = true;
+
+                try {
+                    handler.run();
+                    failed = false;
+                } catch (RuntimeException e) {
+                    log.error("Partition {} failed to process event", context.getPartitionId(), e);
+                } finally {
+                    watermark.complete(entry, failed);
+                    this.inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            watermark.complete(entry, true);
+            this.inFlight.release();
+            throw e;
+        }
+    }
+
+    private int selectWorker(PartitionContext context, EventData eventData) {
+        Object key = this.config.getKeyExtractor().apply(eventData);
+        return key == null ? (int) (this.unkeyedCount.getAndIncrement() % this.workers.length) :
+                Math.floorMod(Objects.hash(context.getPartitionId(), key), this.workers.length);
+    }
+
+    /**
+     * Wait until all dispatched events of the partition are processed, then forget the partition
+     */
+    void drain(PartitionContext context, long timeoutMillis) throws InterruptedException {
+        Watermark watermark = this.watermarkByPartition.get(context.getPartitionId());
+
+        if (watermark == null) {
+            return;
+        }
+
+        if (!watermark.awaitEmpty(timeoutMillis)) {
+            log.warn("Partition {} still has unprocessed events after {} ms", context.getPartitionId(),
+                    timeoutMillis);
+        }
+
+        this.watermarkByPartition.remove(context.getPartitionId(), watermark);
+    }
+
+    void shutdown() {
+        for (ExecutorService worker : this.workers) {
+            worker.shutdown();
+        }
+    }
+
+    private static class Entry {
+        private final PartitionContext context;
+        private final EventData eventData;
+        private boolean done;
+        private boolean failed;
+
+        Entry(PartitionContext context, EventData eventData) {
+            this.context = context;
+            this.eventData = eventData;
+        }
+    }
+
+    private class Watermark {
+        private final Deque<Entry> entries = new ArrayDeque<>();
+        private boolean blocked;
+
+        synchronized Entry add(PartitionContext context, EventData eventData) {
+            Entry entry = new Entry(context, eventData);
+            this.entries.addLast(entry);
+            return entry;
+        }
+
+        synchronized void complete(Entry entry, boolean failed) {
+            entry.done = true;
+            entry.failed = failed;
+            Entry last = null;
+
+            while (!this.entries.isEmpty() && this.entries.peekFirst().done) {
+                Entry head = this.entries.pollFirst();
+
+                if (head.failed && !this.blocked) {
+                    this.blocked = true;
+                    log.warn("Partition {} stops checkpointing before failed event until it's closed",
+                            head.context.getPartitionId());
+                }
+
+                // Entries behind a failed one are only tracked for drain
+                if (!this.blocked) {
+                    last = head;
+                    checkpointManager.onMessage(last.context, last.eventData);
+                }
+            }
+
+            if (last != null) {
+                checkpointManager.completeBatch(last.context);
+                watermarkListener.accept(last.context, last.eventData);
+            }
+
+            if (this.entries.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        synchronized boolean awaitEmpty(long timeoutMillis) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+            while (!this.entries.isEmpty()) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.impl;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.microsoft.azure.eventhubs.EventHubRuntimeInformation;
+import com.microsoft.azure.spring.cloud.context.core.util.Memoizer;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.api.PartitionRouter;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Default {@link PartitionRouter} based on partition ids cached from event hub runtime information.
+ * <p>
+ * Partition key is mapped to partition id by stable hashing. Events without partition key stick to one partition
+ * for {@code stickyCount} events before moving to the next partition, so batches could fill per partition.
+ * Explicit partition id is always respected.
+ *
+ * @author Warren Zhu
+ */
+public class StickyPartitionRouter implements PartitionRouter {
+    private static final int DEFAULT_STICKY_COUNT = 100;
+    private final EventHubClientFactory clientFactory;
+    private final int stickyCount;
+    private final Map<String, String[]> partitionIdsByName = new ConcurrentHashMap<>();
+    private final Function<String, String[]> partitionIdsGetter =
+            Memoizer.memoize(partitionIdsByName, this::getPartitionIds);
+    private final Map<String, AtomicLong> countersByName = new ConcurrentHashMap<>();
+
+    public StickyPartitionRouter(EventHubClientFactory clientFactory) {
+        this(clientFactory, DEFAULT_STICKY_COUNT);
+    }
+
+    public StickyPartitionRouter(EventHubClientFactory clientFactory, int stickyCount) {
+        Assert.isTrue(stickyCount > 0, "stickyCount should be positive");
+        this.clientFactory = clientFactory;
+        this.stickyCount = stickyCount;
+    }
+
+    @Override
+    public String route(String eventHubName, PartitionSupplier partitionSupplier) {
+        if (partitionSupplier != null && !Strings.isNullOrEmpty(partitionSupplier.getPartitionId())) {
+            return partitionSupplier.getPartitionId();
+        }
+
+        String[] partitionIds = this.partitionIdsGetter.apply(eventHubName);
+
+        if (partitionSupplier != null && !Strings.isNullOrEmpty(partitionSupplier.getPartitionKey())) {
+            int hash = Hashing.murmur3_32().hashString(partitionSupplier.getPartitionKey(), StandardCharsets.UTF_8)
+                              .asInt();
+            return partitionIds[Math.floorMod(hash, partitionIds.length)];
+        }
+
+        long count = this.countersByName.computeIfAbsent(eventHubName, k -> new AtomicLong()).getAndIncrement();
+        return partitionIds[(int) ((count / this.stickyCount) % partitionIds.length)];
+    }
+
+    /**
+     * Drop cached partition ids so that they are fetched again on next route
+     */
+    public void refresh(String eventHubName) {
+        this.partitionIdsByName.remove(eventHubName);
+    }
+
+    private String[] getPartitionIds(String eventHubName) {
+        try {
+            EventHubRuntimeInformation info =
+                    this.clientFactory.getOrCreateClient(eventHubName).getRuntimeInformation().get();
+            Assert.notEmpty(info.getPartitionIds(), "Event hub has no partition");
+            return info.getPartitionIds();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventHubRuntimeException("Interrupted when getting event hub runtime information", e);
+        } catch (ExecutionException e) {
+            throw new EventHubRuntimeException("Error when getting event hub runtime information", e);
+        }
+    }
+}
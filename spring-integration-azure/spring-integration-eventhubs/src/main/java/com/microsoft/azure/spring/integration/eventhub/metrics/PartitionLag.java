@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Progress of one consumer group on one partition compared with the last event enqueued to that partition.
+ * <p>
+ * Processed position is updated by the consumer thread while gauges read it from the metrics thread, so all fields
+ * are volatile and the lag is computed from a possibly slightly stale snapshot.
+ *
+ * @author Warren Zhu
+ */
+public class PartitionLag {
+    private final String eventHubName;
+    private final String consumerGroup;
+    private final String partitionId;
+
+    private volatile String processedOffset;
+    private volatile long processedSequenceNumber = -1;
+    private volatile Instant processedEnqueuedTime;
+    private volatile long lastEnqueuedSequenceNumber = -1;
+    private volatile Instant lastEnqueuedTime;
+
+    PartitionLag(String eventHubName, String consumerGroup, String partitionId) {
+        this.eventHubName = eventHubName;
+        this.consumerGroup = consumerGroup;
+        this.partitionId = partitionId;
+    }
+
+    synchronized void onProcessed(String offset, long sequenceNumber, Instant enqueuedTime) {
+        // Events processed in parallel may complete out of order, so only move forward
+        if (sequenceNumber <= this.processedSequenceNumber) {
+            return;
+        }
+
+        this.processedOffset = offset;
+        this.processedSequenceNumber = sequenceNumber;
+        this.processedEnqueuedTime = enqueuedTime;
+    }
+
+    void onLastEnqueued(long sequenceNumber, Instant enqueuedTime) {
+        this.lastEnqueuedSequenceNumber = sequenceNumber;
+        this.lastEnqueuedTime = enqueuedTime;
+    }
+
+    /**
+     * Count of events enqueued but not processed yet. Zero if either side is still unknown
+     */
+    public long getLagEvents() {
+        long processed = this.processedSequenceNumber;
+        long enqueued = this.lastEnqueuedSequenceNumber;
+
+        if (processed < 0 || enqueued < 0) {
+            return 0;
+        }
+
+        return Math.max(0, enqueued - processed);
+    }
+
+    /**
+     * Enqueued time difference between the last enqueued event and the last processed event
+     */
+    public double getLagSeconds() {
+        Instant processed = this.processedEnqueuedTime;
+        Instant enqueued = this.lastEnqueuedTime;
+
+        if (processed == null || enqueued == null || getLagEvents() == 0) {
+            return 0;
+        }
+
+        return Math.max(0, Duration.between(processed, enqueued).toMillis()) / 1000.0;
+    }
+
+    public String getEventHubName() {
+        return eventHubName;
+    }
+
+    public String getConsumerGroup() {
+        return consumerGroup;
+    }
+
+    public String getPartitionId() {
+        return partitionId;
+    }
+
+    public String getProcessedOffset() {
+        return processedOffset;
+    }
+
+    public long getProcessedSequenceNumber() {
+        return processedSequenceNumber;
+    }
+
+    public Instant getProcessedEnqueuedTime() {
+        return processedEnqueuedTime;
+    }
+
+    public long getLastEnqueuedSequenceNumber() {
+        return lastEnqueuedSequenceNumber;
+    }
+
+    public Instant getLastEnqueuedTime() {
+        return lastEnqueuedTime;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionLag{" + "eventHubName='" + eventHubName + '\'' + ", consumerGroup='" + consumerGroup + '\'' +
+                ", partitionId='" + partitionId + '\'' + ", processedSequenceNumber=" + processedSequenceNumber +
+                ", lastEnqueuedSequenceNumber=" + lastEnqueuedSequenceNumber + '}';
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.metrics;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.ReceiverRuntimeInformation;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Track processed position and lag of each (event hub, consumer group, partition).
+ * <p>
+ * The last enqueued position is read from {@link PartitionContext#getRuntimeInformation()}, which is only populated
+ * when receiver runtime metric is enabled in event processor options. Lag is published as gauges
+ * {@value #LAG_EVENTS_METRIC} and {@value #LAG_SECONDS_METRIC}. Gauges of a partition are removed when it's closed on
+ * this instance, so partitions moved to other instances by rebalance don't keep reporting stale lag.
+ *
+ * @author Warren Zhu
+ */
+public class PartitionLagTracker {
+    public static final String LAG_EVENTS_METRIC = "azure.eventhub.consumer.lag.events";
+    public static final String LAG_SECONDS_METRIC = "azure.eventhub.consumer.lag.seconds";
+
+    private final MeterRegistry meterRegistry;
+
+    // eventHubName/consumerGroup/partitionId -> lag
+    private final ConcurrentHashMap<String, PartitionLag> lags = new ConcurrentHashMap<>();
+
+    // eventHubName/consumerGroup/partitionId -> gauges
+    private final ConcurrentHashMap<String, List<Meter>> gauges = new ConcurrentHashMap<>();
+
+    public PartitionLagTracker(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record that {@code eventData} and all events before it in this partition are processed
+     */
+    public void onProcessed(PartitionContext context, EventData eventData) {
+        PartitionLag lag = getOrCreate(context);
+        EventData.SystemProperties properties = eventData.getSystemProperties();
+
+        if (properties != null) {
+            lag.onProcessed(properties.getOffset(), properties.getSequenceNumber(), properties.getEnqueuedTime());
+        }
+
+        ReceiverRuntimeInformation runtimeInformation = context.getRuntimeInformation();
+        if (runtimeInformation != null && runtimeInformation.getLastEnqueuedTime() != null) {
+            lag.onLastEnqueued(runtimeInformation.getLastEnqueuedSequenceNumber(),
+                    runtimeInformation.getLastEnqueuedTime());
+        }
+    }
+
+    /**
+     * Stop tracking the partition and remove its gauges
+     */
+    public void onPartitionClose(PartitionContext context) {
+        String key = key(context.getEventHubPath(), context.getConsumerGroupName(), context.getPartitionId());
+        this.lags.remove(key);
+        List<Meter> removed = this.gauges.remove(key);
+
+        if (removed != null) {
+            removed.forEach(this.meterRegistry::remove);
+        }
+    }
+
+    public PartitionLag getLag(String eventHubName, String consumerGroup, String partitionId) {
+        return this.lags.get(key(eventHubName, consumerGroup, partitionId));
+    }
+
+    public Collection<PartitionLag> getLags() {
+        return Collections.unmodifiableCollection(this.lags.values());
+    }
+
+    private PartitionLag getOrCreate(PartitionContext context) {
+        String key = key(context.getEventHubPath(), context.getConsumerGroupName(), context.getPartitionId());
+        PartitionLag lag = this.lags.get(key);
+
+        if (lag != null) {
+            return lag;
+        }
+
+        return this.lags.computeIfAbsent(key, k -> register(k,
+                new PartitionLag(context.getEventHubPath(), context.getConsumerGroupName(),
+                        context.getPartitionId())));
+    }
+
+    private PartitionLag register(String key, PartitionLag lag) {
+        Tags tags = Tags.of("eventhub", lag.getEventHubName(), "group", lag.getConsumerGroup(), "partition",
+                lag.getPartitionId());
+        Gauge lagEvents = Gauge.builder(LAG_EVENTS_METRIC, lag, PartitionLag::getLagEvents).tags(tags)
+                               .description("Events enqueued to partition but not processed by consumer group")
+                               .register(this.meterRegistry);
+        Gauge lagSeconds = Gauge.builder(LAG_SECONDS_METRIC, lag, PartitionLag::getLagSeconds).tags(tags)
+                                .baseUnit("seconds")
+                                .description("Enqueued time of last enqueued event minus that of last processed event")
+                                .register(this.meterRegistry);
+        this.gauges.put(key, Arrays.asList(lagEvents, lagSeconds));
+        return lag;
+    }
+
+    private static String key(String eventHubName, String consumerGroup, String partitionId) {
+        return eventHubName + "/" + consumerGroup + "/" + partitionId;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.store;
+
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+import com.microsoft.azure.eventprocessorhost.ICheckpointManager;
+import com.microsoft.azure.eventprocessorhost.ILeaseManager;
+import com.microsoft.azure.spring.cloud.context.core.util.Memoizer;
+import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.eventhub.api.CheckpointStore;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Base {@link CheckpointStore} keeping leases in local memory, so it only fits single node deployment or hosts in
+ * the same JVM. Subclass decides how checkpoints are loaded and saved.
+ *
+ * @author Warren Zhu
+ */
+public abstract class AbstractLocalCheckpointStore implements CheckpointStore {
+    private static final Duration DEFAULT_LEASE_DURATION = Duration.ofSeconds(30);
+    // (eventHubName, consumerGroup) -> partitionTable
+    private final Map<Tuple<String, String>, PartitionTable> tableMap = new ConcurrentHashMap<>();
+    private final BiFunction<String, String, PartitionTable> tableCreator =
+            Memoizer.memoize(tableMap, this::createTable);
+    private final int leaseDurationInMillis;
+
+    protected AbstractLocalCheckpointStore() {
+        this(DEFAULT_LEASE_DURATION);
+    }
+
+    protected AbstractLocalCheckpointStore(Duration leaseDuration) {
+        Assert.isTrue(leaseDuration != null && !leaseDuration.isNegative() && !leaseDuration.isZero(),
+                "leaseDuration should be positive");
+        this.leaseDurationInMillis = (int) leaseDuration.toMillis();
+    }
+
+    @Override
+    public ICheckpointManager getCheckpointManager(String eventHubName, String consumerGroup, String hostName) {
+        return getManager(eventHubName, consumerGroup, hostName);
+    }
+
+    @Override
+    public ILeaseManager getLeaseManager(String eventHubName, String consumerGroup, String hostName) {
+        return getManager(eventHubName, consumerGroup, hostName);
+    }
+
+    protected abstract Map<String, Checkpoint> load(String eventHubName, String consumerGroup);
+
+    protected abstract void save(String eventHubName, String consumerGroup, Map<String, Checkpoint> checkpoints);
+
+    private LocalCheckpointLeaseManager getManager(String eventHubName, String consumerGroup, String hostName) {
+        return new LocalCheckpointLeaseManager(hostName, this.tableCreator.apply(eventHubName, consumerGroup),
+                this.leaseDurationInMillis);
+    }
+
+    private PartitionTable createTable(String eventHubName, String consumerGroup) {
+        return new PartitionTable(load(eventHubName, consumerGroup),
+                checkpoints -> save(eventHubName, consumerGroup, checkpoints));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.store;
+
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Keep checkpoints and leases in memory only. Mainly used in test.
+ *
+ * @author Warren Zhu
+ */
+public class InMemoryCheckpointStore extends AbstractLocalCheckpointStore {
+
+    public InMemoryCheckpointStore() {
+        super();
+    }
+
+    public InMemoryCheckpointStore(Duration leaseDuration) {
+        super(leaseDuration);
+    }
+
+    @Override
+    protected Map<String, Checkpoint> load(String eventHubName, String consumerGroup) {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    protected void save(String eventHubName, String consumerGroup, Map<String, Checkpoint> checkpoints) {
+        // no-op
+    }
+}
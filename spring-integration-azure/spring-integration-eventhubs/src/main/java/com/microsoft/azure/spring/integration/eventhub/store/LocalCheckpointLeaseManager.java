@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.store;
+
+import com.microsoft.azure.eventprocessorhost.BaseLease;
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+import com.microsoft.azure.eventprocessorhost.CompleteLease;
+import com.microsoft.azure.eventprocessorhost.ICheckpointManager;
+import com.microsoft.azure.eventprocessorhost.ILeaseManager;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import com.microsoft.azure.spring.integration.eventhub.store.PartitionTable.LeaseEntry;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * {@link ICheckpointManager} and {@link ILeaseManager} of one host backed by {@link PartitionTable} in local memory.
+ * Leases are only coordinated among hosts in the same JVM.
+ *
+ * @author Warren Zhu
+ */
+class LocalCheckpointLeaseManager implements ICheckpointManager, ILeaseManager {
+    private final String hostName;
+    private final PartitionTable table;
+    private final int leaseDurationInMillis;
+
+    LocalCheckpointLeaseManager(String hostName, PartitionTable table, int leaseDurationInMillis) {
+        this.hostName = hostName;
+        this.table = table;
+        this.leaseDurationInMillis = leaseDurationInMillis;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> checkpointStoreExists() {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Void> createCheckpointStoreIfNotExists() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCheckpointStore() {
+        this.table.checkpoints.clear();
+        this.table.persist();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Checkpoint> getCheckpoint(String partitionId) {
+        return CompletableFuture.completedFuture(this.table.checkpoints.get(partitionId));
+    }
+
+    @Override
+    public CompletableFuture<Void> createAllCheckpointsIfNotExists(List<String> partitionIds) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateCheckpoint(CompleteLease lease, Checkpoint checkpoint) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        LeaseEntry entry = this.table.leases.get(checkpoint.getPartitionId());
+
+        if (entry == null || !entry.isOwnedBy(this.hostName, System.currentTimeMillis())) {
+            future.completeExceptionally(new EventHubRuntimeException(
+                    String.format("Lease of partition %s is lost by host %s", checkpoint.getPartitionId(),
+                            this.hostName)));
+            return future;
+        }
+
+        try {
+            this.table.checkpoints.put(checkpoint.getPartitionId(), new Checkpoint(checkpoint));
+            this.table.persist();
+            future.complete(null);
+        } catch (EventHubRuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCheckpoint(String partitionId) {
+        this.table.checkpoints.remove(partitionId);
+        this.table.persist();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public int getLeaseDurationInMilliseconds() {
+        return this.leaseDurationInMillis;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> leaseStoreExists() {
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Void> createLeaseStoreIfNotExists() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteLeaseStore() {
+        this.table.leases.clear();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<CompleteLease> getLease(String partitionId) {
+        LeaseEntry entry = this.table.leases.get(partitionId);
+        return CompletableFuture.completedFuture(entry == null ? null : toLease(partitionId, entry));
+    }
+
+    @Override
+    public CompletableFuture<List<BaseLease>> getAllLeases() {
+        return CompletableFuture.completedFuture(
+                this.table.leases.entrySet().stream().map(e -> toLease(e.getKey(), e.getValue()))
+                                 .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<Void> createAllLeasesIfNotExists(List<String> partitionIds) {
+        partitionIds.forEach(id -> this.table.leases.putIfAbsent(id, new LeaseEntry()));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteLease(CompleteLease lease) {
+        this.table.leases.remove(lease.getPartitionId());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> acquireLease(CompleteLease lease) {
+        LeaseEntry entry = this.table.leases.computeIfAbsent(lease.getPartitionId(), k -> new LeaseEntry());
+
+        synchronized (entry) {
+            entry.owner = this.hostName;
+            entry.epoch++;
+            entry.expireAtMillis = System.currentTimeMillis() + this.leaseDurationInMillis;
+            updateLease(lease, entry);
+        }
+
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewLease(CompleteLease lease) {
+        return CompletableFuture.completedFuture(ifOwned(lease, entry -> {
+            entry.expireAtMillis = System.currentTimeMillis() + this.leaseDurationInMillis;
+        }));
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseLease(CompleteLease lease) {
+        ifOwned(lease, entry -> {
+            entry.owner = "";
+            entry.expireAtMillis = 0;
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateLease(CompleteLease lease) {
+        return CompletableFuture.completedFuture(ifOwned(lease, entry -> {
+        }));
+    }
+
+    private boolean ifOwned(CompleteLease lease, Consumer<LeaseEntry> action) {
+        LeaseEntry entry = this.table.leases.get(lease.getPartitionId());
+
+        if (entry == null) {
+            return false;
+        }
+
+        synchronized (entry) {
+            if (!entry.isOwnedBy(this.hostName, System.currentTimeMillis())) {
+                return false;
+            }
+
+            action.accept(entry);
+            updateLease(lease, entry);
+            return true;
+        }
+    }
+
+    private static void updateLease(CompleteLease lease, LeaseEntry entry) {
+        lease.setOwner(entry.owner);
+        lease.setEpoch(entry.epoch);
+    }
+
+    private static CompleteLease toLease(String partitionId, LeaseEntry entry) {
+        CompleteLease lease = new CompleteLease(partitionId);
+
+        synchronized (entry) {
+            boolean owned = entry.isOwned(System.currentTimeMillis());
+            lease.setOwner(owned ? entry.owner : "");
+            lease.setEpoch(entry.epoch);
+            lease.setIsOwned(owned);
+        }
+
+        return lease;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.store;
+
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Save checkpoints to local file system, one properties file per event hub and consumer group. Leases are kept in
+ * memory, so it only fits single node deployment.
+ * <p>
+ * File is written to a temporary file then atomically moved, so a crash never leaves a partial checkpoint file.
+ *
+ * @author Warren Zhu
+ */
+public class LocalFileCheckpointStore extends AbstractLocalCheckpointStore {
+    private static final String SEPARATOR = ":";
+    private final Path directory;
+
+    public LocalFileCheckpointStore(Path directory) {
+        super();
+        Assert.notNull(directory, "directory can't be null");
+        this.directory = directory;
+    }
+
+    public LocalFileCheckpointStore(Path directory, Duration leaseDuration) {
+        super(leaseDuration);
+        Assert.notNull(directory, "directory can't be null");
+        this.directory = directory;
+    }
+
+    @Override
+    protected Map<String, Checkpoint> load(String eventHubName, String consumerGroup) {
+        Path file = getFile(eventHubName, consumerGroup);
+        Map<String, Checkpoint> checkpoints = new HashMap<>();
+
+        if (!Files.exists(file)) {
+            return checkpoints;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new EventHubRuntimeException("Error when loading checkpoint file " + file, e);
+        }
+
+        properties.stringPropertyNames().forEach(partitionId -> {
+            String value = properties.getProperty(partitionId);
+            int index = value.lastIndexOf(SEPARATOR);
+            checkpoints.put(partitionId, new Checkpoint(partitionId, value.substring(0, index),
+                    Long.parseLong(value.substring(index + 1))));
+        });
+
+        return checkpoints;
+    }
+
+    @Override
+    protected void save(String eventHubName, String consumerGroup, Map<String, Checkpoint> checkpoints) {
+        Path file = getFile(eventHubName, consumerGroup);
+        Properties properties = new Properties();
+        checkpoints.values().forEach(c -> properties
+                .setProperty(c.getPartitionId(), c.getOffset() + SEPARATOR + c.getSequenceNumber()));
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "checkpoint-", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new EventHubRuntimeException("Error when saving checkpoint file " + file, e);
+        }
+    }
+
+    private Path getFile(String eventHubName, String consumerGroup) {
+        return this.directory.resolve(eventHubName).resolve(consumerGroup + ".properties");
+    }
+}
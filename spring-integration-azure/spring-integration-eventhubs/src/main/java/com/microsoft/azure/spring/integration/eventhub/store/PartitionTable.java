@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.store;
+
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Leases and checkpoints of all partitions of one event hub and consumer group
+ *
+ * @author Warren Zhu
+ */
+class PartitionTable {
+    final Map<String, LeaseEntry> leases = new ConcurrentHashMap<>();
+    final Map<String, Checkpoint> checkpoints;
+    private final Consumer<Map<String, Checkpoint>> saver;
+
+    PartitionTable(Map<String, Checkpoint> checkpoints, Consumer<Map<String, Checkpoint>> saver) {
+        this.checkpoints = new ConcurrentHashMap<>(checkpoints);
+        this.saver = saver;
+    }
+
+    synchronized void persist() {
+        this.saver.accept(this.checkpoints);
+    }
+
+    static class LeaseEntry {
+        String owner = "";
+        long epoch;
+        long expireAtMillis;
+
+        boolean isOwned(long now) {
+            return !owner.isEmpty() && now < expireAtMillis;
+        }
+
+        boolean isOwnedBy(String hostName, long now) {
+            return isOwned(now) && owner.equals(hostName);
+        }
+    }
+}
@@ -52,7 +52,7 @@ public class RxEventHubTestOperation extends EventHubTestOperation implements Ev
         subjectByNameAndGroup.computeIfAbsent(nameAndConsumerGroup, k -> Observable.<Message<?>>create(subscriber -> {
             this.register(destination, consumerGroup,
                     new EventHubProcessor(subscriber::onNext, messagePayloadType, getCheckpointConfig(),
-                            getMessageConverter()));
+                            getMessageConverter(), getListenerMode(), getPartitionConcurrencyConfig()));
             subscriber.add(Subscriptions.create(() -> unregister(destination, consumerGroup)));
         }).share());
 
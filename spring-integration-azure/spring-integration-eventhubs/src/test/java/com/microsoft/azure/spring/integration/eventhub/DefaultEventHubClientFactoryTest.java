@@ -14,9 +14,10 @@ import com.microsoft.azure.spring.cloud.context.core.api.Environment;
 import com.microsoft.azure.spring.cloud.context.core.api.ResourceManagerProvider;
 import com.microsoft.azure.spring.cloud.context.core.impl.StorageAccountManager;
 import com.microsoft.azure.spring.cloud.context.core.storage.StorageConnectionStringProvider;
-import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.core.metrics.MicrometerMessagingMetrics;
 import com.microsoft.azure.spring.integration.eventhub.factory.DefaultEventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.factory.EventHubConnectionStringProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -26,9 +27,13 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 @RunWith(PowerMockRunner.class)
@@ -56,7 +61,7 @@ public class DefaultEventHubClientFactoryTest {
     @Mock
     EventHubConnectionStringProvider connectionStringProvider;
 
-    private EventHubClientFactory clientFactory;
+    private DefaultEventHubClientFactory clientFactory;
     private String checkpointStorageAccount = "sa";
     private String eventHubName = "eventHub";
     private String consumerGroup = "group";
@@ -99,6 +104,35 @@ public class DefaultEventHubClientFactoryTest {
         assertEquals(sender, another);
     }
 
+    @Test
+    public void testDestroyClosesClients() throws Exception {
+        when(eventHubClient.close()).thenReturn(CompletableFuture.completedFuture(null));
+        when(partitionSender.close()).thenReturn(CompletableFuture.completedFuture(null));
+        clientFactory.getOrCreatePartitionSender(this.eventHubName, partitionId);
+        clientFactory.destroy();
+        verify(eventHubClient).close();
+        verify(partitionSender).close();
+    }
+
+    @Test
+    public void testSchedulerMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        clientFactory.setMessagingMetrics(new MicrometerMessagingMetrics(meterRegistry, "eventhub"));
+        assertEquals(0, meterRegistry.get(MicrometerMessagingMetrics.EXECUTOR_QUEUED_METRIC)
+                                     .tag("executor", "eventhub-client").gauge().value(), 0);
+        assertEquals(0, meterRegistry.get(MicrometerMessagingMetrics.EXECUTOR_ACTIVE_METRIC)
+                                     .tag("executor", "eventhub-client").gauge().value(), 0);
+    }
+
+    @Test
+    public void testDestroyRemovesSchedulerMetrics() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        clientFactory.setMessagingMetrics(new MicrometerMessagingMetrics(meterRegistry, "eventhub"));
+        clientFactory.destroy();
+        assertNull(meterRegistry.find(MicrometerMessagingMetrics.EXECUTOR_QUEUED_METRIC).gauge());
+        assertNull(meterRegistry.find(MicrometerMessagingMetrics.EXECUTOR_ACTIVE_METRIC).gauge());
+    }
+
     @Test
     @Ignore("Cannot mock EventProcessorHost constructor")
     public void testGetEventProcessorHost() {
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.microsoft.azure.eventhubs.EventHubClient;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubClientPool;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubClientPoolTest {
+
+    @Mock
+    private EventHubClient firstClient;
+
+    @Mock
+    private EventHubClient secondClient;
+
+    private Iterator<EventHubClient> clients;
+
+    @Before
+    public void setUp() {
+        this.clients = Arrays.asList(firstClient, secondClient).iterator();
+    }
+
+    @Test
+    public void testReuseClientBelowInFlightLimit() {
+        EventHubClientPool pool = new EventHubClientPool(() -> clients.next(), 2, 2, Duration.ofMinutes(1));
+        pool.execute(c -> new CompletableFuture<Void>());
+        pool.execute(c -> new CompletableFuture<Void>());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testGrowAndPickLeastInFlight() {
+        EventHubClientPool pool = new EventHubClientPool(() -> clients.next(), 2, 1, Duration.ofMinutes(1));
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        pool.execute(c -> first);
+        CompletableFuture<EventHubClient> second = pool.execute(CompletableFuture::completedFuture);
+
+        assertEquals(2, pool.size());
+        assertSame(secondClient, second.join());
+        assertSame(secondClient, pool.execute(CompletableFuture::completedFuture).join());
+    }
+
+    @Test
+    public void testCreateClientWithoutBlockingOtherSends() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch created = new CountDownLatch(1);
+        EventHubClientPool pool = new EventHubClientPool(() -> {
+            EventHubClient client = clients.next();
+
+            if (client == secondClient) {
+                creating.countDown();
+                await(created);
+            }
+
+            return client;
+        }, 2, 1, Duration.ofMinutes(1));
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        pool.execute(c -> first);
+        CompletableFuture<EventHubClient> second = CompletableFuture.supplyAsync(
+                () -> pool.execute(CompletableFuture::completedFuture).join());
+        assertTrue(creating.await(5, TimeUnit.SECONDS));
+        first.complete(null);
+
+        assertSame(firstClient, pool.execute(CompletableFuture::completedFuture).join());
+        created.countDown();
+        assertSame(secondClient, second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailedCreationRemovesClient() {
+        EventHubClientPool pool = new EventHubClientPool(() -> {
+            throw new EventHubRuntimeException("connection refused");
+        }, 2, 1, Duration.ofMinutes(1));
+
+        try {
+            pool.execute(CompletableFuture::completedFuture);
+            fail("Creation failure should be thrown");
+        } catch (EventHubRuntimeException e) {
+            assertEquals(0, pool.size());
+        }
+    }
+
+    @Test
+    public void testEvictIdleClient() {
+        when(firstClient.close()).thenReturn(CompletableFuture.completedFuture(null));
+        EventHubClientPool pool = new EventHubClientPool(() -> clients.next(), 2, 1, Duration.ZERO);
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = new CompletableFuture<>();
+        pool.execute(c -> first);
+        pool.execute(c -> second);
+        first.complete(null);
+        second.complete(null);
+
+        pool.execute(c -> new CompletableFuture<Void>());
+        assertEquals(1, pool.size());
+        verify(firstClient).close();
+        verify(secondClient, never()).close();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.Checkpointer;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.StartPosition;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
 import com.microsoft.azure.spring.integration.eventhub.support.EventHubTestOperation;
@@ -24,6 +25,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.messaging.Message;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
@@ -42,7 +44,6 @@ public class EventHubOperationSendSubscribeTest extends SendSubscribeByGroupOper
         CompletableFuture<Void> future = new CompletableFuture<>();
         future.complete(null);
         when(this.context.getPartitionId()).thenReturn("1");
-        when(this.context.checkpoint()).thenReturn(future);
         when(this.context.checkpoint(isA(EventData.class))).thenReturn(future);
 
         this.sendSubscribeOperation = new EventHubTestOperation(null, () -> context);
@@ -55,7 +56,8 @@ public class EventHubOperationSendSubscribeTest extends SendSubscribeByGroupOper
 
     @Override
     protected void verifyCheckpointBatchSuccessCalled(int times) {
-        verify(this.context, times(times)).checkpoint();
+        verify(this.context, times(times)).checkpoint(isA(EventData.class));
+        verify(this.context, never()).checkpoint();
     }
 
     @Override
@@ -76,6 +78,25 @@ public class EventHubOperationSendSubscribeTest extends SendSubscribeByGroupOper
     private void batchCheckpointHandler(Message<?> message) {
     }
 
+    @Test
+    public void testSendReceiveWithBatchListenerMode() {
+        sendSubscribeOperation.setListenerMode(ListenerMode.BATCH);
+        sendSubscribeOperation.setStartPosition(StartPosition.EARLIEST);
+        messages.forEach(m -> sendSubscribeOperation.sendAsync(destination, m));
+        sendSubscribeOperation.subscribe(destination, consumerGroup, this::batchListenerHandler, User.class);
+        verifyCheckpointBatchSuccessCalled(1);
+    }
+
+    private void batchListenerHandler(Message<?> message) {
+        assertTrue(message.getPayload() instanceof List);
+        List<?> payloads = (List<?>) message.getPayload();
+        assertEquals(messages.size(), payloads.size());
+        assertEquals(messages.get(0).getPayload(), payloads.get(0));
+        List<?> headers = message.getHeaders().get(AzureHeaders.BATCH_CONVERTED_HEADERS, List.class);
+        assertNotNull(headers);
+        assertEquals(messages.size(), headers.size());
+    }
+
     @Test
     public void testHasPartitionIdHeader() {
         sendSubscribeOperation.subscribe(destination, consumerGroup, this::partitionIdHandler, User.class);
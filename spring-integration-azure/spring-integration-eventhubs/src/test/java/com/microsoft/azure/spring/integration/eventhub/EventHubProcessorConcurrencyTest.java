@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.CloseReason;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
+import com.microsoft.azure.spring.integration.eventhub.api.PartitionConcurrencyConfig;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubProcessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubProcessorConcurrencyTest {
+
+    @Mock
+    private PartitionContext context;
+
+    private CountDownLatch blocker = new CountDownLatch(1);
+    private List<String> processed = new CopyOnWriteArrayList<>();
+    private EventHubProcessor processor;
+
+    @Before
+    public void setUp() {
+        when(this.context.getPartitionId()).thenReturn("1");
+        when(this.context.checkpoint(any(EventData.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        Consumer<Message<?>> consumer = message -> {
+            String payload = (String) message.getPayload();
+            if (payload.equals("a1")) {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            processed.add(payload);
+        };
+
+        PartitionConcurrencyConfig concurrencyConfig = PartitionConcurrencyConfig.builder().concurrency(4)
+                .keyExtractor(e -> e.getProperties().get("key")).build();
+        this.processor = new EventHubProcessor(consumer, String.class,
+                CheckpointConfig.builder().checkpointMode(CheckpointMode.BATCH).build(),
+                new EventHubMessageConverter(), ListenerMode.RECORD, concurrencyConfig);
+    }
+
+    @After
+    public void tearDown() {
+        this.processor.close();
+    }
+
+    @Test
+    public void testCheckpointWaitsForSlowEvent() throws Exception {
+        this.processor.onEvents(context, Arrays.asList(event("a1", "a"), event("b1", "b"), event("a2", "a")));
+
+        Thread.sleep(100);
+        assertEquals(Arrays.asList("b1"), this.processed);
+        verify(this.context, never()).checkpoint(any(EventData.class));
+
+        this.blocker.countDown();
+        this.processor.onClose(context, CloseReason.Shutdown);
+
+        assertEquals(Arrays.asList("b1", "a1", "a2"), this.processed);
+        verify(this.context, atLeastOnce()).checkpoint(any(EventData.class));
+    }
+
+    @Test
+    public void testCheckpointStopsBeforeFailedEvent() throws Exception {
+        Consumer<Message<?>> consumer = message -> {
+            if (message.getPayload().equals("a1")) {
+                throw new IllegalStateException("failed");
+            }
+        };
+        PartitionConcurrencyConfig concurrencyConfig = PartitionConcurrencyConfig.builder().concurrency(2)
+                .keyExtractor(e -> e.getProperties().get("key")).build();
+        EventHubProcessor recordProcessor = new EventHubProcessor(consumer, String.class,
+                CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build(),
+                new EventHubMessageConverter(), ListenerMode.RECORD, concurrencyConfig);
+        EventData first = event("b0", "b");
+        EventData failed = event("a1", "a");
+        EventData last = event("b1", "b");
+
+        try {
+            recordProcessor.onEvents(context, Arrays.asList(first, failed, last));
+            recordProcessor.onClose(context, CloseReason.Shutdown);
+        } finally {
+            recordProcessor.close();
+        }
+
+        verify(this.context, times(1)).checkpoint(first);
+        verify(this.context, never()).checkpoint(failed);
+        verify(this.context, never()).checkpoint(last);
+    }
+
+    @Test(timeout = 5000)
+    public void testKeyExtractorFailureStopsCheckpointAndReleasesPermit() throws Exception {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        PartitionConcurrencyConfig concurrencyConfig = PartitionConcurrencyConfig.builder().concurrency(2)
+                .maxInFlight(1).keyExtractor(e -> {
+                    if ("bad".equals(e.getProperties().get("key"))) {
+                        throw new IllegalArgumentException("bad key");
+                    }
+                    return e.getProperties().get("key");
+                }).build();
+        EventHubProcessor recordProcessor = new EventHubProcessor(m -> handled.add((String) m.getPayload()),
+                String.class, CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build(),
+                new EventHubMessageConverter(), ListenerMode.RECORD, concurrencyConfig);
+        EventData first = event("a0", "a");
+        EventData failed = event("x1", "bad");
+        EventData last = event("a1", "a");
+
+        try {
+            recordProcessor.onEvents(context, Arrays.asList(first, failed, last));
+            recordProcessor.onClose(context, CloseReason.Shutdown);
+        } finally {
+            recordProcessor.close();
+        }
+
+        assertEquals(Arrays.asList("a0", "a1"), handled);
+        verify(this.context, times(1)).checkpoint(first);
+        verify(this.context, never()).checkpoint(failed);
+        verify(this.context, never()).checkpoint(last);
+    }
+
+    private static EventData event(String payload, String key) {
+        EventData eventData = EventData.create(payload.getBytes(StandardCharsets.UTF_8));
+        eventData.getProperties().put("key", key);
+        return eventData;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.Checkpointer;
+import com.microsoft.azure.spring.integration.eventhub.converter.EventHubMessageConverter;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubProcessor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubProcessorTest {
+
+    @Mock
+    private PartitionContext context;
+
+    private List<Message<?>> received = new ArrayList<>();
+    private EventHubProcessor processor;
+
+    @Before
+    public void setUp() {
+        when(this.context.getPartitionId()).thenReturn("1");
+        this.processor = new EventHubProcessor(this.received::add, String.class,
+                CheckpointConfig.builder().checkpointMode(CheckpointMode.MANUAL).build(),
+                new EventHubMessageConverter());
+    }
+
+    @Test
+    public void testEachMessageCheckpointsOwnEvent() throws Exception {
+        when(this.context.checkpoint(any(EventData.class))).thenReturn(CompletableFuture.completedFuture(null));
+        EventData first = event("a", "1");
+        EventData second = event("b", "2");
+
+        this.processor.onEvents(this.context, Arrays.asList(first, second));
+
+        assertEquals(2, this.received.size());
+        Checkpointer firstCheckpointer =
+                this.received.get(0).getHeaders().get(AzureHeaders.CHECKPOINTER, Checkpointer.class);
+        Checkpointer secondCheckpointer =
+                this.received.get(1).getHeaders().get(AzureHeaders.CHECKPOINTER, Checkpointer.class);
+        assertNotSame(firstCheckpointer, secondCheckpointer);
+
+        firstCheckpointer.success();
+        verify(this.context).checkpoint(first);
+        verify(this.context, never()).checkpoint(second);
+    }
+
+    @Test
+    public void testHeadersBuiltFromEventProperties() throws Exception {
+        this.processor.onEvents(this.context, Arrays.asList(event("a", "1"), event("b", "2")));
+
+        assertEquals("a", this.received.get(0).getPayload());
+        assertEquals("1", this.received.get(0).getHeaders().get("key"));
+        assertEquals("1", this.received.get(0).getHeaders().get(AzureHeaders.RAW_PARTITION_ID));
+        assertEquals("b", this.received.get(1).getPayload());
+        assertEquals("2", this.received.get(1).getHeaders().get("key"));
+    }
+
+    private static EventData event(String payload, String key) {
+        EventData eventData = EventData.create(payload.getBytes(StandardCharsets.UTF_8));
+        eventData.getProperties().put("key", key);
+        return eventData;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.EventHubClient;
+import com.microsoft.azure.eventprocessorhost.EventProcessorHost;
+import com.microsoft.azure.eventprocessorhost.EventProcessorOptions;
+import com.microsoft.azure.eventprocessorhost.IEventProcessor;
+import com.microsoft.azure.eventprocessorhost.IEventProcessorFactory;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubReactiveTemplate;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.reactivestreams.Subscription;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubReactiveTemplateTest {
+
+    @Mock
+    private EventHubClientFactory mockClientFactory;
+
+    @Mock
+    private EventProcessorHost host;
+
+    @Mock
+    private EventHubClient mockClient;
+
+    @Mock
+    private PartitionContext context;
+
+    private CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+    private String destination = "event-hub";
+    private EventHubReactiveTemplate template;
+
+    @Before
+    public void setUp() {
+        this.template = new EventHubReactiveTemplate(mockClientFactory);
+    }
+
+    @Test
+    public void testSlowSubscriberLimitsDemand() throws Exception {
+        when(this.context.checkpoint(any(EventData.class))).thenReturn(future);
+        List<Message<?>> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<Message<?>> subscriber = subscriber(received);
+        IEventProcessor processor = subscribe(subscriber);
+        EventData last = event("c");
+        CompletableFuture<Void> processing = process(processor, Arrays.asList(event("a"), event("b"), last));
+
+        Thread.sleep(100);
+        assertFalse(processing.isDone());
+        assertEquals(1, received.size());
+        verify(this.context, never()).checkpoint(any(EventData.class));
+
+        subscriber.request(2);
+        processing.get(1, TimeUnit.SECONDS);
+        assertEquals(3, received.size());
+        verify(this.context, times(1)).checkpoint(last);
+    }
+
+    @Test
+    public void testCancelDoesNotCheckpointUndeliveredEvents() throws Exception {
+        when(this.context.checkpoint(any(EventData.class))).thenReturn(future);
+        when(this.host.unregisterEventProcessor()).thenReturn(future);
+        this.template.setCheckpointConfig(CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build());
+        List<Message<?>> received = new CopyOnWriteArrayList<>();
+        BaseSubscriber<Message<?>> subscriber = subscriber(received);
+        IEventProcessor processor = subscribe(subscriber);
+        EventData delivered = event("a");
+        EventData undelivered = event("b");
+        CompletableFuture<Void> processing = process(processor, Arrays.asList(delivered, undelivered));
+
+        Thread.sleep(100);
+        assertEquals(1, received.size());
+        subscriber.dispose();
+
+        try {
+            processing.get(1, TimeUnit.SECONDS);
+            fail("Event processor should fail after subscription is cancelled");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof EventHubRuntimeException);
+        }
+
+        verify(this.context, times(1)).checkpoint(delivered);
+        verify(this.context, never()).checkpoint(undelivered);
+    }
+
+    @Test
+    public void testSendFluxInBatches() {
+        when(this.mockClientFactory.getOrCreateClient(destination)).thenReturn(this.mockClient);
+        when(this.mockClient.send(anyCollection())).thenReturn(future);
+        this.template.setSendBatchSize(2);
+
+        Flux<Message<String>> messages =
+                Flux.just(new GenericMessage<>("a"), new GenericMessage<>("b"), new GenericMessage<>("c"));
+        this.template.send(destination, messages, null).block();
+
+        verify(this.mockClient, times(2)).send(anyCollection());
+    }
+
+    private IEventProcessor subscribe(BaseSubscriber<Message<?>> subscriber) throws Exception {
+        when(this.mockClientFactory.getOrCreateEventProcessorHost(anyString(), anyString())).thenReturn(this.host);
+        when(this.host.registerEventProcessorFactory(any(IEventProcessorFactory.class),
+                any(EventProcessorOptions.class))).thenReturn(future);
+        when(this.context.getPartitionId()).thenReturn("1");
+        this.template.subscribe(destination, "group", String.class).subscribe(subscriber);
+
+        ArgumentCaptor<IEventProcessorFactory> factoryCaptor = ArgumentCaptor.forClass(IEventProcessorFactory.class);
+        ArgumentCaptor<EventProcessorOptions> optionsCaptor = ArgumentCaptor.forClass(EventProcessorOptions.class);
+        verify(this.host).registerEventProcessorFactory(factoryCaptor.capture(), optionsCaptor.capture());
+        assertEquals(256, optionsCaptor.getValue().getMaxBatchSize());
+        return factoryCaptor.getValue().createEventProcessor(context);
+    }
+
+    private CompletableFuture<Void> process(IEventProcessor processor, List<EventData> events) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                processor.onEvents(context, events);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static BaseSubscriber<Message<?>> subscriber(List<Message<?>> received) {
+        return new BaseSubscriber<Message<?>>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(Message<?> value) {
+                received.add(value);
+            }
+        };
+    }
+
+    private static EventData event(String payload) {
+        return EventData.create(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
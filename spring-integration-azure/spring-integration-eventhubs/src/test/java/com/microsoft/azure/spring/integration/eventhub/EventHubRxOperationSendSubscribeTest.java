@@ -39,7 +39,6 @@ public class EventHubRxOperationSendSubscribeTest extends RxSendSubscribeByGroup
         CompletableFuture<Void> future = new CompletableFuture<>();
         future.complete(null);
         when(this.context.getPartitionId()).thenReturn("1");
-        when(this.context.checkpoint()).thenReturn(future);
         when(this.context.checkpoint(isA(EventData.class))).thenReturn(future);
 
         this.sendSubscribeOperation = new RxEventHubTestOperation(null, () -> context);
@@ -52,7 +51,8 @@ public class EventHubRxOperationSendSubscribeTest extends RxSendSubscribeByGroup
 
     @Override
     protected void verifyCheckpointBatchSuccessCalled(int times) {
-        verify(this.context, times(times)).checkpoint();
+        verify(this.context, times(times)).checkpoint(isA(EventData.class));
+        verify(this.context, never()).checkpoint();
     }
 
     @Test
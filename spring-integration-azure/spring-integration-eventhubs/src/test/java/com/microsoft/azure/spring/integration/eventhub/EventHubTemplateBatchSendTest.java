@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.microsoft.azure.eventhubs.*;
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventHubTemplateBatchSendTest {
+
+    @Mock
+    private EventHubClientFactory mockClientFactory;
+
+    @Mock
+    private EventHubClient mockClient;
+
+    @Mock
+    private PartitionSender mockSender;
+
+    @Mock
+    private EventDataBatch mockBatch;
+
+    private CompletableFuture<Void> future = new CompletableFuture<>();
+    private String destination = "event-hub";
+    private Message<String> message = new GenericMessage<>("testPayload");
+    private EventHubTemplate eventHubTemplate;
+
+    @Before
+    public void setUp() throws EventHubException {
+        when(this.mockClientFactory.getOrCreateClient(this.destination)).thenReturn(this.mockClient);
+        when(this.mockClient.createBatch(any(BatchOptions.class))).thenReturn(this.mockBatch);
+        when(this.mockClient.send(this.mockBatch)).thenReturn(this.future);
+        when(this.mockBatch.tryAdd(any(EventData.class))).thenReturn(true);
+        this.eventHubTemplate = new EventHubTemplate(mockClientFactory);
+        this.eventHubTemplate.setBatchConfig(BatchConfig.builder().lingerTime(Duration.ofHours(1)).build());
+    }
+
+    @Test
+    public void testSendOnFlush() throws ExecutionException, InterruptedException {
+        CompletableFuture<Void> first = this.eventHubTemplate.sendAsync(destination, message);
+        CompletableFuture<Void> second = this.eventHubTemplate.sendAsync(destination, message);
+
+        verify(this.mockClient, never()).send(this.mockBatch);
+        this.eventHubTemplate.destroy();
+        verify(this.mockClient, times(1)).send(this.mockBatch);
+        assertFalse(first.isDone());
+
+        this.future.complete(null);
+        assertNull(first.get());
+        assertNull(second.get());
+    }
+
+    @Test
+    public void testSendWhenBatchFull() throws EventHubException {
+        when(this.mockBatch.tryAdd(any(EventData.class))).thenReturn(true, false, true);
+
+        CompletableFuture<Void> first = this.eventHubTemplate.sendAsync(destination, message);
+        this.eventHubTemplate.sendAsync(destination, message);
+        this.future.complete(null);
+
+        verify(this.mockClient, times(1)).send(this.mockBatch);
+        verify(this.mockClient, times(2)).createBatch(any(BatchOptions.class));
+        assertTrue(first.isDone());
+    }
+
+    @Test
+    public void testSendWithPartitionId() throws EventHubException {
+        when(this.mockClientFactory.getOrCreatePartitionSender(eq(this.destination), eq("1")))
+                .thenReturn(this.mockSender);
+        when(this.mockSender.createBatch(any(BatchOptions.class))).thenReturn(this.mockBatch);
+        when(this.mockSender.send(this.mockBatch)).thenReturn(this.future);
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionId("1");
+
+        this.eventHubTemplate.sendAsync(destination, message, partitionSupplier);
+        this.eventHubTemplate.destroy();
+
+        verify(this.mockSender, times(1)).send(this.mockBatch);
+    }
+
+    @Test
+    public void testSendFailure() {
+        CompletableFuture<Void> sent = this.eventHubTemplate.sendAsync(destination, message);
+        this.eventHubTemplate.destroy();
+        this.future.completeExceptionally(new Exception("future failed."));
+
+        try {
+            sent.get();
+            fail("Test should fail.");
+        } catch (InterruptedException ie) {
+            fail("get() should fail with an ExecutionException.");
+        } catch (ExecutionException ee) {
+            assertEquals("future failed.", ee.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testSendAfterDestroyFails() throws InterruptedException {
+        this.eventHubTemplate.sendAsync(destination, message);
+        this.eventHubTemplate.destroy();
+        CompletableFuture<Void> sent = this.eventHubTemplate.sendAsync(destination, message);
+
+        try {
+            sent.get();
+            fail("Send after destroy should fail.");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause().getMessage().contains("destroyed"));
+        }
+
+        verify(this.mockClient, times(1)).send(this.mockBatch);
+    }
+}
@@ -9,17 +9,22 @@ package com.microsoft.azure.spring.integration.eventhub;
 import com.microsoft.azure.eventprocessorhost.EventProcessorHost;
 import com.microsoft.azure.eventprocessorhost.EventProcessorOptions;
 import com.microsoft.azure.eventprocessorhost.IEventProcessorFactory;
+import com.microsoft.azure.spring.integration.core.api.ReceiveConfig;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
 import com.microsoft.azure.spring.integration.eventhub.api.EventHubOperation;
 import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
 import com.microsoft.azure.spring.integration.test.support.SubscribeByGroupOperationTest;
 import org.junit.Before;
+import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.*;
 
@@ -44,6 +49,26 @@ public class EventHubTemplateSubscribeTest extends SubscribeByGroupOperationTest
         when(this.host.unregisterEventProcessor()).thenReturn(future);
     }
 
+    @Test
+    public void testSubscribeWithReceiveConfig() {
+        this.subscribeByGroupOperation.setReceiveConfig(
+                ReceiveConfig.highThroughput().receiveTimeout(Duration.ofSeconds(5)).build());
+        this.subscribeByGroupOperation.subscribe(this.destination, this.consumerGroup, m -> {
+        });
+
+        ArgumentCaptor<EventProcessorOptions> captor = ArgumentCaptor.forClass(EventProcessorOptions.class);
+        verify(this.host).registerEventProcessorFactory(isA(IEventProcessorFactory.class), captor.capture());
+        assertEquals(500, captor.getValue().getMaxBatchSize());
+        assertEquals(2000, captor.getValue().getPrefetchCount());
+        assertEquals(Duration.ofSeconds(5), captor.getValue().getReceiveTimeOut());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReceiveConfigPrefetchCountTooSmall() {
+        this.subscribeByGroupOperation
+                .setReceiveConfig(ReceiveConfig.builder().maxBatchSize(1).prefetchCount(5).build());
+    }
+
     @Override
     protected void verifySubscriberCreatorCalled() {
         verify(this.mockClientFactory, atLeastOnce()).getOrCreateEventProcessorHost(anyString(), anyString());
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub;
+
+import com.microsoft.azure.eventhubs.EventHubClient;
+import com.microsoft.azure.eventhubs.EventHubRuntimeInformation;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import com.microsoft.azure.spring.integration.eventhub.impl.StickyPartitionRouter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StickyPartitionRouterTest {
+
+    @Mock
+    private EventHubClientFactory mockClientFactory;
+
+    @Mock
+    private EventHubClient mockClient;
+
+    @Mock
+    private EventHubRuntimeInformation mockInformation;
+
+    private String eventHubName = "event-hub";
+    private StickyPartitionRouter router;
+
+    @Before
+    public void setUp() {
+        when(this.mockClientFactory.getOrCreateClient(eventHubName)).thenReturn(this.mockClient);
+        when(this.mockClient.getRuntimeInformation())
+                .thenReturn(CompletableFuture.completedFuture(this.mockInformation));
+        when(this.mockInformation.getPartitionIds()).thenReturn(new String[]{"0", "1", "2", "3"});
+        this.router = new StickyPartitionRouter(mockClientFactory, 2);
+    }
+
+    @Test
+    public void testPartitionIdRespected() {
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionId("7");
+        assertEquals("7", this.router.route(eventHubName, partitionSupplier));
+        verify(this.mockClient, never()).getRuntimeInformation();
+    }
+
+    @Test
+    public void testPartitionKeyStable() {
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionKey("key");
+        String partitionId = this.router.route(eventHubName, partitionSupplier);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(partitionId, this.router.route(eventHubName, partitionSupplier));
+        }
+
+        verify(this.mockClient, times(1)).getRuntimeInformation();
+    }
+
+    @Test
+    public void testStickyWithoutPartitionKey() {
+        String first = this.router.route(eventHubName, null);
+        assertEquals(first, this.router.route(eventHubName, null));
+        String second = this.router.route(eventHubName, new PartitionSupplier());
+        assertNotEquals(first, second);
+        assertEquals(second, this.router.route(eventHubName, null));
+    }
+
+    @Test
+    public void testRefreshPartitionIds() {
+        this.router.route(eventHubName, null);
+        this.router.refresh(eventHubName);
+        this.router.route(eventHubName, null);
+        verify(this.mockClient, times(2)).getRuntimeInformation();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CoalescingCheckpointWriterTest {
+
+    @Mock
+    private PartitionContext context;
+
+    @Mock
+    private EventData first;
+
+    @Mock
+    private EventData second;
+
+    @Mock
+    private EventData third;
+
+    private CompletableFuture<Void> firstFuture = new CompletableFuture<>();
+    private CompletableFuture<Void> thirdFuture = new CompletableFuture<>();
+    private CheckpointManager checkpointManager;
+
+    @Before
+    public void setUp() {
+        when(this.context.getPartitionId()).thenReturn("1");
+        when(this.context.checkpoint(first)).thenReturn(firstFuture);
+        when(this.context.checkpoint(third)).thenReturn(thirdFuture);
+        this.checkpointManager =
+                CheckpointManager.of(CheckpointConfig.builder().checkpointMode(CheckpointMode.RECORD).build());
+    }
+
+    @Test
+    public void testOneWriteInFlightAndLatestWins() {
+        this.checkpointManager.onMessage(context, first);
+        this.checkpointManager.onMessage(context, second);
+        this.checkpointManager.onMessage(context, third);
+        verify(this.context, times(1)).checkpoint(any(EventData.class));
+
+        this.firstFuture.complete(null);
+        verify(this.context, never()).checkpoint(second);
+        verify(this.context, times(1)).checkpoint(third);
+    }
+
+    @Test
+    public void testFlushOnPartitionClose() {
+        this.checkpointManager.onMessage(context, first);
+        this.checkpointManager.onMessage(context, third);
+        CompletableFuture<Void> flushed = this.checkpointManager.onPartitionClose(context);
+        assertFalse(flushed.isDone());
+
+        this.firstFuture.complete(null);
+        assertFalse(flushed.isDone());
+        this.thirdFuture.completeExceptionally(new Exception("checkpoint failed"));
+        assertTrue(flushed.isDone());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionCountCheckpointManagerTest {
+
+    @Mock
+    private PartitionContext context;
+
+    @Mock
+    private EventData firstEvent;
+
+    @Mock
+    private EventData secondEvent;
+
+    @Mock
+    private EventData thirdEvent;
+
+    private CheckpointManager checkpointManager;
+
+    @Before
+    public void setUp() {
+        when(this.context.getPartitionId()).thenReturn("1");
+        this.checkpointManager = CheckpointManager.of(CheckpointConfig.builder()
+                                                                      .checkpointMode(CheckpointMode.PARTITION_COUNT)
+                                                                      .checkpointCount(2).build());
+    }
+
+    @Test
+    public void testCheckpointExactEventWhenCountReached() {
+        when(this.context.checkpoint(secondEvent)).thenReturn(CompletableFuture.completedFuture(null));
+        this.checkpointManager.onMessage(context, firstEvent);
+        this.checkpointManager.onMessage(context, secondEvent);
+        verify(this.context, times(1)).checkpoint(secondEvent);
+        verify(this.context, never()).checkpoint();
+    }
+
+    @Test
+    public void testCheckpointLastEventOnPartitionClose() {
+        when(this.context.checkpoint(any(EventData.class))).thenReturn(CompletableFuture.completedFuture(null));
+        this.checkpointManager.onMessage(context, firstEvent);
+        this.checkpointManager.onMessage(context, secondEvent);
+        this.checkpointManager.onMessage(context, thirdEvent);
+        this.checkpointManager.onPartitionClose(context).join();
+        verify(this.context, times(1)).checkpoint(thirdEvent);
+    }
+
+    @Test
+    public void testNoCheckpointOnCloseWithoutNewEvents() {
+        when(this.context.checkpoint(secondEvent)).thenReturn(CompletableFuture.completedFuture(null));
+        this.checkpointManager.onMessage(context, firstEvent);
+        this.checkpointManager.onMessage(context, secondEvent);
+        this.checkpointManager.onPartitionClose(context).join();
+        verify(this.context, times(1)).checkpoint(any(EventData.class));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.checkpoint;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TimeCheckpointManagerTest {
+
+    @Mock
+    private PartitionContext context;
+
+    @Mock
+    private EventData eventData;
+
+    private CheckpointManager build(Duration interval) {
+        when(this.context.getPartitionId()).thenReturn("1");
+        return CheckpointManager.of(CheckpointConfig.builder().checkpointMode(CheckpointMode.TIME)
+                                                    .checkpointInterval(interval).build());
+    }
+
+    @Test
+    public void testNoCheckpointWithinInterval() {
+        CheckpointManager checkpointManager = build(Duration.ofHours(1));
+        checkpointManager.onMessage(context, eventData);
+        verify(this.context, never()).checkpoint(eventData);
+    }
+
+    @Test
+    public void testIdlePartitionCheckpointedByTimer() {
+        when(this.context.checkpoint(eventData)).thenReturn(CompletableFuture.completedFuture(null));
+        CheckpointManager checkpointManager = build(Duration.ofMillis(50));
+        checkpointManager.onMessage(context, eventData);
+        verify(this.context, timeout(1000).times(1)).checkpoint(eventData);
+    }
+
+    @Test
+    public void testCheckpointOnPartitionClose() {
+        when(this.context.checkpoint(eventData)).thenReturn(CompletableFuture.completedFuture(null));
+        CheckpointManager checkpointManager = build(Duration.ofHours(1));
+        checkpointManager.onMessage(context, eventData);
+        checkpointManager.onPartitionClose(context);
+        verify(this.context, times(1)).checkpoint(eventData);
+    }
+
+    @Test
+    public void testCloseStopsTimer() {
+        CheckpointManager checkpointManager = build(Duration.ofMillis(50));
+        checkpointManager.onMessage(context, eventData);
+        checkpointManager.close();
+        verify(this.context, after(200).never()).checkpoint(eventData);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntervalRequired() {
+        CheckpointManager.of(CheckpointConfig.builder().checkpointMode(CheckpointMode.TIME).build());
+    }
+}
@@ -7,8 +7,19 @@
 package com.microsoft.azure.spring.integration.eventhub.converter;
 
 import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CompressionConfig;
+import com.microsoft.azure.spring.integration.core.converter.AzureHeaderMapper;
 import com.microsoft.azure.spring.integration.core.converter.AzureMessageConverter;
 import com.microsoft.azure.spring.integration.test.support.AzureMessageConverterTest;
+import org.junit.Test;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class EventHubMessageConverterTest extends AzureMessageConverterTest<EventData> {
     @Override
@@ -25,4 +36,49 @@ public class EventHubMessageConverterTest extends AzureMessageConverterTest<Even
     protected Class<EventData> getTargetClass() {
         return EventData.class;
     }
+
+    @Test
+    public void testUnknownContentEncodingPassedThrough() {
+        EventData eventData = getInstance();
+        eventData.getProperties().put(AzureHeaders.CONTENT_ENCODING, "identity");
+
+        Message<String> message = getConverter().toMessage(eventData, String.class);
+
+        assertEquals(this.payload, message.getPayload());
+        assertEquals("identity", message.getHeaders().get(AzureHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testMappedContentEncodingHeaderNotMarkingUncompressedBody() {
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        AzureHeaderMapper headerMapper = new AzureHeaderMapper();
+        headerMapper.setOutboundHeaderPatterns("*");
+        converter.setHeaderMapper(headerMapper);
+        Message<String> message =
+                MessageBuilder.withPayload(this.payload).setHeader(AzureHeaders.CONTENT_ENCODING, "gzip").build();
+
+        EventData eventData = converter.fromMessage(message, EventData.class);
+
+        assertFalse(eventData.getProperties().containsKey(AzureHeaders.CONTENT_ENCODING));
+        assertEquals(this.payload, converter.toMessage(eventData, String.class).getPayload());
+    }
+
+    @Test
+    public void testMappedContentEncodingHeaderNotReplacingMarker() {
+        EventHubMessageConverter converter = new EventHubMessageConverter();
+        AzureHeaderMapper headerMapper = new AzureHeaderMapper();
+        headerMapper.setOutboundHeaderPatterns("*");
+        converter.setHeaderMapper(headerMapper);
+        String largePayload = String.join("", Collections.nCopies(100, this.payload));
+        Message<String> message = MessageBuilder.withPayload(largePayload)
+                                                .setHeader(AzureHeaders.CONTENT_ENCODING, "identity")
+                                                .setHeader(AzureHeaders.COMPRESSION, CompressionConfig.builder()
+                                                        .encoding(CompressionConfig.GZIP).threshold(0).build())
+                                                .build();
+
+        EventData eventData = converter.fromMessage(message, EventData.class);
+
+        assertEquals(CompressionConfig.GZIP, eventData.getProperties().get(AzureHeaders.CONTENT_ENCODING));
+        assertEquals(largePayload, converter.toMessage(eventData, String.class).getPayload());
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.metrics;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.ReceiverRuntimeInformation;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionLagTrackerTest {
+
+    @Mock
+    private PartitionContext context;
+
+    @Mock
+    private ReceiverRuntimeInformation runtimeInformation;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PartitionLagTracker tracker;
+    private Instant now = Instant.now();
+
+    @Before
+    public void setUp() {
+        when(this.context.getEventHubPath()).thenReturn("eventhub");
+        when(this.context.getConsumerGroupName()).thenReturn("group");
+        when(this.context.getPartitionId()).thenReturn("1");
+        when(this.context.getRuntimeInformation()).thenReturn(this.runtimeInformation);
+        when(this.runtimeInformation.getLastEnqueuedSequenceNumber()).thenReturn(100L);
+        when(this.runtimeInformation.getLastEnqueuedTime()).thenReturn(now);
+        this.tracker = new PartitionLagTracker(meterRegistry);
+    }
+
+    @Test
+    public void testLagPublishedAsGauges() {
+        this.tracker.onProcessed(context, eventData(40, now.minusSeconds(30)));
+
+        PartitionLag lag = this.tracker.getLag("eventhub", "group", "1");
+        assertEquals(60, lag.getLagEvents());
+        assertEquals(30, lag.getLagSeconds(), 0.001);
+        assertEquals(60, gauge(PartitionLagTracker.LAG_EVENTS_METRIC), 0.001);
+        assertEquals(30, gauge(PartitionLagTracker.LAG_SECONDS_METRIC), 0.001);
+    }
+
+    @Test
+    public void testNoLagWhenCaughtUp() {
+        this.tracker.onProcessed(context, eventData(100, now));
+
+        assertEquals(0, gauge(PartitionLagTracker.LAG_EVENTS_METRIC), 0.001);
+        assertEquals(0, gauge(PartitionLagTracker.LAG_SECONDS_METRIC), 0.001);
+    }
+
+    @Test
+    public void testProcessedPositionOnlyMovesForward() {
+        this.tracker.onProcessed(context, eventData(80, now.minusSeconds(5)));
+        this.tracker.onProcessed(context, eventData(40, now.minusSeconds(30)));
+
+        PartitionLag lag = this.tracker.getLag("eventhub", "group", "1");
+        assertEquals(80, lag.getProcessedSequenceNumber());
+        assertEquals(20, lag.getLagEvents());
+        assertEquals(1, this.meterRegistry.find(PartitionLagTracker.LAG_EVENTS_METRIC).gauges().size());
+    }
+
+    @Test
+    public void testGaugesRemovedOnPartitionClose() {
+        this.tracker.onProcessed(context, eventData(40, now.minusSeconds(30)));
+        this.tracker.onPartitionClose(context);
+
+        assertNull(this.tracker.getLag("eventhub", "group", "1"));
+        assertNull(this.meterRegistry.find(PartitionLagTracker.LAG_EVENTS_METRIC).gauge());
+        assertNull(this.meterRegistry.find(PartitionLagTracker.LAG_SECONDS_METRIC).gauge());
+    }
+
+    private double gauge(String name) {
+        return this.meterRegistry.get(name).tags("eventhub", "eventhub", "group", "group", "partition", "1").gauge()
+                                 .value();
+    }
+
+    private static EventData eventData(long sequenceNumber, Instant enqueuedTime) {
+        EventData eventData = mock(EventData.class);
+        EventData.SystemProperties properties = mock(EventData.SystemProperties.class);
+        when(eventData.getSystemProperties()).thenReturn(properties);
+        when(properties.getOffset()).thenReturn(String.valueOf(sequenceNumber * 10));
+        when(properties.getSequenceNumber()).thenReturn(sequenceNumber);
+        when(properties.getEnqueuedTime()).thenReturn(enqueuedTime);
+        return eventData;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.store;
+
+import com.microsoft.azure.eventprocessorhost.Checkpoint;
+import com.microsoft.azure.eventprocessorhost.CompleteLease;
+import com.microsoft.azure.eventprocessorhost.ICheckpointManager;
+import com.microsoft.azure.eventprocessorhost.ILeaseManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+public class LocalFileCheckpointStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String eventHubName = "eventHub";
+    private String consumerGroup = "group";
+    private String partitionId = "1";
+    private LocalFileCheckpointStore store;
+
+    @Before
+    public void setUp() {
+        this.store = new LocalFileCheckpointStore(folder.getRoot().toPath());
+    }
+
+    @Test
+    public void testCheckpointSurvivesRestart() {
+        ILeaseManager leaseManager = store.getLeaseManager(eventHubName, consumerGroup, "host");
+        ICheckpointManager checkpointManager = store.getCheckpointManager(eventHubName, consumerGroup, "host");
+        leaseManager.createAllLeasesIfNotExists(Collections.singletonList(partitionId)).join();
+        CompleteLease lease = leaseManager.getLease(partitionId).join();
+        assertTrue(leaseManager.acquireLease(lease).join());
+
+        checkpointManager.updateCheckpoint(lease, new Checkpoint(partitionId, "100", 10)).join();
+
+        Checkpoint checkpoint = new LocalFileCheckpointStore(folder.getRoot().toPath())
+                .getCheckpointManager(eventHubName, consumerGroup, "another").getCheckpoint(partitionId).join();
+        assertEquals("100", checkpoint.getOffset());
+        assertEquals(10, checkpoint.getSequenceNumber());
+    }
+
+    @Test
+    public void testLeaseStolenByAnotherHost() {
+        ILeaseManager first = store.getLeaseManager(eventHubName, consumerGroup, "first");
+        ILeaseManager second = store.getLeaseManager(eventHubName, consumerGroup, "second");
+        first.createAllLeasesIfNotExists(Collections.singletonList(partitionId)).join();
+
+        CompleteLease firstLease = first.getLease(partitionId).join();
+        assertTrue(first.acquireLease(firstLease).join());
+        assertTrue(second.acquireLease(second.getLease(partitionId).join()).join());
+
+        assertFalse(first.renewLease(firstLease).join());
+        assertEquals("second", first.getLease(partitionId).join().getOwner());
+    }
+
+    @Test(expected = CompletionException.class)
+    public void testCheckpointWithoutLeaseFails() {
+        store.getCheckpointManager(eventHubName, consumerGroup, "host")
+             .updateCheckpoint(new CompleteLease(partitionId), new Checkpoint(partitionId, "100", 10)).join();
+    }
+}
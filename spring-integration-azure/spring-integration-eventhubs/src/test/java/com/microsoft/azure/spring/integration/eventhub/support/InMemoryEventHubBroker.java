@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.support;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.EventPosition;
+import com.microsoft.azure.eventprocessorhost.CloseReason;
+import com.microsoft.azure.eventprocessorhost.EventProcessorOptions;
+import com.microsoft.azure.eventprocessorhost.IEventProcessor;
+import com.microsoft.azure.eventprocessorhost.IEventProcessorFactory;
+import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-process stand-in for event hub service, used to run the full template, binder and listener stack without
+ * network.
+ * <p>
+ * Each event hub is created on first use with a fixed number of partitions. A partition is an append-only log which
+ * assigns sequence number, offset and enqueued time to each event, and drops events older than {@code retention} or
+ * beyond {@code maxEventsPerPartition}. Each registered consumer group gets one pump thread per partition which
+ * delivers batches of at most {@link EventProcessorOptions#getMaxBatchSize()} events, resuming after the last
+ * checkpoint of the group, or from the initial {@link EventPosition} when there is none. Plug it in through
+ * {@link InMemoryEventHubClientFactory}.
+ *
+ * @author Warren Zhu
+ */
+public class InMemoryEventHubBroker implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryEventHubBroker.class);
+    private static final long NO_CHECKPOINT = -1;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30_000;
+
+    private final int partitionCount;
+    private final Duration retention;
+    private final int maxEventsPerPartition;
+    private final ConcurrentHashMap<String, EventHub> eventHubs = new ConcurrentHashMap<>();
+
+    // (eventHubName, consumerGroup) -> pumps of all partitions
+    private final ConcurrentHashMap<Tuple<String, String>, List<PartitionPump>> pumps = new ConcurrentHashMap<>();
+
+    // (eventHubName, consumerGroup) -> partitionId -> checkpointed sequence number
+    private final ConcurrentHashMap<Tuple<String, String>, Map<String, Long>> checkpoints = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public InMemoryEventHubBroker() {
+        this(4, Duration.ofDays(1), 1_000_000);
+    }
+
+    public InMemoryEventHubBroker(int partitionCount, Duration retention, int maxEventsPerPartition) {
+        Assert.isTrue(partitionCount > 0, "partitionCount should be positive");
+        Assert.isTrue(retention != null && !retention.isNegative() && !retention.isZero(),
+                "retention should be positive");
+        Assert.isTrue(maxEventsPerPartition > 0, "maxEventsPerPartition should be positive");
+        this.partitionCount = partitionCount;
+        this.retention = retention;
+        this.maxEventsPerPartition = maxEventsPerPartition;
+        ThreadFactory threadFactory =
+                new ThreadFactoryBuilder().setNameFormat("eventhub-broker-%d").setDaemon(true).build();
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+    }
+
+    /**
+     * Append events to one partition. Partition is resolved from {@code partitionId}, then hash of
+     * {@code partitionKey}, then round robin.
+     */
+    public CompletableFuture<Void> send(String eventHubName, String partitionId, String partitionKey,
+            Iterable<EventData> events) {
+        Assert.hasText(eventHubName, "eventHubName can't be null or empty");
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        try {
+            getEventHub(eventHubName).resolve(partitionId, partitionKey).append(events, partitionKey);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    public List<String> getPartitionIds(String eventHubName) {
+        return getEventHub(eventHubName).partitions.stream().map(p -> p.id).collect(Collectors.toList());
+    }
+
+    /**
+     * @return sequence number of the last event enqueued to the partition, or -1 if none
+     */
+    public long getLastEnqueuedSequenceNumber(String eventHubName, String partitionId) {
+        return getEventHub(eventHubName).partition(partitionId).getLastSequenceNumber();
+    }
+
+    /**
+     * @return sequence number of the last checkpoint of the consumer group on the partition, or -1 if none
+     */
+    public long getCheckpointSequenceNumber(String eventHubName, String consumerGroup, String partitionId) {
+        return groupCheckpoints(eventHubName, consumerGroup).getOrDefault(partitionId, NO_CHECKPOINT);
+    }
+
+    /**
+     * Start delivering events of all partitions to processors created by {@code factory}
+     */
+    public CompletableFuture<Void> register(String eventHubName, String consumerGroup,
+            IEventProcessorFactory<?> factory, EventProcessorOptions options) {
+        Tuple<String, String> key = Tuple.of(eventHubName, consumerGroup);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        List<PartitionPump> groupPumps = new ArrayList<>();
+
+        if (this.pumps.putIfAbsent(key, groupPumps) != null) {
+            future.completeExceptionally(new IllegalStateException(
+                    String.format("Consumer group '%s' of event hub '%s' is already registered", consumerGroup,
+                            eventHubName)));
+            return future;
+        }
+
+        try {
+            for (Partition partition : getEventHub(eventHubName).partitions) {
+                PartitionPump pump = new PartitionPump(eventHubName, consumerGroup, partition, options);
+                pump.processor = factory.createEventProcessor(pump.context);
+                groupPumps.add(pump);
+            }
+        } catch (Exception e) {
+            this.pumps.remove(key);
+            future.completeExceptionally(new EventHubRuntimeException("Failed to create event processor", e));
+            return future;
+        }
+
+        groupPumps.forEach(this.executor::execute);
+        future.complete(null);
+        return future;
+    }
+
+    /**
+     * Stop delivering events to the consumer group. Completes after in-flight batches are processed and processors
+     * are closed.
+     */
+    public CompletableFuture<Void> unregister(String eventHubName, String consumerGroup) {
+        List<PartitionPump> groupPumps = this.pumps.remove(Tuple.of(eventHubName, consumerGroup));
+
+        if (groupPumps == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        groupPumps.forEach(PartitionPump::stop);
+        return CompletableFuture.runAsync(() -> groupPumps.forEach(PartitionPump::awaitClosed), this.executor);
+    }
+
+    @Override
+    public void destroy() {
+        new ArrayList<>(this.pumps.keySet()).forEach(k -> unregister(k.getFirst(), k.getSecond()).join());
+        this.executor.shutdown();
+    }
+
+    private EventHub getEventHub(String eventHubName) {
+        return this.eventHubs.computeIfAbsent(eventHubName, EventHub::new);
+    }
+
+    private Map<String, Long> groupCheckpoints(String eventHubName, String consumerGroup) {
+        return this.checkpoints.computeIfAbsent(Tuple.of(eventHubName, consumerGroup), k -> new ConcurrentHashMap<>());
+    }
+
+    CompletableFuture<Void> checkpoint(String eventHubName, String consumerGroup, String partitionId,
+            long sequenceNumber) {
+        groupCheckpoints(eventHubName, consumerGroup).merge(partitionId, sequenceNumber, Math::max);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    Partition partition(String eventHubName, String partitionId) {
+        return getEventHub(eventHubName).partition(partitionId);
+    }
+
+    private class EventHub {
+        private final String name;
+        private final List<Partition> partitions = new ArrayList<>();
+        private final AtomicLong roundRobin = new AtomicLong();
+
+        EventHub(String name) {
+            this.name = name;
+
+            for (int i = 0; i < partitionCount; i++) {
+                this.partitions.add(new Partition(String.valueOf(i)));
+            }
+        }
+
+        Partition resolve(String partitionId, String partitionKey) {
+            if (!Strings.isNullOrEmpty(partitionId)) {
+                return partition(partitionId);
+            }
+
+            if (!Strings.isNullOrEmpty(partitionKey)) {
+                int hash = Hashing.murmur3_32().hashString(partitionKey, StandardCharsets.UTF_8).asInt();
+                return this.partitions.get(Math.floorMod(hash, this.partitions.size()));
+            }
+
+            return this.partitions.get((int) (this.roundRobin.getAndIncrement() % this.partitions.size()));
+        }
+
+        Partition partition(String partitionId) {
+            try {
+                return this.partitions.get(Integer.parseInt(partitionId));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new EventHubRuntimeException(
+                        String.format("Partition '%s' doesn't exist in event hub '%s'", partitionId, this.name), e);
+            }
+        }
+    }
+
+    static class StoredEvent {
+        final long sequenceNumber;
+        final long offset;
+        final Instant enqueuedTime;
+        final String partitionKey;
+        final byte[] body;
+        final Map<String, Object> properties;
+
+        StoredEvent(long sequenceNumber, long offset, Instant enqueuedTime, String partitionKey, EventData eventData) {
+            this.sequenceNumber = sequenceNumber;
+            this.offset = offset;
+            this.enqueuedTime = enqueuedTime;
+            this.partitionKey = partitionKey;
+            this.body = eventData.getBytes() == null ? new byte[0] : eventData.getBytes();
+            this.properties = eventData.getProperties() == null ? Collections.emptyMap() :
+                    new HashMap<>(eventData.getProperties());
+        }
+
+        /**
+         * Each delivery gets its own copy since consumers may mutate properties
+         */
+        EventData toEventData() {
+            EventData eventData = EventData.create(this.body);
+            eventData.getProperties().putAll(this.properties);
+            eventData.setSystemProperties(new EventData.SystemProperties(this.sequenceNumber, this.enqueuedTime,
+                    String.valueOf(this.offset), this.partitionKey));
+            return eventData;
+        }
+    }
+
+    /**
+     * Append-only log of one partition. Events are kept in an array list with a moving head, which is compacted once
+     * more than half of the list is dropped.
+     */
+    class Partition {
+        final String id;
+        private final List<StoredEvent> events = new ArrayList<>();
+        private int head = 0;
+        private long nextSequenceNumber = 0;
+        private long nextOffset = 0;
+
+        Partition(String id) {
+            this.id = id;
+        }
+
+        synchronized void append(Iterable<EventData> eventData, String partitionKey) {
+            Instant now = Instant.now();
+
+            for (EventData e : eventData) {
+                StoredEvent stored = new StoredEvent(this.nextSequenceNumber++, this.nextOffset, now, partitionKey, e);
+                this.nextOffset += stored.body.length;
+                this.events.add(stored);
+            }
+
+            purge(now);
+            notifyAll();
+        }
+
+        private void purge(Instant now) {
+            Instant expiry = now.minus(retention);
+
+            while (this.head < this.events.size() && (this.events.size() - this.head > maxEventsPerPartition ||
+                    this.events.get(this.head).enqueuedTime.isBefore(expiry))) {
+                this.head++;
+            }
+
+            if (this.head > this.events.size() / 2) {
+                this.events.subList(0, this.head).clear();
+                this.head = 0;
+            }
+        }
+
+        /**
+         * Read at most {@code max} events starting from {@code sequenceNumber}, waiting up to {@code timeoutMillis}
+         * when there is none. Position before the oldest retained event starts from the oldest one.
+         */
+        synchronized List<StoredEvent> read(long sequenceNumber, int max, long timeoutMillis)
+                throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+            while (sequenceNumber >= this.nextSequenceNumber) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return Collections.emptyList();
+                }
+
+                wait(remaining);
+            }
+
+            if (this.head == this.events.size()) {
+                return Collections.emptyList();
+            }
+
+            long first = this.events.get(this.head).sequenceNumber;
+            int from = this.head + (int) Math.max(0, sequenceNumber - first);
+            int to = Math.min(this.events.size(), from + max);
+            return new ArrayList<>(this.events.subList(from, to));
+        }
+
+        /**
+         * Sequence number of the first event at or after {@code position}
+         */
+        synchronized long resolve(EventPosition position) {
+            if (position.getSequenceNumber() != null) {
+                return position.getSequenceNumber() + (position.getInclusiveFlag() ? 0 : 1);
+            }
+
+            if (position.getEnqueuedTime() != null) {
+                return firstMatching(e -> e.enqueuedTime.isAfter(position.getEnqueuedTime()));
+            }
+
+            if (EventPosition.fromEndOfStream().getOffset().equals(position.getOffset())) {
+                return this.nextSequenceNumber;
+            }
+
+            if (EventPosition.fromStartOfStream().getOffset().equals(position.getOffset())) {
+                return 0;
+            }
+
+            long offset = Long.parseLong(position.getOffset());
+            return firstMatching(e -> e.offset > offset || (position.getInclusiveFlag() && e.offset == offset));
+        }
+
+        private long firstMatching(Predicate<StoredEvent> predicate) {
+            for (int i = this.head; i < this.events.size(); i++) {
+                if (predicate.test(this.events.get(i))) {
+                    return this.events.get(i).sequenceNumber;
+                }
+            }
+
+            return this.nextSequenceNumber;
+        }
+
+        synchronized long getLastSequenceNumber() {
+            return this.nextSequenceNumber - 1;
+        }
+
+        synchronized StoredEvent getLast() {
+            return this.head == this.events.size() ? null : this.events.get(this.events.size() - 1);
+        }
+
+        synchronized void wakeUp() {
+            notifyAll();
+        }
+    }
+
+    private class PartitionPump implements Runnable {
+        private final String eventHubName;
+        private final String consumerGroup;
+        private final Partition partition;
+        private final EventProcessorOptions options;
+        private final InMemoryPartitionContext context;
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private final long startPosition;
+        private IEventProcessor processor;
+        private volatile boolean running = true;
+
+        PartitionPump(String eventHubName, String consumerGroup, Partition partition, EventProcessorOptions options) {
+            this.eventHubName = eventHubName;
+            this.consumerGroup = consumerGroup;
+            this.partition = partition;
+            this.options = options;
+            this.context = new InMemoryPartitionContext(InMemoryEventHubBroker.this, eventHubName, consumerGroup,
+                    partition, options.getReceiverRuntimeMetricEnabled());
+            // Resolved on registration, so events sent right after subscribing are not skipped
+            this.startPosition = initialPosition();
+        }
+
+        @Override
+        public void run() {
+            CloseReason reason = CloseReason.Shutdown;
+
+            try {
+                this.processor.onOpen(this.context.get());
+                pump();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Partition {} of event hub '{}' failed to pump events", this.partition.id,
+                        this.eventHubName, e);
+                reason = CloseReason.LeaseLost;
+            } finally {
+                close(reason);
+            }
+        }
+
+        private void pump() throws Exception {
+            long position = this.startPosition;
+            int batchSize = Math.min(this.options.getMaxBatchSize(), this.options.getPrefetchCount());
+            long timeoutMillis = this.options.getReceiveTimeOut().toMillis();
+
+            while (this.running) {
+                List<StoredEvent> batch = this.partition.read(position, batchSize, timeoutMillis);
+
+                if (!this.running) {
+                    return;
+                }
+
+                if (batch.isEmpty()) {
+                    if (this.options.getInvokeProcessorAfterReceiveTimeout()) {
+                        this.processor.onEvents(this.context.get(), Collections.emptyList());
+                    }
+                    continue;
+                }
+
+                List<EventData> eventData = batch.stream().map(StoredEvent::toEventData).collect(Collectors.toList());
+                StoredEvent last = batch.get(batch.size() - 1);
+                position = last.sequenceNumber + 1;
+                this.context.setLastDelivered(last.sequenceNumber);
+
+                try {
+                    this.processor.onEvents(this.context.get(), eventData);
+                } catch (Exception e) {
+                    this.processor.onError(this.context.get(), e);
+                }
+            }
+        }
+
+        private long initialPosition() {
+            long checkpoint = getCheckpointSequenceNumber(this.eventHubName, this.consumerGroup, this.partition.id);
+            if (checkpoint != NO_CHECKPOINT) {
+                return checkpoint + 1;
+            }
+
+            return this.partition.resolve(this.options.getInitialPositionProvider().apply(this.partition.id));
+        }
+
+        private void close(CloseReason reason) {
+            try {
+                this.processor.onClose(this.context.get(), reason);
+            } catch (Exception e) {
+                log.warn("Partition {} of event hub '{}' failed to close processor", this.partition.id,
+                        this.eventHubName, e);
+            } finally {
+                this.closed.countDown();
+            }
+        }
+
+        void stop() {
+            this.running = false;
+            this.partition.wakeUp();
+        }
+
+        void awaitClosed() {
+            try {
+                if (!this.closed.await(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Partition {} of event hub '{}' didn't close in {} ms", this.partition.id,
+                            this.eventHubName, SHUTDOWN_TIMEOUT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.support;
+
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.core.api.StartPosition;
+import com.microsoft.azure.spring.integration.eventhub.impl.EventHubTemplate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.integration.support.MessageBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryEventHubBrokerTest {
+    private static final String EVENT_HUB = "eventhub";
+    private static final String GROUP = "group";
+
+    private InMemoryEventHubBroker broker;
+    private EventHubTemplate template;
+    private List<String> received = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.broker = new InMemoryEventHubBroker(2, Duration.ofHours(1), 5);
+        this.template = new EventHubTemplate(new InMemoryEventHubClientFactory(this.broker));
+        this.template.setStartPosition(StartPosition.EARLIEST);
+    }
+
+    @After
+    public void tearDown() {
+        this.broker.destroy();
+    }
+
+    @Test
+    public void testSendSubscribeAndCheckpoint() throws Exception {
+        send("0", "a", "b", "c");
+        CountDownLatch latch = subscribe(3);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "b", "c"), this.received);
+        awaitCheckpoint("0", 2);
+    }
+
+    @Test
+    public void testResumeAfterCheckpoint() throws Exception {
+        send("1", "a", "b");
+        assertTrue(subscribe(2).await(10, TimeUnit.SECONDS));
+        awaitCheckpoint("1", 1);
+        this.template.unsubscribe(EVENT_HUB, GROUP);
+
+        send("1", "c");
+        this.received.clear();
+        assertTrue(subscribe(1).await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("c"), this.received);
+    }
+
+    @Test
+    public void testOldestEventsDroppedBeyondRetention() throws Exception {
+        send("0", IntStream.range(0, 8).mapToObj(String::valueOf).toArray(String[]::new));
+
+        assertTrue(subscribe(5).await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("3", "4", "5", "6", "7"), this.received);
+        assertEquals(7, this.broker.getLastEnqueuedSequenceNumber(EVENT_HUB, "0"));
+    }
+
+    @Test
+    public void testLatestStartPositionSkipsExistingEvents() throws Exception {
+        send("0", "a", "b");
+        this.template.setStartPosition(StartPosition.LATEST);
+        CountDownLatch latch = subscribe(1);
+
+        send("0", "c");
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("c"), this.received);
+    }
+
+    @Test
+    public void testBatchSend() throws Exception {
+        this.template.setBatchConfig(
+                BatchConfig.builder().lingerTime(Duration.ofMillis(50)).maxBatchSizeInBytes(128).build());
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionId("0");
+
+        List<CompletableFuture<Void>> futures = IntStream.range(0, 5).mapToObj(
+                i -> this.template.sendAsync(EVENT_HUB, MessageBuilder.withPayload("payload-" + i).build(),
+                        partitionSupplier)).collect(Collectors.toList());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertTrue(subscribe(5).await(10, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, 5).mapToObj(i -> "payload-" + i).collect(Collectors.toList()),
+                this.received);
+    }
+
+    @Test
+    public void testBatchSendRejectsEventLargerThanMaxBatchSize() {
+        this.template.setBatchConfig(
+                BatchConfig.builder().lingerTime(Duration.ofMillis(50)).maxBatchSizeInBytes(128).build());
+        char[] payload = new char[200];
+        Arrays.fill(payload, 'a');
+
+        CompletableFuture<Void> future =
+                this.template.sendAsync(EVENT_HUB, MessageBuilder.withPayload(new String(payload)).build());
+
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(-1, this.broker.getLastEnqueuedSequenceNumber(EVENT_HUB, "0"));
+        assertEquals(-1, this.broker.getLastEnqueuedSequenceNumber(EVENT_HUB, "1"));
+    }
+
+    private void send(String partitionId, String... payloads) {
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionId(partitionId);
+
+        for (String payload : payloads) {
+            this.template.sendAsync(EVENT_HUB, MessageBuilder.withPayload(payload).build(), partitionSupplier).join();
+        }
+    }
+
+    private CountDownLatch subscribe(int count) {
+        CountDownLatch latch = new CountDownLatch(count);
+        this.template.subscribe(EVENT_HUB, GROUP, m -> {
+            this.received.add((String) m.getPayload());
+            latch.countDown();
+        }, String.class);
+        return latch;
+    }
+
+    private void awaitCheckpoint(String partitionId, long sequenceNumber) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+
+        while (this.broker.getCheckpointSequenceNumber(EVENT_HUB, GROUP, partitionId) != sequenceNumber &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(sequenceNumber, this.broker.getCheckpointSequenceNumber(EVENT_HUB, GROUP, partitionId));
+    }
+}
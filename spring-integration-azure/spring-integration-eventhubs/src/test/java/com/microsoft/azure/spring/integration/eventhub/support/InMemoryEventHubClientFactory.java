@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.support;
+
+import com.microsoft.azure.eventhubs.BatchOptions;
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.EventDataBatch;
+import com.microsoft.azure.eventhubs.EventHubClient;
+import com.microsoft.azure.eventhubs.EventHubRuntimeInformation;
+import com.microsoft.azure.eventhubs.PartitionSender;
+import com.microsoft.azure.eventhubs.PayloadSizeExceededException;
+import com.microsoft.azure.eventprocessorhost.EventProcessorHost;
+import com.microsoft.azure.eventprocessorhost.EventProcessorOptions;
+import com.microsoft.azure.eventprocessorhost.IEventProcessorFactory;
+import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.eventhub.api.EventHubClientFactory;
+import org.mockito.MockSettings;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link EventHubClientFactory} backed by {@link InMemoryEventHubBroker}, so templates, binders and listener
+ * containers run unchanged against the in-memory broker.
+ * <p>
+ * Clients, senders and hosts are SDK types without accessible constructors, so stub-only mocks forwarding to the
+ * broker are returned. They record no invocations, so long load tests don't accumulate memory. {@link EventDataBatch}
+ * is a stub-only mock as well. It estimates event size from body and application properties, enforces
+ * {@link BatchOptions#maxMessageSize} and is sent to the broker with its partition key.
+ *
+ * @author Warren Zhu
+ */
+public class InMemoryEventHubClientFactory implements EventHubClientFactory {
+    static final String HOST_NAME = "in-memory-host";
+    // Same as max message size of event hub SDK
+    private static final int MAX_MESSAGE_SIZE = 256 * 1024;
+    // Rough AMQP overhead of one event in a batch
+    private static final int EVENT_OVERHEAD = 16;
+
+    private final InMemoryEventHubBroker broker;
+    private final ConcurrentHashMap<String, EventHubClient> clientMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Tuple<String, String>, PartitionSender> partitionSenderMap =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Tuple<String, String>, EventProcessorHost> processorHostMap =
+            new ConcurrentHashMap<>();
+    // Batches are dropped by their creator when they can't hold the first event, so only weakly referenced
+    private final Map<EventDataBatch, PendingBatch> batchMap = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public InMemoryEventHubClientFactory(InMemoryEventHubBroker broker) {
+        Assert.notNull(broker, "broker can't be null");
+        this.broker = broker;
+    }
+
+    @Override
+    public EventHubClient getOrCreateClient(String name) {
+        return this.clientMap.computeIfAbsent(name, this::createClient);
+    }
+
+    @Override
+    public EventHubClient createClient(String name) {
+        return Mockito.mock(EventHubClient.class, stubOnly(invocation -> answerClient(name, invocation)));
+    }
+
+    @Override
+    public PartitionSender getOrCreatePartitionSender(String eventhub, String partition) {
+        return this.partitionSenderMap.computeIfAbsent(Tuple.of(eventhub, partition),
+                key -> Mockito.mock(PartitionSender.class,
+                        stubOnly(invocation -> answerSender(eventhub, partition, invocation))));
+    }
+
+    @Override
+    public EventProcessorHost getOrCreateEventProcessorHost(String name, String consumerGroup) {
+        return this.processorHostMap.computeIfAbsent(Tuple.of(name, consumerGroup),
+                key -> Mockito.mock(EventProcessorHost.class,
+                        stubOnly(invocation -> answerHost(name, consumerGroup, invocation))));
+    }
+
+    private static MockSettings stubOnly(Answer<?> answer) {
+        return Mockito.withSettings().stubOnly().defaultAnswer(answer);
+    }
+
+    private Object answerClient(String name, InvocationOnMock invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+
+        switch (invocation.getMethod().getName()) {
+            case "send":
+                return send(name, null, args);
+            case "sendSync":
+                send(name, null, args).join();
+                return null;
+            case "getEventHubName":
+                return name;
+            case "getRuntimeInformation":
+                return CompletableFuture.completedFuture(runtimeInformation(name));
+            case "createPartitionSender":
+                return CompletableFuture.completedFuture(getOrCreatePartitionSender(name, (String) args[0]));
+            case "createPartitionSenderSync":
+                return getOrCreatePartitionSender(name, (String) args[0]);
+            case "close":
+                return CompletableFuture.completedFuture(null);
+            case "createBatch":
+                return createBatch(args.length > 0 ? (BatchOptions) args[0] : new BatchOptions());
+            default:
+                return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    private Object answerSender(String name, String partitionId, InvocationOnMock invocation) throws Throwable {
+        switch (invocation.getMethod().getName()) {
+            case "send":
+                return send(name, partitionId, invocation.getArguments());
+            case "sendSync":
+                send(name, partitionId, invocation.getArguments()).join();
+                return null;
+            case "getPartitionId":
+                return partitionId;
+            case "close":
+                return CompletableFuture.completedFuture(null);
+            case "createBatch":
+                Object[] args = invocation.getArguments();
+                return createBatch(args.length > 0 ? (BatchOptions) args[0] : new BatchOptions());
+            default:
+                return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    private Object answerHost(String name, String consumerGroup, InvocationOnMock invocation) throws Throwable {
+        Object[] args = invocation.getArguments();
+
+        switch (invocation.getMethod().getName()) {
+            case "registerEventProcessorFactory":
+                EventProcessorOptions options =
+                        args.length > 1 ? (EventProcessorOptions) args[1] : EventProcessorOptions.getDefaultOptions();
+                return this.broker.register(name, consumerGroup, (IEventProcessorFactory<?>) args[0], options);
+            case "unregisterEventProcessor":
+                return this.broker.unregister(name, consumerGroup);
+            case "getHostName":
+                return HOST_NAME;
+            default:
+                return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    private EventDataBatch createBatch(BatchOptions options) {
+        int maxMessageSize = options.maxMessageSize == null ? MAX_MESSAGE_SIZE : options.maxMessageSize;
+        PendingBatch pending = new PendingBatch(maxMessageSize, options.partitionKey);
+        EventDataBatch batch = Mockito.mock(EventDataBatch.class, stubOnly(invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "tryAdd":
+                    return pending.tryAdd((EventData) invocation.getArguments()[0]);
+                case "getSize":
+                    return pending.events.size();
+                default:
+                    return Mockito.RETURNS_DEFAULTS.answer(invocation);
+            }
+        }));
+        this.batchMap.put(batch, pending);
+        return batch;
+    }
+
+    /**
+     * Supports {@code send(EventData)}, {@code send(Iterable<EventData>)}, {@code send(EventDataBatch)} and their
+     * partition key variants
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Void> send(String name, String partitionId, Object[] args) {
+        String partitionKey = args.length > 1 ? (String) args[1] : null;
+
+        if (args[0] instanceof EventData) {
+            return this.broker.send(name, partitionId, partitionKey, Collections.singletonList((EventData) args[0]));
+        }
+
+        if (args[0] instanceof Iterable) {
+            return this.broker.send(name, partitionId, partitionKey, (Iterable<EventData>) args[0]);
+        }
+
+        PendingBatch batch = this.batchMap.remove(args[0]);
+
+        if (batch == null) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(
+                    new IllegalArgumentException("EventDataBatch is not created by in-memory broker"));
+            return future;
+        }
+
+        return this.broker.send(name, partitionId, batch.partitionKey, batch.events);
+    }
+
+    private EventHubRuntimeInformation runtimeInformation(String name) {
+        List<String> partitionIds = this.broker.getPartitionIds(name);
+        EventHubRuntimeInformation information =
+                Mockito.mock(EventHubRuntimeInformation.class, Mockito.withSettings().stubOnly());
+        Mockito.when(information.getPath()).thenReturn(name);
+        Mockito.when(information.getPartitionCount()).thenReturn(partitionIds.size());
+        Mockito.when(information.getPartitionIds()).thenReturn(partitionIds.toArray(new String[0]));
+        Mockito.when(information.getCreatedAt()).thenReturn(Instant.EPOCH);
+        return information;
+    }
+
+    private static class PendingBatch {
+        private final int maxMessageSize;
+        private final String partitionKey;
+        private final List<EventData> events = new ArrayList<>();
+        private int size;
+
+        PendingBatch(int maxMessageSize, String partitionKey) {
+            this.maxMessageSize = maxMessageSize;
+            this.partitionKey = partitionKey;
+        }
+
+        synchronized boolean tryAdd(EventData eventData) throws PayloadSizeExceededException {
+            int eventSize = sizeOf(eventData);
+
+            if (eventSize > this.maxMessageSize) {
+                throw new PayloadSizeExceededException(
+                        String.format("Size of the payload exceeded maximum message size: %s kb",
+                                this.maxMessageSize / 1024));
+            }
+
+            if (this.size + eventSize > this.maxMessageSize) {
+                return false;
+            }
+
+            this.events.add(eventData);
+            this.size += eventSize;
+            return true;
+        }
+
+        private static int sizeOf(EventData eventData) {
+            int size = EVENT_OVERHEAD + (eventData.getBytes() == null ? 0 : eventData.getBytes().length);
+
+            for (Map.Entry<String, Object> property : eventData.getProperties().entrySet()) {
+                size += property.getKey().length() + String.valueOf(property.getValue()).length();
+            }
+
+            return size;
+        }
+    }
+}
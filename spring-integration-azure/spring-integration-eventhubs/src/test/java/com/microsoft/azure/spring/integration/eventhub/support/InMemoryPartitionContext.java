@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.eventhub.support;
+
+import com.microsoft.azure.eventhubs.EventData;
+import com.microsoft.azure.eventhubs.ReceiverRuntimeInformation;
+import com.microsoft.azure.eventprocessorhost.PartitionContext;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link PartitionContext} handed to processors by {@link InMemoryEventHubBroker}. Partition context has no
+ * accessible constructor, so a stub-only mock answering from broker state is used. It records no invocations.
+ * {@code checkpoint()} checkpoints the last delivered event, {@code checkpoint(EventData)} the given event.
+ *
+ * @author Warren Zhu
+ */
+class InMemoryPartitionContext {
+    private final InMemoryEventHubBroker broker;
+    private final String eventHubName;
+    private final String consumerGroup;
+    private final InMemoryEventHubBroker.Partition partition;
+    private final boolean runtimeMetricEnabled;
+    private final PartitionContext context;
+    private volatile long lastDelivered = -1;
+
+    InMemoryPartitionContext(InMemoryEventHubBroker broker, String eventHubName, String consumerGroup,
+            InMemoryEventHubBroker.Partition partition, boolean runtimeMetricEnabled) {
+        this.broker = broker;
+        this.eventHubName = eventHubName;
+        this.consumerGroup = consumerGroup;
+        this.partition = partition;
+        this.runtimeMetricEnabled = runtimeMetricEnabled;
+        this.context =
+                Mockito.mock(PartitionContext.class, Mockito.withSettings().stubOnly().defaultAnswer(this::answer));
+    }
+
+    PartitionContext get() {
+        return this.context;
+    }
+
+    void setLastDelivered(long sequenceNumber) {
+        this.lastDelivered = sequenceNumber;
+    }
+
+    private Object answer(InvocationOnMock invocation) throws Throwable {
+        switch (invocation.getMethod().getName()) {
+            case "getPartitionId":
+                return this.partition.id;
+            case "getEventHubPath":
+                return this.eventHubName;
+            case "getConsumerGroupName":
+                return this.consumerGroup;
+            case "getOwner":
+                return InMemoryEventHubClientFactory.HOST_NAME;
+            case "getRuntimeInformation":
+                return this.runtimeMetricEnabled ? runtimeInformation() : null;
+            case "checkpoint":
+                return checkpoint(invocation.getArguments());
+            case "toString":
+                return String.format("InMemoryPartitionContext{eventHub=%s, group=%s, partition=%s}",
+                        this.eventHubName, this.consumerGroup, this.partition.id);
+            default:
+                return Mockito.RETURNS_DEFAULTS.answer(invocation);
+        }
+    }
+
+    private CompletableFuture<Void> checkpoint(Object[] arguments) {
+        long sequenceNumber = this.lastDelivered;
+
+        if (arguments.length == 1 && arguments[0] instanceof EventData) {
+            sequenceNumber = ((EventData) arguments[0]).getSystemProperties().getSequenceNumber();
+        } else if (arguments.length > 0) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(new UnsupportedOperationException(
+                    "Only checkpoint() and checkpoint(EventData) are supported by in-memory event hub broker"));
+            return future;
+        }
+
+        if (sequenceNumber < 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.broker.checkpoint(this.eventHubName, this.consumerGroup, this.partition.id, sequenceNumber);
+    }
+
+    private ReceiverRuntimeInformation runtimeInformation() {
+        InMemoryEventHubBroker.StoredEvent last = this.partition.getLast();
+        long sequenceNumber = last == null ? -1 : last.sequenceNumber;
+        Instant enqueuedTime = last == null ? Instant.EPOCH : last.enqueuedTime;
+        String offset = last == null ? "-1" : String.valueOf(last.offset);
+
+        ReceiverRuntimeInformation information =
+                Mockito.mock(ReceiverRuntimeInformation.class, Mockito.withSettings().stubOnly());
+        Mockito.when(information.getPartitionId()).thenReturn(this.partition.id);
+        Mockito.when(information.getLastEnqueuedSequenceNumber()).thenReturn(sequenceNumber);
+        Mockito.when(information.getLastEnqueuedTime()).thenReturn(enqueuedTime);
+        Mockito.when(information.getLastEnqueuedOffset()).thenReturn(offset);
+        Mockito.when(information.getRetrievalTime()).thenReturn(Instant.now());
+        return information;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pull based receive engine running {@link ServiceBusClientConfig#getConcurrency()} loops of
+ * {@link IMessageReceiver#receiveBatchAsync(int, java.time.Duration)} on one receiver. Messages are settled on the
+ * same receiver, since a message can't be settled on another link in PEEKLOCK mode.
+ * <p>
+ * Loops run on given executor, usually the entity view of the template's {@link ServiceBusHandlerExecutor}, so each
+ * loop holds one thread of the shared pool until stopped. Batch size starts at
+ * {@link ServiceBusClientConfig#getMaxBatchSize()} and is adapted so that each received batch is processed in about
+ * {@link ServiceBusClientConfig#getTargetBatchProcessingTime()}. After a failed receive, the loop backs off
+ * exponentially from {@value #INITIAL_BACKOFF_MILLIS} ms up to {@value #MAX_BACKOFF_MILLIS} ms until a receive
+ * succeeds.
+ *
+ * @author Warren Zhu
+ */
+public abstract class AbstractServiceBusReceiver {
+    private static final Logger log = LoggerFactory.getLogger(AbstractServiceBusReceiver.class);
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+    protected final String name;
+    protected final IMessageReceiver receiver;
+    protected final ServiceBusClientConfig clientConfig;
+    private final AdaptiveBatchSize batchSize;
+    private final ExecutorService executor;
+    private final Object backoffMonitor = new Object();
+    private volatile boolean running;
+
+    protected AbstractServiceBusReceiver(String name, IMessageReceiver receiver, ServiceBusClientConfig clientConfig,
+            ExecutorService executor) {
+        this.name = name;
+        this.receiver = receiver;
+        this.clientConfig = clientConfig;
+        this.batchSize =
+                new AdaptiveBatchSize(clientConfig.getMaxBatchSize(), clientConfig.getTargetBatchProcessingTime());
+        this.executor = executor;
+    }
+
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+
+        this.running = true;
+        for (int i = 0; i < this.clientConfig.getConcurrency(); i++) {
+            this.executor.execute(this::receiveLoop);
+        }
+
+        log.info("Started {} receive loops of '{}' with config: {}", this.clientConfig.getConcurrency(), this.name,
+                this.clientConfig);
+    }
+
+    /**
+     * Stop receive loops, wait for in-flight batches and close the receiver
+     */
+    public synchronized void stop() {
+        if (!this.running) {
+            return;
+        }
+
+        this.running = false;
+        synchronized (this.backoffMonitor) {
+            this.backoffMonitor.notifyAll();
+        }
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Receive loops of '{}' didn't stop in {} seconds", this.name, STOP_TIMEOUT_SECONDS);
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.executor.shutdownNow();
+        }
+
+        beforeClose();
+        this.receiver.closeAsync();
+        log.info("Stopped receive loops of '{}'", this.name);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    int getBatchSize() {
+        return this.batchSize.get();
+    }
+
+    /**
+     * Handle messages of one received batch on the receive loop thread. Exceptions are not expected.
+     */
+    protected abstract void process(List<IMessage> messages);
+
+    /**
+     * Called after receive loops stopped and before the receiver is closed
+     */
+    protected void beforeClose() {
+    }
+
+    protected CompletableFuture<Void> complete(List<IMessage> messages) {
+        return this.receiver.completeBatchAsync(messages);
+    }
+
+    protected CompletableFuture<Void> abandon(List<IMessage> messages) {
+        return CompletableFuture.allOf(messages.stream().map(m -> this.receiver.abandonAsync(m.getLockToken()))
+                                               .toArray(CompletableFuture[]::new));
+    }
+
+    private void receiveLoop() {
+        int failures = 0;
+
+        while (this.running) {
+            Collection<IMessage> messages;
+
+            try {
+                messages = this.receiver.receiveBatchAsync(this.batchSize.get(), this.clientConfig.getReceiveTimeout())
+                                        .get();
+                failures = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | RuntimeException e) {
+                if (this.running) {
+                    log.error(String.format("Failed to receive batch from '%s'", this.name), e);
+                }
+
+                if (!backoff(++failures)) {
+                    return;
+                }
+
+                continue;
+            }
+
+            if (messages != null && !messages.isEmpty()) {
+                long start = System.nanoTime();
+
+                try {
+                    process(new ArrayList<>(messages));
+                } finally {
+                    this.batchSize.record(messages.size(), System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait before next receive, or until stopped
+     *
+     * @return false if interrupted
+     */
+    private boolean backoff(int failures) {
+        long millis = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(failures - 1, 16));
+
+        synchronized (this.backoffMonitor) {
+            try {
+                if (this.running) {
+                    this.backoffMonitor.wait(millis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
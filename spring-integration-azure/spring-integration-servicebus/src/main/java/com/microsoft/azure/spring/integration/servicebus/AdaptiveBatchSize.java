@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * Batch size adapted from observed processing time, so that one batch takes about the target time to process.
+ * Processing time per message is smoothed by exponentially weighted moving average.
+ *
+ * @author Warren Zhu
+ */
+class AdaptiveBatchSize {
+    private static final double SMOOTHING_FACTOR = 0.3;
+    private final int maxBatchSize;
+    private final long targetNanos;
+    private double nanosPerMessage;
+    private int batchSize;
+
+    AdaptiveBatchSize(int maxBatchSize, Duration targetProcessingTime) {
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize should be positive");
+        this.maxBatchSize = maxBatchSize;
+        this.targetNanos = targetProcessingTime.toNanos();
+        this.batchSize = maxBatchSize;
+    }
+
+    synchronized int get() {
+        return this.batchSize;
+    }
+
+    synchronized void record(int messageCount, long elapsedNanos) {
+        if (messageCount <= 0) {
+            return;
+        }
+
+        double observed = (double) Math.max(elapsedNanos, 1) / messageCount;
+        this.nanosPerMessage = this.nanosPerMessage == 0 ? observed :
+                SMOOTHING_FACTOR * observed + (1 - SMOOTHING_FACTOR) * this.nanosPerMessage;
+        long size = (long) (this.targetNanos / this.nanosPerMessage);
+        this.batchSize = (int) Math.max(1, Math.min(this.maxBatchSize, size));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Limit of concurrent message handlers of one entity, adapted between a min and a max from handler latency, errors
+ * and backlog.
+ * <p>
+ * Latency is tracked by a short-term and a long-term exponentially weighted moving average. Their ratio is the
+ * gradient: when recent handling gets slower than usual, the downstream is saturated and the limit shrinks
+ * proportionally. When handling is as fast as usual and messages are waiting for the limit, the limit grows by one.
+ * Every failed handling decreases the limit multiplicatively.
+ * <p>
+ * The limiter doesn't block handlers itself. {@link ServiceBusHandlerExecutor} reads {@link #getLimit()} before
+ * taking a pool thread for the entity, so tasks beyond the limit wait in the entity queue without holding a thread.
+ * Messages already received by the SDK pump keep their locks while queued, since the pump always runs
+ * {@code maxConcurrentCalls} receives. A lower limit therefore bounds threads and downstream load, but not the count
+ * of messages locked by the broker.
+ *
+ * @author Warren Zhu
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    private static final double SHORT_SMOOTHING_FACTOR = 0.2;
+    private static final double LONG_SMOOTHING_FACTOR = 0.01;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double shortLatency;
+    private double longLatency;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, int minLimit, int maxLimit) {
+        Assert.isTrue(minLimit > 0, "minLimit should be positive");
+        Assert.isTrue(maxLimit >= minLimit, "maxLimit should not be less than minLimit");
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = minLimit;
+    }
+
+    /**
+     * Wrap consumer to adapt the limit from latency and outcome of each call
+     *
+     * @param backlogged whether messages are waiting for the limit when a call finishes
+     */
+    public Consumer<Message<?>> wrap(Consumer<Message<?>> consumer, BooleanSupplier backlogged) {
+        return message -> {
+            acquire();
+            long start = System.nanoTime();
+            boolean failed = true;
+
+            try {
+                consumer.accept(message);
+                failed = false;
+            } finally {
+                release(System.nanoTime() - start, failed, backlogged.getAsBoolean());
+            }
+        };
+    }
+
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    synchronized void acquire() {
+        this.inFlight++;
+    }
+
+    synchronized void release(long latencyNanos, boolean failed, boolean backlogged) {
+        this.inFlight--;
+        onSample(latencyNanos, failed, backlogged);
+    }
+
+    synchronized void onSample(long latencyNanos, boolean failed, boolean backlogged) {
+        int previous = (int) this.limit;
+
+        if (failed) {
+            this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+        } else {
+            update(latencyNanos, backlogged);
+        }
+
+        if (previous != (int) this.limit && log.isDebugEnabled()) {
+            log.debug("Concurrency limit of '{}' becomes: {}", this.name, (int) this.limit);
+        }
+    }
+
+    private void update(long latencyNanos, boolean backlogged) {
+        double latency = Math.max(latencyNanos, 1);
+
+        if (this.longLatency == 0) {
+            this.shortLatency = latency;
+            this.longLatency = latency;
+        } else {
+            this.shortLatency = SHORT_SMOOTHING_FACTOR * latency + (1 - SHORT_SMOOTHING_FACTOR) * this.shortLatency;
+            this.longLatency = LONG_SMOOTHING_FACTOR * latency + (1 - LONG_SMOOTHING_FACTOR) * this.longLatency;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, this.longLatency / this.shortLatency));
+        double newLimit = this.limit * gradient + (backlogged ? 1 : 0);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+    }
+}
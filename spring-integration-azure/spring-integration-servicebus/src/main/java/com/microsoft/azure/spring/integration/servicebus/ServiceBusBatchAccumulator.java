@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.core.api.SendOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SendOperation} accumulating single messages per destination and partition key, then sending them with
+ * {@link BatchSendOperation}, which splits batches at max message size of the entity.
+ * <p>
+ * A batch is sent when {@link BatchConfig#getLingerTime()} elapsed since its first message, or when its estimated
+ * payload size reaches {@link BatchConfig#getMaxBatchSizeInBytes()}. Only String and byte[] payloads count to the
+ * estimated size. The future of each message is completed when the split batch containing it is sent, so a failed
+ * split doesn't fail messages already sent by other splits.
+ *
+ * @author Warren Zhu
+ */
+public class ServiceBusBatchAccumulator implements SendOperation {
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusBatchAccumulator.class);
+    private static final int DEFAULT_MAX_BATCH_SIZE_IN_BYTES = 256 * 1024;
+    private final BatchSendOperation batchSendOperation;
+    private final BatchConfig batchConfig;
+    private final int maxBatchSizeInBytes;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<BatchKey, PendingBatch> pendingBatches = new ConcurrentHashMap<>();
+
+    public ServiceBusBatchAccumulator(@NonNull BatchSendOperation batchSendOperation,
+            @NonNull BatchConfig batchConfig) {
+        Assert.notNull(batchSendOperation, "batchSendOperation can't be null");
+        Assert.notNull(batchConfig, "batchConfig can't be null");
+        this.batchSendOperation = batchSendOperation;
+        this.batchConfig = batchConfig;
+        this.maxBatchSizeInBytes = batchConfig.getMaxBatchSizeInBytes() > 0 ? batchConfig.getMaxBatchSizeInBytes() :
+                DEFAULT_MAX_BATCH_SIZE_IN_BYTES;
+        ThreadFactory threadFactory =
+                new ThreadFactoryBuilder().setNameFormat("servicebus-batch-%d").setDaemon(true).build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> sendAsync(String destination, @NonNull Message<T> message,
+            PartitionSupplier partitionSupplier) {
+        Assert.hasText(destination, "destination can't be null or empty");
+        BatchKey key = new BatchKey(destination, partitionSupplier);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        List<PendingBatch> fullBatches = new ArrayList<>(1);
+
+        this.pendingBatches.compute(key, (k, batch) -> {
+            PendingBatch current = batch == null ? createBatch(k) : batch;
+            current.add(message, future);
+
+            if (current.bytes >= this.maxBatchSizeInBytes) {
+                fullBatches.add(current);
+                return null;
+            }
+
+            return current;
+        });
+
+        fullBatches.forEach(b -> send(key, b));
+        return future;
+    }
+
+    /**
+     * Send all pending batches without waiting for linger time
+     */
+    public void flush() {
+        this.pendingBatches.keySet().forEach(k -> {
+            PendingBatch batch = this.pendingBatches.remove(k);
+            if (batch != null) {
+                send(k, batch);
+            }
+        });
+    }
+
+    public void destroy() {
+        flush();
+        this.scheduler.shutdown();
+    }
+
+    public BatchConfig getBatchConfig() {
+        return batchConfig;
+    }
+
+    private PendingBatch createBatch(BatchKey key) {
+        PendingBatch batch = new PendingBatch();
+        batch.lingerTask = this.scheduler.schedule(() -> lingerExpired(key, batch),
+                this.batchConfig.getLingerTime().toMillis(), TimeUnit.MILLISECONDS);
+        return batch;
+    }
+
+    private void lingerExpired(BatchKey key, PendingBatch batch) {
+        if (this.pendingBatches.remove(key, batch)) {
+            send(key, batch);
+        }
+    }
+
+    private void send(BatchKey key, PendingBatch batch) {
+        batch.cancelLinger();
+        List<CompletableFuture<Void>> sent;
+
+        try {
+            sent = this.batchSendOperation.sendEachAsync(key.destination, batch.messages, key.partitionSupplier());
+        } catch (RuntimeException e) {
+            log.error(String.format("Failed to send batch to '%s' ", key.destination), e);
+            batch.futures.forEach(f -> f.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.futures.size(); i++) {
+            CompletableFuture<Void> future = batch.futures.get(i);
+            sent.get(i).whenComplete((v, t) -> {
+                if (t != null) {
+                    future.completeExceptionally(t);
+                } else {
+                    future.complete(null);
+                }
+            });
+        }
+    }
+
+    private static long estimateSize(Object payload) {
+        if (payload instanceof byte[]) {
+            return ((byte[]) payload).length;
+        }
+
+        if (payload instanceof String) {
+            return ((String) payload).getBytes(Charset.defaultCharset()).length;
+        }
+
+        return 0;
+    }
+
+    private static class PendingBatch {
+        private final List<Message<Object>> messages = new ArrayList<>();
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        private long bytes;
+        private ScheduledFuture<?> lingerTask;
+
+        @SuppressWarnings("unchecked")
+        void add(Message<?> message, CompletableFuture<Void> future) {
+            this.messages.add((Message<Object>) message);
+            this.futures.add(future);
+            this.bytes += estimateSize(message.getPayload());
+        }
+
+        void cancelLinger() {
+            if (this.lingerTask != null) {
+                this.lingerTask.cancel(false);
+            }
+        }
+    }
+
+    private static class BatchKey {
+        private final String destination;
+        private final String partitionKey;
+
+        BatchKey(String destination, PartitionSupplier partitionSupplier) {
+            this.destination = destination;
+
+            if (partitionSupplier != null && StringUtils.hasText(partitionSupplier.getPartitionKey())) {
+                this.partitionKey = partitionSupplier.getPartitionKey();
+            } else if (partitionSupplier != null && StringUtils.hasText(partitionSupplier.getPartitionId())) {
+                this.partitionKey = partitionSupplier.getPartitionId();
+            } else {
+                this.partitionKey = null;
+            }
+        }
+
+        PartitionSupplier partitionSupplier() {
+            if (this.partitionKey == null) {
+                return null;
+            }
+
+            PartitionSupplier partitionSupplier = new PartitionSupplier();
+            partitionSupplier.setPartitionKey(this.partitionKey);
+            return partitionSupplier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey batchKey = (BatchKey) o;
+            return Objects.equals(destination, batchKey.destination) &&
+                    Objects.equals(partitionKey, batchKey.partitionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(destination, partitionKey);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.spring.integration.core.AzureCheckpointer;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Pull based receive engine delivering messages received by {@link IMessageReceiver#receiveBatchAsync(int,
+ * java.time.Duration)} as one {@link Message} with a {@link List} payload.
+ * <p>
+ * In {@link CheckpointMode#RECORD}, all messages of a batch are completed after consumer returns. In
+ * {@link CheckpointMode#MANUAL}, the checkpointer header completes or abandons the whole batch. In both modes, the
+ * batch is abandoned if consumer throws, so it's redelivered without waiting for lock expiry.
+ *
+ * @author Warren Zhu
+ */
+public class ServiceBusBatchReceiver extends AbstractServiceBusReceiver {
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusBatchReceiver.class);
+    private final Consumer<Message<?>> consumer;
+    private final Class<?> payloadType;
+    private final CheckpointConfig checkpointConfig;
+    private final ServiceBusMessageConverter messageConverter;
+
+    public ServiceBusBatchReceiver(String name, IMessageReceiver receiver, Consumer<Message<?>> consumer,
+            Class<?> payloadType, CheckpointConfig checkpointConfig, ServiceBusMessageConverter messageConverter,
+            ServiceBusClientConfig clientConfig, ExecutorService executor) {
+        super(name, receiver, clientConfig, executor);
+        this.consumer = consumer;
+        this.payloadType = payloadType;
+        this.checkpointConfig = checkpointConfig;
+        this.messageConverter = messageConverter;
+    }
+
+    @Override
+    protected void process(List<IMessage> messages) {
+        List<Object> payloads = new ArrayList<>(messages.size());
+        List<Map<String, Object>> convertedHeaders = new ArrayList<>(messages.size());
+
+        for (IMessage message : messages) {
+            Message<?> converted = this.messageConverter.toMessage(message, this.payloadType);
+            payloads.add(converted.getPayload());
+            convertedHeaders.add(converted.getHeaders());
+        }
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put(AzureHeaders.BATCH_CONVERTED_HEADERS, convertedHeaders);
+
+        if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
+            headers.put(AzureHeaders.CHECKPOINTER,
+                    new AzureCheckpointer(() -> complete(messages), () -> abandon(messages)));
+        }
+
+        try {
+            this.consumer.accept(MessageBuilder.withPayload(payloads).copyHeaders(headers).build());
+        } catch (RuntimeException e) {
+            log.error(String.format("Consumer failed to handle batch of %d messages from '%s'", messages.size(),
+                    this.name), e);
+            abandon(messages).whenComplete((v, t) -> {
+                if (t != null) {
+                    log.warn(String.format("Failed to abandon batch of %d messages from '%s'", messages.size(),
+                            this.name), t);
+                }
+            });
+            return;
+        }
+
+        if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.RECORD) {
+            complete(messages).whenComplete((v, t) -> {
+                if (t != null) {
+                    log.warn(String.format("Failed to complete batch of %d messages from '%s'", messages.size(),
+                            this.name), t);
+                }
+            });
+        }
+    }
+}
@@ -5,6 +5,10 @@
  */
 package com.microsoft.azure.spring.integration.servicebus;
 
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
 /**
  * Service bus client related config
  *
@@ -14,11 +18,71 @@ public class ServiceBusClientConfig {
 
     private final int prefetchCount;
 
+    /**
+     * The max count of concurrent message handlers of one entity
+     */
     private final int concurrency;
 
-    private ServiceBusClientConfig(int prefetchCount, int concurrency) {
+    /**
+     * Whether to adapt the limit of concurrent message handlers between {@code minConcurrency} and
+     * {@code concurrency} from handler latency, errors and backlog
+     */
+    private final boolean adaptiveConcurrency;
+
+    /**
+     * The min limit of concurrent message handlers of one entity when concurrency is adaptive
+     */
+    private final int minConcurrency;
+
+    /**
+     * The max count of messages received in one batch in {@code BATCH} listener mode
+     */
+    private final int maxBatchSize;
+
+    /**
+     * The max time to wait for messages of one batch receive in {@code BATCH} listener mode
+     */
+    private final Duration receiveTimeout;
+
+    /**
+     * Batch size in {@code BATCH} listener mode is adapted so that consumer handles one batch in about this time
+     */
+    private final Duration targetBatchProcessingTime;
+
+    /**
+     * The max count of messages completed together. Completion is coalesced only if greater than 1, in which case
+     * messages of {@link com.microsoft.azure.spring.integration.core.api.ListenerMode#RECORD} are pulled by
+     * {@link ServiceBusRecordReceiver}
+     */
+    private final int completionBatchSize;
+
+    /**
+     * The max time a message waits for others to be completed together
+     */
+    private final Duration completionLingerTime;
+
+    private ServiceBusClientConfig(int prefetchCount, int concurrency, boolean adaptiveConcurrency,
+            int minConcurrency, int maxBatchSize, Duration receiveTimeout, Duration targetBatchProcessingTime,
+            int completionBatchSize, Duration completionLingerTime) {
+        Assert.isTrue(!adaptiveConcurrency || (minConcurrency > 0 && minConcurrency <= concurrency),
+                "minConcurrency should be positive and not greater than concurrency");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize should be positive");
+        Assert.isTrue(receiveTimeout != null && !receiveTimeout.isNegative() && !receiveTimeout.isZero(),
+                "receiveTimeout should be positive");
+        Assert.isTrue(targetBatchProcessingTime != null && !targetBatchProcessingTime.isNegative() &&
+                !targetBatchProcessingTime.isZero(), "targetBatchProcessingTime should be positive");
+        Assert.isTrue(completionBatchSize > 0, "completionBatchSize should be positive");
+        Assert.isTrue(completionLingerTime != null && !completionLingerTime.isNegative(),
+                "completionLingerTime can't be negative");
         this.prefetchCount = prefetchCount;
         this.concurrency = concurrency;
+        this.adaptiveConcurrency = adaptiveConcurrency;
+        this.minConcurrency = minConcurrency;
+        this.maxBatchSize = maxBatchSize;
+        this.receiveTimeout = receiveTimeout;
+        this.targetBatchProcessingTime = targetBatchProcessingTime;
+        this.completionBatchSize = completionBatchSize;
+        this.completionLingerTime = completionLingerTime;
     }
 
     public int getPrefetchCount() {
@@ -29,6 +93,43 @@ public class ServiceBusClientConfig {
         return concurrency;
     }
 
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public Duration getReceiveTimeout() {
+        return receiveTimeout;
+    }
+
+    public Duration getTargetBatchProcessingTime() {
+        return targetBatchProcessingTime;
+    }
+
+    public int getCompletionBatchSize() {
+        return completionBatchSize;
+    }
+
+    public Duration getCompletionLingerTime() {
+        return completionLingerTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceBusClientConfig{" + "prefetchCount=" + prefetchCount + ", concurrency=" + concurrency +
+                ", adaptiveConcurrency=" + adaptiveConcurrency + ", minConcurrency=" + minConcurrency +
+                ", maxBatchSize=" + maxBatchSize + ", receiveTimeout=" + receiveTimeout +
+                ", targetBatchProcessingTime=" + targetBatchProcessingTime + ", completionBatchSize=" +
+                completionBatchSize + ", completionLingerTime=" + completionLingerTime + '}';
+    }
+
     public static ServiceBusClientConfigBuilder builder(){
         return new ServiceBusClientConfigBuilder();
     }
@@ -36,6 +137,13 @@ public class ServiceBusClientConfig {
     public static class ServiceBusClientConfigBuilder {
         private int prefetchCount = 1;
         private int concurrency = 1;
+        private boolean adaptiveConcurrency = false;
+        private int minConcurrency = 1;
+        private int maxBatchSize = 100;
+        private Duration receiveTimeout = Duration.ofSeconds(5);
+        private Duration targetBatchProcessingTime = Duration.ofSeconds(1);
+        private int completionBatchSize = 1;
+        private Duration completionLingerTime = Duration.ofMillis(10);
 
         public ServiceBusClientConfigBuilder setPrefetchCount(int prefetchCount) {
             this.prefetchCount = prefetchCount;
@@ -47,8 +155,44 @@ public class ServiceBusClientConfig {
             return this;
         }
 
+        public ServiceBusClientConfigBuilder setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+            this.adaptiveConcurrency = adaptiveConcurrency;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setReceiveTimeout(Duration receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setTargetBatchProcessingTime(Duration targetBatchProcessingTime) {
+            this.targetBatchProcessingTime = targetBatchProcessingTime;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setCompletionBatchSize(int completionBatchSize) {
+            this.completionBatchSize = completionBatchSize;
+            return this;
+        }
+
+        public ServiceBusClientConfigBuilder setCompletionLingerTime(Duration completionLingerTime) {
+            this.completionLingerTime = completionLingerTime;
+            return this;
+        }
+
         public ServiceBusClientConfig build() {
-            return new ServiceBusClientConfig(prefetchCount, concurrency);
+            return new ServiceBusClientConfig(prefetchCount, concurrency, adaptiveConcurrency, minConcurrency,
+                    maxBatchSize, receiveTimeout, targetBatchProcessingTime, completionBatchSize, completionLingerTime);
         }
     }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesce completion of messages received by one {@link com.microsoft.azure.servicebus.IMessageReceiver} into batch
+ * completion.
+ * <p>
+ * Messages are buffered until {@code lingerTime} elapsed since the first one, or {@code maxBatchSize} messages are
+ * buffered, then completed together by batch completer. If batch completion fails, each message is completed on its
+ * own by single completer, so only messages whose own completion fails are reported as failed. The future returned
+ * to each caller is completed individually. Both completers should settle on the receiver that received the
+ * messages, since a message can't be completed on another link in PEEKLOCK mode. Linger timers run on given
+ * scheduler, which is owned by the caller.
+ *
+ * @author Warren Zhu
+ */
+public class ServiceBusCompletionAggregator {
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusCompletionAggregator.class);
+    private final String name;
+    private final Function<Collection<IMessage>, CompletableFuture<Void>> batchCompleter;
+    private final Function<UUID, CompletableFuture<Void>> singleCompleter;
+    private final int maxBatchSize;
+    private final Duration lingerTime;
+    private final ScheduledExecutorService scheduler;
+    private List<PendingCompletion> pending = new ArrayList<>();
+    private ScheduledFuture<?> lingerTask;
+    private boolean destroyed;
+
+    public ServiceBusCompletionAggregator(String name,
+            @NonNull Function<Collection<IMessage>, CompletableFuture<Void>> batchCompleter,
+            @NonNull Function<UUID, CompletableFuture<Void>> singleCompleter, int maxBatchSize,
+            @NonNull Duration lingerTime, @NonNull ScheduledExecutorService scheduler) {
+        Assert.notNull(batchCompleter, "batchCompleter can't be null");
+        Assert.notNull(singleCompleter, "singleCompleter can't be null");
+        Assert.isTrue(maxBatchSize > 1, "maxBatchSize should be greater than 1");
+        Assert.notNull(lingerTime, "lingerTime can't be null");
+        Assert.notNull(scheduler, "scheduler can't be null");
+        this.name = name;
+        this.batchCompleter = batchCompleter;
+        this.singleCompleter = singleCompleter;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerTime = lingerTime;
+        this.scheduler = scheduler;
+    }
+
+    public CompletableFuture<Void> complete(IMessage message) {
+        PendingCompletion completion = new PendingCompletion(message);
+        List<PendingCompletion> fullBatch = null;
+
+        synchronized (this) {
+            if (this.destroyed) {
+                completeSingle(completion);
+                return completion.future;
+            }
+
+            this.pending.add(completion);
+
+            if (this.pending.size() >= this.maxBatchSize) {
+                fullBatch = drain();
+            } else if (this.pending.size() == 1) {
+                try {
+                    this.lingerTask = this.scheduler.schedule(this::flush, this.lingerTime.toNanos(),
+                            TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Scheduler is shut down, so nothing would flush the buffer later
+                    fullBatch = drain();
+                }
+            }
+        }
+
+        if (fullBatch != null) {
+            settle(fullBatch);
+        }
+
+        return completion.future;
+    }
+
+    /**
+     * Complete all buffered messages without waiting for linger time
+     */
+    public void flush() {
+        List<PendingCompletion> batch;
+
+        synchronized (this) {
+            batch = drain();
+        }
+
+        settle(batch);
+    }
+
+    /**
+     * Complete buffered messages. Messages completed afterwards are completed on their own at once
+     */
+    public void destroy() {
+        synchronized (this) {
+            this.destroyed = true;
+        }
+
+        flush();
+    }
+
+    private List<PendingCompletion> drain() {
+        if (this.lingerTask != null) {
+            this.lingerTask.cancel(false);
+            this.lingerTask = null;
+        }
+
+        List<PendingCompletion> batch = this.pending;
+        this.pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void settle(List<PendingCompletion> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (batch.size() == 1) {
+            completeSingle(batch.get(0));
+            return;
+        }
+
+        List<IMessage> messages = new ArrayList<>(batch.size());
+        batch.forEach(c -> messages.add(c.message));
+
+        CompletableFuture<Void> future;
+
+        try {
+            future = this.batchCompleter.apply(messages);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+
+        future.whenComplete((v, t) -> {
+            if (t == null) {
+                batch.forEach(c -> c.future.complete(null));
+                return;
+            }
+
+            if (log.isWarnEnabled()) {
+                log.warn(String.format("Failed to complete batch of %d messages from '%s', fall back to single " +
+                        "completion", batch.size(), this.name), t);
+            }
+
+            batch.forEach(this::completeSingle);
+        });
+    }
+
+    private void completeSingle(PendingCompletion completion) {
+        CompletableFuture<Void> future;
+
+        try {
+            future = this.singleCompleter.apply(completion.message.getLockToken());
+        } catch (RuntimeException e) {
+            completion.future.completeExceptionally(e);
+            return;
+        }
+
+        future.whenComplete((v, t) -> {
+            if (t != null) {
+                completion.future.completeExceptionally(t);
+            } else {
+                completion.future.complete(null);
+            }
+        });
+    }
+
+    private static class PendingCompletion {
+        private final IMessage message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingCompletion(IMessage message) {
+            this.message = message;
+        }
+    }
+}
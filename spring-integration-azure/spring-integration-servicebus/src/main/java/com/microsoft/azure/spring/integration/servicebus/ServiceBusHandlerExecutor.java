@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Bounded thread pool shared by message handlers of all entities subscribed by one template.
+ * <p>
+ * Each entity gets an {@link ExecutorService} view from {@link #forEntity(String, int)} which runs at most
+ * {@code concurrency} tasks on the shared pool at the same time and queues the rest, so one busy entity can't take
+ * all threads. The limit may also be adaptive with {@link #forEntity(String, IntSupplier)}. It's read before a
+ * queued task takes a pool thread, so tasks beyond a lowered limit wait in the entity queue instead of on a thread.
+ * Idle threads are released after {@value #KEEP_ALIVE_SECONDS} seconds. Queue depth and active threads of the pool
+ * and of each entity are published by {@link MessagingMetrics#recordExecutor} until the entity is removed by
+ * {@link #removeEntity(String)} or the pool is destroyed.
+ *
+ * @author Warren Zhu
+ */
+public class ServiceBusHandlerExecutor {
+    public static final int DEFAULT_POOL_SIZE = 64;
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusHandlerExecutor.class);
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final MessagingMetrics messagingMetrics;
+    private final Map<String, EntityExecutor> entityExecutors = new ConcurrentHashMap<>();
+
+    public ServiceBusHandlerExecutor(String name, int poolSize, MessagingMetrics messagingMetrics) {
+        Assert.isTrue(poolSize > 0, "poolSize should be positive");
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat(name + "-%d").build());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.name = name;
+        this.messagingMetrics = messagingMetrics;
+        this.messagingMetrics.recordExecutor(name, this.executor, e -> e.getQueue().size(),
+                ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Return an {@link ExecutorService} running at most {@code concurrency} tasks of given entity at the same time.
+     * Shutting it down doesn't affect the shared pool.
+     */
+    public ExecutorService forEntity(String name, int concurrency) {
+        Assert.isTrue(concurrency > 0, "concurrency should be positive");
+        return forEntity(name, () -> concurrency);
+    }
+
+    /**
+     * Return an {@link ExecutorService} running at most {@code limit} tasks of given entity at the same time. The
+     * limit is read whenever a task is submitted or finishes, and should always be positive.
+     */
+    public ExecutorService forEntity(String name, IntSupplier limit) {
+        Assert.notNull(limit, "limit can't be null");
+        EntityExecutor entityExecutor = new EntityExecutor(limit);
+        this.messagingMetrics.recordExecutor(name, entityExecutor, EntityExecutor::getQueueSize,
+                EntityExecutor::getActiveCount);
+        this.entityExecutors.put(name, entityExecutor);
+        return entityExecutor;
+    }
+
+    /**
+     * Count of queued tasks of given entity, 0 if the entity is unknown
+     */
+    public int getQueueSize(String entityName) {
+        EntityExecutor entityExecutor = this.entityExecutors.get(entityName);
+        return entityExecutor == null ? 0 : entityExecutor.getQueueSize();
+    }
+
+    /**
+     * Stop publishing metrics of given entity. Its executor view keeps running tasks since the SDK can't unregister
+     * message handlers.
+     */
+    public void removeEntity(String name) {
+        if (this.entityExecutors.remove(name) != null) {
+            this.messagingMetrics.removeExecutor(name);
+        }
+    }
+
+    public int getPoolSize() {
+        return this.executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Stop accepting tasks, wait for running handlers and then interrupt the rest
+     */
+    public void destroy() {
+        this.entityExecutors.keySet().forEach(this::removeEntity);
+        this.messagingMetrics.removeExecutor(this.name);
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Service bus handlers didn't finish in {} seconds", SHUTDOWN_TIMEOUT_SECONDS);
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.executor.shutdownNow();
+        }
+    }
+
+    private class EntityExecutor extends AbstractExecutorService {
+        private final IntSupplier limit;
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        private int active;
+        private boolean shutdown;
+
+        EntityExecutor(IntSupplier limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            synchronized (this) {
+                if (this.shutdown) {
+                    throw new RejectedExecutionException("Entity executor has been shut down");
+                }
+
+                if (this.active >= this.limit.getAsInt()) {
+                    this.queue.add(command);
+                    return;
+                }
+
+                this.active++;
+            }
+
+            submitToPool(command);
+        }
+
+        private void submitToPool(Runnable command) {
+            try {
+                executor.execute(() -> run(command));
+            } catch (RejectedExecutionException e) {
+                release();
+                throw e;
+            }
+        }
+
+        private void run(Runnable command) {
+            try {
+                command.run();
+            } finally {
+                List<Runnable> next = new ArrayList<>();
+
+                synchronized (this) {
+                    this.active--;
+
+                    while (this.active < this.limit.getAsInt() && !this.queue.isEmpty()) {
+                        this.active++;
+                        next.add(this.queue.poll());
+                    }
+
+                    notifyAll();
+                }
+
+                next.forEach(this::submitToPool);
+            }
+        }
+
+        private synchronized void release() {
+            this.active--;
+            notifyAll();
+        }
+
+        synchronized int getQueueSize() {
+            return this.queue.size();
+        }
+
+        synchronized int getActiveCount() {
+            return this.active;
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            this.shutdown = true;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized List<Runnable> shutdownNow() {
+            this.shutdown = true;
+            List<Runnable> pending = new ArrayList<>(this.queue);
+            this.queue.clear();
+            notifyAll();
+            return pending;
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return this.shutdown;
+        }
+
+        @Override
+        public synchronized boolean isTerminated() {
+            return this.shutdown && this.active == 0 && this.queue.isEmpty();
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+
+            return true;
+        }
+    }
+}
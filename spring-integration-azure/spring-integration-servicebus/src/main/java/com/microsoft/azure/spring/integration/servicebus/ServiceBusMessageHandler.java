@@ -18,10 +18,7 @@ import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMes
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.MessageHeaders;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -43,15 +40,14 @@ public abstract class ServiceBusMessageHandler<U> implements IMessageHandler {
 
     @Override
     public CompletableFuture<Void> onMessageAsync(IMessage serviceBusMessage) {
-        Map<String, Object> headers = new HashMap<>();
-
         Checkpointer checkpointer = new AzureCheckpointer(() -> this.success(serviceBusMessage.getLockToken()),
                 () -> this.failure(serviceBusMessage.getLockToken()));
-        if (checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
-            headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
-        }
 
-        Message<U> message = messageConverter.toMessage(serviceBusMessage, new MessageHeaders(headers), payloadType);
+        Message<U> message = messageConverter.toLazyMessage(serviceBusMessage, headers -> {
+            if (checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
+                headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
+            }
+        }, payloadType);
         consumer.accept(message);
 
         if (checkpointConfig.getCheckpointMode() == CheckpointMode.RECORD) {
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.spring.integration.core.AzureCheckpointer;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.Checkpointer;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Pull based receive engine delivering messages received by {@link IMessageReceiver#receiveBatchAsync(int,
+ * java.time.Duration)} one by one, with completion coalesced by a {@link ServiceBusCompletionAggregator}.
+ * <p>
+ * Both batch and fallback single completion go to the receiver that received the messages. In
+ * {@link CheckpointMode#RECORD}, each message is handed to the aggregator after consumer returns and the loop moves
+ * on without waiting for completion, so linger time doesn't limit throughput. In {@link CheckpointMode#MANUAL}, the
+ * checkpointer header completes through the aggregator or abandons the message. A message is abandoned if consumer
+ * throws. Buffered completions are flushed before the receiver is closed. Requires
+ * {@link ServiceBusClientConfig#getCompletionBatchSize()} greater than 1.
+ *
+ * @author Warren Zhu
+ */
+public class ServiceBusRecordReceiver extends AbstractServiceBusReceiver {
+    private static final Logger log = LoggerFactory.getLogger(ServiceBusRecordReceiver.class);
+    private final Consumer<Message<?>> consumer;
+    private final Class<?> payloadType;
+    private final CheckpointConfig checkpointConfig;
+    private final ServiceBusMessageConverter messageConverter;
+    private final ServiceBusCompletionAggregator completionAggregator;
+
+    public ServiceBusRecordReceiver(String name, IMessageReceiver receiver, Consumer<Message<?>> consumer,
+            Class<?> payloadType, CheckpointConfig checkpointConfig, ServiceBusMessageConverter messageConverter,
+            ServiceBusClientConfig clientConfig, ExecutorService executor, ScheduledExecutorService scheduler) {
+        super(name, receiver, clientConfig, executor);
+        this.consumer = consumer;
+        this.payloadType = payloadType;
+        this.checkpointConfig = checkpointConfig;
+        this.messageConverter = messageConverter;
+        this.completionAggregator =
+                new ServiceBusCompletionAggregator(name, messages -> complete(new ArrayList<>(messages)),
+                        receiver::completeAsync, clientConfig.getCompletionBatchSize(),
+                        clientConfig.getCompletionLingerTime(), scheduler);
+    }
+
+    @Override
+    protected void process(List<IMessage> messages) {
+        messages.forEach(this::process);
+    }
+
+    private void process(IMessage serviceBusMessage) {
+        Checkpointer checkpointer = new AzureCheckpointer(() -> this.completionAggregator.complete(serviceBusMessage),
+                () -> this.receiver.abandonAsync(serviceBusMessage.getLockToken()));
+
+        Message<?> message = this.messageConverter.toLazyMessage(serviceBusMessage, headers -> {
+            if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.MANUAL) {
+                headers.put(AzureHeaders.CHECKPOINTER, checkpointer);
+            }
+        }, this.payloadType);
+
+        try {
+            this.consumer.accept(message);
+        } catch (RuntimeException e) {
+            log.error(String.format("Consumer failed to handle message %s from '%s'",
+                    serviceBusMessage.getMessageId(), this.name), e);
+            checkpointer.failure().whenComplete((v, t) -> logFailure("abandon", serviceBusMessage, t));
+            return;
+        }
+
+        if (this.checkpointConfig.getCheckpointMode() == CheckpointMode.RECORD) {
+            checkpointer.success().whenComplete((v, t) -> logFailure("complete", serviceBusMessage, t));
+        }
+    }
+
+    private void logFailure(String operation, IMessage serviceBusMessage, Throwable t) {
+        if (t != null && log.isWarnEnabled()) {
+            log.warn(String.format("Failed to %s message %s from '%s'", operation, serviceBusMessage.getMessageId(),
+                    this.name), t);
+        }
+    }
+
+    @Override
+    protected void beforeClose() {
+        this.completionAggregator.destroy();
+    }
+}
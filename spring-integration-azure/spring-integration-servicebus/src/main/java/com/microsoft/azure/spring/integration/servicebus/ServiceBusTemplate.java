@@ -8,33 +8,69 @@ package com.microsoft.azure.spring.integration.servicebus;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
 import com.microsoft.azure.servicebus.MessageHandlerOptions;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
+import com.microsoft.azure.spring.integration.core.api.Batchable;
 import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
 import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
 import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
 import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusSenderFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Consumer;
 
 /**
  * Azure service bus template to support send {@link Message} asynchronously
+ * <p>
+ * A collection of messages is sent with {@code sendBatchAsync}, split into batches whose estimated size doesn't
+ * exceed {@link #setMaxBatchSizeInBytes(int)}. The SDK doesn't expose the max message size of the entity, so the
+ * default is 256KB of standard tier.
+ * <p>
+ * In {@link ListenerMode#BATCH}, messages are pulled by {@link ServiceBusBatchReceiver} and delivered as one
+ * {@link Message} with a {@link List} payload instead of being pushed one by one to registered message handler.
+ * In {@link ListenerMode#RECORD} with {@link ServiceBusClientConfig#getCompletionBatchSize()} greater than 1,
+ * messages are pulled by {@link ServiceBusRecordReceiver} instead, which coalesces their completion on the receiver
+ * that received them. Its linger timers run on one scheduler thread of the template, shut down on {@link #destroy()}.
+ * <p>
+ * Message handlers of all subscribed entities run on one {@link ServiceBusHandlerExecutor} of
+ * {@link #setHandlerPoolSize(int)} threads, each entity capped at {@link ServiceBusClientConfig#getConcurrency()}.
+ * The pool is shut down on {@link #destroy()}. With {@link ServiceBusClientConfig#isAdaptiveConcurrency()}, the
+ * count of concurrent handlers of each entity is further limited by an {@link AdaptiveConcurrencyLimiter}. Handlers
+ * beyond that limit wait in the entity queue without a pool thread, but their messages stay locked since the SDK
+ * pump keeps {@link ServiceBusClientConfig#getConcurrency()} receives running.
  *
  * @author Warren Zhu
  */
-public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements SendOperation {
+public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements SendOperation, BatchSendOperation,
+        Batchable, DisposableBean {
     private static final Logger log = LoggerFactory.getLogger(ServiceBusTemplate.class);
+    private static final int DEFAULT_MAX_BATCH_SIZE_IN_BYTES = 256 * 1024;
+
+    /**
+     * Estimated AMQP encoding overhead of each message in batch besides body and properties
+     */
+    private static final int MESSAGE_OVERHEAD_IN_BYTES = 128;
     protected final T senderFactory;
 
     protected ServiceBusClientConfig clientConfig = ServiceBusClientConfig.builder().build();
@@ -44,6 +80,20 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
 
     protected ServiceBusMessageConverter messageConverter = new ServiceBusMessageConverter();
 
+    protected MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
+
+    private int maxBatchSizeInBytes = DEFAULT_MAX_BATCH_SIZE_IN_BYTES;
+
+    private ListenerMode listenerMode = ListenerMode.RECORD;
+
+    private int handlerPoolSize = ServiceBusHandlerExecutor.DEFAULT_POOL_SIZE;
+
+    private ServiceBusHandlerExecutor handlerExecutor;
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<>();
+
     public ServiceBusTemplate(@NonNull T senderFactory) {
         this.senderFactory = senderFactory;
         log.info("Started ServiceBusTemplate with properties: {}", checkpointConfig);
@@ -53,14 +103,105 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
     public <U> CompletableFuture<Void> sendAsync(String destination, @NonNull Message<U> message,
             PartitionSupplier partitionSupplier) {
         Assert.hasText(destination, "destination can't be null or empty");
+        IMessage serviceBusMessage = toServiceBusMessage(message, getPartitionKey(partitionSupplier));
+
+        byte[] body = serviceBusMessage.getBody();
+        return this.messagingMetrics.recordSend(destination, null, 1, body == null ? 0 : body.length,
+                () -> this.senderFactory.getOrCreateSender(destination).sendAsync(serviceBusMessage));
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> sendAsync(String destination, @NonNull Collection<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        return sendBatchAsync(destination, toServiceBusMessages(destination, messages, partitionSupplier));
+    }
+
+    @Override
+    public <U> List<CompletableFuture<Void>> sendEachAsync(String destination, @NonNull List<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        return sendBatches(destination, toServiceBusMessages(destination, messages, partitionSupplier));
+    }
+
+    /**
+     * Send already converted messages, split into batches no larger than max batch size
+     */
+    public CompletableFuture<Void> sendBatchAsync(String destination, List<IMessage> serviceBusMessages) {
+        return CompletableFuture.allOf(sendBatches(destination, serviceBusMessages).toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * @return future of the batch of each message, in the order of messages
+     */
+    private List<CompletableFuture<Void>> sendBatches(String destination, List<IMessage> serviceBusMessages) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(serviceBusMessages.size());
+        List<IMessage> batch = new ArrayList<>();
+        long batchBytes = 0;
+
+        for (IMessage serviceBusMessage : serviceBusMessages) {
+            long bytes = estimateSize(serviceBusMessage);
+
+            if (!batch.isEmpty() && batchBytes + bytes > this.maxBatchSizeInBytes) {
+                futures.addAll(Collections.nCopies(batch.size(), doSendBatch(destination, batch, batchBytes)));
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+
+            batch.add(serviceBusMessage);
+            batchBytes += bytes;
+        }
+
+        if (!batch.isEmpty()) {
+            futures.addAll(Collections.nCopies(batch.size(), doSendBatch(destination, batch, batchBytes)));
+        }
+
+        return futures;
+    }
+
+    private <U> List<IMessage> toServiceBusMessages(String destination, Collection<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        Assert.hasText(destination, "destination can't be null or empty");
         String partitionKey = getPartitionKey(partitionSupplier);
+        List<IMessage> serviceBusMessages = new ArrayList<>(messages.size());
+
+        for (Message<U> message : messages) {
+            serviceBusMessages.add(toServiceBusMessage(message, partitionKey));
+        }
+
+        return serviceBusMessages;
+    }
+
+    private CompletableFuture<Void> doSendBatch(String destination, List<IMessage> batch, long batchBytes) {
+        return this.messagingMetrics.recordSend(destination, null, batch.size(), batchBytes,
+                () -> this.senderFactory.getOrCreateSender(destination).sendBatchAsync(batch));
+    }
+
+    private <U> IMessage toServiceBusMessage(Message<U> message, String partitionKey) {
         IMessage serviceBusMessage = messageConverter.fromMessage(message, IMessage.class);
 
         if (StringUtils.hasText(partitionKey)) {
             serviceBusMessage.setPartitionKey(partitionKey);
         }
 
-        return this.senderFactory.getOrCreateSender(destination).sendAsync(serviceBusMessage);
+        return serviceBusMessage;
+    }
+
+    static long estimateSize(IMessage serviceBusMessage) {
+        byte[] body = serviceBusMessage.getBody();
+        long size = MESSAGE_OVERHEAD_IN_BYTES + (body == null ? 0 : body.length);
+        Map<String, Object> properties = serviceBusMessage.getProperties();
+
+        if (properties != null) {
+            for (Map.Entry<String, Object> property : properties.entrySet()) {
+                size += property.getKey().length() + String.valueOf(property.getValue()).length();
+            }
+        }
+
+        return size + length(serviceBusMessage.getMessageId()) + length(serviceBusMessage.getContentType()) +
+                length(serviceBusMessage.getPartitionKey()) + length(serviceBusMessage.getReplyTo());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
     }
 
     public void setCheckpointConfig(CheckpointConfig checkpointConfig) {
@@ -74,10 +215,130 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
         return new MessageHandlerOptions(this.clientConfig.getConcurrency(), false, Duration.ofMinutes(5));
     }
 
-    protected ExecutorService buildHandlerExectutors(String threadPrefix){
-        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat
-                (threadPrefix + "-%d").build();
-        return Executors.newFixedThreadPool(this.clientConfig.getConcurrency(), threadFactory);
+    /**
+     * Wrap consumer to adapt the {@link AdaptiveConcurrencyLimiter} of given entity if concurrency is adaptive. The
+     * limit is enforced by the executor from {@link #buildHandlerExecutor(String)}.
+     */
+    protected Consumer<Message<?>> limitConcurrency(String entityName, Consumer<Message<?>> consumer) {
+        if (!this.clientConfig.isAdaptiveConcurrency()) {
+            return consumer;
+        }
+
+        ServiceBusHandlerExecutor executor = getOrCreateHandlerExecutor();
+        return getOrCreateConcurrencyLimiter(entityName)
+                .wrap(consumer, () -> executor.getQueueSize(entityName) > 0);
+    }
+
+    private AdaptiveConcurrencyLimiter getOrCreateConcurrencyLimiter(String entityName) {
+        return this.concurrencyLimiters.computeIfAbsent(entityName,
+                k -> new AdaptiveConcurrencyLimiter(k, this.clientConfig.getMinConcurrency(),
+                        this.clientConfig.getConcurrency()));
+    }
+
+    /**
+     * Current limit of concurrent handlers of given entity, or {@code null} if concurrency is not adaptive
+     */
+    public Integer getConcurrencyLimit(String entityName) {
+        AdaptiveConcurrencyLimiter limiter = this.concurrencyLimiters.get(entityName);
+        return limiter == null ? null : limiter.getLimit();
+    }
+
+    /**
+     * Return a view of the shared handler executor running at most {@link ServiceBusClientConfig#getConcurrency()}
+     * handlers of given entity at the same time, or the limit of its {@link AdaptiveConcurrencyLimiter} if
+     * concurrency is adaptive
+     */
+    protected ExecutorService buildHandlerExecutor(String entityName) {
+        if (!this.clientConfig.isAdaptiveConcurrency()) {
+            return getOrCreateHandlerExecutor().forEntity(entityName, this.clientConfig.getConcurrency());
+        }
+
+        return getOrCreateHandlerExecutor().forEntity(entityName, getOrCreateConcurrencyLimiter(entityName)::getLimit);
+    }
+
+    /**
+     * Release resources of given entity held by the shared handler executor and concurrency limiter when it's
+     * unsubscribed
+     */
+    protected synchronized void releaseHandlerExecutor(String entityName) {
+        this.concurrencyLimiters.remove(entityName);
+
+        if (this.handlerExecutor != null) {
+            this.handlerExecutor.removeEntity(entityName);
+        }
+    }
+
+    private synchronized ServiceBusHandlerExecutor getOrCreateHandlerExecutor() {
+        if (this.handlerExecutor == null) {
+            this.handlerExecutor =
+                    new ServiceBusHandlerExecutor(String.format("%s-handler", getClass().getSimpleName()),
+                            this.handlerPoolSize, this.messagingMetrics);
+        }
+
+        return this.handlerExecutor;
+    }
+
+    /**
+     * Whether messages of {@link ListenerMode#RECORD} should be pulled by {@link ServiceBusRecordReceiver} so that
+     * their completion is coalesced
+     */
+    protected boolean isCompletionCoalesced() {
+        return this.listenerMode == ListenerMode.RECORD && this.clientConfig.getCompletionBatchSize() > 1;
+    }
+
+    /**
+     * Start a {@link ServiceBusRecordReceiver} pulling from given receiver on the shared handler executor. Completion
+     * of coalesced batches is recorded as checkpoint of given entity. Its executor metrics are removed by
+     * {@link #releaseHandlerExecutor(String)}.
+     */
+    protected ServiceBusRecordReceiver startRecordReceiver(String name, String group, IMessageReceiver receiver,
+            Consumer<Message<?>> consumer, Class<?> payloadType) {
+        String entityName = group == null ? name : String.format("%s/%s", name, group);
+        ServiceBusRecordReceiver recordReceiver =
+                new ServiceBusRecordReceiver(entityName, receiver, this.messagingMetrics.recordHandler(name, group,
+                        consumer), payloadType, this.checkpointConfig, this.messageConverter, this.clientConfig,
+                        getOrCreateHandlerExecutor().forEntity(entityName, this.clientConfig.getConcurrency()),
+                        getOrCreateScheduler()) {
+                    @Override
+                    protected CompletableFuture<Void> complete(List<IMessage> messages) {
+                        return messagingMetrics.recordCheckpoint(name, group, null, () -> super.complete(messages));
+                    }
+                };
+        recordReceiver.start();
+        return recordReceiver;
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getOrCreateScheduler() {
+        if (this.scheduler == null) {
+            this.scheduler = new ScheduledThreadPoolExecutor(1,
+                    new ThreadFactoryBuilder().setNameFormat("servicebus-template-%d").setDaemon(true).build());
+            this.scheduler.setRemoveOnCancelPolicy(true);
+            // Buffered completions are flushed when receivers stop, so their linger timers can be dropped
+            this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+
+        return this.scheduler;
+    }
+
+    /**
+     * Start a {@link ServiceBusBatchReceiver} pulling from given receiver on the shared handler executor. Completion
+     * of batches is recorded as checkpoint of given entity. Its executor metrics are removed by
+     * {@link #releaseHandlerExecutor(String)}.
+     */
+    protected ServiceBusBatchReceiver startBatchReceiver(String name, String group, IMessageReceiver receiver,
+            Consumer<Message<?>> consumer, Class<?> payloadType) {
+        String entityName = group == null ? name : String.format("%s/%s", name, group);
+        ServiceBusBatchReceiver batchReceiver =
+                new ServiceBusBatchReceiver(entityName, receiver, this.messagingMetrics.recordHandler(name, group,
+                        consumer), payloadType, this.checkpointConfig, this.messageConverter, this.clientConfig,
+                        getOrCreateHandlerExecutor().forEntity(entityName, this.clientConfig.getConcurrency())) {
+                    @Override
+                    protected CompletableFuture<Void> complete(List<IMessage> messages) {
+                        return messagingMetrics.recordCheckpoint(name, group, null, () -> super.complete(messages));
+                    }
+                };
+        batchReceiver.start();
+        return batchReceiver;
     }
 
     private String getPartitionKey(PartitionSupplier partitionSupplier) {
@@ -108,4 +369,78 @@ public class ServiceBusTemplate<T extends ServiceBusSenderFactory> implements Se
     public ServiceBusMessageConverter getMessageConverter() {
         return messageConverter;
     }
+
+    public void setMessageConverter(ServiceBusMessageConverter messageConverter) {
+        Assert.notNull(messageConverter, "messageConverter can't be null");
+        this.messageConverter = messageConverter;
+    }
+
+    public int getMaxBatchSizeInBytes() {
+        return maxBatchSizeInBytes;
+    }
+
+    /**
+     * Max estimated size of one batch sent by {@link #sendAsync(String, Collection, PartitionSupplier)}. Should not
+     * exceed max message size of the entity, which is 256KB in standard tier and 1MB in premium tier.
+     */
+    public void setMaxBatchSizeInBytes(int maxBatchSizeInBytes) {
+        Assert.isTrue(maxBatchSizeInBytes > 0, "maxBatchSizeInBytes should be positive");
+        this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+        log.info("ServiceBusTemplate max batch size in bytes becomes: {}", this.maxBatchSizeInBytes);
+    }
+
+    @Override
+    public ListenerMode getListenerMode() {
+        return listenerMode;
+    }
+
+    @Override
+    public void setListenerMode(ListenerMode listenerMode) {
+        Assert.notNull(listenerMode, "listenerMode can't be null");
+        this.listenerMode = listenerMode;
+        log.info("ServiceBusTemplate listener mode becomes: {}", this.listenerMode);
+    }
+
+    public int getHandlerPoolSize() {
+        return handlerPoolSize;
+    }
+
+    /**
+     * Max threads running message handlers of all entities subscribed by this template. Each receive loop of
+     * {@link ServiceBusBatchReceiver} and {@link ServiceBusRecordReceiver} holds one of these threads. Only takes
+     * effect before first subscription.
+     */
+    public synchronized void setHandlerPoolSize(int handlerPoolSize) {
+        Assert.isTrue(handlerPoolSize > 0, "handlerPoolSize should be positive");
+        this.handlerPoolSize = handlerPoolSize;
+        log.info("ServiceBusTemplate handler pool size becomes: {}", this.handlerPoolSize);
+    }
+
+    public MessagingMetrics getMessagingMetrics() {
+        return messagingMetrics;
+    }
+
+    /**
+     * Record send, consumer handling and checkpoint metrics. Set {@link MessagingMetrics#NOOP} to disable.
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.messagingMetrics = messagingMetrics;
+        log.info("ServiceBusTemplate messaging metrics becomes: {}", this.messagingMetrics);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        this.concurrencyLimiters.clear();
+
+        if (this.handlerExecutor != null) {
+            this.handlerExecutor.destroy();
+            this.handlerExecutor = null;
+        }
+
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+            this.scheduler = null;
+        }
+    }
 }
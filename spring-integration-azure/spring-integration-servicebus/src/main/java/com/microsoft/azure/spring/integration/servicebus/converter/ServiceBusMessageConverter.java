@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.integration.servicebus.converter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.servicebus.IMessage;
 import com.microsoft.azure.servicebus.Message;
 import com.microsoft.azure.spring.integration.core.AzureHeaders;
@@ -31,6 +32,17 @@ import java.util.UUID;
 public class ServiceBusMessageConverter extends AbstractAzureMessageConverter<IMessage> {
     private static final Logger log = LoggerFactory.getLogger(ServiceBusMessageConverter.class);
 
+    public ServiceBusMessageConverter() {
+        super();
+    }
+
+    /**
+     * @param objectMapper mapper to convert payload of other types than String and byte[] to and from JSON
+     */
+    public ServiceBusMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
     @Override
     protected byte[] getPayload(IMessage azureMessage) {
         return azureMessage.getBody();
@@ -68,6 +80,42 @@ public class ServiceBusMessageConverter extends AbstractAzureMessageConverter<IM
         }
     }
 
+    @Override
+    protected boolean supportsContentEncoding() {
+        return true;
+    }
+
+    @Override
+    protected void setContentEncoding(IMessage serviceBusMessage, String contentEncoding) {
+        Map<String, Object> properties = serviceBusMessage.getProperties();
+
+        if (contentEncoding == null) {
+            if (properties != null) {
+                properties.remove(AzureHeaders.CONTENT_ENCODING);
+            }
+            return;
+        }
+
+        if (properties == null) {
+            properties = new HashMap<>();
+            serviceBusMessage.setProperties(properties);
+        }
+
+        properties.put(AzureHeaders.CONTENT_ENCODING, contentEncoding);
+    }
+
+    @Override
+    protected String getContentEncoding(IMessage serviceBusMessage) {
+        Map<String, Object> properties = serviceBusMessage.getProperties();
+        Object contentEncoding = properties == null ? null : properties.get(AzureHeaders.CONTENT_ENCODING);
+        return contentEncoding == null ? null : contentEncoding.toString();
+    }
+
+    @Override
+    protected Object getContentType(IMessage serviceBusMessage) {
+        return serviceBusMessage.getContentType();
+    }
+
     @Override
     protected Map<String, Object> buildCustomHeaders(IMessage serviceBusMessage) {
         Map<String, Object> headers = new HashMap<>();
@@ -7,6 +7,8 @@
 package com.microsoft.azure.spring.integration.servicebus.factory;
 
 import com.microsoft.azure.management.servicebus.ServiceBusNamespace;
+import com.microsoft.azure.servicebus.ClientFactory;
+import com.microsoft.azure.servicebus.IMessageReceiver;
 import com.microsoft.azure.servicebus.IMessageSender;
 import com.microsoft.azure.servicebus.IQueueClient;
 import com.microsoft.azure.servicebus.QueueClient;
@@ -35,12 +37,16 @@ public class DefaultServiceBusQueueClientFactory extends AbstractServiceBusSende
         super(connectionString);
     }
 
-    private IQueueClient createQueueClient(String destination) {
+    private void provisionQueue(String destination) {
         if (resourceManagerProvider != null && StringUtils.hasText(namespace)) {
             ServiceBusNamespace serviceBusNamespace =
                     resourceManagerProvider.getServiceBusNamespaceManager().getOrCreate(namespace);
             resourceManagerProvider.getServiceBusQueueManager().getOrCreate(Tuple.of(serviceBusNamespace, destination));
         }
+    }
+
+    private IQueueClient createQueueClient(String destination) {
+        provisionQueue(destination);
 
         try {
             return new QueueClient(new ConnectionStringBuilder(connectionString, destination), ReceiveMode.PEEKLOCK);
@@ -54,6 +60,18 @@ public class DefaultServiceBusQueueClientFactory extends AbstractServiceBusSende
         return this.queueClientCreator.apply(name);
     }
 
+    @Override
+    public IMessageReceiver createReceiver(String name) {
+        provisionQueue(name);
+
+        try {
+            return ClientFactory.createMessageReceiverFromConnectionStringBuilder(
+                    new ConnectionStringBuilder(connectionString, name), ReceiveMode.PEEKLOCK);
+        } catch (InterruptedException | ServiceBusException e) {
+            throw new ServiceBusRuntimeException("Failed to create service bus queue receiver", e);
+        }
+    }
+
     @Override
     public IMessageSender getOrCreateSender(String name) {
         return getOrCreateClient(name);
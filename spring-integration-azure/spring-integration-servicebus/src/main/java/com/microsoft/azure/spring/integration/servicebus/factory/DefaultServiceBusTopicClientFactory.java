@@ -36,8 +36,7 @@ public class DefaultServiceBusTopicClientFactory extends AbstractServiceBusSende
         super(connectionString);
     }
 
-    private ISubscriptionClient createSubscriptionClient(String topicName, String subscription) {
-
+    private void provisionSubscription(String topicName, String subscription) {
         if (resourceManagerProvider != null && StringUtils.hasText(namespace)) {
             ServiceBusNamespace serviceBusNamespace =
                     resourceManagerProvider.getServiceBusNamespaceManager().getOrCreate(namespace);
@@ -45,6 +44,10 @@ public class DefaultServiceBusTopicClientFactory extends AbstractServiceBusSende
                                                  .getOrCreate(Tuple.of(serviceBusNamespace, topicName));
             resourceManagerProvider.getServiceBusTopicSubscriptionManager().getOrCreate(Tuple.of(topic, subscription));
         }
+    }
+
+    private ISubscriptionClient createSubscriptionClient(String topicName, String subscription) {
+        provisionSubscription(topicName, subscription);
 
         String subscriptionPath = String.format(SUBSCRIPTION_PATH, topicName, subscription);
         try {
@@ -74,6 +77,19 @@ public class DefaultServiceBusTopicClientFactory extends AbstractServiceBusSende
         return this.subscriptionClientCreator.apply(topic, subscription);
     }
 
+    @Override
+    public IMessageReceiver createSubscriptionReceiver(String topic, String subscription) {
+        provisionSubscription(topic, subscription);
+
+        String subscriptionPath = String.format(SUBSCRIPTION_PATH, topic, subscription);
+        try {
+            return ClientFactory.createMessageReceiverFromConnectionStringBuilder(
+                    new ConnectionStringBuilder(connectionString, subscriptionPath), ReceiveMode.PEEKLOCK);
+        } catch (InterruptedException | ServiceBusException e) {
+            throw new ServiceBusRuntimeException("Failed to create service bus subscription receiver", e);
+        }
+    }
+
     @Override
     public IMessageSender getOrCreateSender(String name) {
         return this.sendCreator.apply(name);
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.integration.servicebus.factory;
 
+import com.microsoft.azure.servicebus.IMessageReceiver;
 import com.microsoft.azure.servicebus.IQueueClient;
 
 /**
@@ -18,4 +19,9 @@ public interface ServiceBusQueueClientFactory extends ServiceBusSenderFactory {
      * Return a function which accepts service bus queue name, then returns {@link IQueueClient}
      */
     IQueueClient getOrCreateClient(String name);
+
+    /**
+     * Create a new {@link IMessageReceiver} of service bus queue for pull based receive. Caller should close it.
+     */
+    IMessageReceiver createReceiver(String name);
 }
@@ -6,6 +6,7 @@
 
 package com.microsoft.azure.spring.integration.servicebus.factory;
 
+import com.microsoft.azure.servicebus.IMessageReceiver;
 import com.microsoft.azure.servicebus.ISubscriptionClient;
 
 /**
@@ -18,4 +19,10 @@ public interface ServiceBusTopicClientFactory extends ServiceBusSenderFactory {
      * Return a function which accepts service bus topic and subscription name, then returns {@link ISubscriptionClient}
      */
     ISubscriptionClient getOrCreateSubscriptionClient(String topic, String subscription);
+
+    /**
+     * Create a new {@link IMessageReceiver} of service bus topic subscription for pull based receive. Caller should
+     * close it.
+     */
+    IMessageReceiver createSubscriptionReceiver(String topic, String subscription);
 }
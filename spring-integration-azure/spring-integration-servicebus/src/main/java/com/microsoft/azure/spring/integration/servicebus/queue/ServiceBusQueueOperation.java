@@ -6,6 +6,8 @@
 
 package com.microsoft.azure.spring.integration.servicebus.queue;
 
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
+import com.microsoft.azure.spring.integration.core.api.Batchable;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
 import com.microsoft.azure.spring.integration.core.api.SubscribeOperation;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
@@ -16,6 +18,6 @@ import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
  *
  * @author Warren Zhu
  */
-public interface ServiceBusQueueOperation extends SendOperation, SubscribeOperation {
+public interface ServiceBusQueueOperation extends SendOperation, BatchSendOperation, Batchable, SubscribeOperation {
     void setClientConfig(ServiceBusClientConfig clientConfig);
 }
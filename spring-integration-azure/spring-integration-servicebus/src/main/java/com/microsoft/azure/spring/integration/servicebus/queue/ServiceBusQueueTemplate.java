@@ -9,6 +9,8 @@ package com.microsoft.azure.spring.integration.servicebus.queue;
 import com.google.common.collect.Sets;
 import com.microsoft.azure.servicebus.IQueueClient;
 import com.microsoft.azure.servicebus.primitives.ServiceBusException;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
+import com.microsoft.azure.spring.integration.servicebus.AbstractServiceBusReceiver;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusMessageHandler;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusRuntimeException;
@@ -23,6 +25,7 @@ import org.springframework.util.Assert;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -36,6 +39,7 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
     private static final String MSG_FAIL_CHECKPOINT = "Failed to checkpoint %s in queue '%s'";
     private static final String MSG_SUCCESS_CHECKPOINT = "Checkpointed %s in queue '%s' in %s mode";
     private final Set<String> subscribedQueues = Sets.newConcurrentHashSet();
+    private final ConcurrentHashMap<String, AbstractServiceBusReceiver> receivers = new ConcurrentHashMap<>();
 
     public ServiceBusQueueTemplate(ServiceBusQueueClientFactory clientFactory) {
         super(clientFactory);
@@ -63,20 +67,41 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
 
         //TODO: unregister message handler but service bus sdk unsupported
 
+        AbstractServiceBusReceiver receiver = receivers.remove(destination);
+
+        if (receiver != null) {
+            receiver.stop();
+        }
+
+        releaseHandlerExecutor(destination);
+
         return subscribedQueues.remove(destination);
     }
 
     @SuppressWarnings("unchecked")
     protected void internalSubscribe(String name, Consumer<Message<?>> consumer, Class<?> payloadType) {
 
-        IQueueClient queueClient = this.senderFactory.getOrCreateClient(name);
+        if (getListenerMode() == ListenerMode.BATCH) {
+            receivers.put(name, startBatchReceiver(name, null, this.senderFactory.createReceiver(name), consumer,
+                    payloadType));
+            return;
+        }
 
-        String threadPrefix = String.format("%s-handler", name);
+        if (isCompletionCoalesced()) {
+            receivers.put(name, startRecordReceiver(name, null, this.senderFactory.createReceiver(name), consumer,
+                    payloadType));
+            return;
+        }
+
+        IQueueClient queueClient = this.senderFactory.getOrCreateClient(name);
 
         try {
             queueClient.setPrefetchCount(this.clientConfig.getPrefetchCount());
-            queueClient.registerMessageHandler(new QueueMessageHandler(consumer, payloadType, queueClient),
-                    buildHandlerOptions(), buildHandlerExectutors(threadPrefix));
+            queueClient.registerMessageHandler(
+                    new QueueMessageHandler(
+                            limitConcurrency(name, this.messagingMetrics.recordHandler(name, null, consumer)),
+                            payloadType, queueClient),
+                    buildHandlerOptions(), buildHandlerExecutor(name));
         } catch (ServiceBusException | InterruptedException e) {
             log.error("Failed to register queue message handler", e);
             throw new ServiceBusRuntimeException("Failed to register queue message handler", e);
@@ -88,6 +113,13 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
         this.clientConfig = clientConfig;
     }
 
+    @Override
+    public synchronized void destroy() {
+        receivers.values().forEach(AbstractServiceBusReceiver::stop);
+        receivers.clear();
+        super.destroy();
+    }
+
     protected class QueueMessageHandler<U> extends ServiceBusMessageHandler<U> {
         private final IQueueClient queueClient;
 
@@ -99,7 +131,8 @@ public class ServiceBusQueueTemplate extends ServiceBusTemplate<ServiceBusQueueC
 
         @Override
         protected CompletableFuture<Void> success(UUID uuid) {
-            return queueClient.completeAsync(uuid);
+            return messagingMetrics
+                    .recordCheckpoint(queueClient.getQueueName(), null, null, () -> queueClient.completeAsync(uuid));
         }
 
         @Override
@@ -20,6 +20,8 @@ import com.microsoft.azure.spring.integration.servicebus.queue.ServiceBusQueueTe
 import org.springframework.messaging.Message;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -50,6 +52,19 @@ public class ServiceBusQueueTestOperation extends ServiceBusQueueTemplate {
         return future;
     }
 
+    @Override
+    public <U> CompletableFuture<Void> sendAsync(String name, Collection<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        messages.forEach(m -> sendAsync(name, m, partitionSupplier));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public <U> List<CompletableFuture<Void>> sendEachAsync(String name, List<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        return Collections.nCopies(messages.size(), sendAsync(name, messages, partitionSupplier));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void internalSubscribe(String name, Consumer<Message<?>> consumer, Class<?> payloadType) {
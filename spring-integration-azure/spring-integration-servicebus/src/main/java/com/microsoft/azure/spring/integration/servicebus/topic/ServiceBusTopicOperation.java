@@ -7,6 +7,8 @@
 package com.microsoft.azure.spring.integration.servicebus.topic;
 
 import com.microsoft.azure.management.servicebus.ServiceBusSubscription;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
+import com.microsoft.azure.spring.integration.core.api.Batchable;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.SendOperation;
 import com.microsoft.azure.spring.integration.core.api.SubscribeByGroupOperation;
@@ -18,6 +20,7 @@ import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
  *
  * @author Warren Zhu
  */
-public interface ServiceBusTopicOperation extends SendOperation, SubscribeByGroupOperation {
+public interface ServiceBusTopicOperation
+        extends SendOperation, BatchSendOperation, Batchable, SubscribeByGroupOperation {
     void setClientConfig(ServiceBusClientConfig clientConfig);
 }
@@ -10,6 +10,8 @@ import com.google.common.collect.Sets;
 import com.microsoft.azure.servicebus.ISubscriptionClient;
 import com.microsoft.azure.servicebus.primitives.ServiceBusException;
 import com.microsoft.azure.spring.cloud.context.core.util.Tuple;
+import com.microsoft.azure.spring.integration.core.api.ListenerMode;
+import com.microsoft.azure.spring.integration.servicebus.AbstractServiceBusReceiver;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusClientConfig;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusMessageHandler;
 import com.microsoft.azure.spring.integration.servicebus.ServiceBusRuntimeException;
@@ -24,6 +26,7 @@ import org.springframework.util.Assert;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -37,6 +40,8 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
     private static final String MSG_FAIL_CHECKPOINT = "Consumer group '%s' of topic '%s' failed to checkpoint %s";
     private static final String MSG_SUCCESS_CHECKPOINT = "Consumer group '%s' of topic '%s' checkpointed %s in %s mode";
     private Set<Tuple<String, String>> nameAndConsumerGroups = Sets.newConcurrentHashSet();
+    private final ConcurrentHashMap<Tuple<String, String>, AbstractServiceBusReceiver> receivers =
+            new ConcurrentHashMap<>();
 
     public ServiceBusTopicTemplate(ServiceBusTopicClientFactory clientFactory) {
         super(clientFactory);
@@ -63,21 +68,42 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
     public boolean unsubscribe(String destination, String consumerGroup) {
         //TODO: unregister message handler but service bus sdk unsupported
 
+        AbstractServiceBusReceiver receiver = receivers.remove(Tuple.of(destination, consumerGroup));
+
+        if (receiver != null) {
+            receiver.stop();
+        }
+
+        releaseHandlerExecutor(String.format("%s/%s", destination, consumerGroup));
+
         return nameAndConsumerGroups.remove(Tuple.of(destination, consumerGroup));
     }
 
     @SuppressWarnings("unchecked")
     protected void internalSubscribe(String name, String consumerGroup, Consumer<Message<?>> consumer,
             Class<?> payloadType) {
-        ISubscriptionClient subscriptionClient = this.senderFactory.getOrCreateSubscriptionClient(name, consumerGroup);
+        if (getListenerMode() == ListenerMode.BATCH) {
+            receivers.put(Tuple.of(name, consumerGroup), startBatchReceiver(name, consumerGroup,
+                    this.senderFactory.createSubscriptionReceiver(name, consumerGroup), consumer, payloadType));
+            return;
+        }
 
-        String threadPrefix = String.format("%s-%s-handler", name, consumerGroup);
+        if (isCompletionCoalesced()) {
+            receivers.put(Tuple.of(name, consumerGroup), startRecordReceiver(name, consumerGroup,
+                    this.senderFactory.createSubscriptionReceiver(name, consumerGroup), consumer, payloadType));
+            return;
+        }
+
+        ISubscriptionClient subscriptionClient = this.senderFactory.getOrCreateSubscriptionClient(name, consumerGroup);
+        String entityName = String.format("%s/%s", name, consumerGroup);
 
         try {
             subscriptionClient.setPrefetchCount(this.clientConfig.getPrefetchCount());
             subscriptionClient
-                    .registerMessageHandler(new TopicMessageHandler(consumer, payloadType, subscriptionClient),
-                            buildHandlerOptions(), buildHandlerExectutors(threadPrefix));
+                    .registerMessageHandler(new TopicMessageHandler(limitConcurrency(entityName,
+                                    this.messagingMetrics.recordHandler(name, consumerGroup, consumer)), payloadType,
+                                    subscriptionClient), buildHandlerOptions(),
+                            buildHandlerExecutor(entityName));
         } catch (ServiceBusException | InterruptedException e) {
             log.error("Failed to register topic message handler", e);
             throw new ServiceBusRuntimeException("Failed to register topic message handler", e);
@@ -89,6 +115,13 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
         this.clientConfig = clientConfig;
     }
 
+    @Override
+    public synchronized void destroy() {
+        receivers.values().forEach(AbstractServiceBusReceiver::stop);
+        receivers.clear();
+        super.destroy();
+    }
+
     protected class TopicMessageHandler<U> extends ServiceBusMessageHandler<U> {
         private final ISubscriptionClient subscriptionClient;
 
@@ -101,7 +134,8 @@ public class ServiceBusTopicTemplate extends ServiceBusTemplate<ServiceBusTopicC
 
         @Override
         protected CompletableFuture<Void> success(UUID uuid) {
-            return subscriptionClient.completeAsync(uuid);
+            return messagingMetrics.recordCheckpoint(subscriptionClient.getTopicName(),
+                    subscriptionClient.getSubscriptionName(), null, () -> subscriptionClient.completeAsync(uuid));
         }
 
         @Override
@@ -18,6 +18,9 @@ import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusTopic
 import com.microsoft.azure.spring.integration.servicebus.topic.ServiceBusTopicTemplate;
 import org.springframework.messaging.Message;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,6 +49,19 @@ public class ServiceBusTopicTestOperation extends ServiceBusTopicTemplate {
         return future;
     }
 
+    @Override
+    public <U> CompletableFuture<Void> sendAsync(String name, Collection<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        messages.forEach(m -> sendAsync(name, m, partitionSupplier));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public <U> List<CompletableFuture<Void>> sendEachAsync(String name, List<Message<U>> messages,
+            PartitionSupplier partitionSupplier) {
+        return Collections.nCopies(messages.size(), sendAsync(name, messages, partitionSupplier));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     protected void internalSubscribe(String name, String consumerGroup, Consumer<Message<?>> consumer,
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("queue", 2, 8);
+
+    @Test
+    public void testLimitGrowsWithBacklog() {
+        for (int i = 0; i < 20; i++) {
+            this.limiter.onSample(LATENCY, false, true);
+        }
+
+        assertEquals(8, this.limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitNotGrowingWithoutBacklog() {
+        for (int i = 0; i < 20; i++) {
+            this.limiter.acquire();
+            this.limiter.release(LATENCY, false, false);
+        }
+
+        assertEquals(2, this.limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyRises() {
+        for (int i = 0; i < 20; i++) {
+            this.limiter.onSample(LATENCY, false, true);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            this.limiter.onSample(LATENCY * 10, false, true);
+        }
+
+        assertEquals(2, this.limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitShrinksOnFailure() {
+        for (int i = 0; i < 20; i++) {
+            this.limiter.onSample(LATENCY, false, true);
+        }
+
+        this.limiter.onSample(LATENCY, true, true);
+        assertEquals(7, this.limiter.getLimit());
+    }
+
+    @Test
+    public void testWrapShrinksLimitOnFailure() {
+        for (int i = 0; i < 20; i++) {
+            this.limiter.onSample(LATENCY, false, true);
+        }
+
+        Consumer<Message<?>> consumer = this.limiter.wrap(m -> {
+            throw new IllegalStateException("failed");
+        }, () -> true);
+
+        try {
+            consumer.accept(new GenericMessage<>("payload"));
+            fail("Consumer exception should be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals(7, this.limiter.getLimit());
+            assertEquals(0, this.limiter.getInFlight());
+        }
+    }
+}
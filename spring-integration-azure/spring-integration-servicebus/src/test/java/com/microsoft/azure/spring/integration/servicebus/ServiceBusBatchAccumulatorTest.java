@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.spring.integration.core.api.BatchConfig;
+import com.microsoft.azure.spring.integration.core.api.BatchSendOperation;
+import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ServiceBusBatchAccumulatorTest {
+    private static final String DESTINATION = "queue";
+
+    @Mock
+    private BatchSendOperation batchSendOperation;
+
+    private ServiceBusBatchAccumulator accumulator;
+
+    @Before
+    public void setUp() {
+        when(this.batchSendOperation.sendAsync(eq(DESTINATION), anyCollection(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(this.batchSendOperation.sendEachAsync(eq(DESTINATION), anyList(), any())).thenCallRealMethod();
+    }
+
+    @After
+    public void tearDown() {
+        this.accumulator.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMessagesSentTogetherAfterLinger() throws Exception {
+        this.accumulator = new ServiceBusBatchAccumulator(this.batchSendOperation,
+                BatchConfig.builder().lingerTime(Duration.ofMillis(50)).build());
+
+        CompletableFuture<Void> first = this.accumulator.sendAsync(DESTINATION, message("a"), null);
+        CompletableFuture<Void> second = this.accumulator.sendAsync(DESTINATION, message("b"), null);
+        assertFalse(first.isDone());
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Collection<Message<Object>>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(this.batchSendOperation).sendAsync(eq(DESTINATION), captor.capture(), any());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    public void testFullBatchSentBeforeLinger() throws Exception {
+        this.accumulator = new ServiceBusBatchAccumulator(this.batchSendOperation,
+                BatchConfig.builder().lingerTime(Duration.ofMinutes(1)).maxBatchSizeInBytes(2).build());
+
+        this.accumulator.sendAsync(DESTINATION, message("a"), null);
+        this.accumulator.sendAsync(DESTINATION, message("b"), null).get(5, TimeUnit.SECONDS);
+
+        verify(this.batchSendOperation, times(1)).sendAsync(eq(DESTINATION), anyCollection(), any());
+    }
+
+    @Test
+    public void testBatchedPerPartitionKey() throws Exception {
+        this.accumulator = new ServiceBusBatchAccumulator(this.batchSendOperation,
+                BatchConfig.builder().lingerTime(Duration.ofMinutes(1)).build());
+
+        this.accumulator.sendAsync(DESTINATION, message("a"), partitionKey("1"));
+        this.accumulator.sendAsync(DESTINATION, message("b"), partitionKey("2"));
+        this.accumulator.flush();
+
+        verify(this.batchSendOperation, times(2)).sendAsync(eq(DESTINATION), anyCollection(), any());
+    }
+
+    @Test
+    public void testFailedSplitOnlyFailsItsMessages() throws Exception {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ServiceBusRuntimeException("failed"));
+        doReturn(Arrays.asList(CompletableFuture.completedFuture(null), failed)).when(this.batchSendOperation)
+                .sendEachAsync(eq(DESTINATION), anyList(), any());
+        this.accumulator = new ServiceBusBatchAccumulator(this.batchSendOperation,
+                BatchConfig.builder().lingerTime(Duration.ofMinutes(1)).build());
+
+        CompletableFuture<Void> first = this.accumulator.sendAsync(DESTINATION, message("a"), null);
+        CompletableFuture<Void> second = this.accumulator.sendAsync(DESTINATION, message("b"), null);
+        this.accumulator.flush();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+    private static Message<String> message(String payload) {
+        return new GenericMessage<>(payload);
+    }
+
+    private static PartitionSupplier partitionKey(String key) {
+        PartitionSupplier partitionSupplier = new PartitionSupplier();
+        partitionSupplier.setPartitionKey(key);
+        return partitionSupplier;
+    }
+}
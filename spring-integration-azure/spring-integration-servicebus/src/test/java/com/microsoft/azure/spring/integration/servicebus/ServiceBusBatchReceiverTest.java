@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ServiceBusBatchReceiverTest {
+    private static final String NAME = "queue";
+
+    @Mock
+    private IMessageReceiver receiver;
+
+    private ServiceBusHandlerExecutor handlerExecutor = new ServiceBusHandlerExecutor("handler", 4,
+            MessagingMetrics.NOOP);
+
+    private ServiceBusBatchReceiver batchReceiver;
+
+    private List<IMessage> messages = Arrays.asList(new com.microsoft.azure.servicebus.Message("a"),
+            new com.microsoft.azure.servicebus.Message("b"));
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        CompletableFuture<Collection<IMessage>> batch = CompletableFuture.completedFuture(this.messages);
+        when(this.receiver.receiveBatchAsync(anyInt(), any(Duration.class))).thenReturn(batch).thenAnswer(i -> {
+            Thread.sleep(10);
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        });
+        when(this.receiver.completeBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        when(this.receiver.abandonAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(this.receiver.closeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @After
+    public void tearDown() {
+        if (this.batchReceiver != null) {
+            this.batchReceiver.stop();
+            verify(this.receiver, times(1)).closeAsync();
+        }
+
+        this.handlerExecutor.destroy();
+    }
+
+    @Test
+    public void testBatchCompletedInRecordMode() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        start(CheckpointMode.RECORD, m -> {
+            assertEquals(Arrays.asList("a", "b"), m.getPayload());
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(this.receiver, timeout(1000)).completeBatchAsync(this.messages);
+        verify(this.receiver, never()).abandonAsync(any());
+    }
+
+    @Test
+    public void testBatchAbandonedWhenConsumerFails() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        start(CheckpointMode.RECORD, m -> {
+            latch.countDown();
+            throw new IllegalStateException("fail");
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(this.receiver, timeout(1000).times(2)).abandonAsync(any());
+        verify(this.receiver, never()).completeBatchAsync(anyCollection());
+    }
+
+    @Test
+    public void testBatchNotCompletedInManualMode() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        start(CheckpointMode.MANUAL, m -> latch.countDown());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(this.receiver, after(100).never()).completeBatchAsync(anyCollection());
+    }
+
+    @Test
+    public void testBatchAbandonedWhenConsumerFailsInManualMode() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        start(CheckpointMode.MANUAL, m -> {
+            latch.countDown();
+            throw new IllegalStateException("fail");
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        verify(this.receiver, timeout(1000).times(2)).abandonAsync(any());
+    }
+
+    @Test
+    public void testStopLeavesSharedExecutorRunning() throws Exception {
+        start(CheckpointMode.RECORD, m -> {
+        });
+        this.batchReceiver.stop();
+        this.batchReceiver = null;
+        verify(this.receiver, times(1)).closeAsync();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        this.handlerExecutor.forEntity("other", 1).execute(latch::countDown);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReceiveBacksOffAfterFailure() throws Exception {
+        CompletableFuture<Collection<IMessage>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("fail"));
+        when(this.receiver.receiveBatchAsync(anyInt(), any(Duration.class))).thenReturn(failed);
+        start(CheckpointMode.RECORD, m -> {
+        });
+
+        Thread.sleep(500);
+        // Backoff of 100, 200 and 400 ms allows at most 4 receives in 500 ms
+        verify(this.receiver, atMost(4)).receiveBatchAsync(anyInt(), any(Duration.class));
+    }
+
+    @Test
+    public void testBatchSizeAdaptedToProcessingTime() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100, Duration.ofMillis(100));
+        assertEquals(100, batchSize.get());
+
+        batchSize.record(10, TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(10, batchSize.get());
+
+        batchSize.record(10, TimeUnit.SECONDS.toNanos(100));
+        assertEquals(1, batchSize.get());
+    }
+
+    private void start(CheckpointMode checkpointMode, Consumer<Message<?>> consumer) {
+        this.batchReceiver = new ServiceBusBatchReceiver(NAME, this.receiver, consumer, String.class,
+                CheckpointConfig.builder().checkpointMode(checkpointMode).build(), new ServiceBusMessageConverter(),
+                ServiceBusClientConfig.builder().setConcurrency(1).build(), this.handlerExecutor.forEntity(NAME, 1));
+        this.batchReceiver.start();
+    }
+}
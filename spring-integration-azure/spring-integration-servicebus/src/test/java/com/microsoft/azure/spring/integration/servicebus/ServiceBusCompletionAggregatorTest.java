@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServiceBusCompletionAggregatorTest {
+    private final List<Collection<IMessage>> batches = new CopyOnWriteArrayList<>();
+    private final List<UUID> singles = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private ServiceBusCompletionAggregator aggregator;
+
+    @After
+    public void tearDown() {
+        this.aggregator.destroy();
+        this.scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testBatchCompletedWhenFull() throws Exception {
+        this.aggregator = aggregator(CompletableFuture.completedFuture(null), null, Duration.ofHours(1));
+
+        CompletableFuture<Void> first = this.aggregator.complete(message());
+        assertFalse(first.isDone());
+
+        CompletableFuture<Void> second = this.aggregator.complete(message());
+        second.get(1, TimeUnit.SECONDS);
+        assertTrue(first.isDone());
+        assertEquals(1, this.batches.size());
+        assertEquals(2, this.batches.get(0).size());
+        assertTrue(this.singles.isEmpty());
+    }
+
+    @Test
+    public void testSingleCompletedAfterLinger() throws Exception {
+        this.aggregator = aggregator(CompletableFuture.completedFuture(null), null, Duration.ofMillis(20));
+
+        IMessage message = message();
+        this.aggregator.complete(message).get(1, TimeUnit.SECONDS);
+        assertTrue(this.batches.isEmpty());
+        assertEquals(message.getLockToken(), this.singles.get(0));
+    }
+
+    @Test
+    public void testCompletedAtOnceAfterSchedulerShutdown() throws Exception {
+        this.aggregator = aggregator(CompletableFuture.completedFuture(null), null, Duration.ofHours(1));
+        this.scheduler.shutdown();
+
+        this.aggregator.complete(message()).get(1, TimeUnit.SECONDS);
+        assertEquals(1, this.singles.size());
+    }
+
+    @Test
+    public void testFallbackToSingleCompletionOnBatchFailure() throws Exception {
+        CompletableFuture<Void> batchFailure = new CompletableFuture<>();
+        batchFailure.completeExceptionally(new IllegalStateException("batch"));
+        IMessage expired = message();
+        this.aggregator = aggregator(batchFailure, expired.getLockToken(), Duration.ofHours(1));
+
+        CompletableFuture<Void> first = this.aggregator.complete(message());
+        CompletableFuture<Void> second = this.aggregator.complete(expired);
+
+        first.get(1, TimeUnit.SECONDS);
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(2, this.singles.size());
+    }
+
+    private ServiceBusCompletionAggregator aggregator(CompletableFuture<Void> batchResult, UUID failedLockToken,
+            Duration lingerTime) {
+        return new ServiceBusCompletionAggregator("queue", messages -> {
+            this.batches.add(messages);
+            return batchResult;
+        }, lockToken -> {
+            this.singles.add(lockToken);
+            CompletableFuture<Void> future = new CompletableFuture<>();
+
+            if (lockToken.equals(failedLockToken)) {
+                future.completeExceptionally(new IllegalStateException("lock lost"));
+            } else {
+                future.complete(null);
+            }
+
+            return future;
+        }, 2, lingerTime, this.scheduler);
+    }
+
+    private static IMessage message() {
+        IMessage message = mock(IMessage.class);
+        when(message.getLockToken()).thenReturn(UUID.randomUUID());
+        return message;
+    }
+}
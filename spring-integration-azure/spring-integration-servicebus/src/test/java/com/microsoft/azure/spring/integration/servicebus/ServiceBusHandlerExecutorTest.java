@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ServiceBusHandlerExecutorTest {
+    private ServiceBusHandlerExecutor handlerExecutor;
+
+    @Before
+    public void setUp() {
+        this.handlerExecutor = new ServiceBusHandlerExecutor("handler", 4, MessagingMetrics.NOOP);
+    }
+
+    @After
+    public void tearDown() {
+        this.handlerExecutor.destroy();
+    }
+
+    @Test
+    public void testEntityConcurrencyCapped() throws Exception {
+        ExecutorService entityExecutor = this.handlerExecutor.forEntity("queue", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            entityExecutor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                await(release);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        Thread.sleep(100);
+        assertEquals(2, this.handlerExecutor.getActiveCount());
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void testLoweredLimitKeepsTasksQueuedWithoutThread() throws Exception {
+        AtomicInteger limit = new AtomicInteger(2);
+        ExecutorService entityExecutor = this.handlerExecutor.forEntity("queue", limit::get);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunningQueued = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            boolean queued = i >= 2;
+            entityExecutor.execute(() -> {
+                int current = running.incrementAndGet();
+
+                if (queued) {
+                    maxRunningQueued.accumulateAndGet(current, Math::max);
+                }
+
+                await(release);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        Thread.sleep(100);
+        assertEquals(2, this.handlerExecutor.getActiveCount());
+        assertEquals(2, this.handlerExecutor.getQueueSize("queue"));
+        assertEquals(0, this.handlerExecutor.getQueueSize());
+
+        limit.set(1);
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunningQueued.get());
+    }
+
+    @Test
+    public void testEntitiesShareBoundedPool() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(6);
+
+        for (int i = 0; i < 3; i++) {
+            ExecutorService entityExecutor = this.handlerExecutor.forEntity("queue" + i, 2);
+            entityExecutor.execute(() -> {
+                await(release);
+                done.countDown();
+            });
+            entityExecutor.execute(() -> {
+                await(release);
+                done.countDown();
+            });
+        }
+
+        Thread.sleep(100);
+        assertEquals(4, this.handlerExecutor.getActiveCount());
+        assertEquals(2, this.handlerExecutor.getQueueSize());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testRejectedAfterDestroy() {
+        ExecutorService entityExecutor = this.handlerExecutor.forEntity("queue", 1);
+        this.handlerExecutor.destroy();
+        entityExecutor.execute(() -> {
+        });
+    }
+
+    @Test
+    public void testMetricsRemovedWithEntityAndPool() {
+        MessagingMetrics messagingMetrics = mock(MessagingMetrics.class);
+        ServiceBusHandlerExecutor executor = new ServiceBusHandlerExecutor("pool", 1, messagingMetrics);
+        executor.forEntity("queue", 1);
+        executor.forEntity("topic/group", 1);
+
+        executor.removeEntity("queue");
+        verify(messagingMetrics).removeExecutor("queue");
+
+        executor.destroy();
+        verify(messagingMetrics).removeExecutor("topic/group");
+        verify(messagingMetrics).removeExecutor("pool");
+        verify(messagingMetrics, times(1)).removeExecutor("queue");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IMessageReceiver;
+import com.microsoft.azure.spring.integration.core.AzureHeaders;
+import com.microsoft.azure.spring.integration.core.api.CheckpointConfig;
+import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
+import com.microsoft.azure.spring.integration.core.api.Checkpointer;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
+import com.microsoft.azure.spring.integration.servicebus.converter.ServiceBusMessageConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ServiceBusRecordReceiverTest {
+    private static final String NAME = "queue";
+
+    @Mock
+    private IMessageReceiver receiver;
+
+    private ServiceBusHandlerExecutor handlerExecutor = new ServiceBusHandlerExecutor("handler", 4,
+            MessagingMetrics.NOOP);
+
+    private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private ServiceBusRecordReceiver recordReceiver;
+
+    private List<IMessage> messages = Arrays.asList(new com.microsoft.azure.servicebus.Message("a"),
+            new com.microsoft.azure.servicebus.Message("b"));
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        CompletableFuture<Collection<IMessage>> batch = CompletableFuture.completedFuture(this.messages);
+        when(this.receiver.receiveBatchAsync(anyInt(), any(Duration.class))).thenReturn(batch).thenAnswer(i -> {
+            Thread.sleep(10);
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        });
+        when(this.receiver.completeBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        when(this.receiver.completeAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(this.receiver.abandonAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(this.receiver.closeAsync()).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @After
+    public void tearDown() {
+        if (this.recordReceiver != null) {
+            this.recordReceiver.stop();
+        }
+
+        this.handlerExecutor.destroy();
+        this.scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testMessagesCompletedTogetherOnSameReceiver() {
+        List<Object> payloads = new CopyOnWriteArrayList<>();
+        start(CheckpointMode.RECORD, 2, Duration.ofHours(1), m -> payloads.add(m.getPayload()));
+
+        verify(this.receiver, timeout(1000)).completeBatchAsync(this.messages);
+        verify(this.receiver, never()).completeAsync(any());
+        assertEquals(Arrays.asList("a", "b"), payloads);
+    }
+
+    @Test
+    public void testFailedMessageAbandonedAndOthersCompleted() {
+        start(CheckpointMode.RECORD, 2, Duration.ofMillis(10), m -> {
+            if ("a".equals(m.getPayload())) {
+                throw new IllegalStateException("fail");
+            }
+        });
+
+        verify(this.receiver, timeout(1000).times(1)).abandonAsync(any());
+        verify(this.receiver, timeout(1000).times(1)).completeAsync(any());
+        verify(this.receiver, never()).completeBatchAsync(anyCollection());
+    }
+
+    @Test
+    public void testFallbackToSingleCompletionOnBatchFailure() {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("fail"));
+        when(this.receiver.completeBatchAsync(anyCollection())).thenReturn(failed);
+        start(CheckpointMode.RECORD, 2, Duration.ofHours(1), m -> {
+        });
+
+        verify(this.receiver, timeout(1000).times(2)).completeAsync(any());
+    }
+
+    @Test
+    public void testManualCheckpointCompletedTogether() {
+        start(CheckpointMode.MANUAL, 2, Duration.ofHours(1),
+                m -> m.getHeaders().get(AzureHeaders.CHECKPOINTER, Checkpointer.class).success());
+
+        verify(this.receiver, timeout(1000)).completeBatchAsync(this.messages);
+    }
+
+    @Test
+    public void testBufferedCompletionFlushedOnStop() {
+        start(CheckpointMode.RECORD, 3, Duration.ofHours(1), m -> {
+        });
+        verify(this.receiver, timeout(1000).atLeast(2)).receiveBatchAsync(anyInt(), any(Duration.class));
+        verify(this.receiver, never()).completeBatchAsync(anyCollection());
+
+        this.recordReceiver.stop();
+        this.recordReceiver = null;
+
+        verify(this.receiver).completeBatchAsync(this.messages);
+        verify(this.receiver).closeAsync();
+    }
+
+    private void start(CheckpointMode checkpointMode, int completionBatchSize, Duration lingerTime,
+            Consumer<Message<?>> consumer) {
+        this.recordReceiver = new ServiceBusRecordReceiver(NAME, this.receiver, consumer, String.class,
+                CheckpointConfig.builder().checkpointMode(checkpointMode).build(), new ServiceBusMessageConverter(),
+                ServiceBusClientConfig.builder().setConcurrency(1).setCompletionBatchSize(completionBatchSize)
+                                      .setCompletionLingerTime(lingerTime).build(),
+                this.handlerExecutor.forEntity(NAME, 1), this.scheduler);
+        this.recordReceiver.start();
+    }
+}
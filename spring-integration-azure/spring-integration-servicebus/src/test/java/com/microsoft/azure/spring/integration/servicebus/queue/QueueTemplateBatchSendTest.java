@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See LICENSE in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.spring.integration.servicebus.queue;
+
+import com.microsoft.azure.servicebus.IMessage;
+import com.microsoft.azure.servicebus.IQueueClient;
+import com.microsoft.azure.spring.integration.servicebus.factory.ServiceBusQueueClientFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.GenericMessage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class QueueTemplateBatchSendTest {
+    private static final String QUEUE = "queue";
+
+    @Mock
+    private ServiceBusQueueClientFactory clientFactory;
+
+    @Mock
+    private IQueueClient queueClient;
+
+    private ServiceBusQueueTemplate template;
+
+    @Before
+    public void setUp() {
+        when(this.clientFactory.getOrCreateSender(QUEUE)).thenReturn(this.queueClient);
+        when(this.queueClient.sendBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null));
+        this.template = new ServiceBusQueueTemplate(this.clientFactory);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSplitAtMaxBatchSize() {
+        this.template.setMaxBatchSizeInBytes(1024);
+        List<Message<byte[]>> messages = Arrays.asList(message(400), message(400), message(400));
+
+        CompletableFuture<Void> future = this.template.sendAsync(QUEUE, messages);
+
+        assertTrue(future.isDone());
+        ArgumentCaptor<Collection<? extends IMessage>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(this.queueClient, times(2)).sendBatchAsync(captor.capture());
+        assertEquals(2, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSmallMessagesSentInOneBatch() {
+        this.template.sendAsync(QUEUE, Arrays.asList(message(10), message(10), message(10))).join();
+
+        ArgumentCaptor<Collection<? extends IMessage>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(this.queueClient).sendBatchAsync(captor.capture());
+        assertEquals(3, captor.getValue().size());
+    }
+
+    @Test
+    public void testEachMessageCompletedWithItsSplit() {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("failed"));
+        when(this.queueClient.sendBatchAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(null),
+                failed);
+        this.template.setMaxBatchSizeInBytes(1024);
+
+        List<CompletableFuture<Void>> futures =
+                this.template.sendEachAsync(QUEUE, Arrays.asList(message(400), message(400), message(400)), null);
+
+        assertFalse(futures.get(0).isCompletedExceptionally());
+        assertFalse(futures.get(1).isCompletedExceptionally());
+        assertTrue(futures.get(2).isCompletedExceptionally());
+    }
+
+    private static Message<byte[]> message(int size) {
+        return new GenericMessage<>(new byte[size]);
+    }
+}
@@ -11,6 +11,7 @@ import com.microsoft.azure.spring.integration.core.AzureHeaders;
 import com.microsoft.azure.spring.integration.core.api.CheckpointMode;
 import com.microsoft.azure.spring.integration.core.api.Checkpointer;
 import com.microsoft.azure.spring.integration.core.api.PartitionSupplier;
+import com.microsoft.azure.spring.integration.core.metrics.MessagingMetrics;
 import com.microsoft.azure.spring.integration.storage.queue.converter.StorageQueueMessageConverter;
 import com.microsoft.azure.spring.integration.storage.queue.factory.StorageQueueClientFactory;
 import com.microsoft.azure.spring.integration.storage.queue.util.StorageQueueHelper;
@@ -43,6 +44,8 @@ public class StorageQueueTemplate implements StorageQueueOperation {
 
     private CheckpointMode checkpointMode = CheckpointMode.RECORD;
 
+    private MessagingMetrics messagingMetrics = MessagingMetrics.NOOP;
+
     public StorageQueueTemplate(@NonNull StorageQueueClientFactory storageQueueClientFactory) {
         this.storageQueueClientFactory = storageQueueClientFactory;
         log.info("StorageQueueTemplate started with properties {}", buildProperties());
@@ -54,13 +57,14 @@ public class StorageQueueTemplate implements StorageQueueOperation {
         Assert.hasText(queueName, "queueName can't be null or empty");
         CloudQueueMessage cloudQueueMessage = messageConverter.fromMessage(message, CloudQueueMessage.class);
         CloudQueue cloudQueue = storageQueueClientFactory.getOrCreateQueueClient(queueName);
-        return CompletableFuture.runAsync(() -> {
-            try {
-                cloudQueue.addMessage(cloudQueueMessage);
-            } catch (StorageException e) {
-                throw new StorageQueueRuntimeException("Failed to send message to storage queue", e);
-            }
-        });
+        return messagingMetrics.recordSend(queueName, null, 1, sizeOf(cloudQueueMessage),
+                () -> CompletableFuture.runAsync(() -> {
+                    try {
+                        cloudQueue.addMessage(cloudQueueMessage);
+                    } catch (StorageException e) {
+                        throw new StorageQueueRuntimeException("Failed to send message to storage queue", e);
+                    }
+                }));
     }
 
     @Override
@@ -92,7 +96,8 @@ public class StorageQueueTemplate implements StorageQueueOperation {
     private CompletableFuture<Message<?>> receiveAsync(String queueName, int visibilityTimeoutInSeconds) {
         Assert.hasText(queueName, "queueName can't be null or empty");
 
-        return CompletableFuture.supplyAsync(() -> receiveMessage(queueName, visibilityTimeoutInSeconds));
+        return messagingMetrics.recordReceive(queueName, null,
+                () -> CompletableFuture.supplyAsync(() -> receiveMessage(queueName, visibilityTimeoutInSeconds)));
     }
 
     private Message<?> receiveMessage(String queueName, int visibilityTimeoutInSeconds) {
@@ -105,7 +110,8 @@ public class StorageQueueTemplate implements StorageQueueOperation {
         }
 
         Map<String, Object> headers = new HashMap<>();
-        Checkpointer checkpointer = new AzureCheckpointer(() -> checkpoint(cloudQueue, cloudQueueMessage));
+        Checkpointer checkpointer = new AzureCheckpointer(() -> messagingMetrics
+                .recordCheckpoint(queueName, null, null, () -> checkpoint(cloudQueue, cloudQueueMessage)));
 
         if (checkpointMode == CheckpointMode.RECORD) {
             checkpointer.success().whenComplete((v, t) -> checkpointHandler(cloudQueueMessage, queueName, t));
@@ -129,12 +135,26 @@ public class StorageQueueTemplate implements StorageQueueOperation {
         });
     }
 
+    private long sizeOf(CloudQueueMessage cloudQueueMessage) {
+        if (messagingMetrics == MessagingMetrics.NOOP) {
+            return 0;
+        }
+
+        try {
+            byte[] content = cloudQueueMessage.getMessageContentAsByte();
+            return content == null ? 0 : content.length;
+        } catch (StorageException e) {
+            return 0;
+        }
+    }
+
     private Map<String, Object> buildProperties() {
         Map<String, Object> properties = new HashMap<>();
 
         properties.put("visibilityTimeout", this.visibilityTimeoutInSeconds);
         properties.put("messagePayloadType", this.messagePayloadType);
         properties.put("checkpointMode", this.checkpointMode);
+        properties.put("messagingMetrics", this.messagingMetrics);
 
         return properties;
     }
@@ -181,4 +201,17 @@ public class StorageQueueTemplate implements StorageQueueOperation {
     public CheckpointMode getCheckpointMode() {
         return checkpointMode;
     }
+
+    public MessagingMetrics getMessagingMetrics() {
+        return messagingMetrics;
+    }
+
+    /**
+     * Record send, receive and checkpoint metrics. Set {@link MessagingMetrics#NOOP} to disable.
+     */
+    public void setMessagingMetrics(MessagingMetrics messagingMetrics) {
+        Assert.notNull(messagingMetrics, "messagingMetrics can't be null");
+        this.messagingMetrics = messagingMetrics;
+        log.info("StorageQueueTemplate messaging metrics becomes: {}", this.messagingMetrics);
+    }
 }
@@ -6,12 +6,25 @@
 
 package com.microsoft.azure.spring.integration.storage.queue.converter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.spring.integration.core.converter.AbstractAzureMessageConverter;
 import com.microsoft.azure.spring.integration.core.converter.ConversionException;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.queue.CloudQueueMessage;
 
 public class StorageQueueMessageConverter extends AbstractAzureMessageConverter<CloudQueueMessage> {
+
+    public StorageQueueMessageConverter() {
+        super();
+    }
+
+    /**
+     * @param objectMapper mapper to convert payload of other types than String and byte[] to and from JSON
+     */
+    public StorageQueueMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
     @Override
     protected byte[] getPayload(CloudQueueMessage azureMessage) {
         try {
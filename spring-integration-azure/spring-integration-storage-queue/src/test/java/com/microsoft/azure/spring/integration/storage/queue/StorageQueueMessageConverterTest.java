@@ -26,4 +26,9 @@ public class StorageQueueMessageConverterTest extends AzureMessageConverterTest<
     protected Class<CloudQueueMessage> getTargetClass() {
         return CloudQueueMessage.class;
     }
+
+    @Override
+    protected boolean carriesContentType() {
+        return false;
+    }
 }